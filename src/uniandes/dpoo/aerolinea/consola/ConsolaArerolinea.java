@@ -1,11 +1,13 @@
 package uniandes.dpoo.aerolinea.consola;
 
+import java.io.File;
 import java.io.IOException;
 
 import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
 import uniandes.dpoo.aerolinea.modelo.Aerolinea;
 import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
 import uniandes.dpoo.aerolinea.persistencia.TipoInvalidoException;
+import uniandes.dpoo.aerolinea.reportes.ReporteAerolinea;
 
 /**
  * Consola de la aplicación para probar la carga de datos y el funcionamiento básico.
@@ -27,9 +29,11 @@ public class ConsolaArerolinea extends ConsolaBasica
             unaAerolinea.cargarAerolinea( "./datos/aerolinea.json", CentralPersistencia.JSON );
             
             // 2. CARGAR TIQUETES Y CLIENTES
+            // Si los tiquetes se salvaron en particiones, las particiones se cargan en paralelo
 
-            System.out.println("Cargando tiquetes y clientes desde tiquetes.json...");
-            unaAerolinea.cargarTiquetes( "./datos/tiquetes.json", CentralPersistencia.JSON );
+            boolean particionado = new File( "./datos/tiquetes.json.parte.0" ).exists( );
+            System.out.println("Cargando tiquetes y clientes desde tiquetes.json" + ( particionado ? " y sus particiones..." : "..." ));
+            unaAerolinea.cargarTiquetes( "./datos/tiquetes.json", particionado ? CentralPersistencia.PARTITIONED : CentralPersistencia.JSON );
 
             // 3. VERIFICACIÓN DE CARGA 
             System.out.println("\n--- Resumen de Carga ---");
@@ -38,6 +42,14 @@ public class ConsolaArerolinea extends ConsolaBasica
             System.out.println("Clientes registrados: " + unaAerolinea.getClientes().size());
             System.out.println("Tiquetes totales: " + unaAerolinea.getTiquetes().size());
             System.out.println("------------------------\n");
+
+            // 4. REPORTE DE INGRESOS
+            ReporteAerolinea reporte = new ReporteAerolinea( unaAerolinea );
+            System.out.println("--- Reporte de Ingresos ---");
+            System.out.println("Ingresos totales: " + reporte.getIngresosTotales());
+            System.out.println("Ingresos en temporada alta: " + reporte.getIngresosTemporada( true ));
+            System.out.println("Ingresos en temporada baja: " + reporte.getIngresosTemporada( false ));
+            System.out.println("---------------------------\n");
             
             System.out.println("La aplicación se ejecutó correctamente.");
 
@@ -1,19 +1,29 @@
 package uniandes.dpoo.aerolinea.modelo;
 import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifas; // Importa la interfaz (o clase abstracta)
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalendarioTemporadas;
 import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifasTemporadaAlta;
 import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifasTemporadaBaja;
 
 import java.io.IOException;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 
+import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
 import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
 import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
 import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.persistencia.BitacoraOperaciones;
 import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
 import uniandes.dpoo.aerolinea.persistencia.IPersistenciaAerolinea;
 import uniandes.dpoo.aerolinea.persistencia.IPersistenciaTiquetes;
@@ -22,6 +32,10 @@ import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
 
 /**
  * En esta clase se organizan todos los aspectos relacionados con una Aerolínea.
+ * 
+ * Al registrar un aeropuerto, una ruta, un avión, un vuelo o un cliente, la aerolínea le asigna un identificador numérico consecutivo (ver por ejemplo
+ * {@link Ruta#getId()}), con el que se puede buscar en tiempo constante y con el que se pueden indexar arreglos o conjuntos de bits. Cada objeto pertenece a
+ * una sola aerolínea.
  */
 public class Aerolinea
 {
@@ -30,31 +44,227 @@ public class Aerolinea
     private List<Vuelo> vuelos;
     private Map<String, Cliente> clientes;
 
+    /**
+     * Los aeropuertos de la aerolínea: hay un solo objeto por cada código, compartido por todas las rutas que salen o llegan a ese aeropuerto
+     */
+    private RegistroAeropuertos aeropuertos;
+
+    /**
+     * Las rutas, los aviones y los vuelos registrados, cada uno en la posición de su identificador
+     */
+    private List<Ruta> rutasPorId;
+    private List<Avion> avionesPorId;
+    private List<Vuelo> vuelosPorId;
+
+    /**
+     * Los clientes registrados, en la posición de su identificador (ver {@link Cliente#getId()})
+     */
+    private List<Cliente> clientesPorId;
+
+    /**
+     * Los tiquetes de todos los vuelos de la aerolínea guardados por columnas, para calcular totales sin recorrer los objetos
+     */
+    private TablaTiquetes tablaTiquetes;
+
+    /**
+     * Los totales de los tiquetes por vuelo, por ruta y por tipo de cliente, que se mantienen con cada venta
+     */
+    private AgregadosTiquetes agregados;
+
+    /**
+     * Índice de los vuelos por la llave compuesta (código de ruta, fecha). Ver {@link #llaveVuelo(String, String)}.
+     */
+    private Map<String, Vuelo> indiceVuelos;
+
+    /**
+     * Vuelos de cada ruta ordenados por fecha. Como las fechas tienen el formato "YYYY-MM-DD", el orden lexicográfico coincide con el cronológico.
+     */
+    private Map<String, NavigableMap<String, Vuelo>> vuelosPorRuta;
+
+    /**
+     * Índice de los aviones por su nombre
+     */
+    private Map<String, Avion> avionesPorNombre;
+
+    /**
+     * Fechas en las que cada avión (identificado por su nombre) ya tiene un vuelo programado
+     */
+    private Map<String, Set<String>> fechasOcupadasAvion;
+
+    /**
+     * El calendario que indica cuáles fechas son de temporada alta
+     */
+    private CalendarioTemporadas calendario;
+
+    /**
+     * Las calculadoras de tarifas de la aerolínea. Cada aerolínea tiene las suyas, así que las tarifas que guardan sólo hacen referencia a rutas de la
+     * aerolínea y se liberan con ella.
+     */
+    private final CalculadoraTarifas calculadoraAlta = new CalculadoraTarifasTemporadaAlta( );
+    private final CalculadoraTarifas calculadoraBaja = new CalculadoraTarifasTemporadaBaja( );
+
+    /**
+     * La bitácora donde se registran las operaciones que modifican la aerolínea. Puede ser null, si las operaciones no se registran.
+     */
+    private BitacoraOperaciones bitacora;
+
+    /**
+     * La generación de la salvada base de tiquetes con respecto a la cual se están marcando los vuelos, clientes y tiquetes modificados (ver
+     * {@link uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesIncremental}). Es 0 si los tiquetes no se han cargado ni salvado de forma incremental.
+     */
+    private long generacionTiquetes;
+
     public Aerolinea( )
     {
         aviones = new LinkedList<Avion>( );
         rutas = new HashMap<String, Ruta>( );
         vuelos = new LinkedList<Vuelo>( );
         clientes = new HashMap<String, Cliente>( );
+        aeropuertos = new RegistroAeropuertos( );
+        rutasPorId = new ArrayList<Ruta>( );
+        avionesPorId = new ArrayList<Avion>( );
+        vuelosPorId = new ArrayList<Vuelo>( );
+        clientesPorId = new ArrayList<Cliente>( );
+        tablaTiquetes = new TablaTiquetes( this );
+        agregados = new AgregadosTiquetes( this );
+        indiceVuelos = new HashMap<String, Vuelo>( );
+        vuelosPorRuta = new HashMap<String, NavigableMap<String, Vuelo>>( );
+        avionesPorNombre = new HashMap<String, Avion>( );
+        fechasOcupadasAvion = new HashMap<String, Set<String>>( );
+        calendario = CalendarioTemporadas.crearCalendarioPorDefecto( );
     }
 
     // ************************************************************************************
     // Métodos de manipulación básica
     // ************************************************************************************
 
-    public void agregarRuta( Ruta ruta )
+    /**
+     * Agrega una ruta a la aerolínea. Los aeropuertos de la ruta se registran en la aerolínea: si ya había aeropuertos registrados con los mismos códigos, la
+     * ruta queda usando esos aeropuertos.
+     * 
+     * Si ya había una ruta con el mismo código, la nueva ruta la reemplaza y recibe su identificador.
+     * @param ruta La ruta que se va a agregar
+     * @throws AeropuertoDuplicadoException Si alguno de los aeropuertos de la ruta tiene el mismo código que un aeropuerto registrado pero información distinta
+     * @throws IllegalArgumentException Si la ruta ya está registrada en otra aerolínea
+     */
+    public void agregarRuta( Ruta ruta ) throws AeropuertoDuplicadoException
     {
-        this.rutas.put( ruta.getCodigoRuta( ), ruta );
+        if( ruta.getId( ) >= 0 && getRuta( ruta.getId( ) ) != ruta )
+            throw new IllegalArgumentException( "La ruta " + ruta.getCodigoRuta( ) + " ya está registrada en otra aerolínea" );
+
+        Aeropuerto origen = aeropuertos.registrarAeropuerto( ruta.getOrigen( ) );
+        Aeropuerto destino = aeropuertos.registrarAeropuerto( ruta.getDestino( ) );
+        if( origen != ruta.getOrigen( ) || destino != ruta.getDestino( ) )
+            ruta.usarAeropuertosRegistrados( origen, destino );
+
+        Ruta anterior = this.rutas.put( ruta.getCodigoRuta( ), ruta );
+        if( anterior == null )
+        {
+            ruta.asignarId( rutasPorId.size( ) );
+            rutasPorId.add( ruta );
+            agregados.registrarRuta( ruta );
+        }
+        else
+        {
+            ruta.asignarId( anterior.getId( ) );
+            rutasPorId.set( anterior.getId( ), ruta );
+
+            // Las tarifas calculadas para la definición anterior de la ruta ya no sirven
+            calculadoraAlta.invalidar( anterior );
+            calculadoraBaja.invalidar( anterior );
+        }
     }
 
+    /**
+     * Registra un aeropuerto en la aerolínea, aunque todavía no haya rutas que lo usen
+     * @return El aeropuerto que queda registrado con el código del aeropuerto
+     * @throws AeropuertoDuplicadoException Si ya había un aeropuerto registrado con el mismo código pero información distinta
+     */
+    public Aeropuerto agregarAeropuerto( Aeropuerto aeropuerto ) throws AeropuertoDuplicadoException
+    {
+        return aeropuertos.registrarAeropuerto( aeropuerto );
+    }
+
+    public Aeropuerto getAeropuerto( String codigoAeropuerto )
+    {
+        return aeropuertos.getAeropuerto( codigoAeropuerto );
+    }
+
+    /**
+     * Retorna el aeropuerto con el identificador indicado, o null si no existe
+     */
+    public Aeropuerto getAeropuerto( int idAeropuerto )
+    {
+        return aeropuertos.getAeropuerto( idAeropuerto );
+    }
+
+    public Collection<Aeropuerto> getAeropuertos( )
+    {
+        return aeropuertos.getAeropuertos( );
+    }
+
+    public RegistroAeropuertos getRegistroAeropuertos( )
+    {
+        return aeropuertos;
+    }
+
+    /**
+     * Agrega un avión a la aerolínea. Si ya había un avión con el mismo nombre, las búsquedas por nombre y por identificador retornan el avión nuevo, que
+     * recibe el identificador del anterior.
+     * @throws IllegalArgumentException Si el avión ya está registrado en otra aerolínea
+     */
     public void agregarAvion( Avion avion )
     {
+        if( avion.getId( ) >= 0 && getAvion( avion.getId( ) ) != avion )
+            throw new IllegalArgumentException( "El avión " + avion.getNombre( ) + " ya está registrado en otra aerolínea" );
+
         this.aviones.add( avion );
+        Avion anterior = this.avionesPorNombre.put( avion.getNombre( ), avion );
+        if( anterior == null )
+        {
+            avion.asignarId( avionesPorId.size( ) );
+            avionesPorId.add( avion );
+        }
+        else
+        {
+            avion.asignarId( anterior.getId( ) );
+            avionesPorId.set( anterior.getId( ), avion );
+        }
+    }
+
+    public Avion getAvion( String nombreAvion )
+    {
+        return avionesPorNombre.get( nombreAvion );
     }
 
+    /**
+     * Retorna el avión con el identificador indicado, o null si no existe
+     */
+    public Avion getAvion( int idAvion )
+    {
+        return idAvion >= 0 && idAvion < avionesPorId.size( ) ? avionesPorId.get( idAvion ) : null;
+    }
+
+    /**
+     * Registra un cliente en la aerolínea. Si ya había un cliente con el mismo identificador, el nuevo cliente lo reemplaza y recibe su identificador numérico.
+     * @throws IllegalArgumentException Si el cliente ya está registrado en otra aerolínea
+     */
     public void agregarCliente( Cliente cliente )
     {
-        this.clientes.put( cliente.getIdentificador( ), cliente );
+        if( cliente.getId( ) >= 0 && getCliente( cliente.getId( ) ) != cliente )
+            throw new IllegalArgumentException( "El cliente " + cliente.getIdentificador( ) + " ya está registrado en otra aerolínea" );
+
+        Cliente anterior = this.clientes.put( cliente.getIdentificador( ), cliente );
+        if( anterior == null )
+        {
+            cliente.asignarId( clientesPorId.size( ) );
+            clientesPorId.add( cliente );
+        }
+        else
+        {
+            cliente.asignarId( anterior.getId( ) );
+            clientesPorId.set( anterior.getId( ), cliente );
+        }
     }
 
     public boolean existeCliente( String identificadorCliente )
@@ -67,6 +277,14 @@ public class Aerolinea
         return this.clientes.get( identificadorCliente );
     }
 
+    /**
+     * Retorna el cliente con el identificador numérico indicado, o null si no existe
+     */
+    public Cliente getCliente( int idCliente )
+    {
+        return idCliente >= 0 && idCliente < clientesPorId.size( ) ? clientesPorId.get( idCliente ) : null;
+    }
+
     public Collection<Avion> getAviones( )
     {
         return aviones;
@@ -82,6 +300,14 @@ public class Aerolinea
         return rutas.get( codigoRuta );
     }
 
+    /**
+     * Retorna la ruta con el identificador indicado, o null si no existe
+     */
+    public Ruta getRuta( int idRuta )
+    {
+        return idRuta >= 0 && idRuta < rutasPorId.size( ) ? rutasPorId.get( idRuta ) : null;
+    }
+
     public Collection<Vuelo> getVuelos( )
     {
         return vuelos;
@@ -92,14 +318,149 @@ public class Aerolinea
      */
     public Vuelo getVuelo( String codigoRuta, String fechaVuelo )
     {
-        for (Vuelo vuelo : vuelos)
+        return indiceVuelos.get( llaveVuelo( codigoRuta, fechaVuelo ) );
+    }
+
+    /**
+     * Retorna el vuelo con el identificador indicado, o null si no existe
+     */
+    public Vuelo getVuelo( int idVuelo )
+    {
+        return idVuelo >= 0 && idVuelo < vuelosPorId.size( ) ? vuelosPorId.get( idVuelo ) : null;
+    }
+
+    /**
+     * Retorna los vuelos programados para una ruta, ordenados por fecha.
+     */
+    public Collection<Vuelo> getVuelosRuta( String codigoRuta )
+    {
+        NavigableMap<String, Vuelo> vuelosRuta = vuelosPorRuta.get( codigoRuta );
+        if( vuelosRuta == null )
+            return Collections.emptyList( );
+        return Collections.unmodifiableCollection( vuelosRuta.values( ) );
+    }
+
+    /**
+     * Retorna los vuelos de una ruta cuya fecha está entre fechaInicial y fechaFinal (ambas incluidas), ordenados por fecha.
+     * 
+     * La consulta sólo recorre los vuelos de la ruta que están dentro del rango.
+     */
+    public Collection<Vuelo> getVuelosRuta( String codigoRuta, String fechaInicial, String fechaFinal )
+    {
+        NavigableMap<String, Vuelo> vuelosRuta = vuelosPorRuta.get( codigoRuta );
+        if( vuelosRuta == null || fechaInicial.compareTo( fechaFinal ) > 0 )
+            return Collections.emptyList( );
+        return Collections.unmodifiableCollection( vuelosRuta.subMap( fechaInicial, true, fechaFinal, true ).values( ) );
+    }
+
+    /**
+     * Construye la llave con la que se indexa un vuelo a partir del código de su ruta y de su fecha.
+     */
+    private static String llaveVuelo( String codigoRuta, String fecha )
+    {
+        return codigoRuta + "@" + fecha;
+    }
+
+    /**
+     * Le asigna su identificador y la tabla de tiquetes a un vuelo recién programado, y lo registra en los índices por (ruta, fecha), por ruta y en la ocupación de su avión.
+     */
+    private void indexarVuelo( Vuelo vuelo )
+    {
+        vuelo.asignarId( vuelosPorId.size( ) );
+        vuelo.asignarTablaTiquetes( tablaTiquetes, agregados );
+        vuelosPorId.add( vuelo );
+        agregados.registrarVuelo( vuelo );
+
+        String codigoRuta = vuelo.getRuta( ).getCodigoRuta( );
+        fechasOcupadasAvion( vuelo.getAvion( ).getNombre( ) ).add( vuelo.getFecha( ) );
+
+        indiceVuelos.put( llaveVuelo( codigoRuta, vuelo.getFecha( ) ), vuelo );
+
+        NavigableMap<String, Vuelo> vuelosRuta = vuelosPorRuta.get( codigoRuta );
+        if( vuelosRuta == null )
         {
-            if (vuelo.getRuta().getCodigoRuta().equals(codigoRuta) && vuelo.getFecha().equals(fechaVuelo))
-            {
-                return vuelo;
-            }
+            vuelosRuta = new TreeMap<String, Vuelo>( );
+            vuelosPorRuta.put( codigoRuta, vuelosRuta );
+        }
+        vuelosRuta.put( vuelo.getFecha( ), vuelo );
+    }
+
+    /**
+     * Retorna el conjunto de fechas en las que un avión ya está ocupado, creándolo si todavía no existe.
+     */
+    private Set<String> fechasOcupadasAvion( String nombreAvion )
+    {
+        Set<String> fechas = fechasOcupadasAvion.get( nombreAvion );
+        if( fechas == null )
+        {
+            fechas = new HashSet<String>( );
+            fechasOcupadasAvion.put( nombreAvion, fechas );
         }
-        return null;
+        return fechas;
+    }
+
+    /**
+     * Indica si un avión ya tiene un vuelo programado en una fecha.
+     */
+    public boolean estaOcupadoAvion( String nombreAvion, String fecha )
+    {
+        Set<String> fechas = fechasOcupadasAvion.get( nombreAvion );
+        return fechas != null && fechas.contains( fecha );
+    }
+
+    public CalendarioTemporadas getCalendario( )
+    {
+        return calendario;
+    }
+
+    /**
+     * Cambia el calendario con el que se decide si la fecha de un vuelo es de temporada alta o de temporada baja.
+     */
+    public void setCalendario( CalendarioTemporadas calendario )
+    {
+        this.calendario = calendario;
+    }
+
+    public BitacoraOperaciones getBitacora( )
+    {
+        return bitacora;
+    }
+
+    /**
+     * Cambia la bitácora donde se registran las ventas, la programación de vuelos, los vuelos realizados y el uso de tiquetes.
+     *
+     * La bitácora se debe asociar después de reproducir las operaciones de la bitácora anterior (ver {@link BitacoraOperaciones#reproducir(String, Aerolinea)}).
+     * @param bitacora La nueva bitácora, o null para dejar de registrar las operaciones
+     */
+    public void setBitacora( BitacoraOperaciones bitacora )
+    {
+        this.bitacora = bitacora;
+    }
+
+    public long getGeneracionTiquetes( )
+    {
+        return generacionTiquetes;
+    }
+
+    public void setGeneracionTiquetes( long generacionTiquetes )
+    {
+        this.generacionTiquetes = generacionTiquetes;
+    }
+
+    /**
+     * Retorna la tabla con los tiquetes de todos los vuelos de la aerolínea, sobre la que se pueden calcular totales sin recorrer los tiquetes
+     */
+    public TablaTiquetes getTablaTiquetes( )
+    {
+        return tablaTiquetes;
+    }
+
+    /**
+     * Retorna los totales de los tiquetes por vuelo, por ruta, por tipo de cliente y de toda la aerolínea, que se pueden consultar sin recorrer los tiquetes
+     */
+    public AgregadosTiquetes getAgregados( )
+    {
+        return agregados;
     }
 
     public Collection<Cliente> getClientes( )
@@ -109,15 +470,30 @@ public class Aerolinea
 
     /**
      * Retorna todos los tiquetes de la aerolínea recolectados vuelo por vuelo.
+     * 
+     * La colección no es una copia: los tiquetes se recorren directamente desde los vuelos a medida que se itera sobre ella.
      */
     public Collection<Tiquete> getTiquetes( )
     {
-        List<Tiquete> todosLosTiquetes = new ArrayList<>();
-        for (Vuelo vuelo : vuelos)
+        return new AbstractCollection<Tiquete>( )
         {
-            todosLosTiquetes.addAll(vuelo.getTiquetes());
-        }
-        return todosLosTiquetes;
+            @Override
+            public Iterator<Tiquete> iterator( )
+            {
+                return vuelos.stream( ).flatMap( vuelo -> vuelo.getTiquetes( ).stream( ) ).iterator( );
+            }
+
+            @Override
+            public int size( )
+            {
+                int total = 0;
+                for( Vuelo vuelo : vuelos )
+                {
+                    total += vuelo.getTiquetes( ).size( );
+                }
+                return total;
+            }
+        };
     }
 
     // ************************************************************************************
@@ -157,52 +533,83 @@ public class Aerolinea
      */
     public void programarVuelo( String fecha, String codigoRuta, String nombreAvion ) throws Exception
     {
-        Ruta laRuta = getRuta(codigoRuta);
-        Avion elAvion = null;
+        Vuelo nuevoVuelo = prepararVuelo(fecha, codigoRuta, nombreAvion, null, null);
+        verificarBitacora();
+        vuelos.add(nuevoVuelo);
+        indexarVuelo(nuevoVuelo);
+        if (bitacora != null)
+            bitacora.registrarProgramacion(fecha, codigoRuta, nombreAvion);
+    }
+
+    /**
+     * Programa un conjunto de vuelos. Primero se validan todas las programaciones (entre ellas y contra los vuelos ya programados) y sólo si todas son
+     * válidas se programan los vuelos: si alguna falla, no se programa ninguno.
+     * @param programaciones Los vuelos que se quieren programar
+     * @throws Exception Si alguna de las programaciones hace referencia a una ruta o avión que no existe, o entra en conflicto con otro vuelo
+     */
+    public void programarVuelos( Collection<ProgramacionVuelo> programaciones ) throws Exception
+    {
+        Set<String> llavesLote = new HashSet<String>( );
+        Map<String, Set<String>> ocupacionLote = new HashMap<String, Set<String>>( );
+        List<Vuelo> nuevosVuelos = new ArrayList<Vuelo>( programaciones.size( ) );
 
-        for (Avion a : aviones)
+        for( ProgramacionVuelo p : programaciones )
         {
-            if (a.getNombre().equals(nombreAvion))
-            {
-                elAvion = a;
-                break;
-            }
+            nuevosVuelos.add( prepararVuelo( p.getFecha( ), p.getCodigoRuta( ), p.getNombreAvion( ), llavesLote, ocupacionLote ) );
         }
+        verificarBitacora( );
+
+        for( Vuelo nuevoVuelo : nuevosVuelos )
+        {
+            vuelos.add( nuevoVuelo );
+            indexarVuelo( nuevoVuelo );
+            if( bitacora != null )
+                bitacora.registrarProgramacion( nuevoVuelo.getFecha( ), nuevoVuelo.getRuta( ).getCodigoRuta( ), nuevoVuelo.getAvion( ).getNombre( ) );
+        }
+    }
+
+    /**
+     * Valida la programación de un vuelo y construye el vuelo, sin registrarlo en la aerolínea.
+     * 
+     * Si se reciben llavesLote y ocupacionLote, la programación también se valida contra los vuelos del lote que se validaron antes, y se agrega a esas estructuras.
+     */
+    private Vuelo prepararVuelo( String fecha, String codigoRuta, String nombreAvion, Set<String> llavesLote, Map<String, Set<String>> ocupacionLote ) throws Exception
+    {
+        Ruta laRuta = getRuta(codigoRuta);
+        Avion elAvion = getAvion(nombreAvion);
 
         if (laRuta == null) throw new Exception("La ruta con código " + codigoRuta + " no existe.");
         if (elAvion == null) throw new Exception("El avión con nombre " + nombreAvion + " no existe.");
 
+        String llave = llaveVuelo(codigoRuta, fecha);
+        if (indiceVuelos.containsKey(llave) || (llavesLote != null && !llavesLote.add(llave)))
+            throw new Exception("Ya existe un vuelo de la ruta " + codigoRuta + " para la fecha: " + fecha);
+
         // Verificar disponibilidad del avión
-        for (Vuelo v : vuelos)
+        boolean ocupado = estaOcupadoAvion(nombreAvion, fecha);
+        if (!ocupado && ocupacionLote != null)
         {
-            if (v.getAvion().getNombre().equals(nombreAvion) && v.getFecha().equals(fecha))
+            Set<String> fechasLote = ocupacionLote.get(nombreAvion);
+            if (fechasLote == null)
             {
-                throw new Exception("El avión ya tiene un vuelo programado para la fecha: " + fecha);
+                fechasLote = new HashSet<String>();
+                ocupacionLote.put(nombreAvion, fechasLote);
             }
+            ocupado = !fechasLote.add(fecha);
+        }
+        if (ocupado)
+        {
+            throw new Exception("El avión ya tiene un vuelo programado para la fecha: " + fecha);
         }
 
-        Vuelo nuevoVuelo = new Vuelo(laRuta, fecha, elAvion);
-        vuelos.add(nuevoVuelo);
+        return new Vuelo(laRuta, fecha, elAvion);
     }
 
     /**
      * Vende tiquetes para un vuelo específico.
+     * La temporada se decide con el calendario de la aerolínea a partir de la fecha del vuelo.
+     * Si la aerolínea tiene una bitácora, la venta se registra en ella: si la bitácora está cerrada o falla, no se vende ningún tiquete.
      */
-    private boolean esTemporadaAlta(String fecha) {
-        // El formato esperado es "YYYY-MM-DD"
-        // Extraemos el mes (los caracteres en las posiciones 5 y 6)
-        // Ejemplo: "2024-12-24" -> "12"
-        String mesStr = fecha.split("-")[1]; 
-        int mes = Integer.parseInt(mesStr);
-
-        // Definición de temporada alta (ajusta según lo que diga tu enunciado)
-        // 6 = Junio, 7 = Julio, 12 = Diciembre
-        if (mes == 6 || mes == 7 || mes == 12) {
-            return true;
-        }
-        
-        return false;
-    }
     public int venderTiquetes(String identificadorCliente, String fecha, String codigoRuta, int cantidad) throws VueloSobrevendidoException, Exception
     {
         Cliente elCliente = getCliente(identificadorCliente);
@@ -211,45 +618,134 @@ public class Aerolinea
         if (elCliente == null) throw new Exception("El cliente no existe.");
         if (elVuelo == null) throw new Exception("El vuelo no existe.");
 
-        CalculadoraTarifas calculadora;
+        CalculadoraTarifas calculadora = calendario.esTemporadaAlta(elVuelo.getFechaLocal()) ? calculadoraAlta : calculadoraBaja;
 
-        if (esTemporadaAlta(fecha)) {
-            calculadora = new CalculadoraTarifasTemporadaAlta();
-        } else {
-            calculadora = new CalculadoraTarifasTemporadaBaja();
+        verificarBitacora();
+        List<Tiquete> vendidos = elVuelo.emitirTiquetes(elCliente, calculadora, cantidad);
+        if (bitacora != null)
+        {
+            try
+            {
+                bitacora.registrarVenta(elVuelo, elCliente, vendidos);
+            }
+            catch (IOException e)
+            {
+                // La bitácora falló después de la verificación: la venta se deshace para no cobrar tiquetes que no quedaron registrados
+                for (Tiquete tiquete : vendidos)
+                {
+                    try
+                    {
+                        elVuelo.cancelarTiquete(tiquete);
+                    }
+                    catch (RuntimeException noCancelado)
+                    {
+                        e.addSuppressed(noCancelado);
+                    }
+                }
+                throw e;
+            }
         }
 
-        return elVuelo.venderTiquetes(elCliente, calculadora, cantidad);
+        int total = 0;
+        for (Tiquete tiquete : vendidos)
+            total += tiquete.getTarifa();
+        return total;
     }
+
     /**
-     * Marca un vuelo como realizado.
+     * Marca como usados los tiquetes que un cliente tiene para un vuelo. Si la aerolínea tiene una bitácora, el uso se registra en ella.
+     * @throws Exception Si el cliente o el vuelo no existen
      */
-    public void registrarVueloRealizado( String fecha, String codigoRuta )
+    public void usarTiquetes( String identificadorCliente, String fecha, String codigoRuta ) throws Exception
     {
-        Vuelo vuelo = getVuelo(codigoRuta, fecha);
-        if (vuelo != null)
-        {
-            // Asumiendo que Vuelo tiene un estado o lógica para cerrarse
-            // vuelo.marcarComoRealizado(); 
-        }
+        Cliente elCliente = getCliente( identificadorCliente );
+        Vuelo elVuelo = getVuelo( codigoRuta, fecha );
+
+        if( elCliente == null ) throw new Exception( "El cliente no existe." );
+        if( elVuelo == null ) throw new Exception( "El vuelo no existe." );
+
+        verificarBitacora( );
+        List<Tiquete> usados = elCliente.usarTiquetes( elVuelo );
+        if( bitacora != null && !usados.isEmpty( ) )
+            bitacora.registrarUso( elVuelo, usados );
     }
 
     /**
-     * Calcula el valor de los tiquetes pendientes (no usados) de un cliente.
+     * Cancela un tiquete: lo quita del vuelo y del cliente, y libera su silla. Si la aerolínea tiene una bitácora, la cancelación se registra en ella.
+     * 
+     * Como los deltas de la persistencia incremental sólo registran tiquetes nuevos o modificados, después de una cancelación la siguiente salvada incremental
+     * escribe una salvada base completa.
+     * @throws Exception Si el vuelo o el tiquete no existen, o si el tiquete ya se usó
      */
-    public String consultarSaldoPendienteCliente( String identificadorCliente )
+    public void cancelarTiquete( String fecha, String codigoRuta, String codigoTiquete ) throws Exception
     {
-        int total = 0;
-        for (Vuelo v : vuelos)
+        Vuelo elVuelo = getVuelo( codigoRuta, fecha );
+        if( elVuelo == null ) throw new Exception( "El vuelo no existe." );
+
+        Tiquete elTiquete = null;
+        for( Tiquete tiquete : elVuelo.getTiquetes( ) )
         {
-            for (Tiquete t : v.getTiquetes())
+            if( tiquete.getCodigo( ).equals( codigoTiquete ) )
             {
-                if (t.getCliente().getIdentificador().equals(identificadorCliente) && !t.esUsado())
-                {
-                    total += t.getTarifa();
-                }
+                elTiquete = tiquete;
+                break;
             }
         }
-        return String.valueOf(total);
+        if( elTiquete == null ) throw new Exception( "El tiquete " + codigoTiquete + " no existe en el vuelo." );
+        if( elTiquete.esUsado( ) ) throw new Exception( "El tiquete " + codigoTiquete + " ya se usó." );
+
+        verificarBitacora( );
+        try
+        {
+            elVuelo.cancelarTiquete( elTiquete );
+        }
+        catch( IllegalArgumentException e )
+        {
+            throw new Exception( e.getMessage( ) );
+        }
+        generacionTiquetes = 0;
+        if( bitacora != null )
+            bitacora.registrarCancelacion( fecha, codigoRuta, codigoTiquete );
+    }
+
+    /**
+     * Marca un vuelo como realizado: se cierran sus ventas y todos sus tiquetes quedan usados (ver {@link Vuelo#marcarComoRealizado()}). Si la aerolínea tiene
+     * una bitácora, la operación se registra en ella. Si el vuelo no existe, no hace nada.
+     * @return La cantidad de tiquetes que se marcaron como usados
+     */
+    public int registrarVueloRealizado( String fecha, String codigoRuta ) throws IOException
+    {
+        Vuelo vuelo = getVuelo( codigoRuta, fecha );
+        if( vuelo == null )
+            return 0;
+
+        verificarBitacora( );
+        int usados = vuelo.marcarComoRealizado( );
+        if( bitacora != null )
+            bitacora.registrarVueloRealizado( fecha, codigoRuta );
+        return usados;
+    }
+
+    /**
+     * Verifica, antes de modificar la aerolínea, que la operación se va a poder registrar en la bitácora. Si la aerolínea no tiene bitácora, no hace nada.
+     * @throws IOException Si la bitácora está cerrada o no se pudo escribir
+     */
+    private void verificarBitacora( ) throws IOException
+    {
+        if( bitacora != null )
+            bitacora.verificarDisponible( );
+    }
+
+    /**
+     * Calcula el valor de los tiquetes pendientes (no usados) de un cliente.
+     * 
+     * El cliente mantiene este valor actualizado a medida que compra y usa tiquetes, así que no hay que recorrer los tiquetes.
+     */
+    public String consultarSaldoPendienteCliente( String identificadorCliente )
+    {
+        Cliente cliente = getCliente( identificadorCliente );
+        if( cliente == null )
+            return "0";
+        return String.valueOf( cliente.getValorPendiente( ) );
     }
 }
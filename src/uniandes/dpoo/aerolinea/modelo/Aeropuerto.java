@@ -1,12 +1,9 @@
 package uniandes.dpoo.aerolinea.modelo;
 
-import java.util.HashSet;
-import java.util.Set;
-
-import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
-
 /**
  * Esta clase encapsula la información sobre los aeropuertos e implementa algunas operaciones relacionadas con la ubicación geográfica de los aeropuertos.
+ *
+ * La unicidad de los códigos no se verifica aquí sino en el {@link RegistroAeropuertos} de cada aerolínea. Dos aeropuertos son iguales si tienen el mismo código.
  */
 public class Aeropuerto
 {
@@ -18,12 +15,12 @@ public class Aeropuerto
     private double latitud;
     private double longitud;
 
-    // --- Atributos Estáticos ---
-
     /**
-     * Conjunto de códigos de aeropuertos ya creados para garantizar unicidad.
+     * Número que le asigna el registro de aeropuertos de la aerolínea al aeropuerto, consecutivo desde 0. Vale -1 si el aeropuerto no se ha registrado.
      */
-    private static Set<String> codigos = new HashSet<>();
+    private int id = -1;
+
+    // --- Atributos Estáticos ---
 
     /**
      * Radio de la tierra en kilómetros para el cálculo de distancias.
@@ -34,23 +31,14 @@ public class Aeropuerto
 
     /**
      * Crea un nuevo aeropuerto.
-     * @throws AeropuertoDuplicadoException Si ya existe un aeropuerto con el mismo código.
      */
-    public Aeropuerto(String nombre, String codigo, String nombreCiudad, double latitud, double longitud) throws AeropuertoDuplicadoException 
+    public Aeropuerto(String nombre, String codigo, String nombreCiudad, double latitud, double longitud)
     {
-        if (codigos.contains(codigo)) 
-        {
-            throw new AeropuertoDuplicadoException(codigo);
-        }
-        
         this.nombre = nombre;
         this.codigo = codigo;
         this.nombreCiudad = nombreCiudad;
         this.latitud = latitud;
         this.longitud = longitud;
-        
-        // Registrar el código para evitar duplicados en el futuro
-        codigos.add(codigo);
     }
 
     // --- Getters ---
@@ -75,6 +63,29 @@ public class Aeropuerto
         return longitud;
     }
 
+    /**
+     * Retorna el número que le asignó el registro de aeropuertos al aeropuerto, o -1 si no se ha registrado.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void asignarId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Aeropuerto)) return false;
+        return codigo.equals(((Aeropuerto) obj).codigo);
+    }
+
+    @Override
+    public int hashCode() {
+        return codigo.hashCode();
+    }
+
     // --- Métodos Estáticos ---
 
     /**
@@ -0,0 +1,273 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Los totales de los tiquetes de una aerolínea por vuelo, por ruta, por tipo de cliente y de toda la aerolínea (ver {@link ContadoresTiquetes}), que se
+ * actualizan con cada tiquete que se vende, se carga, se usa o se cancela. Consultar un total no recorre los tiquetes.
+ *
+ * Los vuelos le avisan a los agregados de los cambios en sus tiquetes, igual que a la tabla de tiquetes (ver {@link TablaTiquetes}). Los contadores de los
+ * vuelos y de las rutas están en arreglos, en la posición de su identificador, y los de los tipos de cliente en un mapa concurrente.
+ *
+ * {@link #verificarConsistencia()} recalcula todos los totales recorriendo los tiquetes de los vuelos y los compara con los contadores.
+ */
+public class AgregadosTiquetes
+{
+    private final Aerolinea aerolinea;
+
+    /**
+     * Los contadores de cada vuelo y de cada ruta, en la posición de su identificador. Los arreglos se reemplazan por otros más grandes cuando se registran
+     * vuelos o rutas, pero los contadores son los mismos.
+     */
+    private volatile ContadoresTiquetes[] vuelos;
+    private volatile ContadoresTiquetes[] rutas;
+
+    private final Map<String, ContadoresTiquetes> tiposCliente;
+
+    private final ContadoresTiquetes totales;
+
+    public AgregadosTiquetes( Aerolinea aerolinea )
+    {
+        this.aerolinea = aerolinea;
+        vuelos = new ContadoresTiquetes[0];
+        rutas = new ContadoresTiquetes[0];
+        tiposCliente = new ConcurrentHashMap<String, ContadoresTiquetes>( );
+        totales = new ContadoresTiquetes( );
+    }
+
+    // ************************************************************************************
+    // Consultas
+    // ************************************************************************************
+
+    /**
+     * Retorna los contadores de un vuelo, o null si no hay un vuelo con ese identificador
+     */
+    public ContadoresTiquetes getContadoresVuelo( int idVuelo )
+    {
+        ContadoresTiquetes[] contadores = vuelos;
+        return idVuelo >= 0 && idVuelo < contadores.length ? contadores[ idVuelo ] : null;
+    }
+
+    /**
+     * Retorna los contadores de una ruta, o null si no hay una ruta con ese identificador
+     */
+    public ContadoresTiquetes getContadoresRuta( int idRuta )
+    {
+        ContadoresTiquetes[] contadores = rutas;
+        return idRuta >= 0 && idRuta < contadores.length ? contadores[ idRuta ] : null;
+    }
+
+    /**
+     * Retorna los contadores de los tiquetes de los clientes de un tipo (ver {@link Cliente#getTipoCliente()}), o null si ningún cliente de ese tipo ha comprado
+     * tiquetes
+     */
+    public ContadoresTiquetes getContadoresTipoCliente( String tipoCliente )
+    {
+        return tiposCliente.get( tipoCliente );
+    }
+
+    /**
+     * Retorna los contadores de todos los tiquetes de la aerolínea
+     */
+    public ContadoresTiquetes getTotales( )
+    {
+        return totales;
+    }
+
+    // ************************************************************************************
+    // Registro de vuelos, rutas y tiquetes
+    // ************************************************************************************
+
+    /**
+     * Crea los contadores de una ruta recién registrada. Si ya existían (la ruta reemplaza a otra con el mismo identificador), no hace nada.
+     */
+    synchronized void registrarRuta( Ruta ruta )
+    {
+        rutas = agregarContadores( rutas, ruta.getId( ) );
+    }
+
+    /**
+     * Crea los contadores de un vuelo recién programado
+     */
+    synchronized void registrarVuelo( Vuelo vuelo )
+    {
+        vuelos = agregarContadores( vuelos, vuelo.getId( ) );
+    }
+
+    private static ContadoresTiquetes[] agregarContadores( ContadoresTiquetes[] contadores, int id )
+    {
+        if( id < contadores.length )
+            return contadores;
+        ContadoresTiquetes[] nuevos = Arrays.copyOf( contadores, Math.max( id + 1, contadores.length + ( contadores.length >> 1 ) ) );
+        for( int i = contadores.length; i < nuevos.length; i++ )
+            nuevos[ i ] = new ContadoresTiquetes( );
+        return nuevos;
+    }
+
+    /**
+     * Registra tiquetes nuevos de un vuelo, todos del mismo cliente
+     * @param cantidad La cantidad de tiquetes
+     * @param tarifas La suma de las tarifas de los tiquetes
+     * @param pendiente La suma de las tarifas de los tiquetes que no están usados
+     */
+    void registrarTiquetes( Vuelo vuelo, Cliente cliente, int cantidad, long tarifas, long pendiente )
+    {
+        sumar( vuelo, cliente, cantidad, tarifas, pendiente );
+    }
+
+    /**
+     * Registra tiquetes que se cargaron en los vuelos, sumando en un solo paso los de cada vuelo y tipo de cliente
+     */
+    void registrarTiquetes( Collection<Tiquete> tiquetes )
+    {
+        Vuelo vuelo = null;
+        Cliente cliente = null;
+        int cantidad = 0;
+        long tarifas = 0;
+        long pendiente = 0;
+        for( Tiquete tiquete : tiquetes )
+        {
+            if( tiquete.getVuelo( ) != vuelo || !mismoTipo( tiquete.getCliente( ), cliente ) )
+            {
+                if( cantidad > 0 )
+                    sumar( vuelo, cliente, cantidad, tarifas, pendiente );
+                vuelo = tiquete.getVuelo( );
+                cliente = tiquete.getCliente( );
+                cantidad = 0;
+                tarifas = 0;
+                pendiente = 0;
+            }
+            cantidad++;
+            tarifas += tiquete.getTarifa( );
+            if( !tiquete.esUsado( ) )
+                pendiente += tiquete.getTarifa( );
+        }
+        if( cantidad > 0 )
+            sumar( vuelo, cliente, cantidad, tarifas, pendiente );
+    }
+
+    /**
+     * Registra que un tiquete que ya estaba registrado se usó
+     */
+    void registrarUso( Tiquete tiquete )
+    {
+        sumar( tiquete.getVuelo( ), tiquete.getCliente( ), 0, 0, -tiquete.getTarifa( ) );
+    }
+
+    /**
+     * Registra que un tiquete que no se había usado se canceló
+     */
+    void registrarCancelacion( Tiquete tiquete )
+    {
+        sumar( tiquete.getVuelo( ), tiquete.getCliente( ), -1, -tiquete.getTarifa( ), -tiquete.getTarifa( ) );
+    }
+
+    private static boolean mismoTipo( Cliente cliente, Cliente otro )
+    {
+        return otro != null && ( cliente == otro || cliente.getTipoCliente( ).equals( otro.getTipoCliente( ) ) );
+    }
+
+    private void sumar( Vuelo vuelo, Cliente cliente, long sillas, long tarifas, long pendiente )
+    {
+        vuelos[ vuelo.getId( ) ].sumar( sillas, tarifas, pendiente );
+        rutas[ vuelo.getRuta( ).getId( ) ].sumar( sillas, tarifas, pendiente );
+        contadoresTipo( cliente.getTipoCliente( ) ).sumar( sillas, tarifas, pendiente );
+        totales.sumar( sillas, tarifas, pendiente );
+    }
+
+    private ContadoresTiquetes contadoresTipo( String tipoCliente )
+    {
+        ContadoresTiquetes contadores = tiposCliente.get( tipoCliente );
+        if( contadores == null )
+            contadores = tiposCliente.computeIfAbsent( tipoCliente, tipo -> new ContadoresTiquetes( ) );
+        return contadores;
+    }
+
+    // ************************************************************************************
+    // Verificación
+    // ************************************************************************************
+
+    /**
+     * Recalcula todos los totales recorriendo los tiquetes de los vuelos de la aerolínea y los compara con los contadores.
+     *
+     * Si se venden, se usan o se cancelan tiquetes mientras se hace la verificación, puede reportar diferencias que no son errores.
+     * @return La descripción de cada diferencia encontrada. Es vacía si los contadores son consistentes con los tiquetes.
+     */
+    public List<String> verificarConsistencia( )
+    {
+        List<String> diferencias = new ArrayList<String>( );
+        long[] totalRutas = new long[rutas.length * 3];
+        Map<String, long[]> totalTipos = new HashMap<String, long[]>( );
+        long[] totalAerolinea = new long[3];
+
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            long[] totalVuelo = new long[3];
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            {
+                long[] totalTipo = totalTipos.get( tiquete.getCliente( ).getTipoCliente( ) );
+                if( totalTipo == null )
+                {
+                    totalTipo = new long[3];
+                    totalTipos.put( tiquete.getCliente( ).getTipoCliente( ), totalTipo );
+                }
+                long pendiente = tiquete.esUsado( ) ? 0 : tiquete.getTarifa( );
+                acumular( totalVuelo, 0, tiquete.getTarifa( ), pendiente );
+                acumular( totalTipo, 0, tiquete.getTarifa( ), pendiente );
+            }
+            acumular( totalRutas, vuelo.getRuta( ).getId( ) * 3, totalVuelo );
+            acumular( totalAerolinea, 0, totalVuelo );
+            comparar( diferencias, "Vuelo " + vuelo.getRuta( ).getCodigoRuta( ) + " del " + vuelo.getFecha( ), getContadoresVuelo( vuelo.getId( ) ), totalVuelo, 0 );
+        }
+        for( Ruta ruta : aerolinea.getRutas( ) )
+            comparar( diferencias, "Ruta " + ruta.getCodigoRuta( ), getContadoresRuta( ruta.getId( ) ), totalRutas, ruta.getId( ) * 3 );
+        for( Map.Entry<String, ContadoresTiquetes> tipo : tiposCliente.entrySet( ) )
+        {
+            if( !totalTipos.containsKey( tipo.getKey( ) ) )
+                totalTipos.put( tipo.getKey( ), new long[3] );
+        }
+        for( Map.Entry<String, long[]> tipo : totalTipos.entrySet( ) )
+            comparar( diferencias, "Clientes de tipo " + tipo.getKey( ), getContadoresTipoCliente( tipo.getKey( ) ), tipo.getValue( ), 0 );
+        comparar( diferencias, "Aerolínea", totales, totalAerolinea, 0 );
+        return Collections.unmodifiableList( diferencias );
+    }
+
+    private static void acumular( long[] total, int posicion, long tarifa, long pendiente )
+    {
+        total[ posicion ]++;
+        total[ posicion + 1 ] += tarifa;
+        total[ posicion + 2 ] += pendiente;
+    }
+
+    private static void acumular( long[] total, int posicion, long[] otro )
+    {
+        for( int i = 0; i < 3; i++ )
+            total[ posicion + i ] += otro[ i ];
+    }
+
+    /**
+     * Compara los contadores de un grupo con los totales recalculados (sillas, ingresos y valor pendiente a partir de la posición indicada) y agrega una
+     * descripción a la lista por cada valor distinto
+     */
+    private static void comparar( List<String> diferencias, String grupo, ContadoresTiquetes contadores, long[] total, int posicion )
+    {
+        long[] contado = contadores == null ? new long[3]
+                : new long[]{ contadores.getSillasVendidas( ), contadores.getIngresos( ), contadores.getValorPendiente( ) };
+        String[] nombres = { "sillas vendidas", "ingresos", "valor pendiente" };
+        for( int i = 0; i < 3; i++ )
+        {
+            if( contado[ i ] != total[ posicion + i ] )
+                diferencias.add( grupo + ": " + nombres[ i ] + " es " + contado[ i ] + " en los contadores y " + total[ posicion + i ] + " en los tiquetes" );
+        }
+    }
+}
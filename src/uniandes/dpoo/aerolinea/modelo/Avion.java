@@ -3,6 +3,8 @@ package uniandes.dpoo.aerolinea.modelo;
 /**
  * Representa un avión en el sistema de la aerolínea.
  * Según el UML, contiene el nombre y la capacidad de pasajeros.
+ * 
+ * Dos aviones son iguales si tienen el mismo nombre, que es con lo que la aerolínea los identifica.
  */
 public class Avion {
 
@@ -11,6 +13,11 @@ public class Avion {
     private String nombre;
     private int capacidad;
 
+    /**
+     * Número que le asigna la aerolínea al avión cuando lo registra, consecutivo desde 0. Vale -1 si el avión no se ha registrado.
+     */
+    private int id = -1;
+
     // --- Constructor ---
     /**
      * Crea un nuevo avión con su nombre e identificación de capacidad.
@@ -40,4 +47,27 @@ public class Avion {
     public int getCapacidad() {
         return capacidad;
     }
+
+    /**
+     * Retorna el número que le asignó la aerolínea al avión, o -1 si no se ha registrado.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void asignarId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Avion)) return false;
+        return nombre.equals(((Avion) obj).nombre);
+    }
+
+    @Override
+    public int hashCode() {
+        return nombre.hashCode();
+    }
 }
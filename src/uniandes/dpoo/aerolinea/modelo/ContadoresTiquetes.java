@@ -0,0 +1,55 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Los contadores de los tiquetes de un grupo (un vuelo, una ruta, un tipo de cliente o toda la aerolínea): cuántas sillas se han vendido, cuánto suman las
+ * tarifas y cuánto suman las tarifas de los tiquetes que no se han usado.
+ *
+ * Cada contador es un LongAdder, que reparte las sumas entre varias celdas cuando varios threads suman al mismo tiempo, así que las ventas concurrentes no
+ * compiten por el mismo valor. Leer un contador suma sus celdas, que son a lo sumo tantas como procesadores. Los tres contadores se actualizan por separado:
+ * mientras hay ventas en curso, una lectura puede ver la venta en un contador y todavía no en otro.
+ */
+public class ContadoresTiquetes
+{
+    private final LongAdder sillasVendidas = new LongAdder( );
+    private final LongAdder ingresos = new LongAdder( );
+    private final LongAdder valorPendiente = new LongAdder( );
+
+    /**
+     * Suma a los contadores. Los valores pueden ser negativos.
+     */
+    void sumar( long sillas, long tarifas, long pendiente )
+    {
+        if( sillas != 0 )
+            sillasVendidas.add( sillas );
+        if( tarifas != 0 )
+            ingresos.add( tarifas );
+        if( pendiente != 0 )
+            valorPendiente.add( pendiente );
+    }
+
+    /**
+     * Retorna la cantidad de tiquetes vendidos (cada tiquete ocupa una silla)
+     */
+    public long getSillasVendidas( )
+    {
+        return sillasVendidas.sum( );
+    }
+
+    /**
+     * Retorna la suma de las tarifas de los tiquetes vendidos
+     */
+    public long getIngresos( )
+    {
+        return ingresos.sum( );
+    }
+
+    /**
+     * Retorna la suma de las tarifas de los tiquetes que no se han usado
+     */
+    public long getValorPendiente( )
+    {
+        return valorPendiente.sum( );
+    }
+}
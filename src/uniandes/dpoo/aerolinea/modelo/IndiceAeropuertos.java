@@ -0,0 +1,320 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Un índice espacial de aeropuertos para buscar los aeropuertos más cercanos a un punto y los aeropuertos que están a menos de cierta distancia de un punto.
+ *
+ * El índice es un árbol k-d sobre la posición de cada aeropuerto en el espacio (x, y, z sobre la esfera unitaria) en vez de sobre la latitud y la longitud,
+ * así que no tiene problemas cerca de los polos ni al cruzar el meridiano 180. La distancia en línea recta entre dos puntos de la esfera crece con la distancia
+ * sobre la superficie, así que el árbol puede descartar regiones completas usando la primera y reportar la segunda.
+ *
+ * Las distancias que usa el índice son distancias sobre el círculo máximo (ver {@link #calcularDistancia(double, double, double, double)}), no la aproximación
+ * de {@link Aeropuerto#calcularDistancia(Aeropuerto, Aeropuerto)}, que no sirve para aeropuertos a lados distintos del meridiano 180.
+ *
+ * El árbol se guarda implícitamente en arreglos: el nodo del rango [inicio, fin) es la posición (inicio + fin) / 2, su hijo izquierdo es el rango [inicio,
+ * medio) y su hijo derecho el rango [medio + 1, fin). El eje con el que se divide cada nodo depende de su profundidad. El índice no cambia después de
+ * construirlo, así que se puede consultar desde varios threads al mismo tiempo.
+ */
+public class IndiceAeropuertos
+{
+    private Aeropuerto[] aeropuertos;
+
+    /**
+     * Las coordenadas de cada aeropuerto sobre la esfera unitaria: coordenadas[3 * i + eje] es la coordenada del aeropuerto i en el eje indicado (0: x, 1: y,
+     * 2: z)
+     */
+    private double[] coordenadas;
+
+    /**
+     * Construye el índice con los aeropuertos indicados
+     * @param aeropuertos Los aeropuertos, por ejemplo los de {@link Aerolinea#getAeropuertos()}
+     */
+    public IndiceAeropuertos( Collection<Aeropuerto> aeropuertos )
+    {
+        this.aeropuertos = aeropuertos.toArray( new Aeropuerto[0] );
+        coordenadas = new double[3 * this.aeropuertos.length];
+        for( int i = 0; i < this.aeropuertos.length; i++ )
+            convertir( this.aeropuertos[ i ].getLatitud( ), this.aeropuertos[ i ].getLongitud( ), coordenadas, 3 * i );
+        construir( 0, this.aeropuertos.length, 0 );
+    }
+
+    public int getCantidadAeropuertos( )
+    {
+        return aeropuertos.length;
+    }
+
+    // ************************************************************************************
+    // Consultas
+    // ************************************************************************************
+
+    /**
+     * Busca los aeropuertos más cercanos a un punto
+     * @param latitud La latitud del punto, en grados
+     * @param longitud La longitud del punto, en grados
+     * @param cantidad La cantidad máxima de aeropuertos que se buscan
+     * @return Los aeropuertos más cercanos, ordenados del más cercano al más lejano
+     */
+    public List<Aeropuerto> buscarMasCercanos( double latitud, double longitud, int cantidad )
+    {
+        double[] punto = new double[3];
+        convertir( latitud, longitud, punto, 0 );
+        Candidatos candidatos = new Candidatos( Math.min( cantidad, aeropuertos.length ) );
+        if( candidatos.capacidad > 0 )
+            buscarMasCercanos( 0, aeropuertos.length, 0, punto, candidatos );
+        return candidatos.ordenados( );
+    }
+
+    /**
+     * Busca los aeropuertos que están a lo sumo a cierta distancia de un punto
+     * @param latitud La latitud del punto, en grados
+     * @param longitud La longitud del punto, en grados
+     * @param radio La distancia máxima, en kilómetros
+     * @return Los aeropuertos que están dentro del radio, ordenados del más cercano al más lejano
+     */
+    public List<Aeropuerto> buscarDentroDeRadio( double latitud, double longitud, double radio )
+    {
+        double[] punto = new double[3];
+        convertir( latitud, longitud, punto, 0 );
+        // La cuerda (sobre la esfera unitaria) que corresponde a un arco de la longitud del radio
+        double angulo = Math.min( radio / Aeropuerto.RADIO_TERRESTRE, Math.PI );
+        double cuerda = 2 * Math.sin( angulo / 2 );
+        Candidatos encontrados = new Candidatos( 16 );
+        buscarDentroDeRadio( 0, aeropuertos.length, 0, punto, cuerda * cuerda * ( 1 + 1e-12 ), encontrados );
+        return encontrados.ordenados( );
+    }
+
+    /**
+     * Busca los aeropuertos que están a lo sumo a cierta distancia de un aeropuerto, sin incluir al mismo aeropuerto. Sirve, por ejemplo, para ofrecer
+     * aeropuertos alternos.
+     * @param aeropuerto El aeropuerto
+     * @param radio La distancia máxima, en kilómetros
+     * @return Los otros aeropuertos que están dentro del radio, ordenados del más cercano al más lejano
+     */
+    public List<Aeropuerto> buscarAlternos( Aeropuerto aeropuerto, double radio )
+    {
+        List<Aeropuerto> alternos = buscarDentroDeRadio( aeropuerto.getLatitud( ), aeropuerto.getLongitud( ), radio );
+        alternos.removeIf( otro -> otro.getCodigo( ).equals( aeropuerto.getCodigo( ) ) );
+        return alternos;
+    }
+
+    /**
+     * Calcula la distancia entre dos puntos sobre el círculo máximo de la tierra (fórmula del haversine)
+     * @return La distancia en kilómetros
+     */
+    public static double calcularDistancia( double latitud1, double longitud1, double latitud2, double longitud2 )
+    {
+        double senoLatitud = Math.sin( Math.toRadians( latitud2 - latitud1 ) / 2 );
+        double senoLongitud = Math.sin( Math.toRadians( longitud2 - longitud1 ) / 2 );
+        double a = senoLatitud * senoLatitud + Math.cos( Math.toRadians( latitud1 ) ) * Math.cos( Math.toRadians( latitud2 ) ) * senoLongitud * senoLongitud;
+        return 2 * Aeropuerto.RADIO_TERRESTRE * Math.asin( Math.min( 1, Math.sqrt( a ) ) );
+    }
+
+    // ************************************************************************************
+    // Árbol
+    // ************************************************************************************
+
+    /**
+     * Organiza el rango [inicio, fin) para que la mediana según el eje de la profundidad quede en la mitad, los menores antes y los mayores después
+     */
+    private void construir( int inicio, int fin, int profundidad )
+    {
+        if( fin - inicio <= 1 )
+            return;
+        int medio = ( inicio + fin ) >>> 1;
+        int eje = profundidad % 3;
+        seleccionar( inicio, fin - 1, medio, eje );
+        construir( inicio, medio, profundidad + 1 );
+        construir( medio + 1, fin, profundidad + 1 );
+    }
+
+    /**
+     * Reorganiza el rango [izquierda, derecha] para que en la posición k quede el elemento que quedaría ahí si el rango se ordenara según el eje (selección
+     * rápida)
+     */
+    private void seleccionar( int izquierda, int derecha, int k, int eje )
+    {
+        while( izquierda < derecha )
+        {
+            double pivote = coordenadas[ 3 * ( ( izquierda + derecha ) >>> 1 ) + eje ];
+            int i = izquierda;
+            int j = derecha;
+            while( i <= j )
+            {
+                while( coordenadas[ 3 * i + eje ] < pivote )
+                    i++;
+                while( coordenadas[ 3 * j + eje ] > pivote )
+                    j--;
+                if( i <= j )
+                    intercambiar( i++, j-- );
+            }
+            if( k <= j )
+                derecha = j;
+            else if( k >= i )
+                izquierda = i;
+            else
+                return;
+        }
+    }
+
+    private void intercambiar( int i, int j )
+    {
+        Aeropuerto aeropuerto = aeropuertos[ i ];
+        aeropuertos[ i ] = aeropuertos[ j ];
+        aeropuertos[ j ] = aeropuerto;
+        for( int eje = 0; eje < 3; eje++ )
+        {
+            double coordenada = coordenadas[ 3 * i + eje ];
+            coordenadas[ 3 * i + eje ] = coordenadas[ 3 * j + eje ];
+            coordenadas[ 3 * j + eje ] = coordenada;
+        }
+    }
+
+    private void buscarMasCercanos( int inicio, int fin, int profundidad, double[] punto, Candidatos candidatos )
+    {
+        if( inicio >= fin )
+            return;
+        int medio = ( inicio + fin ) >>> 1;
+        candidatos.ofrecer( medio, distanciaCuadrado( medio, punto ) );
+
+        // Primero se busca en el lado del punto, y en el otro lado sólo si la distancia al plano que los separa es menor que el peor candidato
+        double diferencia = punto[ profundidad % 3 ] - coordenadas[ 3 * medio + profundidad % 3 ];
+        boolean izquierda = diferencia < 0;
+        buscarMasCercanos( izquierda ? inicio : medio + 1, izquierda ? medio : fin, profundidad + 1, punto, candidatos );
+        if( !candidatos.estaLleno( ) || diferencia * diferencia < candidatos.peorDistancia( ) )
+            buscarMasCercanos( izquierda ? medio + 1 : inicio, izquierda ? fin : medio, profundidad + 1, punto, candidatos );
+    }
+
+    private void buscarDentroDeRadio( int inicio, int fin, int profundidad, double[] punto, double radioCuadrado, Candidatos encontrados )
+    {
+        if( inicio >= fin )
+            return;
+        int medio = ( inicio + fin ) >>> 1;
+        double distancia = distanciaCuadrado( medio, punto );
+        if( distancia <= radioCuadrado )
+            encontrados.agregar( medio, distancia );
+
+        double diferencia = punto[ profundidad % 3 ] - coordenadas[ 3 * medio + profundidad % 3 ];
+        if( diferencia < 0 || diferencia * diferencia <= radioCuadrado )
+            buscarDentroDeRadio( inicio, medio, profundidad + 1, punto, radioCuadrado, encontrados );
+        if( diferencia >= 0 || diferencia * diferencia <= radioCuadrado )
+            buscarDentroDeRadio( medio + 1, fin, profundidad + 1, punto, radioCuadrado, encontrados );
+    }
+
+    private double distanciaCuadrado( int i, double[] punto )
+    {
+        double dx = coordenadas[ 3 * i ] - punto[ 0 ];
+        double dy = coordenadas[ 3 * i + 1 ] - punto[ 1 ];
+        double dz = coordenadas[ 3 * i + 2 ] - punto[ 2 ];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static void convertir( double latitud, double longitud, double[] destino, int posicion )
+    {
+        double phi = Math.toRadians( latitud );
+        double lambda = Math.toRadians( longitud );
+        destino[ posicion ] = Math.cos( phi ) * Math.cos( lambda );
+        destino[ posicion + 1 ] = Math.cos( phi ) * Math.sin( lambda );
+        destino[ posicion + 2 ] = Math.sin( phi );
+    }
+
+    /**
+     * Los aeropuertos encontrados en una búsqueda con el cuadrado de su distancia en línea recta al punto. Para buscar los más cercanos se usa como un montículo
+     * de máximos de tamaño limitado, en el que la raíz es el peor candidato.
+     */
+    private class Candidatos
+    {
+        private int capacidad;
+        private int[] posiciones;
+        private double[] distancias;
+        private int tamano;
+
+        Candidatos( int capacidad )
+        {
+            this.capacidad = capacidad;
+            posiciones = new int[Math.max( capacidad, 1 )];
+            distancias = new double[Math.max( capacidad, 1 )];
+        }
+
+        boolean estaLleno( )
+        {
+            return tamano == capacidad;
+        }
+
+        double peorDistancia( )
+        {
+            return distancias[ 0 ];
+        }
+
+        /**
+         * Agrega un aeropuerto sin límite de tamaño (para las búsquedas por radio)
+         */
+        void agregar( int posicion, double distancia )
+        {
+            if( tamano == posiciones.length )
+            {
+                posiciones = Arrays.copyOf( posiciones, tamano * 2 );
+                distancias = Arrays.copyOf( distancias, tamano * 2 );
+            }
+            posiciones[ tamano ] = posicion;
+            distancias[ tamano ] = distancia;
+            tamano++;
+        }
+
+        /**
+         * Agrega un aeropuerto si todavía hay espacio o si está más cerca que el peor candidato, al que reemplaza
+         */
+        void ofrecer( int posicion, double distancia )
+        {
+            if( tamano < capacidad )
+            {
+                int i = tamano++;
+                while( i > 0 && distancias[ ( i - 1 ) / 2 ] < distancia )
+                {
+                    posiciones[ i ] = posiciones[ ( i - 1 ) / 2 ];
+                    distancias[ i ] = distancias[ ( i - 1 ) / 2 ];
+                    i = ( i - 1 ) / 2;
+                }
+                posiciones[ i ] = posicion;
+                distancias[ i ] = distancia;
+            }
+            else if( distancia < distancias[ 0 ] )
+            {
+                int i = 0;
+                while( true )
+                {
+                    int hijo = 2 * i + 1;
+                    if( hijo >= tamano )
+                        break;
+                    if( hijo + 1 < tamano && distancias[ hijo + 1 ] > distancias[ hijo ] )
+                        hijo++;
+                    if( distancias[ hijo ] <= distancia )
+                        break;
+                    posiciones[ i ] = posiciones[ hijo ];
+                    distancias[ i ] = distancias[ hijo ];
+                    i = hijo;
+                }
+                posiciones[ i ] = posicion;
+                distancias[ i ] = distancia;
+            }
+        }
+
+        /**
+         * Retorna los aeropuertos encontrados ordenados por distancia
+         */
+        List<Aeropuerto> ordenados( )
+        {
+            Integer[] orden = new Integer[tamano];
+            for( int i = 0; i < tamano; i++ )
+                orden[ i ] = i;
+            Arrays.sort( orden, ( a, b ) -> Double.compare( distancias[ a ], distancias[ b ] ) );
+            List<Aeropuerto> resultado = new ArrayList<Aeropuerto>( tamano );
+            for( int i : orden )
+                resultado.add( aeropuertos[ posiciones[ i ] ] );
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+/**
+ * Esta clase lleva el registro de cuáles sillas de un vuelo están ocupadas.
+ *
+ * Las sillas se numeran desde 0 hasta la capacidad del avión menos 1, y su estado se guarda en un mapa de bits: el bit i de la palabra i/64 está encendido si
+ * la silla está ocupada. Las búsquedas recorren el mapa palabra por palabra, saltando con Long.numberOfTrailingZeros sobre las palabras que no tienen sillas
+ * del estado buscado, así que buscar y asignar sillas toma un tiempo proporcional a capacidad/64 (más uno por cada bloque de sillas ocupadas que se salta),
+ * incluso en los aviones más grandes.
+ *
+ * Los métodos están sincronizados sobre el mapa, porque se pueden vender tiquetes de un mismo vuelo desde varios threads a la vez.
+ */
+public class MapaSillas
+{
+    /**
+     * Los bits de las sillas ocupadas. Los bits de la última palabra que no corresponden a ninguna silla siempre están apagados.
+     */
+    private final long[] ocupadas;
+
+    private final int capacidad;
+
+    private int libres;
+
+    /**
+     * Crea un mapa en el que todas las sillas están libres
+     * @param capacidad La cantidad de sillas del avión
+     */
+    public MapaSillas( int capacidad )
+    {
+        if( capacidad < 0 )
+            throw new IllegalArgumentException( "La capacidad no puede ser negativa: " + capacidad );
+        this.capacidad = capacidad;
+        this.ocupadas = new long[( capacidad + 63 ) >>> 6];
+        this.libres = capacidad;
+    }
+
+    public int getCapacidad( )
+    {
+        return capacidad;
+    }
+
+    /**
+     * Retorna la cantidad de sillas que no están ocupadas
+     */
+    public synchronized int getSillasLibres( )
+    {
+        return libres;
+    }
+
+    /**
+     * Indica si una silla está ocupada
+     * @throws IndexOutOfBoundsException Si la silla no existe en el avión
+     */
+    public synchronized boolean estaOcupada( int silla )
+    {
+        verificarSilla( silla );
+        return ( ocupadas[ silla >>> 6 ] & ( 1L << silla ) ) != 0;
+    }
+
+    /**
+     * Busca el primer bloque de sillas libres consecutivas de un tamaño dado, sin ocuparlas
+     * @param cantidad La cantidad de sillas consecutivas que se necesitan
+     * @return La primera silla del bloque, o -1 si no hay un bloque libre de ese tamaño
+     */
+    public synchronized int buscarSillasContiguas( int cantidad )
+    {
+        if( cantidad < 1 )
+            throw new IllegalArgumentException( "La cantidad de sillas debe ser positiva: " + cantidad );
+        int desde = 0;
+        while( true )
+        {
+            int inicio = siguienteLibre( desde );
+            if( inicio < 0 || inicio > capacidad - cantidad )
+                return -1;
+            int fin = siguienteOcupada( inicio );
+            if( fin - inicio >= cantidad )
+                return inicio;
+            desde = fin;
+        }
+    }
+
+    /**
+     * Ocupa la primera silla libre
+     * @return La silla ocupada, o -1 si todas las sillas están ocupadas
+     */
+    public synchronized int asignarSilla( )
+    {
+        int silla = siguienteLibre( 0 );
+        if( silla >= 0 )
+            ocupar( silla, silla + 1 );
+        return silla;
+    }
+
+    /**
+     * Ocupa una cantidad de sillas. Si hay un bloque de sillas libres consecutivas del tamaño pedido se ocupa el primero; si no, se ocupan las primeras sillas
+     * libres.
+     * @param cantidad La cantidad de sillas que se deben ocupar
+     * @return Las sillas ocupadas, en orden, o null si no hay suficientes sillas libres (en cuyo caso no se ocupa ninguna)
+     */
+    public synchronized int[] asignarSillas( int cantidad )
+    {
+        if( cantidad < 0 )
+            throw new IllegalArgumentException( "La cantidad de sillas no puede ser negativa: " + cantidad );
+        if( cantidad > libres )
+            return null;
+        int[] sillas = new int[cantidad];
+        if( cantidad == 0 )
+            return sillas;
+
+        int inicio = buscarSillasContiguas( cantidad );
+        if( inicio >= 0 )
+        {
+            ocupar( inicio, inicio + cantidad );
+            for( int i = 0; i < cantidad; i++ )
+                sillas[ i ] = inicio + i;
+            return sillas;
+        }
+
+        int silla = -1;
+        for( int i = 0; i < cantidad; i++ )
+        {
+            silla = siguienteLibre( silla + 1 );
+            ocupar( silla, silla + 1 );
+            sillas[ i ] = silla;
+        }
+        return sillas;
+    }
+
+    /**
+     * Libera una silla ocupada
+     * @throws IndexOutOfBoundsException Si la silla no existe en el avión
+     * @throws IllegalStateException Si la silla no estaba ocupada
+     */
+    public synchronized void liberarSilla( int silla )
+    {
+        verificarSilla( silla );
+        long bit = 1L << silla;
+        if( ( ocupadas[ silla >>> 6 ] & bit ) == 0 )
+            throw new IllegalStateException( "La silla " + silla + " no está ocupada" );
+        ocupadas[ silla >>> 6 ] &= ~bit;
+        libres++;
+    }
+
+    // --- Recorrido del mapa de bits ---
+
+    /**
+     * Retorna la primera silla libre a partir de la silla dada (incluida), o -1 si no hay
+     */
+    private int siguienteLibre( int desde )
+    {
+        if( desde >= capacidad )
+            return -1;
+        int palabra = desde >>> 6;
+        long bits = ~ocupadas[ palabra ] & ( -1L << desde );
+        while( bits == 0 )
+        {
+            if( ++palabra == ocupadas.length )
+                return -1;
+            bits = ~ocupadas[ palabra ];
+        }
+        int silla = ( palabra << 6 ) + Long.numberOfTrailingZeros( bits );
+        return silla < capacidad ? silla : -1;
+    }
+
+    /**
+     * Retorna la primera silla ocupada a partir de la silla dada (incluida), o la capacidad si no hay
+     */
+    private int siguienteOcupada( int desde )
+    {
+        if( desde >= capacidad )
+            return capacidad;
+        int palabra = desde >>> 6;
+        long bits = ocupadas[ palabra ] & ( -1L << desde );
+        while( bits == 0 )
+        {
+            if( ++palabra == ocupadas.length )
+                return capacidad;
+            bits = ocupadas[ palabra ];
+        }
+        return ( palabra << 6 ) + Long.numberOfTrailingZeros( bits );
+    }
+
+    /**
+     * Ocupa las sillas de un rango, que deben estar libres, encendiendo sus bits palabra por palabra
+     * @param desde La primera silla del rango
+     * @param hasta La silla siguiente a la última del rango
+     */
+    private void ocupar( int desde, int hasta )
+    {
+        int primera = desde >>> 6;
+        int ultima = ( hasta - 1 ) >>> 6;
+        long mascaraInicio = -1L << desde;
+        long mascaraFin = -1L >>> -hasta;
+        if( primera == ultima )
+        {
+            ocupadas[ primera ] |= mascaraInicio & mascaraFin;
+        }
+        else
+        {
+            ocupadas[ primera ] |= mascaraInicio;
+            for( int i = primera + 1; i < ultima; i++ )
+                ocupadas[ i ] = -1L;
+            ocupadas[ ultima ] |= mascaraFin;
+        }
+        libres -= hasta - desde;
+    }
+
+    private void verificarSilla( int silla )
+    {
+        if( silla < 0 || silla >= capacidad )
+            throw new IndexOutOfBoundsException( "El avión no tiene la silla " + silla );
+    }
+}
@@ -0,0 +1,154 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Esta clase calcula en un solo paso las distancias entre todas las parejas de un conjunto de aeropuertos.
+ *
+ * Las coordenadas se reciben en dos arreglos paralelos (latitudes y longitudes, en grados) y las distancias se dejan en un arreglo de tamaño n*n, fila por fila:
+ * la distancia del aeropuerto i al aeropuerto j queda en la posición i*n + j. Cada distancia es exactamente igual a la que calcula
+ * {@link Aeropuerto#calcularDistancia(Aeropuerto, Aeropuerto)}, porque se hacen las mismas operaciones en el mismo orden.
+ *
+ * La fórmula es simétrica (intercambiar los aeropuertos sólo cambia el signo de las diferencias, que luego se elevan al cuadrado), así que sólo se calcula la
+ * mitad superior de la matriz y se copia en la mitad inferior. Las filas se reparten entre los threads de un ForkJoinPool. Dentro de cada fila, los cosenos se
+ * calculan en un primer ciclo y el resto de la fórmula en un segundo ciclo que sólo hace operaciones aritméticas sobre arreglos, para que el compilador de la
+ * JVM lo pueda vectorizar.
+ */
+public class MatrizDistancias
+{
+    /**
+     * La cantidad aproximada de distancias que calcula cada tarea sin dividirse más
+     */
+    private static final int DISTANCIAS_POR_TAREA = 1 << 16;
+
+    /**
+     * Calcula las distancias entre todos los aeropuertos usando el ForkJoinPool común
+     * @param latitudes Las latitudes de los aeropuertos, en grados
+     * @param longitudes Las longitudes de los aeropuertos, en grados
+     * @param distancias El arreglo donde quedan las distancias, en kilómetros. Debe tener tamaño n*n, donde n es la cantidad de aeropuertos.
+     */
+    public static void calcularDistancias( double[] latitudes, double[] longitudes, int[] distancias )
+    {
+        calcularDistancias( latitudes, longitudes, distancias, ForkJoinPool.commonPool( ) );
+    }
+
+    /**
+     * Calcula las distancias entre todos los aeropuertos
+     * @param latitudes Las latitudes de los aeropuertos, en grados
+     * @param longitudes Las longitudes de los aeropuertos, en grados
+     * @param distancias El arreglo donde quedan las distancias, en kilómetros. Debe tener tamaño n*n, donde n es la cantidad de aeropuertos.
+     * @param pool El ForkJoinPool en el que se reparte el cálculo
+     */
+    public static void calcularDistancias( double[] latitudes, double[] longitudes, int[] distancias, ForkJoinPool pool )
+    {
+        int n = latitudes.length;
+        if( longitudes.length != n )
+            throw new IllegalArgumentException( "Hay " + n + " latitudes pero " + longitudes.length + " longitudes" );
+        if( distancias.length != ( long )n * n )
+            throw new IllegalArgumentException( "El arreglo de distancias debe tener " + ( ( long )n * n ) + " posiciones pero tiene " + distancias.length );
+        if( n == 0 )
+            return;
+
+        // Las coordenadas se convierten a radianes una sola vez, igual que lo hace Aeropuerto.calcularDistancia
+        double[] latitudesRadianes = new double[n];
+        double[] longitudesRadianes = new double[n];
+        for( int i = 0; i < n; i++ )
+        {
+            latitudesRadianes[ i ] = Math.toRadians( latitudes[ i ] );
+            longitudesRadianes[ i ] = Math.toRadians( longitudes[ i ] );
+        }
+
+        int filasPorTarea = Math.max( 1, DISTANCIAS_POR_TAREA / n );
+        pool.invoke( new CalculoFilas( latitudesRadianes, longitudesRadianes, distancias, 0, n, filasPorTarea ) );
+    }
+
+    /**
+     * Calcula las distancias entre todos los aeropuertos de una colección, usando el ForkJoinPool común
+     * @param aeropuertos Los aeropuertos
+     * @return Un arreglo de tamaño n*n con las distancias, en el orden en el que la colección recorre los aeropuertos
+     */
+    public static int[] calcularDistancias( Collection<Aeropuerto> aeropuertos )
+    {
+        int n = aeropuertos.size( );
+        if( ( long )n * n > Integer.MAX_VALUE )
+            throw new IllegalArgumentException( "Hay demasiados aeropuertos para calcular todas las distancias en un arreglo: " + n );
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        int i = 0;
+        for( Aeropuerto aeropuerto : aeropuertos )
+        {
+            latitudes[ i ] = aeropuerto.getLatitud( );
+            longitudes[ i ] = aeropuerto.getLongitud( );
+            i++;
+        }
+        int[] distancias = new int[n * n];
+        calcularDistancias( latitudes, longitudes, distancias );
+        return distancias;
+    }
+
+    /**
+     * Calcula las distancias desde el aeropuerto origen hasta los aeropuertos con un índice mayor o igual, y las copia en la columna del aeropuerto origen
+     * @param cosenos Un arreglo de tamaño n para los resultados intermedios
+     */
+    private static void calcularFila( double[] latitudes, double[] longitudes, int[] distancias, int origen, double[] cosenos )
+    {
+        int n = latitudes.length;
+        double latitudOrigen = latitudes[ origen ];
+        double longitudOrigen = longitudes[ origen ];
+        int inicioFila = origen * n;
+
+        for( int j = origen; j < n; j++ )
+            cosenos[ j ] = Math.cos( ( latitudOrigen + latitudes[ j ] ) / 2 );
+
+        for( int j = origen; j < n; j++ )
+        {
+            double deltaX = ( longitudes[ j ] - longitudOrigen ) * cosenos[ j ];
+            double deltaY = ( latitudes[ j ] - latitudOrigen );
+            distancias[ inicioFila + j ] = ( int )Math.round( Math.sqrt( deltaX * deltaX + deltaY * deltaY ) * Aeropuerto.RADIO_TERRESTRE );
+        }
+
+        for( int j = origen + 1; j < n; j++ )
+            distancias[ j * n + origen ] = distancias[ inicioFila + j ];
+    }
+
+    /**
+     * Una tarea que calcula un rango de filas de la matriz, dividiéndolo en dos mientras tenga más filas de las que le corresponden a una tarea
+     */
+    @SuppressWarnings("serial")
+    private static class CalculoFilas extends RecursiveAction
+    {
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final int[] distancias;
+        private final int desde;
+        private final int hasta;
+        private final int filasPorTarea;
+
+        CalculoFilas( double[] latitudes, double[] longitudes, int[] distancias, int desde, int hasta, int filasPorTarea )
+        {
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.distancias = distancias;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.filasPorTarea = filasPorTarea;
+        }
+
+        @Override
+        protected void compute( )
+        {
+            if( hasta - desde <= filasPorTarea )
+            {
+                double[] cosenos = new double[latitudes.length];
+                for( int i = desde; i < hasta; i++ )
+                    calcularFila( latitudes, longitudes, distancias, i, cosenos );
+                return;
+            }
+            int mitad = ( desde + hasta ) >>> 1;
+            invokeAll( new CalculoFilas( latitudes, longitudes, distancias, desde, mitad, filasPorTarea ),
+                    new CalculoFilas( latitudes, longitudes, distancias, mitad, hasta, filasPorTarea ) );
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+/**
+ * Representa la solicitud de programar un vuelo: la fecha, el código de la ruta y el nombre del avión que lo va a realizar.
+ * 
+ * Se usa para programar varios vuelos a la vez con {@link Aerolinea#programarVuelos(java.util.Collection)}.
+ */
+public class ProgramacionVuelo
+{
+    private String fecha;
+    private String codigoRuta;
+    private String nombreAvion;
+
+    /**
+     * Construye una nueva solicitud de programación.
+     * @param fecha La fecha del vuelo, con el formato "YYYY-MM-DD"
+     * @param codigoRuta El código de la ruta que cubre el vuelo
+     * @param nombreAvion El nombre del avión asignado al vuelo
+     */
+    public ProgramacionVuelo( String fecha, String codigoRuta, String nombreAvion )
+    {
+        this.fecha = fecha;
+        this.codigoRuta = codigoRuta;
+        this.nombreAvion = nombreAvion;
+    }
+
+    public String getFecha( )
+    {
+        return fecha;
+    }
+
+    public String getCodigoRuta( )
+    {
+        return codigoRuta;
+    }
+
+    public String getNombreAvion( )
+    {
+        return nombreAvion;
+    }
+}
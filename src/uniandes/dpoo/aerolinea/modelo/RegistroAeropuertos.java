@@ -0,0 +1,136 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
+
+/**
+ * Esta clase mantiene los aeropuertos de una aerolínea indexados por su código, de forma que haya un solo objeto por cada aeropuerto y que todas las rutas que
+ * salen o llegan a un aeropuerto compartan ese objeto.
+ *
+ * Registrar un aeropuerto cuyo código ya existe retorna el aeropuerto que ya estaba registrado, siempre que los dos tengan la misma información. Si la
+ * información es distinta, se considera que el código está duplicado.
+ *
+ * Cada aeropuerto registrado recibe un identificador numérico (ver {@link Aeropuerto#getId()}): su posición en el orden de registro. Con estos identificadores se
+ * pueden indexar los aeropuertos en arreglos o conjuntos de bits en lugar de tablas de hash por código. Un mismo objeto no se puede registrar en dos registros:
+ * si llega un aeropuerto que ya tiene el identificador de otro registro, se registra una copia.
+ */
+public class RegistroAeropuertos
+{
+    /**
+     * Los aeropuertos registrados, indexados por su código, en el orden en el que se registraron
+     */
+    private Map<String, Aeropuerto> aeropuertos;
+
+    /**
+     * Los aeropuertos registrados, en la posición de su identificador
+     */
+    private List<Aeropuerto> aeropuertosPorId;
+
+    public RegistroAeropuertos( )
+    {
+        aeropuertos = new LinkedHashMap<String, Aeropuerto>( );
+        aeropuertosPorId = new ArrayList<Aeropuerto>( );
+    }
+
+    /**
+     * Retorna el aeropuerto con el código indicado
+     * @param codigo El código del aeropuerto
+     * @return El aeropuerto, o null si no hay un aeropuerto registrado con ese código
+     */
+    public Aeropuerto getAeropuerto( String codigo )
+    {
+        return aeropuertos.get( codigo );
+    }
+
+    /**
+     * Retorna el aeropuerto con el identificador indicado
+     * @param id El identificador del aeropuerto, entre 0 y la cantidad de aeropuertos registrados menos 1
+     * @return El aeropuerto, o null si no hay un aeropuerto registrado con ese identificador
+     */
+    public Aeropuerto getAeropuerto( int id )
+    {
+        return id >= 0 && id < aeropuertosPorId.size( ) ? aeropuertosPorId.get( id ) : null;
+    }
+
+    public boolean existeAeropuerto( String codigo )
+    {
+        return aeropuertos.containsKey( codigo );
+    }
+
+    /**
+     * Retorna los aeropuertos registrados, en el orden en el que se registraron
+     */
+    public Collection<Aeropuerto> getAeropuertos( )
+    {
+        return Collections.unmodifiableCollection( aeropuertos.values( ) );
+    }
+
+    public int getCantidadAeropuertos( )
+    {
+        return aeropuertos.size( );
+    }
+
+    /**
+     * Registra un aeropuerto, si no había uno registrado con el mismo código
+     * @param aeropuerto El aeropuerto que se quiere registrar
+     * @return El aeropuerto que queda registrado con el código: el mismo que llegó por parámetro, o el que ya estaba registrado
+     * @throws AeropuertoDuplicadoException Si ya había un aeropuerto con el mismo código pero con información distinta
+     */
+    public Aeropuerto registrarAeropuerto( Aeropuerto aeropuerto ) throws AeropuertoDuplicadoException
+    {
+        Aeropuerto registrado = aeropuertos.get( aeropuerto.getCodigo( ) );
+        if( registrado == null )
+        {
+            // Un aeropuerto con identificador ya pertenece a otro registro
+            if( aeropuerto.getId( ) >= 0 )
+                return registrarAeropuerto( aeropuerto.getNombre( ), aeropuerto.getCodigo( ), aeropuerto.getNombreCiudad( ), aeropuerto.getLatitud( ),
+                        aeropuerto.getLongitud( ) );
+            agregar( aeropuerto );
+            return aeropuerto;
+        }
+        if( registrado != aeropuerto && !mismaInformacion( registrado, aeropuerto.getNombre( ), aeropuerto.getNombreCiudad( ), aeropuerto.getLatitud( ),
+                aeropuerto.getLongitud( ) ) )
+            throw new AeropuertoDuplicadoException( aeropuerto.getCodigo( ) );
+        return registrado;
+    }
+
+    /**
+     * Retorna el aeropuerto registrado con el código indicado, o crea y registra uno nuevo si no había ninguno. Sólo se crea un objeto cuando el aeropuerto no
+     * estaba registrado.
+     * @return El aeropuerto registrado con el código
+     * @throws AeropuertoDuplicadoException Si ya había un aeropuerto con el mismo código pero con información distinta
+     */
+    public Aeropuerto registrarAeropuerto( String nombre, String codigo, String nombreCiudad, double latitud, double longitud ) throws AeropuertoDuplicadoException
+    {
+        Aeropuerto registrado = aeropuertos.get( codigo );
+        if( registrado == null )
+        {
+            registrado = new Aeropuerto( nombre, codigo, nombreCiudad, latitud, longitud );
+            agregar( registrado );
+        }
+        else if( !mismaInformacion( registrado, nombre, nombreCiudad, latitud, longitud ) )
+        {
+            throw new AeropuertoDuplicadoException( codigo );
+        }
+        return registrado;
+    }
+
+    private void agregar( Aeropuerto aeropuerto )
+    {
+        aeropuerto.asignarId( aeropuertosPorId.size( ) );
+        aeropuertosPorId.add( aeropuerto );
+        aeropuertos.put( aeropuerto.getCodigo( ), aeropuerto );
+    }
+
+    private static boolean mismaInformacion( Aeropuerto aeropuerto, String nombre, String nombreCiudad, double latitud, double longitud )
+    {
+        return aeropuerto.getNombre( ).equals( nombre ) && aeropuerto.getNombreCiudad( ).equals( nombreCiudad )
+                && Double.compare( aeropuerto.getLatitud( ), latitud ) == 0 && Double.compare( aeropuerto.getLongitud( ), longitud ) == 0;
+    }
+}
@@ -2,6 +2,8 @@ package uniandes.dpoo.aerolinea.modelo;
 
 /**
  * Esta clase tiene la información de una ruta entre dos aeropuertos que cubre una aerolínea.
+ *
+ * Dos rutas son iguales si tienen el mismo código.
  */
 public class Ruta
 {
@@ -12,6 +14,17 @@ public class Ruta
     private Aeropuerto origen;
     private Aeropuerto destino;
 
+    /**
+     * Distancia entre el origen y el destino, en kilómetros. Se calcula la primera vez que se necesita: vale -1 mientras no se haya calculado.
+     */
+    private int distancia = -1;
+
+    /**
+     * Número que le asigna la aerolínea a la ruta cuando la registra, consecutivo desde 0. Si la ruta reemplaza a otra con el mismo código, recibe el número de
+     * la ruta anterior. Vale -1 si la ruta no se ha registrado.
+     */
+    private int id = -1;
+
     // Constructor
     /**
      * Construye una nueva ruta con la información de origen, destino, horarios y código.
@@ -41,6 +54,16 @@ public class Ruta
         return destino;
     }
 
+    /**
+     * Cambia los aeropuertos de la ruta por los objetos que quedaron registrados en la aerolínea con los mismos códigos (ver {@link RegistroAeropuertos}).
+     * Como los aeropuertos registrados tienen la misma información, la distancia no cambia.
+     */
+    void usarAeropuertosRegistrados(Aeropuerto origenRegistrado, Aeropuerto destinoRegistrado)
+    {
+        this.origen = origenRegistrado;
+        this.destino = destinoRegistrado;
+    }
+
     public String getHoraSalida()
     {
         return horaSalida;
@@ -51,6 +74,35 @@ public class Ruta
         return horaLlegada;
     }
 
+    /**
+     * Retorna el número que le asignó la aerolínea a la ruta, o -1 si no se ha registrado.
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    void asignarId(int id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * Retorna la distancia entre el origen y el destino de la ruta, en kilómetros.
+     * Como los aeropuertos de una ruta no cambian, la distancia se calcula una sola vez.
+     * @return La distancia calculada con {@link Aeropuerto#calcularDistancia(Aeropuerto, Aeropuerto)}
+     */
+    public int getDistancia()
+    {
+        int laDistancia = distancia;
+        if (laDistancia < 0)
+        {
+            laDistancia = Aeropuerto.calcularDistancia(origen, destino);
+            distancia = laDistancia;
+        }
+        return laDistancia;
+    }
+
     /**
      * Calcula la duración del vuelo en minutos.
      * Si la llegada es menor a la salida, se asume que llega el día siguiente.
@@ -72,23 +124,56 @@ public class Ruta
         return duracion;
     }
 
+    /**
+     * Retorna la hora de salida como la cantidad de minutos desde la medianoche.
+     */
+    public int getMinutoSalida()
+    {
+        return getHoras(horaSalida) * 60 + getMinutos(horaSalida);
+    }
+
     /**
      * Dada una cadena con una hora y minutos, retorna los minutos.
-     * Por ejemplo, para la cadena '715' retorna 15.
+     * Por ejemplo, para la cadena '715' retorna 15. También acepta horas con dos puntos, como '7:15'.
      */
     public static int getMinutos( String horaCompleta )
     {
-        int minutos = Integer.parseInt( horaCompleta ) % 100;
+        int minutos = valorHora( horaCompleta ) % 100;
         return minutos;
     }
 
     /**
      * Dada una cadena con una hora y minutos, retorna las horas.
-     * Por ejemplo, para la cadena '715' retorna 7.
+     * Por ejemplo, para la cadena '715' retorna 7. También acepta horas con dos puntos, como '7:15'.
      */
     public static int getHoras( String horaCompleta )
     {
-        int horas = Integer.parseInt( horaCompleta ) / 100;
+        int horas = valorHora( horaCompleta ) / 100;
         return horas;
     }
+
+    /**
+     * Convierte una hora como '715' o '7:15' en el número 715
+     */
+    private static int valorHora( String horaCompleta )
+    {
+        int dosPuntos = horaCompleta.indexOf( ':' );
+        if( dosPuntos < 0 )
+            return Integer.parseInt( horaCompleta );
+        return Integer.parseInt( horaCompleta.substring( 0, dosPuntos ) ) * 100 + Integer.parseInt( horaCompleta.substring( dosPuntos + 1 ) );
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof Ruta)) return false;
+        return codigoRuta.equals(((Ruta) obj).codigoRuta);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return codigoRuta.hashCode();
+    }
 }
@@ -0,0 +1,491 @@
+package uniandes.dpoo.aerolinea.modelo;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Esta clase guarda la información de los tiquetes de una aerolínea por columnas, para calcular totales sobre todos los tiquetes sin recorrer los objetos.
+ *
+ * Cada tiquete ocupa una fila (ver {@link Tiquete#getFila()}), y la información de la fila i está en tarifas[i], vuelos[i] (el identificador del vuelo),
+ * clientes[i] (el identificador del cliente, o -1 si el cliente no está registrado en la aerolínea) y en el bit i del mapa de tiquetes usados. La tabla se
+ * mantiene al mismo tiempo que el modelo: los vuelos le agregan los tiquetes que venden o que se cargan, le avisan cuando uno de sus tiquetes se usa y le quitan
+ * los tiquetes que se cancelan. Las filas de los tiquetes cancelados se quedan en la tabla con tarifa 0, así que no afectan ningún total.
+ *
+ * Las columnas están divididas en bloques de {@link #FILAS_POR_BLOQUE} filas que no cambian de tamaño. Para agregar tiquetes se reservan sus filas con un
+ * contador atómico y cada thread escribe en sus propias filas, así que varios vuelos pueden agregar tiquetes al mismo tiempo sin tomar un candado: la tabla no
+ * vuelve a poner un candado de toda la aerolínea en la venta de tiquetes. El directorio de bloques se reemplaza con compareAndSet cuando hace falta un bloque
+ * nuevo, y los bits de los tiquetes usados se cambian con compareAndSet porque una palabra tiene los bits de 64 filas.
+ *
+ * Los totales se calculan en un ForkJoinPool: cada tarea suma un rango de bloques en su propio arreglo de totales y los arreglos de las tareas se suman al final.
+ * Para agrupar por ruta, por mes o por tipo de cliente se construye antes un arreglo que dice a qué grupo pertenece cada vuelo o cada cliente, de modo que el
+ * recorrido de las filas sólo lee arreglos de tipos primitivos.
+ *
+ * Un cálculo ve las filas que había cuando empezó. Si mientras tanto se venden, se usan o se cancelan tiquetes, el resultado puede incluir o no esos cambios.
+ *
+ * La tarifa es lo que publica una fila: se escribe de última, con una escritura ordenada (lazySet) después del vuelo y el cliente, y los cálculos leen la
+ * tarifa antes que el resto de la fila. Así, un cálculo que lee una tarifa distinta de 0 también ve el vuelo y el cliente de la fila, y una fila reservada que
+ * todavía no se ha publicado tiene tarifa 0 y se salta.
+ */
+public class TablaTiquetes
+{
+    private static final int BITS_BLOQUE = 14;
+
+    /**
+     * La cantidad de filas de cada bloque
+     */
+    private static final int FILAS_POR_BLOQUE = 1 << BITS_BLOQUE;
+
+    /**
+     * La cantidad de bloques que suma cada tarea sin dividirse más
+     */
+    private static final int BLOQUES_POR_TAREA = 4;
+
+    private final Aerolinea aerolinea;
+
+    /**
+     * La cantidad de filas reservadas, incluyendo las de los tiquetes cancelados
+     */
+    private final AtomicInteger tamano;
+
+    private final AtomicInteger cancelados;
+
+    /**
+     * Los bloques de filas, en orden. El bloque i tiene las filas desde i * FILAS_POR_BLOQUE. Un bloque puede ser null si sus filas ya se reservaron pero el
+     * thread que las reservó todavía no lo ha creado.
+     */
+    private final AtomicReference<Bloque[]> bloques;
+
+    /**
+     * Crea una tabla vacía
+     * @param aerolinea La aerolínea dueña de los vuelos y los clientes de los tiquetes
+     */
+    public TablaTiquetes( Aerolinea aerolinea )
+    {
+        this.aerolinea = aerolinea;
+        tamano = new AtomicInteger( );
+        cancelados = new AtomicInteger( );
+        bloques = new AtomicReference<Bloque[]>( new Bloque[0] );
+    }
+
+    /**
+     * Retorna la cantidad de tiquetes que están en la tabla, sin contar los cancelados
+     */
+    public int getCantidadTiquetes( )
+    {
+        return tamano.get( ) - cancelados.get( );
+    }
+
+    // ************************************************************************************
+    // Mantenimiento de la tabla
+    // ************************************************************************************
+
+    /**
+     * Agrega un tiquete en una fila nueva y le asigna la fila. El vuelo del tiquete debe estar registrado en la aerolínea.
+     */
+    void agregarTiquete( Tiquete tiquete )
+    {
+        escribirFila( tamano.getAndIncrement( ), tiquete );
+    }
+
+    /**
+     * Agrega varios tiquetes, en filas consecutivas
+     */
+    void agregarTiquetes( Collection<Tiquete> nuevos )
+    {
+        int fila = tamano.getAndAdd( nuevos.size( ) );
+        for( Tiquete tiquete : nuevos )
+            escribirFila( fila++, tiquete );
+    }
+
+    /**
+     * Marca como usado el tiquete de una fila
+     */
+    void marcarUsado( int fila )
+    {
+        bloque( fila >>> BITS_BLOQUE ).cambiarUsado( fila, true );
+    }
+
+    /**
+     * Quita un tiquete cancelado de la tabla: su fila queda con tarifa 0 y sin usar
+     */
+    void eliminarTiquete( Tiquete tiquete )
+    {
+        int fila = tiquete.getFila( );
+        if( fila < 0 )
+            return;
+        Bloque bloque = bloque( fila >>> BITS_BLOQUE );
+        bloque.tarifas.set( fila & ( FILAS_POR_BLOQUE - 1 ), 0 );
+        bloque.cambiarUsado( fila, false );
+        cancelados.incrementAndGet( );
+        tiquete.asignarFila( -1 );
+    }
+
+    private void escribirFila( int fila, Tiquete tiquete )
+    {
+        Bloque bloque = bloque( fila >>> BITS_BLOQUE );
+        int posicion = fila & ( FILAS_POR_BLOQUE - 1 );
+        bloque.vuelos[ posicion ] = tiquete.getVuelo( ).getId( );
+        Cliente cliente = tiquete.getCliente( );
+        bloque.clientes[ posicion ] = aerolinea.getCliente( cliente.getId( ) ) == cliente ? cliente.getId( ) : -1;
+        if( tiquete.esUsado( ) )
+            bloque.cambiarUsado( fila, true );
+        // La tarifa publica la fila, así que se escribe de última
+        bloque.tarifas.lazySet( posicion, tiquete.getTarifa( ) );
+        tiquete.asignarFila( fila );
+    }
+
+    /**
+     * Retorna un bloque, creándolo si todavía no existe. Si dos threads crean el mismo bloque, sólo queda el que logra reemplazar primero el directorio.
+     */
+    private Bloque bloque( int numero )
+    {
+        while( true )
+        {
+            Bloque[] actuales = bloques.get( );
+            if( numero < actuales.length && actuales[ numero ] != null )
+                return actuales[ numero ];
+            Bloque[] nuevos = Arrays.copyOf( actuales, Math.max( numero + 1, actuales.length ) );
+            nuevos[ numero ] = new Bloque( );
+            if( bloques.compareAndSet( actuales, nuevos ) )
+                return nuevos[ numero ];
+        }
+    }
+
+    /**
+     * Las columnas de FILAS_POR_BLOQUE filas consecutivas. El bit de la fila i del bloque está en la palabra i / 64 de usados.
+     */
+    private static class Bloque
+    {
+        final AtomicIntegerArray tarifas = new AtomicIntegerArray( FILAS_POR_BLOQUE );
+        final int[] vuelos = new int[FILAS_POR_BLOQUE];
+        final int[] clientes = new int[FILAS_POR_BLOQUE];
+        final AtomicLongArray usados = new AtomicLongArray( FILAS_POR_BLOQUE >>> 6 );
+
+        void cambiarUsado( int fila, boolean usado )
+        {
+            int palabra = ( fila & ( FILAS_POR_BLOQUE - 1 ) ) >>> 6;
+            long bit = 1L << fila;
+            long actual;
+            do
+            {
+                actual = usados.get( palabra );
+            } while( !usados.compareAndSet( palabra, actual, usado ? actual | bit : actual & ~bit ) );
+        }
+    }
+
+    // ************************************************************************************
+    // Totales
+    // ************************************************************************************
+
+    /**
+     * Calcula los ingresos de cada vuelo: la suma de las tarifas de sus tiquetes
+     * @return Un arreglo con los ingresos de cada vuelo en la posición de su identificador (ver {@link Vuelo#getId()})
+     */
+    public long[] calcularIngresosPorVuelo( )
+    {
+        Filas filas = tomarFilas( );
+        int numVuelos = aerolinea.getVuelos( ).size( );
+        int[] grupos = nuevosGrupos( numVuelos, numVuelos );
+        for( int vuelo = 0; vuelo < numVuelos; vuelo++ )
+            grupos[ vuelo + 1 ] = vuelo;
+        return sumarPorGrupo( filas, false, grupos, numVuelos );
+    }
+
+    /**
+     * Calcula los ingresos de cada ruta: la suma de las tarifas de los tiquetes de todos sus vuelos
+     * @return Un arreglo con los ingresos de cada ruta en la posición de su identificador (ver {@link Ruta#getId()})
+     */
+    public long[] calcularIngresosPorRuta( )
+    {
+        Filas filas = tomarFilas( );
+        int numRutas = 0;
+        for( Ruta ruta : aerolinea.getRutas( ) )
+            numRutas = Math.max( numRutas, ruta.getId( ) + 1 );
+        int[] grupos = nuevosGrupos( aerolinea.getVuelos( ).size( ), numRutas );
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+            grupos[ vuelo.getId( ) + 1 ] = vuelo.getRuta( ).getId( );
+        return sumarPorGrupo( filas, false, grupos, numRutas );
+    }
+
+    /**
+     * Calcula los ingresos de cada mes, según la fecha de los vuelos
+     * @return Los ingresos de cada mes en el que hay vuelos, ordenados por mes
+     */
+    public SortedMap<YearMonth, Long> calcularIngresosPorMes( )
+    {
+        Filas filas = tomarFilas( );
+        Collection<Vuelo> todos = aerolinea.getVuelos( );
+        SortedMap<YearMonth, Long> ingresos = new TreeMap<YearMonth, Long>( );
+        if( todos.isEmpty( ) )
+            return ingresos;
+
+        // Los meses se numeran a partir del mes del primer vuelo
+        int primerMes = Integer.MAX_VALUE;
+        int ultimoMes = Integer.MIN_VALUE;
+        for( Vuelo vuelo : todos )
+        {
+            int mes = numeroMes( vuelo.getFechaLocal( ) );
+            primerMes = Math.min( primerMes, mes );
+            ultimoMes = Math.max( ultimoMes, mes );
+        }
+        int numMeses = ultimoMes - primerMes + 1;
+        int[] grupos = nuevosGrupos( todos.size( ), numMeses );
+        for( Vuelo vuelo : todos )
+            grupos[ vuelo.getId( ) + 1 ] = numeroMes( vuelo.getFechaLocal( ) ) - primerMes;
+
+        long[] sumas = sumarPorGrupo( filas, false, grupos, numMeses );
+        for( int mes = 0; mes < numMeses; mes++ )
+        {
+            if( sumas[ mes ] != 0 )
+                ingresos.put( YearMonth.of( ( primerMes + mes ) / 12, ( primerMes + mes ) % 12 + 1 ), sumas[ mes ] );
+        }
+        return ingresos;
+    }
+
+    /**
+     * Calcula los ingresos de cada tipo de cliente (ver {@link Cliente#getTipoCliente()}). Los tiquetes de clientes que no están registrados en la aerolínea no
+     * se cuentan.
+     * @return Los ingresos de cada tipo de cliente que tiene tiquetes
+     */
+    public Map<String, Long> calcularIngresosPorTipoCliente( )
+    {
+        Filas filas = tomarFilas( );
+        Collection<Cliente> todos = aerolinea.getClientes( );
+        Map<String, Integer> tipos = new LinkedHashMap<String, Integer>( );
+        int numClientes = 0;
+        for( Cliente cliente : todos )
+        {
+            numClientes = Math.max( numClientes, cliente.getId( ) + 1 );
+            if( !tipos.containsKey( cliente.getTipoCliente( ) ) )
+                tipos.put( cliente.getTipoCliente( ), tipos.size( ) );
+        }
+        int[] grupos = nuevosGrupos( numClientes, tipos.size( ) );
+        for( Cliente cliente : todos )
+            grupos[ cliente.getId( ) + 1 ] = tipos.get( cliente.getTipoCliente( ) );
+
+        long[] sumas = sumarPorGrupo( filas, true, grupos, tipos.size( ) );
+        Map<String, Long> ingresos = new LinkedHashMap<String, Long>( );
+        for( Map.Entry<String, Integer> tipo : tipos.entrySet( ) )
+        {
+            if( sumas[ tipo.getValue( ) ] != 0 )
+                ingresos.put( tipo.getKey( ), sumas[ tipo.getValue( ) ] );
+        }
+        return ingresos;
+    }
+
+    /**
+     * Calcula el valor de los tiquetes que no se han usado
+     */
+    public long calcularValorPendiente( )
+    {
+        long[] valores = calcularValores( );
+        return valores[ 0 ] - valores[ 1 ];
+    }
+
+    /**
+     * Calcula el valor de los tiquetes que ya se usaron
+     */
+    public long calcularValorUsado( )
+    {
+        return calcularValores( )[ 1 ];
+    }
+
+    /**
+     * Calcula en un solo recorrido el valor de todos los tiquetes y el valor de los tiquetes usados
+     * @return Un arreglo con el valor total en la posición 0 y el valor usado en la posición 1
+     */
+    private long[] calcularValores( )
+    {
+        Filas filas = tomarFilas( );
+        return ForkJoinPool.commonPool( ).invoke( new SumaValores( filas, 0, filas.bloques.length ) );
+    }
+
+    private static int numeroMes( LocalDate fecha )
+    {
+        return fecha.getYear( ) * 12 + fecha.getMonthValue( ) - 1;
+    }
+
+    /**
+     * Crea el arreglo que dice a qué grupo pertenece cada identificador. La posición id + 1 corresponde al identificador id, y la posición 0 corresponde al
+     * identificador -1. Todas las posiciones empiezan en el grupo numGrupos, que se descarta al final.
+     */
+    private static int[] nuevosGrupos( int numIdentificadores, int numGrupos )
+    {
+        int[] grupos = new int[numIdentificadores + 1];
+        Arrays.fill( grupos, numGrupos );
+        return grupos;
+    }
+
+    /**
+     * Suma las tarifas de las filas según el grupo del vuelo o del cliente de cada fila
+     * @param porCliente Si las filas se agrupan por el identificador de su cliente; si no, por el de su vuelo
+     */
+    private static long[] sumarPorGrupo( Filas filas, boolean porCliente, int[] grupos, int numGrupos )
+    {
+        long[] sumas = ForkJoinPool.commonPool( ).invoke( new SumaPorGrupo( filas, porCliente, grupos, numGrupos, 0, filas.bloques.length ) );
+        return Arrays.copyOf( sumas, numGrupos );
+    }
+
+    /**
+     * Toma los bloques y la cantidad de filas actuales. Las filas que se reserven después no se incluyen.
+     */
+    private Filas tomarFilas( )
+    {
+        int filas = tamano.get( );
+        Bloque[] actuales = bloques.get( );
+        return new Filas( filas, Arrays.copyOf( actuales, Math.min( actuales.length, ( filas + FILAS_POR_BLOQUE - 1 ) >>> BITS_BLOQUE ) ) );
+    }
+
+    /**
+     * Los bloques de la tabla en un momento dado
+     */
+    private static class Filas
+    {
+        final int tamano;
+        final Bloque[] bloques;
+
+        Filas( int tamano, Bloque[] bloques )
+        {
+            this.tamano = tamano;
+            this.bloques = bloques;
+        }
+
+        /**
+         * Retorna la cantidad de filas tomadas del bloque dado
+         */
+        int filasBloque( int numero )
+        {
+            return bloques[ numero ] == null ? 0 : Math.min( FILAS_POR_BLOQUE, tamano - ( numero << BITS_BLOQUE ) );
+        }
+    }
+
+    /**
+     * Una tarea que suma las tarifas de un rango de bloques según el grupo de la clave (vuelo o cliente) de cada fila, dividiendo el rango en dos mientras
+     * tenga más bloques de los que le corresponden a una tarea. Retorna un arreglo con numGrupos + 1 sumas, la última del grupo que se descarta.
+     */
+    @SuppressWarnings("serial")
+    private static class SumaPorGrupo extends RecursiveTask<long[]>
+    {
+        private final Filas filas;
+        private final boolean porCliente;
+        private final int[] grupos;
+        private final int numGrupos;
+        private final int desde;
+        private final int hasta;
+
+        SumaPorGrupo( Filas filas, boolean porCliente, int[] grupos, int numGrupos, int desde, int hasta )
+        {
+            this.filas = filas;
+            this.porCliente = porCliente;
+            this.grupos = grupos;
+            this.numGrupos = numGrupos;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected long[] compute( )
+        {
+            if( hasta - desde <= BLOQUES_POR_TAREA )
+            {
+                long[] sumas = new long[numGrupos + 1];
+                for( int b = desde; b < hasta; b++ )
+                {
+                    int n = filas.filasBloque( b );
+                    if( n == 0 )
+                        continue;
+                    AtomicIntegerArray tarifas = filas.bloques[ b ].tarifas;
+                    int[] claves = porCliente ? filas.bloques[ b ].clientes : filas.bloques[ b ].vuelos;
+                    for( int i = 0; i < n; i++ )
+                    {
+                        // La clave sólo se lee si la fila ya se publicó
+                        int tarifa = tarifas.get( i );
+                        if( tarifa != 0 )
+                            sumas[ grupos[ claves[ i ] + 1 ] ] += tarifa;
+                    }
+                }
+                return sumas;
+            }
+            int mitad = ( desde + hasta ) >>> 1;
+            SumaPorGrupo izquierda = new SumaPorGrupo( filas, porCliente, grupos, numGrupos, desde, mitad );
+            izquierda.fork( );
+            long[] sumas = new SumaPorGrupo( filas, porCliente, grupos, numGrupos, mitad, hasta ).compute( );
+            long[] sumasIzquierda = izquierda.join( );
+            for( int g = 0; g <= numGrupos; g++ )
+                sumas[ g ] += sumasIzquierda[ g ];
+            return sumas;
+        }
+    }
+
+    /**
+     * Una tarea que suma las tarifas de un rango de bloques y las tarifas de las filas usadas. Los bits de las filas usadas se leen de a una palabra, y la
+     * tarifa de una fila usada se suma con una máscara que vale -1 si el bit de la fila está encendido y 0 si no, para que el ciclo no tenga saltos.
+     */
+    @SuppressWarnings("serial")
+    private static class SumaValores extends RecursiveTask<long[]>
+    {
+        private final Filas filas;
+        private final int desde;
+        private final int hasta;
+
+        SumaValores( Filas filas, int desde, int hasta )
+        {
+            this.filas = filas;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected long[] compute( )
+        {
+            if( hasta - desde <= BLOQUES_POR_TAREA )
+            {
+                long total = 0;
+                long usado = 0;
+                for( int b = desde; b < hasta; b++ )
+                {
+                    int n = filas.filasBloque( b );
+                    if( n == 0 )
+                        continue;
+                    Bloque bloque = filas.bloques[ b ];
+                    AtomicIntegerArray tarifas = bloque.tarifas;
+                    for( int palabra = 0; palabra << 6 < n; palabra++ )
+                    {
+                        long bits = bloque.usados.get( palabra );
+                        int fin = Math.min( n, ( palabra + 1 ) << 6 );
+                        for( int i = palabra << 6; i < fin; i++ )
+                        {
+                            int tarifa = tarifas.get( i );
+                            total += tarifa;
+                            usado += tarifa & -( int ) ( ( bits >>> i ) & 1 );
+                        }
+                    }
+                }
+                return new long[]{ total, usado };
+            }
+            int mitad = ( desde + hasta ) >>> 1;
+            SumaValores izquierda = new SumaValores( filas, desde, mitad );
+            izquierda.fork( );
+            long[] valores = new SumaValores( filas, mitad, hasta ).compute( );
+            long[] valoresIzquierda = izquierda.join( );
+            valores[ 0 ] += valoresIzquierda[ 0 ];
+            valores[ 1 ] += valoresIzquierda[ 1 ];
+            return valores;
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package uniandes.dpoo.aerolinea.modelo;
 
+import java.time.LocalDate;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
 import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
@@ -12,26 +20,96 @@ import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
 
 /**
  * Representa un vuelo programado por la aerolínea.
+ * 
+ * Se pueden vender tiquetes de un mismo vuelo desde varios threads a la vez: los cupos se reservan con una operación atómica sobre el contador de cupos
+ * disponibles (sin bloquear el vuelo) y los tiquetes emitidos se agregan a una cola concurrente.
+ * 
+ * Cada tiquete ocupa una silla del avión, que se asigna en el {@link MapaSillas} del vuelo después de reservar el cupo: los tiquetes de una misma venta quedan
+ * en sillas contiguas siempre que sea posible.
+ * 
+ * Cuando el vuelo se realiza ({@link #marcarComoRealizado()}) se cierran las ventas, todos sus tiquetes se marcan como usados y los tiquetes de la cola se pasan
+ * a una lista que ya no cambia, que es más compacta y más rápida de recorrer.
  */
 public class Vuelo {
 
     // --- Atributos ---
 
     private String fecha;
+
+    /**
+     * La fecha del vuelo, interpretada una sola vez cuando se crea el vuelo.
+     */
+    private LocalDate fechaLocal;
+
     private Ruta ruta;
     private Avion avion;
-    private Collection<Tiquete> tiquetes;
+    private Queue<Tiquete> tiquetes;
+
+    /**
+     * Tiquetes del vuelo que no están en el heap sino en un archivo (ver {@link uniandes.dpoo.aerolinea.tiquetes.AlmacenTiquetesMapeado}). Es null si el vuelo
+     * no tiene tiquetes archivados.
+     */
+    private volatile Collection<Tiquete> tiquetesArchivados;
+
+    /**
+     * Tiquetes que estaban en la cola cuando el vuelo se realizó. Es null si el vuelo no se ha realizado.
+     */
+    private volatile List<Tiquete> tiquetesRealizados;
+
+    /**
+     * Indica que el vuelo se empezó a realizar. Se enciende antes de sacar los tiquetes de la cola, así que una venta que agrega sus tiquetes a la cola y
+     * después lo encuentra apagado tiene la garantía de que {@link #marcarComoRealizado()} va a encontrar esos tiquetes en la cola.
+     */
+    private volatile boolean cerrado;
+
+    /**
+     * Cantidad de sillas del avión que todavía no se han vendido.
+     */
+    private AtomicInteger cuposDisponibles;
+
+    /**
+     * Las sillas del avión que ocupan los tiquetes del vuelo. Una silla se ocupa después de reservar su cupo y se libera antes de devolverlo, así que siempre
+     * hay al menos tantas sillas libres como cupos disponibles.
+     */
+    private MapaSillas sillas;
+
+    /**
+     * Número que le asigna la aerolínea al vuelo cuando lo programa, consecutivo desde 0. Vale -1 si el vuelo no se ha programado en una aerolínea.
+     */
+    private int id = -1;
+
+    /**
+     * La tabla de tiquetes de la aerolínea en la que se programó el vuelo, a la que se le avisa cuando se agregan, se usan o se cancelan tiquetes del vuelo.
+     * Es null si el vuelo no se ha programado en una aerolínea.
+     */
+    private TablaTiquetes tablaTiquetes;
+
+    /**
+     * Los totales de los tiquetes de la aerolínea, que se actualizan con los mismos cambios que la tabla de tiquetes. Es null si el vuelo no se ha programado
+     * en una aerolínea.
+     */
+    private AgregadosTiquetes agregados;
+
+    /**
+     * Indica si al vuelo se le agregaron tiquetes, o alguno de sus tiquetes cambió, desde la última vez que se salvaron los tiquetes.
+     */
+    private volatile boolean modificado;
 
     // --- Constructor ---
 
     /**
      * Crea un nuevo vuelo con su ruta, fecha y avión asignado.
+     * @param fecha La fecha del vuelo, con el formato "YYYY-MM-DD"
+     * @throws java.time.format.DateTimeParseException Si la fecha no tiene el formato esperado
      */
     public Vuelo(Ruta ruta, String fecha, Avion avion) {
         this.ruta = ruta;
         this.fecha = fecha;
+        this.fechaLocal = LocalDate.parse(fecha);
         this.avion = avion;
-        this.tiquetes = new ArrayList<>(); // Inicializa la colección de tiquetes vendidos
+        this.tiquetes = new ConcurrentLinkedQueue<>(); // Inicializa la colección de tiquetes vendidos
+        this.cuposDisponibles = new AtomicInteger(avion.getCapacidad());
+        this.sillas = new MapaSillas(avion.getCapacidad());
     }
 
     // --- Getters ---
@@ -44,12 +122,88 @@ public class Vuelo {
         return fecha;
     }
 
+    /**
+     * Retorna la fecha del vuelo como un LocalDate.
+     */
+    public LocalDate getFechaLocal() {
+        return fechaLocal;
+    }
+
     public Avion getAvion() {
         return avion;
     }
 
+    /**
+     * Retorna el número que le asignó la aerolínea al vuelo, o -1 si no se ha programado.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void asignarId(int id) {
+        this.id = id;
+    }
+
+    void asignarTablaTiquetes(TablaTiquetes tablaTiquetes, AgregadosTiquetes agregados) {
+        this.tablaTiquetes = tablaTiquetes;
+        this.agregados = agregados;
+    }
+
+    /**
+     * Retorna los tiquetes vendidos para el vuelo. La colección no se puede modificar: para agregar tiquetes se debe usar
+     * {@link #agregarTiquete(Tiquete)} o {@link #venderTiquetes(Cliente, CalculadoraTarifas, int)}.
+     */
     public Collection<Tiquete> getTiquetes() {
-        return tiquetes;
+        Collection<Tiquete> archivados = tiquetesArchivados;
+        List<Tiquete> realizados = tiquetesRealizados;
+        if (archivados == null && realizados == null) {
+            return Collections.unmodifiableCollection(tiquetes);
+        }
+        // Primero los tiquetes archivados, después los que había cuando se realizó el vuelo y al final los que siguen en la cola
+        List<Collection<Tiquete>> partes = new ArrayList<>(3);
+        if (archivados != null) {
+            partes.add(archivados);
+        }
+        if (realizados != null) {
+            partes.add(realizados);
+        }
+        partes.add(tiquetes);
+        return new AbstractCollection<Tiquete>() {
+            @Override
+            public Iterator<Tiquete> iterator() {
+                return partes.stream().flatMap(Collection::stream).iterator();
+            }
+
+            @Override
+            public int size() {
+                int total = 0;
+                for (Collection<Tiquete> parte : partes) {
+                    total += parte.size();
+                }
+                return total;
+            }
+        };
+    }
+
+    /**
+     * Indica si el vuelo ya se realizó.
+     */
+    public boolean estaRealizado() {
+        return tiquetesRealizados != null;
+    }
+
+    /**
+     * Retorna la cantidad de sillas del vuelo que todavía no se han vendido. Es 0 si el vuelo ya se realizó.
+     */
+    public int getCuposDisponibles() {
+        return cuposDisponibles.get();
+    }
+
+    /**
+     * Retorna el mapa de las sillas del avión que están ocupadas.
+     */
+    public MapaSillas getMapaSillas() {
+        return sillas;
     }
 
     // --- Métodos de Lógica de Negocio ---
@@ -57,33 +211,268 @@ public class Vuelo {
     /**
      * Vende una cantidad de tiquetes para este vuelo. 
      * Verifica la capacidad del avión y utiliza la calculadora para determinar el costo.
+     * 
+     * Los cupos se reservan antes de emitir los tiquetes, así que varios threads pueden vender tiquetes del mismo vuelo sin sobrevenderlo.
      * @return El valor total de los tiquetes vendidos.
      * @throws VueloSobrevendidoException Si no hay cupos suficientes.
+     * @throws IllegalArgumentException Si la cantidad no es positiva.
      */
     public int venderTiquetes(Cliente cliente, CalculadoraTarifas calculadora, int cantidad) throws VueloSobrevendidoException {
-        // 1. Verificar capacidad del avión
-        int cuposDisponibles = avion.getCapacidad() - tiquetes.size();
-        if (cantidad > cuposDisponibles) {
-            throw new VueloSobrevendidoException(this);
+        int valorTotal = 0;
+        for (Tiquete tiquete : emitirTiquetes(cliente, calculadora, cantidad)) {
+            valorTotal += tiquete.getTarifa();
+        }
+        return valorTotal;
+    }
+
+    /**
+     * Vende una cantidad de tiquetes para este vuelo, igual que {@link #venderTiquetes(Cliente, CalculadoraTarifas, int)}, y retorna los tiquetes emitidos.
+     * @return Los tiquetes vendidos, que ya quedaron asociados al vuelo y al cliente.
+     * @throws VueloSobrevendidoException Si no hay cupos suficientes.
+     * @throws IllegalArgumentException Si la cantidad no es positiva.
+     */
+    public List<Tiquete> emitirTiquetes(Cliente cliente, CalculadoraTarifas calculadora, int cantidad) throws VueloSobrevendidoException {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de tiquetes debe ser positiva: " + cantidad);
         }
 
+        // 1. Reservar los cupos en el avión
+        reservarCupos(cantidad);
+
         // 2. Calcular tarifa unitaria
-        int tarifaUnitaria = calculadora.calcularTarifa(this, cliente);
-        int valorTotal = 0;
+        int tarifaUnitaria;
+        try {
+            tarifaUnitaria = calculadora.calcularTarifa(this, cliente);
+        } catch (RuntimeException e) {
+            devolverCupos(cantidad);
+            throw e;
+        }
 
-        // 3. Generar y asociar tiquetes
+        // 3. Asignar las sillas. Siempre hay sillas suficientes porque los cupos ya se reservaron
+        int[] sillasAsignadas = sillas.asignarSillas(cantidad);
+
+        // 4. Generar los tiquetes
+        List<Tiquete> emitidos = new ArrayList<>(cantidad);
         for (int i = 0; i < cantidad; i++) {
             Tiquete nuevoTiquete = GeneradorTiquetes.generarTiquete(this, cliente, tarifaUnitaria);
-            this.tiquetes.add(nuevoTiquete);
+            nuevoTiquete.asignarSilla(sillasAsignadas[i]);
+            emitidos.add(nuevoTiquete);
+        }
+
+        // 5. Registrarlos en la tabla, en los totales y en el cliente antes de publicarlos en el vuelo: los tiquetes se usan buscándolos entre los del vuelo,
+        // así que ninguno se puede usar antes de quedar registrado y todo su valor está pendiente
+        if (tablaTiquetes != null) {
+            tablaTiquetes.agregarTiquetes(emitidos);
+            long valor = (long) tarifaUnitaria * cantidad;
+            agregados.registrarTiquetes(this, cliente, cantidad, valor, valor);
+        }
+        for (Tiquete nuevoTiquete : emitidos) {
             cliente.agregarTiquete(nuevoTiquete);
-            valorTotal += tarifaUnitaria;
+            this.tiquetes.add(nuevoTiquete);
         }
+        modificado = true;
 
-        return valorTotal;
+        // 6. Si el vuelo se realizó después de reservar los cupos, los tiquetes pudieron llegar a la cola cuando ya se habían sacado los demás
+        if (cerrado) {
+            usarTiquetesTardios();
+        }
+
+        return emitidos;
+    }
+
+    /**
+     * Agrega al vuelo un tiquete que ya existía (por ejemplo, uno que se cargó de un archivo), ocupando uno de los cupos del avión y la primera silla libre.
+     * 
+     * El tiquete no se agrega al cliente: eso es responsabilidad de quien invoca el método.
+     * @param tiquete El tiquete que se va a agregar
+     * @throws VueloSobrevendidoException Si el vuelo ya no tiene cupos
+     */
+    public void agregarTiquete(Tiquete tiquete) throws VueloSobrevendidoException {
+        reservarCupos(1);
+        tiquete.asignarSilla(sillas.asignarSilla());
+        // Igual que en la venta, el tiquete se registra en la tabla y en los totales antes de que quede en el vuelo
+        if (tablaTiquetes != null) {
+            tablaTiquetes.agregarTiquete(tiquete);
+            agregados.registrarTiquetes(this, tiquete.getCliente(), 1, tiquete.getTarifa(), tiquete.esUsado() ? 0 : tiquete.getTarifa());
+        }
+        this.tiquetes.add(tiquete);
+        modificado = true;
+        if (cerrado) {
+            usarTiquetesTardios();
+        }
+    }
+
+    /**
+     * Cancela un tiquete del vuelo: lo quita del vuelo y de su cliente, libera su silla y devuelve su cupo.
+     * @param tiquete El tiquete que se va a cancelar
+     * @throws IllegalArgumentException Si el tiquete no es uno de los tiquetes del vuelo que están en el heap (los tiquetes archivados no se pueden cancelar)
+     * @throws IllegalStateException Si el tiquete ya se usó o el vuelo ya se realizó
+     */
+    public synchronized void cancelarTiquete(Tiquete tiquete) {
+        if (estaRealizado()) {
+            throw new IllegalStateException("El vuelo " + ruta.getCodigoRuta() + " del " + fecha + " ya se realizó");
+        }
+        if (tiquete.esUsado()) {
+            throw new IllegalStateException("El tiquete " + tiquete.getCodigo() + " ya se usó");
+        }
+        if (!this.tiquetes.remove(tiquete)) {
+            throw new IllegalArgumentException("El tiquete " + tiquete.getCodigo() + " no es del vuelo " + ruta.getCodigoRuta() + " del " + fecha);
+        }
+        tiquete.getCliente().eliminarTiquete(tiquete);
+        if (tiquete.getSilla() >= 0) {
+            sillas.liberarSilla(tiquete.getSilla());
+            tiquete.asignarSilla(-1);
+        }
+        if (tablaTiquetes != null && tiquete.getFila() >= 0) {
+            agregados.registrarCancelacion(tiquete);
+            tablaTiquetes.eliminarTiquete(tiquete);
+        }
+        devolverCupos(1);
+        modificado = true;
+    }
+
+    /**
+     * Asocia al vuelo tiquetes que están guardados por fuera del heap, ocupando un cupo y una silla por cada tiquete. Los tiquetes no se agregan a los clientes,
+     * y como el archivo no guarda las sillas, los tiquetes archivados no saben cuál silla ocupan.
+     * @param archivados Los tiquetes archivados del vuelo
+     * @throws VueloSobrevendidoException Si el vuelo no tiene cupos para todos los tiquetes
+     * @throws IllegalStateException Si el vuelo ya tenía tiquetes archivados
+     */
+    public synchronized void agregarTiquetesArchivados(Collection<Tiquete> archivados) throws VueloSobrevendidoException {
+        if (tiquetesArchivados != null) {
+            throw new IllegalStateException("El vuelo ya tiene tiquetes archivados");
+        }
+        reservarCupos(archivados.size());
+        sillas.asignarSillas(archivados.size());
+        if (tablaTiquetes != null) {
+            tablaTiquetes.agregarTiquetes(archivados);
+            agregados.registrarTiquetes(archivados);
+        }
+        this.tiquetesArchivados = archivados;
+    }
+
+    /**
+     * Indica si al vuelo ya se le asociaron tiquetes archivados (ver {@link #agregarTiquetesArchivados(Collection)}).
+     */
+    public boolean tieneTiquetesArchivados() {
+        return tiquetesArchivados != null;
+    }
+
+    /**
+     * Marca el vuelo como realizado: cierra las ventas, marca como usados todos los tiquetes del vuelo (incluidos los archivados) en un solo recorrido, y pasa
+     * los tiquetes de la cola a una lista que ya no cambia.
+     * 
+     * Sólo se consultan los tiquetes del vuelo y los clientes que los compraron: cada tiquete actualiza los saldos de su cliente al marcarse como usado. Si el
+     * vuelo ya se había realizado, no hace nada.
+     * 
+     * Se puede invocar mientras se venden tiquetes del vuelo desde otros threads. Las ventas que ya habían reservado sus cupos terminan, y si sus tiquetes
+     * llegan a la cola después de que se sacaron los demás, la misma venta los marca como usados (ver {@link #usarTiquetesTardios()}); esos tiquetes no se
+     * cuentan en el valor retornado.
+     * @return La cantidad de tiquetes que se marcaron como usados.
+     */
+    public synchronized int marcarComoRealizado() {
+        if (estaRealizado()) {
+            return 0;
+        }
+        // 1. Cerrar las ventas: ninguna reserva de cupos puede tener éxito después de esto, y las ventas en curso ven que el vuelo se está realizando
+        cerrado = true;
+        cuposDisponibles.set(0);
+
+        // 2. Usar los tiquetes archivados
+        int usados = 0;
+        Collection<Tiquete> archivados = tiquetesArchivados;
+        if (archivados != null) {
+            for (Tiquete tiquete : archivados) {
+                if (!tiquete.esUsado()) {
+                    tiquete.marcarComoUsado();
+                    usados++;
+                }
+            }
+        }
+
+        // 3. Sacar los tiquetes de la cola, usándolos a medida que se sacan
+        List<Tiquete> realizados = new ArrayList<>(avion.getCapacidad() - sillas.getSillasLibres());
+        Tiquete tiquete;
+        while ((tiquete = tiquetes.poll()) != null) {
+            if (!tiquete.esUsado()) {
+                tiquete.marcarComoUsado();
+                usados++;
+            }
+            realizados.add(tiquete);
+        }
+        tiquetesRealizados = Collections.unmodifiableList(realizados);
+        return usados;
+    }
+
+    /**
+     * Marca como usados los tiquetes que quedaron en la cola después de que el vuelo se realizó. La invoca una venta que reservó sus cupos antes de que el
+     * vuelo se realizara y que encuentra el vuelo cerrado después de agregar sus tiquetes a la cola. Como está sincronizada, espera a que
+     * {@link #marcarComoRealizado()} termine.
+     */
+    private synchronized void usarTiquetesTardios() {
+        for (Tiquete tiquete : tiquetes) {
+            if (!tiquete.esUsado()) {
+                tiquete.marcarComoUsado();
+            }
+        }
     }
 
     /**
-     * Compara si dos vuelos son iguales basándose en la ruta, fecha y avión.
+     * Indica que uno de los tiquetes del vuelo se acaba de usar. Lo invocan los tiquetes cuando se marcan como usados.
+     */
+    public void registrarUsoTiquete(Tiquete tiquete) {
+        modificado = true;
+        // Un tiquete que todavía no tiene fila no se ha agregado al vuelo: se cuenta como usado cuando se agregue
+        if (tablaTiquetes != null && tiquete.getFila() >= 0) {
+            tablaTiquetes.marcarUsado(tiquete.getFila());
+            agregados.registrarUso(tiquete);
+        }
+    }
+
+    /**
+     * Indica si al vuelo se le agregaron tiquetes, o alguno de sus tiquetes cambió, desde la última vez que se salvaron los tiquetes.
+     */
+    public boolean tieneTiquetesModificados() {
+        return modificado;
+    }
+
+    /**
+     * Indica que los tiquetes del vuelo ya quedaron salvados. Se debe invocar antes de recorrer los tiquetes que se van a salvar.
+     */
+    public void marcarComoSalvado() {
+        modificado = false;
+    }
+
+    /**
+     * Reserva una cantidad de cupos en el vuelo. La reserva es atómica: o se reservan todos los cupos pedidos o no se reserva ninguno.
+     * 
+     * La reserva no toma el candado del vuelo: un vuelo realizado tiene 0 cupos, y los cupos sólo vuelven a aumentar en {@link #devolverCupos(int)}, que revisa
+     * con el candado si el vuelo se realizó. Así, ninguna reserva tiene éxito después de que el vuelo se realiza.
+     * @throws VueloSobrevendidoException Si no hay suficientes cupos disponibles
+     */
+    private void reservarCupos(int cantidad) throws VueloSobrevendidoException {
+        while (true) {
+            int disponibles = cuposDisponibles.get();
+            if (cantidad > disponibles) {
+                throw new VueloSobrevendidoException(this);
+            }
+            if (cuposDisponibles.compareAndSet(disponibles, disponibles - cantidad)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Devuelve cupos que se habían reservado. Si el vuelo ya se realizó no hace nada: sus ventas están cerradas.
+     */
+    private synchronized void devolverCupos(int cantidad) {
+        if (!estaRealizado()) {
+            cuposDisponibles.addAndGet(cantidad);
+        }
+    }
+
+    /**
+     * Compara si dos vuelos son iguales basándose en la ruta, fecha y avión (las rutas se comparan por su código y los aviones por su nombre).
      */
     @Override
     public boolean equals(Object obj) {
@@ -94,4 +483,12 @@ public class Vuelo {
                Objects.equals(ruta, other.ruta) && 
                Objects.equals(avion, other.avion);
     }
+
+    /**
+     * Calcula el hash con los mismos atributos que usa {@link #equals(Object)}.
+     */
+    @Override
+    public int hashCode() {
+        return (31 * fecha.hashCode() + ruta.hashCode()) * 31 + avion.hashCode();
+    }
 }
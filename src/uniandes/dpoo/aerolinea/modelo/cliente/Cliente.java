@@ -9,6 +9,9 @@ import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
 /**
  * Clase abstracta que representa un cliente de la aerolínea.
  * Centraliza la gestión de tiquetes comprados.
+ * 
+ * Los métodos que manipulan los tiquetes y los saldos están sincronizados sobre el cliente, porque se pueden vender tiquetes a un mismo cliente desde varios
+ * threads a la vez.
  */
 public abstract class Cliente {
 
@@ -19,6 +22,26 @@ public abstract class Cliente {
      */
     protected List<Tiquete> tiquetes;
 
+    /**
+     * Suma de las tarifas de los tiquetes del cliente que todavía no se han usado.
+     */
+    private long valorPendiente;
+
+    /**
+     * Suma de las tarifas de los tiquetes del cliente que ya se usaron.
+     */
+    private long valorUsado;
+
+    /**
+     * Indica si el cliente es nuevo o sus tiquetes cambiaron desde la última vez que se salvó.
+     */
+    private volatile boolean modificado;
+
+    /**
+     * El identificador que le asignó la aerolínea al registrarlo, o -1 si no está registrado.
+     */
+    private int id = -1;
+
     // --- Constructor ---
 
     /**
@@ -26,6 +49,7 @@ public abstract class Cliente {
      */
     public Cliente() {
         this.tiquetes = new ArrayList<>();
+        this.modificado = true;
     }
 
     // --- Métodos Abstractos ---
@@ -42,38 +66,130 @@ public abstract class Cliente {
      */
     public abstract String getIdentificador();
 
+    /**
+     * Retorna el identificador numérico que le asignó la aerolínea al registrarlo, o -1 si no está registrado en ninguna aerolínea.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Cambia el identificador numérico del cliente. Lo invoca la aerolínea cuando registra el cliente.
+     */
+    public void asignarId(int id) {
+        this.id = id;
+    }
+
     // --- Métodos de Instancia ---
 
     /**
-     * Agrega un tiquete a la colección del cliente.
+     * Agrega un tiquete a la colección del cliente y suma su tarifa al valor pendiente o al valor usado, según el estado del tiquete.
      * @param tiquete El tiquete a agregar.
      */
-    public void agregarTiquete(Tiquete tiquete) {
+    public synchronized void agregarTiquete(Tiquete tiquete) {
         this.tiquetes.add(tiquete);
+        if (tiquete.esUsado()) {
+            valorUsado += tiquete.getTarifa();
+        } else {
+            valorPendiente += tiquete.getTarifa();
+        }
+        modificado = true;
+    }
+
+    /**
+     * Quita un tiquete de la colección del cliente y resta su tarifa del valor pendiente o del valor usado, según el estado del tiquete.
+     * @param tiquete El tiquete a quitar.
+     * @return true si el tiquete estaba en la colección del cliente.
+     */
+    public synchronized boolean eliminarTiquete(Tiquete tiquete) {
+        if (!this.tiquetes.remove(tiquete)) {
+            return false;
+        }
+        if (tiquete.esUsado()) {
+            valorUsado -= tiquete.getTarifa();
+        } else {
+            valorPendiente -= tiquete.getTarifa();
+        }
+        modificado = true;
+        return true;
+    }
+
+    /**
+     * Pasa la tarifa de un tiquete del valor pendiente al valor usado.
+     * 
+     * Lo invoca el tiquete cuando se marca como usado, así que el tiquete ya debe haberse agregado al cliente con {@link #agregarTiquete(Tiquete)}.
+     * @param tiquete El tiquete que se acaba de usar.
+     */
+    public synchronized void registrarUsoTiquete(Tiquete tiquete) {
+        valorPendiente -= tiquete.getTarifa();
+        valorUsado += tiquete.getTarifa();
+        modificado = true;
+    }
+
+    /**
+     * Suma a los saldos del cliente las tarifas de tiquetes que no están en su lista porque se guardan por fuera del heap
+     * (ver {@link uniandes.dpoo.aerolinea.tiquetes.AlmacenTiquetesMapeado}).
+     * @param pendiente La suma de las tarifas de los tiquetes archivados que no se han usado.
+     * @param usado La suma de las tarifas de los tiquetes archivados que ya se usaron.
+     */
+    public synchronized void agregarSaldosArchivados(long pendiente, long usado) {
+        valorPendiente += pendiente;
+        valorUsado += usado;
+    }
+
+    /**
+     * Retorna la suma de las tarifas de los tiquetes del cliente que todavía no se han usado.
+     * @return Valor pendiente del cliente.
+     */
+    public synchronized long getValorPendiente() {
+        return valorPendiente;
+    }
+
+    /**
+     * Retorna la suma de las tarifas de los tiquetes del cliente que ya se usaron.
+     * @return Valor usado del cliente.
+     */
+    public synchronized long getValorUsado() {
+        return valorUsado;
     }
 
     /**
      * Calcula la suma de los valores de todos los tiquetes del cliente.
      * @return Valor total de los tiquetes.
      */
-    public int calcularValorTotalTiquetes() {
-        int total = 0;
-        for (Tiquete t : tiquetes) {
-            total += t.getTarifa();
-        }
-        return total;
+    public synchronized int calcularValorTotalTiquetes() {
+        return (int) (valorPendiente + valorUsado);
+    }
+
+    /**
+     * Indica si el cliente es nuevo o sus tiquetes cambiaron desde la última vez que se salvó.
+     */
+    public boolean estaModificado() {
+        return modificado;
+    }
+
+    /**
+     * Indica que el estado actual del cliente ya quedó salvado. Se debe invocar antes de leer el estado que se va a salvar.
+     */
+    public void marcarComoSalvado() {
+        modificado = false;
     }
 
     /**
      * Marca como usados todos los tiquetes del cliente que correspondan al vuelo dado.
+     * 
+     * Los tiquetes se buscan entre los del vuelo (y no en la lista del cliente) para incluir también los tiquetes archivados, que no están en la lista.
      * @param vuelo El vuelo realizado.
+     * @return Los tiquetes que se marcaron como usados, sin los que ya estaban usados.
      */
-    public void usarTiquetes(Vuelo vuelo) {
-        for (Tiquete t : tiquetes) {
-            // Se asume que Tiquete tiene un método getVuelo() y marcarComoUsado() según el UML
-            if (t.getVuelo().equals(vuelo)) {
+    public synchronized List<Tiquete> usarTiquetes(Vuelo vuelo) {
+        List<Tiquete> usados = new ArrayList<>();
+        for (Tiquete t : vuelo.getTiquetes()) {
+            if (t.getCliente() == this && !t.esUsado()) {
                 t.marcarComoUsado();
+                usados.add(t);
             }
         }
+        return usados;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package uniandes.dpoo.aerolinea.modelo.red;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+
+/**
+ * Un itinerario entre dos aeropuertos: la secuencia de rutas (tramos) que hay que tomar y, si el itinerario se buscó sobre los vuelos programados, los vuelos de
+ * cada tramo.
+ */
+public class Itinerario
+{
+    private List<Ruta> rutas;
+
+    /**
+     * Los vuelos de cada tramo, en el mismo orden de las rutas. Está vacía si el itinerario no se buscó sobre los vuelos programados.
+     */
+    private List<Vuelo> vuelos;
+
+    /**
+     * La fecha y hora de llegada al destino, o null si el itinerario no se buscó sobre los vuelos programados
+     */
+    private LocalDateTime llegada;
+
+    Itinerario( List<Ruta> rutas, List<Vuelo> vuelos, LocalDateTime llegada )
+    {
+        this.rutas = Collections.unmodifiableList( rutas );
+        this.vuelos = Collections.unmodifiableList( vuelos );
+        this.llegada = llegada;
+    }
+
+    public List<Ruta> getRutas( )
+    {
+        return rutas;
+    }
+
+    public List<Vuelo> getVuelos( )
+    {
+        return vuelos;
+    }
+
+    public LocalDateTime getLlegada( )
+    {
+        return llegada;
+    }
+
+    public Aeropuerto getOrigen( )
+    {
+        return rutas.get( 0 ).getOrigen( );
+    }
+
+    public Aeropuerto getDestino( )
+    {
+        return rutas.get( rutas.size( ) - 1 ).getDestino( );
+    }
+
+    /**
+     * Retorna la cantidad de escalas (aeropuertos intermedios) del itinerario
+     */
+    public int getEscalas( )
+    {
+        return rutas.size( ) - 1;
+    }
+
+    /**
+     * Retorna la suma de las distancias de todos los tramos, en kilómetros
+     */
+    public int getDistanciaTotal( )
+    {
+        int distancia = 0;
+        for( Ruta ruta : rutas )
+            distancia += ruta.getDistancia( );
+        return distancia;
+    }
+}
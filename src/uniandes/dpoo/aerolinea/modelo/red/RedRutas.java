@@ -0,0 +1,489 @@
+package uniandes.dpoo.aerolinea.modelo.red;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+
+/**
+ * La red de rutas de una aerolínea: un grafo dirigido en el que los nodos son los aeropuertos y los arcos son las rutas. Sobre la red se buscan itinerarios
+ * de varios tramos entre dos aeropuertos: el de menos escalas, el de menor distancia y el que llega más temprano usando los vuelos programados.
+ *
+ * Los aeropuertos se identifican internamente con números entre 0 y la cantidad de aeropuertos, y los arcos que salen de cada aeropuerto quedan contiguos en
+ * arreglos de tipos primitivos: el arco i va de origenArco[i] a destinoArco[i], y los arcos que salen del aeropuerto a son los que están entre
+ * primerArco[a] y primerArco[a + 1]. Así las búsquedas no crean objetos mientras recorren la red.
+ *
+ * La red es una fotografía de las rutas y los vuelos de la aerolínea en el momento en que se construye: si se agregan rutas o se programan vuelos hay que
+ * construirla de nuevo. Lo único que se consulta en cada búsqueda son los cupos disponibles de los vuelos. La red se puede consultar desde varios threads al
+ * mismo tiempo.
+ */
+public class RedRutas
+{
+    /**
+     * Tiempo mínimo (en minutos) entre la llegada de un vuelo y la salida del siguiente vuelo del itinerario, si no se indica otro
+     */
+    public static final int MINUTOS_CONEXION_POR_DEFECTO = 45;
+
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    private Aeropuerto[] aeropuertos;
+    private Map<String, Integer> idAeropuertos;
+
+    private int[] primerArco;
+    private int[] origenArco;
+    private int[] destinoArco;
+    private Ruta[] rutaArco;
+
+    /**
+     * Distancia de la ruta de cada arco, en kilómetros
+     */
+    private int[] distanciaArco;
+
+    /**
+     * Hora de salida de la ruta de cada arco, en minutos desde la medianoche
+     */
+    private int[] salidaArco;
+
+    private int[] duracionArco;
+
+    /**
+     * Los vuelos programados de todas las rutas, agrupados por arco y ordenados por fecha dentro de cada arco: los vuelos del arco i son los que están entre
+     * primerVuelo[i] y primerVuelo[i + 1]. Las fechas se guardan aparte, como días desde 1970-01-01, para buscarlas con búsqueda binaria sin tener que
+     * consultar los vuelos.
+     */
+    private int[] primerVuelo;
+    private Vuelo[] vuelos;
+    private int[] diasVuelos;
+
+    /**
+     * Posición de cada aeropuerto sobre la esfera unitaria, para calcular la cota inferior de la distancia que falta hasta el destino en la búsqueda A*
+     */
+    private double[] x;
+    private double[] y;
+    private double[] z;
+
+    /**
+     * Factor por el que se multiplica la distancia en línea recta (la cuerda sobre la esfera terrestre) entre dos aeropuertos para obtener una cota inferior de
+     * la distancia de cualquier camino entre ellos. Es el menor cociente entre la distancia de una ruta y la cuerda entre sus aeropuertos.
+     */
+    private double factorCota;
+
+    /**
+     * Construye la red con los aeropuertos, las rutas y los vuelos programados de una aerolínea
+     * @param aerolinea La aerolínea
+     */
+    public RedRutas( Aerolinea aerolinea )
+    {
+        // Los aeropuertos de las rutas siempre están registrados en la aerolínea, pero también se incluyen los aeropuertos que no tienen rutas
+        Collection<Aeropuerto> registrados = aerolinea.getAeropuertos( );
+        aeropuertos = registrados.toArray( new Aeropuerto[0] );
+        idAeropuertos = new HashMap<String, Integer>( aeropuertos.length * 2 );
+        for( int i = 0; i < aeropuertos.length; i++ )
+            idAeropuertos.put( aeropuertos[ i ].getCodigo( ), i );
+
+        Ruta[] rutas = aerolinea.getRutas( ).toArray( new Ruta[0] );
+        int numArcos = rutas.length;
+        primerArco = new int[aeropuertos.length + 1];
+        for( Ruta ruta : rutas )
+            primerArco[ id( ruta.getOrigen( ) ) + 1 ]++;
+        for( int i = 0; i < aeropuertos.length; i++ )
+            primerArco[ i + 1 ] += primerArco[ i ];
+
+        origenArco = new int[numArcos];
+        destinoArco = new int[numArcos];
+        rutaArco = new Ruta[numArcos];
+        distanciaArco = new int[numArcos];
+        salidaArco = new int[numArcos];
+        duracionArco = new int[numArcos];
+        Vuelo[][] vuelosArco = new Vuelo[numArcos][];
+        int[] siguiente = Arrays.copyOf( primerArco, aeropuertos.length );
+        for( Ruta ruta : rutas )
+        {
+            int arco = siguiente[ id( ruta.getOrigen( ) ) ]++;
+            origenArco[ arco ] = id( ruta.getOrigen( ) );
+            destinoArco[ arco ] = id( ruta.getDestino( ) );
+            rutaArco[ arco ] = ruta;
+            distanciaArco[ arco ] = ruta.getDistancia( );
+            salidaArco[ arco ] = ruta.getMinutoSalida( );
+            duracionArco[ arco ] = ruta.getDuracion( );
+
+            vuelosArco[ arco ] = aerolinea.getVuelosRuta( ruta.getCodigoRuta( ) ).toArray( new Vuelo[0] );
+        }
+
+        primerVuelo = new int[numArcos + 1];
+        for( int arco = 0; arco < numArcos; arco++ )
+            primerVuelo[ arco + 1 ] = primerVuelo[ arco ] + vuelosArco[ arco ].length;
+        vuelos = new Vuelo[primerVuelo[ numArcos ]];
+        diasVuelos = new int[vuelos.length];
+        for( int arco = 0; arco < numArcos; arco++ )
+        {
+            for( int i = 0; i < vuelosArco[ arco ].length; i++ )
+            {
+                vuelos[ primerVuelo[ arco ] + i ] = vuelosArco[ arco ][ i ];
+                diasVuelos[ primerVuelo[ arco ] + i ] = ( int )vuelosArco[ arco ][ i ].getFechaLocal( ).toEpochDay( );
+            }
+        }
+
+        x = new double[aeropuertos.length];
+        y = new double[aeropuertos.length];
+        z = new double[aeropuertos.length];
+        for( int i = 0; i < aeropuertos.length; i++ )
+        {
+            double latitud = Math.toRadians( aeropuertos[ i ].getLatitud( ) );
+            double longitud = Math.toRadians( aeropuertos[ i ].getLongitud( ) );
+            x[ i ] = Math.cos( latitud ) * Math.cos( longitud );
+            y[ i ] = Math.cos( latitud ) * Math.sin( longitud );
+            z[ i ] = Math.sin( latitud );
+        }
+        factorCota = Double.MAX_VALUE;
+        for( int arco = 0; arco < numArcos; arco++ )
+        {
+            double cuerda = cuerda( origenArco[ arco ], destinoArco[ arco ] );
+            if( cuerda > 0 )
+                factorCota = Math.min( factorCota, distanciaArco[ arco ] / cuerda );
+        }
+        // Se reduce un poco el factor para que los errores de redondeo no hagan que la cota supere la distancia de alguna ruta
+        factorCota = factorCota == Double.MAX_VALUE ? 0 : factorCota * ( 1 - 1e-9 );
+    }
+
+    /**
+     * Los aeropuertos de la red están en el orden de registro, así que el número de cada aeropuerto en la red es su identificador en la aerolínea
+     */
+    private int id( Aeropuerto aeropuerto )
+    {
+        return aeropuerto.getId( );
+    }
+
+    public int getNumAeropuertos( )
+    {
+        return aeropuertos.length;
+    }
+
+    public int getNumRutas( )
+    {
+        return rutaArco.length;
+    }
+
+    /**
+     * Retorna las rutas que salen de un aeropuerto
+     * @param codigoAeropuerto El código del aeropuerto
+     * @return Las rutas, o una lista vacía si el aeropuerto no está en la red
+     */
+    public List<Ruta> getRutasDesde( String codigoAeropuerto )
+    {
+        Integer aeropuerto = idAeropuertos.get( codigoAeropuerto );
+        if( aeropuerto == null )
+            return Collections.emptyList( );
+        return Collections.unmodifiableList( Arrays.asList( rutaArco ).subList( primerArco[ aeropuerto ], primerArco[ aeropuerto + 1 ] ) );
+    }
+
+    // ************************************************************************************
+    // Búsquedas
+    // ************************************************************************************
+
+    /**
+     * Busca el itinerario con menos escalas entre dos aeropuertos (búsqueda por anchura)
+     * @param codigoOrigen El código del aeropuerto de origen
+     * @param codigoDestino El código del aeropuerto de destino
+     * @return El itinerario, o null si alguno de los aeropuertos no está en la red, si son el mismo aeropuerto o si no hay forma de llegar al destino
+     */
+    public Itinerario buscarMenosEscalas( String codigoOrigen, String codigoDestino )
+    {
+        Integer origen = idAeropuertos.get( codigoOrigen );
+        Integer destino = idAeropuertos.get( codigoDestino );
+        if( origen == null || destino == null || origen.equals( destino ) )
+            return null;
+
+        int[] arcoLlegada = nuevoArregloArcos( );
+        int[] cola = new int[aeropuertos.length];
+        int inicio = 0;
+        int fin = 0;
+        cola[ fin++ ] = origen;
+        while( inicio < fin )
+        {
+            int actual = cola[ inicio++ ];
+            for( int arco = primerArco[ actual ]; arco < primerArco[ actual + 1 ]; arco++ )
+            {
+                int vecino = destinoArco[ arco ];
+                if( vecino == origen || arcoLlegada[ vecino ] >= 0 )
+                    continue;
+                arcoLlegada[ vecino ] = arco;
+                if( vecino == destino )
+                    return construirItinerario( arcoLlegada, null, destino, -1 );
+                cola[ fin++ ] = vecino;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca el itinerario de menor distancia total entre dos aeropuertos. La búsqueda es un A* que usa como cota inferior de la distancia que falta la distancia
+     * en línea recta hasta el destino, así que sólo explora los aeropuertos que pueden estar en un camino más corto que el que ya encontró.
+     * @param codigoOrigen El código del aeropuerto de origen
+     * @param codigoDestino El código del aeropuerto de destino
+     * @return El itinerario, o null si alguno de los aeropuertos no está en la red, si son el mismo aeropuerto o si no hay forma de llegar al destino
+     */
+    public Itinerario buscarMenorDistancia( String codigoOrigen, String codigoDestino )
+    {
+        Integer origen = idAeropuertos.get( codigoOrigen );
+        Integer destino = idAeropuertos.get( codigoDestino );
+        if( origen == null || destino == null || origen.equals( destino ) )
+            return null;
+
+        long[] distancia = new long[aeropuertos.length];
+        Arrays.fill( distancia, Long.MAX_VALUE );
+        int[] arcoLlegada = nuevoArregloArcos( );
+        boolean[] cerrado = new boolean[aeropuertos.length];
+        ColaPrioridad cola = new ColaPrioridad( );
+        distancia[ origen ] = 0;
+        cola.agregar( cota( origen, destino ), origen );
+        while( !cola.estaVacia( ) )
+        {
+            int actual = cola.sacar( );
+            if( cerrado[ actual ] )
+                continue;
+            if( actual == destino )
+                return construirItinerario( arcoLlegada, null, destino, -1 );
+            cerrado[ actual ] = true;
+            for( int arco = primerArco[ actual ]; arco < primerArco[ actual + 1 ]; arco++ )
+            {
+                int vecino = destinoArco[ arco ];
+                long nueva = distancia[ actual ] + distanciaArco[ arco ];
+                if( !cerrado[ vecino ] && nueva < distancia[ vecino ] )
+                {
+                    distancia[ vecino ] = nueva;
+                    arcoLlegada[ vecino ] = arco;
+                    cola.agregar( nueva + cota( vecino, destino ), vecino );
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca el itinerario que llega más temprano al destino usando los vuelos programados, con el tiempo de conexión por defecto
+     * @see #buscarLlegadaMasTemprana(String, String, LocalDateTime, int)
+     */
+    public Itinerario buscarLlegadaMasTemprana( String codigoOrigen, String codigoDestino, LocalDateTime salidaMinima )
+    {
+        return buscarLlegadaMasTemprana( codigoOrigen, codigoDestino, salidaMinima, MINUTOS_CONEXION_POR_DEFECTO );
+    }
+
+    /**
+     * Busca el itinerario que llega más temprano al destino usando los vuelos programados que todavía tienen cupos disponibles.
+     *
+     * La búsqueda recorre la red expandida en el tiempo sin construirla: se visitan los aeropuertos en el orden en el que se puede llegar a ellos, y desde cada
+     * aeropuerto se busca (con búsqueda binaria sobre las fechas) el primer vuelo de cada ruta que sale después de la hora de llegada más el tiempo de conexión.
+     * @param codigoOrigen El código del aeropuerto de origen
+     * @param codigoDestino El código del aeropuerto de destino
+     * @param salidaMinima La fecha y hora desde la cual se puede salir del origen
+     * @param minutosConexion El tiempo mínimo entre la llegada a un aeropuerto intermedio y la salida del siguiente vuelo
+     * @return El itinerario, o null si alguno de los aeropuertos no está en la red, si son el mismo aeropuerto o si no hay vuelos para llegar al destino
+     */
+    public Itinerario buscarLlegadaMasTemprana( String codigoOrigen, String codigoDestino, LocalDateTime salidaMinima, int minutosConexion )
+    {
+        Integer origen = idAeropuertos.get( codigoOrigen );
+        Integer destino = idAeropuertos.get( codigoDestino );
+        if( origen == null || destino == null || origen.equals( destino ) )
+            return null;
+
+        // Los instantes se manejan como minutos desde 1970-01-01 a la medianoche
+        long[] llegada = new long[aeropuertos.length];
+        Arrays.fill( llegada, Long.MAX_VALUE );
+        int[] arcoLlegada = nuevoArregloArcos( );
+        int[] vueloLlegada = new int[aeropuertos.length];
+        boolean[] cerrado = new boolean[aeropuertos.length];
+        ColaPrioridad cola = new ColaPrioridad( );
+        llegada[ origen ] = salidaMinima.toLocalDate( ).toEpochDay( ) * MINUTOS_DIA + salidaMinima.getHour( ) * 60 + salidaMinima.getMinute( );
+        cola.agregar( llegada[ origen ], origen );
+        while( !cola.estaVacia( ) )
+        {
+            int actual = cola.sacar( );
+            if( cerrado[ actual ] )
+                continue;
+            if( actual == destino )
+                return construirItinerario( arcoLlegada, vueloLlegada, destino, llegada[ destino ] );
+            cerrado[ actual ] = true;
+
+            long listo = actual == origen ? llegada[ actual ] : llegada[ actual ] + minutosConexion;
+            for( int arco = primerArco[ actual ]; arco < primerArco[ actual + 1 ]; arco++ )
+            {
+                int vecino = destinoArco[ arco ];
+                if( cerrado[ vecino ] )
+                    continue;
+                // Un vuelo que llega después de la mejor llegada conocida al destino no puede hacer parte de un itinerario mejor
+                int vuelo = primerVueloDisponible( arco, listo, Math.min( llegada[ vecino ], llegada[ destino ] ) );
+                if( vuelo >= 0 )
+                {
+                    long nueva = llegadaVuelo( arco, vuelo );
+                    llegada[ vecino ] = nueva;
+                    arcoLlegada[ vecino ] = arco;
+                    vueloLlegada[ vecino ] = vuelo;
+                    cola.agregar( nueva, vecino );
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna el primer vuelo de la ruta de un arco que sale en el instante indicado o después, que llega antes de cierto límite y que todavía tiene cupos
+     * disponibles. Los vuelos que llegan después del límite no se revisan: así sólo se consultan los cupos de los vuelos que mejoran la llegada a un aeropuerto.
+     * @param instante El instante desde el cual se puede salir, en minutos desde 1970-01-01
+     * @param limite El instante antes del cual tiene que llegar el vuelo
+     * @return La posición del vuelo dentro del arreglo vuelos, o -1 si no hay ninguno
+     */
+    private int primerVueloDisponible( int arco, long instante, long limite )
+    {
+        // Ningún vuelo del arco puede llegar antes de que pase la duración de la ruta desde el instante en el que se puede salir
+        if( instante + duracionArco[ arco ] >= limite )
+            return -1;
+
+        int fin = primerVuelo[ arco + 1 ];
+        // El primer día en el que la salida de la ruta no es anterior al instante
+        long primerDia = Math.floorDiv( instante - salidaArco[ arco ] + MINUTOS_DIA - 1, MINUTOS_DIA );
+        int posicion = Arrays.binarySearch( diasVuelos, primerVuelo[ arco ], fin, ( int )Math.max( Integer.MIN_VALUE, Math.min( Integer.MAX_VALUE, primerDia ) ) );
+        if( posicion < 0 )
+            posicion = -posicion - 1;
+        while( posicion < fin && llegadaVuelo( arco, posicion ) < limite )
+        {
+            if( vuelos[ posicion ].getCuposDisponibles( ) > 0 )
+                return posicion;
+            posicion++;
+        }
+        return -1;
+    }
+
+    /**
+     * Retorna el instante en el que llega un vuelo, en minutos desde 1970-01-01
+     */
+    private long llegadaVuelo( int arco, int vuelo )
+    {
+        return ( long )diasVuelos[ vuelo ] * MINUTOS_DIA + salidaArco[ arco ] + duracionArco[ arco ];
+    }
+
+    /**
+     * Retorna una cota inferior de la distancia de cualquier camino entre dos aeropuertos. Como la distancia en línea recta cumple la desigualdad triangular y
+     * ninguna ruta es más corta que factorCota veces esa distancia, la cota nunca disminuye en más de la distancia de una ruta al recorrerla, y el A* no tiene
+     * que volver a visitar aeropuertos.
+     */
+    private long cota( int aeropuerto, int destino )
+    {
+        return ( long )( factorCota * cuerda( aeropuerto, destino ) );
+    }
+
+    /**
+     * Retorna la longitud en kilómetros del segmento de recta que une dos aeropuertos (atravesando la tierra)
+     */
+    private double cuerda( int a, int b )
+    {
+        double dx = x[ a ] - x[ b ];
+        double dy = y[ a ] - y[ b ];
+        double dz = z[ a ] - z[ b ];
+        return Math.sqrt( dx * dx + dy * dy + dz * dz ) * Aeropuerto.RADIO_TERRESTRE;
+    }
+
+    private int[] nuevoArregloArcos( )
+    {
+        int[] arcos = new int[aeropuertos.length];
+        Arrays.fill( arcos, -1 );
+        return arcos;
+    }
+
+    /**
+     * Reconstruye el itinerario recorriendo hacia atrás los arcos por los que se llegó a cada aeropuerto
+     * @param vueloLlegada La posición del vuelo con el que se llegó a cada aeropuerto, o null si la búsqueda no usó los vuelos
+     * @param llegada El instante de llegada al destino, en minutos desde 1970-01-01, o -1 si la búsqueda no usó los vuelos
+     */
+    private Itinerario construirItinerario( int[] arcoLlegada, int[] vueloLlegada, int destino, long llegada )
+    {
+        List<Ruta> rutas = new ArrayList<Ruta>( );
+        List<Vuelo> vuelosItinerario = new ArrayList<Vuelo>( );
+        for( int actual = destino; arcoLlegada[ actual ] >= 0; actual = origenArco[ arcoLlegada[ actual ] ] )
+        {
+            int arco = arcoLlegada[ actual ];
+            rutas.add( rutaArco[ arco ] );
+            if( vueloLlegada != null )
+                vuelosItinerario.add( vuelos[ vueloLlegada[ actual ] ] );
+        }
+        Collections.reverse( rutas );
+        Collections.reverse( vuelosItinerario );
+
+        LocalDateTime fechaLlegada = null;
+        if( llegada >= 0 )
+            fechaLlegada = LocalDate.ofEpochDay( Math.floorDiv( llegada, MINUTOS_DIA ) ).atStartOfDay( ).plusMinutes( Math.floorMod( llegada, MINUTOS_DIA ) );
+        return new Itinerario( rutas, vuelosItinerario, fechaLlegada );
+    }
+
+    /**
+     * Un montículo binario de aeropuertos ordenados por prioridad (de menor a mayor). Un aeropuerto puede quedar varias veces en la cola: las búsquedas ignoran
+     * las entradas de los aeropuertos que ya cerraron.
+     */
+    private static class ColaPrioridad
+    {
+        private long[] prioridades = new long[64];
+        private int[] aeropuertos = new int[64];
+        private int tamano;
+
+        boolean estaVacia( )
+        {
+            return tamano == 0;
+        }
+
+        void agregar( long prioridad, int aeropuerto )
+        {
+            if( tamano == prioridades.length )
+            {
+                prioridades = Arrays.copyOf( prioridades, tamano * 2 );
+                aeropuertos = Arrays.copyOf( aeropuertos, tamano * 2 );
+            }
+            int i = tamano++;
+            while( i > 0 )
+            {
+                int padre = ( i - 1 ) / 2;
+                if( prioridades[ padre ] <= prioridad )
+                    break;
+                prioridades[ i ] = prioridades[ padre ];
+                aeropuertos[ i ] = aeropuertos[ padre ];
+                i = padre;
+            }
+            prioridades[ i ] = prioridad;
+            aeropuertos[ i ] = aeropuerto;
+        }
+
+        int sacar( )
+        {
+            int primero = aeropuertos[ 0 ];
+            tamano--;
+            long prioridad = prioridades[ tamano ];
+            int aeropuerto = aeropuertos[ tamano ];
+            int i = 0;
+            while( true )
+            {
+                int hijo = 2 * i + 1;
+                if( hijo >= tamano )
+                    break;
+                if( hijo + 1 < tamano && prioridades[ hijo + 1 ] < prioridades[ hijo ] )
+                    hijo++;
+                if( prioridades[ hijo ] >= prioridad )
+                    break;
+                prioridades[ i ] = prioridades[ hijo ];
+                aeropuertos[ i ] = aeropuertos[ hijo ];
+                i = hijo;
+            }
+            prioridades[ i ] = prioridad;
+            aeropuertos[ i ] = aeropuerto;
+            return primero;
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package uniandes.dpoo.aerolinea.modelo.tarifas;
 
-import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import uniandes.dpoo.aerolinea.modelo.Ruta;
 import uniandes.dpoo.aerolinea.modelo.Vuelo;
 import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
 
 /**
  * Clase abstracta que define la estructura para calcular las tarifas de los tiquetes.
+ * 
+ * La tarifa sólo depende de la ruta del vuelo y de la categoría del cliente (natural, o corporativo de cada tamaño), así que cada calculadora guarda las
+ * tarifas que ya calculó para no repetir el cálculo en cada venta.
  */
 public abstract class CalculadoraTarifas {
 
@@ -17,6 +25,19 @@ public abstract class CalculadoraTarifas {
      */
     public static final double IMPUESTO = 0.28;
 
+    /**
+     * Cantidad de categorías de clientes para las que se guardan tarifas: los clientes naturales y los corporativos de cada uno de los tres tamaños.
+     */
+    private static final int NUM_CATEGORIAS = 4;
+
+    // --- Atributos ---
+
+    /**
+     * Las tarifas ya calculadas para cada ruta. Las rutas son iguales si tienen el mismo código, así que cada valor recuerda el objeto de la ruta para la que
+     * se calcularon las tarifas: una ruta de otra aerolínea, o una nueva definición de la ruta, con el mismo código no puede usar esas tarifas.
+     */
+    private final Map<Ruta, TarifasRuta> tarifasPorRuta = new ConcurrentHashMap<>();
+
     // --- Métodos Abstractos ---
 
     /**
@@ -34,8 +55,48 @@ public abstract class CalculadoraTarifas {
     /**
      * Calcula la tarifa final que debe pagar un cliente por un vuelo.
      * Fórmula: (CostoBase * (1 - Descuento)) + ValorImpuestos
+     * 
+     * Si la tarifa ya se había calculado para la misma ruta y la misma categoría de cliente, se retorna la tarifa guardada.
      */
     public int calcularTarifa(Vuelo vuelo, Cliente cliente) {
+        int categoria = calcularCategoria(cliente);
+        if (categoria < 0) {
+            return calcularTarifaSinCache(vuelo, cliente);
+        }
+
+        Ruta ruta = vuelo.getRuta();
+        TarifasRuta guardadas = tarifasPorRuta.get(ruta);
+        if (guardadas == null || guardadas.ruta != ruta) {
+            guardadas = new TarifasRuta(ruta);
+            tarifasPorRuta.put(ruta, guardadas);
+        }
+        int[] tarifas = guardadas.tarifas;
+        int tarifa = tarifas[categoria];
+        if (tarifa < 0) {
+            tarifa = calcularTarifaSinCache(vuelo, cliente);
+            tarifas[categoria] = tarifa;
+        }
+        return tarifa;
+    }
+
+    /**
+     * Olvida las tarifas calculadas para una ruta. Se debe invocar cuando la definición de la ruta cambia.
+     */
+    public void invalidar(Ruta ruta) {
+        tarifasPorRuta.remove(ruta);
+    }
+
+    /**
+     * Olvida todas las tarifas calculadas. Se debe invocar si cambian los valores con los que se calculan las tarifas.
+     */
+    public void limpiarCache() {
+        tarifasPorRuta.clear();
+    }
+
+    /**
+     * Calcula la tarifa aplicando la fórmula completa, sin consultar las tarifas guardadas.
+     */
+    private int calcularTarifaSinCache(Vuelo vuelo, Cliente cliente) {
         int costoBase = calcularCostoBase(vuelo, cliente);
         double descuento = calcularPorcentajeDescuento(cliente);
         
@@ -45,17 +106,44 @@ public abstract class CalculadoraTarifas {
         return costoConDescuento + impuestos;
     }
 
+    /**
+     * Retorna la posición de la categoría del cliente dentro del arreglo de tarifas de una ruta: 0 para los clientes naturales y el tamaño de la empresa para
+     * los corporativos. Retorna -1 si el cliente no pertenece a ninguna categoría conocida, en cuyo caso la tarifa no se guarda.
+     */
+    private static int calcularCategoria(Cliente cliente) {
+        if (cliente instanceof ClienteNatural) {
+            return 0;
+        }
+        if (cliente instanceof ClienteCorporativo) {
+            int tamano = ((ClienteCorporativo) cliente).getTamanoEmpresa();
+            if (tamano >= ClienteCorporativo.GRANDE && tamano <= ClienteCorporativo.PEQUENA) {
+                return tamano;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Las tarifas calculadas para una ruta, organizadas por la categoría del cliente. Las tarifas que no se han calculado valen -1.
+     */
+    private static final class TarifasRuta {
+        final Ruta ruta;
+        final int[] tarifas;
+
+        TarifasRuta(Ruta ruta) {
+            this.ruta = ruta;
+            this.tarifas = new int[NUM_CATEGORIAS];
+            Arrays.fill(tarifas, -1);
+        }
+    }
+
     /**
      * Calcula la distancia entre los dos aeropuertos de una ruta.
      * Se usa para determinar costos basados en longitud de trayecto.
      */
     protected int calcularDistanciaViaje(Ruta ruta) {
-        Aeropuerto origen = ruta.getOrigen();
-        Aeropuerto destino = ruta.getDestino();
-        
-        // Se utiliza la lógica de cálculo de distancia entre coordenadas (Haversine simplificado o similar)
-        // proporcionada usualmente en la clase Aeropuerto.
-        return Aeropuerto.calcularDistancia(origen, destino);
+        // La ruta calcula la distancia entre sus aeropuertos una sola vez
+        return ruta.getDistancia();
     }
 
     /**
@@ -0,0 +1,104 @@
+package uniandes.dpoo.aerolinea.modelo.tarifas;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+
+/**
+ * Esta clase indica cuáles días del año pertenecen a la temporada alta.
+ * 
+ * Las temporadas se definen como rangos de días del año (por ejemplo, del 15 de junio al 31 de julio) que se repiten todos los años. Internamente se guarda un
+ * bit por cada día del año, así que consultar la temporada de una fecha toma tiempo constante y no crea objetos.
+ */
+public class CalendarioTemporadas
+{
+    // --- Constantes ---
+
+    /**
+     * Cantidad de posiciones que se reservan para los días de cada mes. Se reservan 31 para todos los meses para que la posición de un día se calcule
+     * directamente a partir del mes y del día.
+     */
+    private static final int DIAS_POR_MES = 31;
+
+    // --- Atributos ---
+
+    /**
+     * Los bits de los días de temporada alta. El bit del día d del mes m está en la posición (m - 1) * 31 + (d - 1).
+     */
+    private final long[] diasTemporadaAlta;
+
+    // --- Constructores ---
+
+    /**
+     * Crea un calendario en el que todos los días son de temporada baja.
+     */
+    public CalendarioTemporadas( )
+    {
+        diasTemporadaAlta = new long[( 12 * DIAS_POR_MES + 63 ) / 64];
+    }
+
+    /**
+     * Crea el calendario que usa la aerolínea si no se configura otro: los meses de junio, julio y diciembre son temporada alta.
+     */
+    public static CalendarioTemporadas crearCalendarioPorDefecto( )
+    {
+        CalendarioTemporadas calendario = new CalendarioTemporadas( );
+        calendario.agregarTemporadaAlta( MonthDay.of( 6, 1 ), MonthDay.of( 7, 31 ) );
+        calendario.agregarTemporadaAlta( MonthDay.of( 12, 1 ), MonthDay.of( 12, 31 ) );
+        return calendario;
+    }
+
+    // --- Métodos ---
+
+    /**
+     * Marca como temporada alta todos los días entre dos fechas del año, incluyendo ambas. Si el día final es anterior al inicial, el rango pasa por el final
+     * del año (por ejemplo, del 15 de diciembre al 15 de enero).
+     * @param desde El primer día de la temporada alta
+     * @param hasta El último día de la temporada alta
+     */
+    public void agregarTemporadaAlta( MonthDay desde, MonthDay hasta )
+    {
+        int inicio = posicion( desde.getMonthValue( ), desde.getDayOfMonth( ) );
+        int fin = posicion( hasta.getMonthValue( ), hasta.getDayOfMonth( ) );
+        if( inicio <= fin )
+        {
+            marcar( inicio, fin );
+        }
+        else
+        {
+            marcar( inicio, posicion( 12, 31 ) );
+            marcar( 0, fin );
+        }
+    }
+
+    /**
+     * Indica si una fecha pertenece a la temporada alta.
+     */
+    public boolean esTemporadaAlta( LocalDate fecha )
+    {
+        return esTemporadaAlta( fecha.getMonthValue( ), fecha.getDayOfMonth( ) );
+    }
+
+    /**
+     * Indica si un día del año pertenece a la temporada alta.
+     * @param mes El mes, entre 1 y 12
+     * @param dia El día del mes, entre 1 y 31
+     */
+    public boolean esTemporadaAlta( int mes, int dia )
+    {
+        int pos = posicion( mes, dia );
+        return ( diasTemporadaAlta[ pos >>> 6 ] & ( 1L << pos ) ) != 0;
+    }
+
+    private static int posicion( int mes, int dia )
+    {
+        return ( mes - 1 ) * DIAS_POR_MES + ( dia - 1 );
+    }
+
+    private void marcar( int inicio, int fin )
+    {
+        for( int pos = inicio; pos <= fin; pos++ )
+        {
+            diasTemporadaAlta[ pos >>> 6 ] |= 1L << pos;
+        }
+    }
+}
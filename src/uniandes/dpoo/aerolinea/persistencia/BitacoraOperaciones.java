@@ -0,0 +1,760 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.tiquetes.GeneradorTiquetes;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Bitácora en la que se registran las operaciones que modifican la aerolínea (ventas y cancelaciones de tiquetes, programación de vuelos, vuelos realizados
+ * y uso de tiquetes) entre dos salvadas completas, para no perderlas si la aplicación termina inesperadamente.
+ *
+ * Las operaciones se agregan al final de un archivo. Para no tener que esperar al disco en cada operación, un thread escritor toma todas las operaciones que se
+ * han registrado desde la última escritura, las escribe juntas y fuerza una sola vez la escritura en el disco (group commit). Si la bitácora se crea esperando
+ * la escritura, cada operación espera a que su lote quede en el disco; si no, sólo se espera al invocar {@link #sincronizar()}.
+ *
+ * La bitácora se guarda en varios segmentos (archivos con el nombre de la bitácora seguido de un punto y un número). Al arrancar la aplicación se debe cargar la
+ * última salvada completa y sobre ella reproducir los segmentos, en orden, antes de registrar operaciones nuevas:
+ *
+ * <pre>
+ * aerolinea.cargarAerolinea( archivoAerolinea, CentralPersistencia.JSON );
+ * aerolinea.cargarTiquetes( archivoTiquetes, CentralPersistencia.JSON );
+ * BitacoraOperaciones.reproducir( archivoBitacora, aerolinea );
+ * aerolinea.setBitacora( new BitacoraOperaciones( archivoBitacora, false ) );
+ * </pre>
+ *
+ * Con {@link #compactar(Aerolinea, String, String)} se salva la aerolínea en los archivos de la salvada completa y se borran los segmentos que ya no se
+ * necesitan. Mientras se compacta no se deben programar vuelos ni agregar clientes, rutas, aviones o aeropuertos (ver el método). La reproducción de las
+ * operaciones es idempotente (una venta cuyos tiquetes ya existen o un vuelo que ya está programado no se vuelven a aplicar), así que no importa si la salvada
+ * completa ya incluye algunas de las operaciones de los segmentos.
+ *
+ * Cada operación se guarda como: int longitud, byte tipo, datos de la operación, int CRC32 del tipo y los datos. Si la aplicación termina mientras se escribe
+ * una operación, la reproducción se detiene en la última operación completa del segmento.
+ */
+public class BitacoraOperaciones implements Closeable
+{
+    // --- Constantes ---
+
+    private static final byte VENTA = 1;
+    private static final byte PROGRAMACION = 2;
+    private static final byte VUELO_REALIZADO = 3;
+    private static final byte USO = 4;
+    private static final byte CANCELACION = 5;
+    private static final byte USO_TIQUETES = 6;
+
+    /**
+     * Longitud máxima de una operación. Una longitud mayor indica que el final del segmento está dañado.
+     */
+    private static final int LONGITUD_MAXIMA = 1 << 24;
+
+    // --- Atributos ---
+
+    /**
+     * La ruta de la bitácora, sin el número de segmento
+     */
+    private Path archivo;
+
+    /**
+     * Indica si las operaciones esperan a que su lote quede escrito en el disco
+     */
+    private boolean esperarEscritura;
+
+    /**
+     * El segmento en el que está escribiendo el thread escritor
+     */
+    private FileChannel canal;
+
+    /**
+     * El número del segmento en el que se está escribiendo
+     */
+    private long segmentoActual;
+
+    /**
+     * Objeto sobre el que se sincronizan los threads que registran operaciones y el thread escritor
+     */
+    private final Object candado = new Object( );
+
+    /**
+     * Las operaciones registradas que todavía no se han escrito. El thread escritor la intercambia con loteEnEscritura.
+     */
+    private ByteArrayOutputStream pendientes = new ByteArrayOutputStream( 1 << 16 );
+
+    private ByteArrayOutputStream loteEnEscritura = new ByteArrayOutputStream( 1 << 16 );
+
+    /**
+     * Cantidad de operaciones registradas desde que se abrió la bitácora
+     */
+    private long registradas;
+
+    /**
+     * Cantidad de operaciones que ya están escritas en el disco
+     */
+    private long escritas;
+
+    /**
+     * Indica si alguien pidió que el thread escritor pase a un segmento nuevo
+     */
+    private boolean rotacionPedida;
+
+    /**
+     * Cantidad de veces que el thread escritor ha pasado a un segmento nuevo
+     */
+    private long rotaciones;
+
+    private boolean cerrada;
+
+    /**
+     * El error que ocurrió al escribir la bitácora. Después de un error no se pueden registrar más operaciones.
+     */
+    private IOException error;
+
+    private Thread escritor;
+
+    // --- Constructor ---
+
+    /**
+     * Abre la bitácora para registrar operaciones nuevas, en un segmento nuevo que queda después de los segmentos que ya existían.
+     * @param archivo La ruta de la bitácora, sin el número de segmento
+     * @param esperarEscritura Indica si cada operación debe esperar a que quede escrita en el disco
+     * @throws IOException Si no se puede crear el segmento
+     */
+    public BitacoraOperaciones( String archivo, boolean esperarEscritura ) throws IOException
+    {
+        this.archivo = Paths.get( archivo ).toAbsolutePath( );
+        this.esperarEscritura = esperarEscritura;
+        List<Path> segmentos = buscarSegmentos( this.archivo );
+        segmentoActual = segmentos.isEmpty( ) ? 1 : numeroSegmento( this.archivo, segmentos.get( segmentos.size( ) - 1 ) ) + 1;
+        canal = abrirSegmento( segmentoActual );
+
+        escritor = new Thread( this::escribirLotes, "escritor-bitacora" );
+        escritor.setDaemon( true );
+        escritor.start( );
+    }
+
+    // --- Registro de operaciones ---
+
+    /**
+     * Registra la venta de unos tiquetes
+     * @param vuelo El vuelo de los tiquetes
+     * @param cliente El cliente que los compró
+     * @param tiquetes Los tiquetes vendidos, todos con la misma tarifa
+     */
+    public void registrarVenta( Vuelo vuelo, Cliente cliente, Collection<Tiquete> tiquetes ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 + 16 * tiquetes.size( ) );
+        DataOutputStream datos = new DataOutputStream( bytes );
+        datos.writeByte( VENTA );
+        datos.writeUTF( cliente.getIdentificador( ) );
+        datos.writeUTF( vuelo.getRuta( ).getCodigoRuta( ) );
+        datos.writeUTF( vuelo.getFecha( ) );
+        datos.writeInt( tiquetes.isEmpty( ) ? 0 : tiquetes.iterator( ).next( ).getTarifa( ) );
+        datos.writeInt( tiquetes.size( ) );
+        for( Tiquete tiquete : tiquetes )
+            datos.writeUTF( tiquete.getCodigo( ) );
+        registrar( bytes );
+    }
+
+    /**
+     * Registra la programación de un vuelo
+     */
+    public void registrarProgramacion( String fecha, String codigoRuta, String nombreAvion ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+        DataOutputStream datos = new DataOutputStream( bytes );
+        datos.writeByte( PROGRAMACION );
+        datos.writeUTF( fecha );
+        datos.writeUTF( codigoRuta );
+        datos.writeUTF( nombreAvion );
+        registrar( bytes );
+    }
+
+    /**
+     * Registra que un vuelo se realizó
+     */
+    public void registrarVueloRealizado( String fecha, String codigoRuta ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( 32 );
+        DataOutputStream datos = new DataOutputStream( bytes );
+        datos.writeByte( VUELO_REALIZADO );
+        datos.writeUTF( fecha );
+        datos.writeUTF( codigoRuta );
+        registrar( bytes );
+    }
+
+    /**
+     * Registra el uso de unos tiquetes. Se guardan los códigos de los tiquetes que se usaron, para que al reproducir la bitácora no se usen los tiquetes que el
+     * cliente compró después para el mismo vuelo.
+     * @param vuelo El vuelo de los tiquetes
+     * @param tiquetes Los tiquetes que se marcaron como usados
+     */
+    public void registrarUso( Vuelo vuelo, Collection<Tiquete> tiquetes ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( 32 + 16 * tiquetes.size( ) );
+        DataOutputStream datos = new DataOutputStream( bytes );
+        datos.writeByte( USO_TIQUETES );
+        datos.writeUTF( vuelo.getRuta( ).getCodigoRuta( ) );
+        datos.writeUTF( vuelo.getFecha( ) );
+        datos.writeInt( tiquetes.size( ) );
+        for( Tiquete tiquete : tiquetes )
+            datos.writeUTF( tiquete.getCodigo( ) );
+        registrar( bytes );
+    }
+
+    /**
+     * Registra la cancelación de un tiquete
+     */
+    public void registrarCancelacion( String fecha, String codigoRuta, String codigoTiquete ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+        DataOutputStream datos = new DataOutputStream( bytes );
+        datos.writeByte( CANCELACION );
+        datos.writeUTF( fecha );
+        datos.writeUTF( codigoRuta );
+        datos.writeUTF( codigoTiquete );
+        registrar( bytes );
+    }
+
+    /**
+     * Agrega una operación a las operaciones pendientes por escribir y, si la bitácora se creó esperando la escritura, espera a que quede en el disco
+     * @param operacion El tipo y los datos de la operación
+     */
+    private void registrar( ByteArrayOutputStream operacion ) throws IOException
+    {
+        byte[] contenido = operacion.toByteArray( );
+        CRC32 crc = new CRC32( );
+        crc.update( contenido, 0, contenido.length );
+        ByteBuffer marco = ByteBuffer.allocate( 4 + contenido.length + 4 );
+        marco.putInt( contenido.length );
+        marco.put( contenido );
+        marco.putInt( ( int )crc.getValue( ) );
+
+        long numero;
+        synchronized( candado )
+        {
+            verificarEstado( );
+            pendientes.write( marco.array( ), 0, marco.capacity( ) );
+            numero = ++registradas;
+            candado.notifyAll( );
+        }
+        if( esperarEscritura )
+            esperarEscritura( numero );
+    }
+
+    /**
+     * Espera a que todas las operaciones registradas hasta el momento queden escritas en el disco
+     * @throws IOException Si no se pudo escribir la bitácora
+     */
+    public void sincronizar( ) throws IOException
+    {
+        long numero;
+        synchronized( candado )
+        {
+            numero = registradas;
+        }
+        esperarEscritura( numero );
+    }
+
+    private void esperarEscritura( long numero ) throws IOException
+    {
+        synchronized( candado )
+        {
+            while( escritas < numero && error == null )
+                esperar( );
+            if( escritas < numero )
+                throw new IOException( "No se pudo escribir la bitácora", error );
+        }
+    }
+
+    /**
+     * Verifica que todavía se puedan registrar operaciones en la bitácora. La aerolínea lo invoca antes de modificar su estado, para no aplicar una operación
+     * que después no va a quedar registrada.
+     * @throws IOException Si la bitácora está cerrada o no se pudo escribir
+     */
+    public void verificarDisponible( ) throws IOException
+    {
+        synchronized( candado )
+        {
+            verificarEstado( );
+        }
+    }
+
+    /**
+     * Retorna la cantidad de operaciones que se han registrado desde que se abrió la bitácora
+     */
+    public long getOperacionesRegistradas( )
+    {
+        synchronized( candado )
+        {
+            return registradas;
+        }
+    }
+
+    // --- Thread escritor ---
+
+    /**
+     * El ciclo del thread escritor: toma las operaciones pendientes, las escribe en el segmento actual y fuerza la escritura en el disco.
+     *
+     * Si el thread termina por cualquier error, el error queda guardado y se despierta a quienes estén esperando, para que no esperen indefinidamente.
+     */
+    private void escribirLotes( )
+    {
+        try
+        {
+            while( true )
+            {
+                long hasta;
+                boolean rotar;
+                synchronized( candado )
+                {
+                    while( pendientes.size( ) == 0 && !rotacionPedida && !cerrada )
+                        esperar( );
+                    if( pendientes.size( ) == 0 && !rotacionPedida && cerrada )
+                        return;
+                    ByteArrayOutputStream lote = pendientes;
+                    pendientes = loteEnEscritura;
+                    loteEnEscritura = lote;
+                    hasta = registradas;
+                    rotar = rotacionPedida;
+                }
+
+                if( loteEnEscritura.size( ) > 0 )
+                {
+                    ByteBuffer buffer = ByteBuffer.wrap( loteEnEscritura.toByteArray( ) );
+                    while( buffer.hasRemaining( ) )
+                        canal.write( buffer );
+                    canal.force( false );
+                    loteEnEscritura.reset( );
+                }
+                if( rotar )
+                {
+                    canal.close( );
+                    canal = abrirSegmento( segmentoActual + 1 );
+                }
+
+                synchronized( candado )
+                {
+                    escritas = hasta;
+                    if( rotar )
+                    {
+                        segmentoActual++;
+                        rotacionPedida = false;
+                        rotaciones++;
+                    }
+                    candado.notifyAll( );
+                }
+            }
+        }
+        catch( Throwable e )
+        {
+            synchronized( candado )
+            {
+                error = e instanceof IOException ? ( IOException )e : new IOException( "El thread escritor de la bitácora falló", e );
+            }
+        }
+        finally
+        {
+            synchronized( candado )
+            {
+                candado.notifyAll( );
+            }
+        }
+    }
+
+    /**
+     * Hace que las operaciones que se registren de ahora en adelante queden en un segmento nuevo
+     * @return Los segmentos anteriores, que ya están completos
+     */
+    private List<Path> rotar( ) throws IOException
+    {
+        synchronized( candado )
+        {
+            verificarEstado( );
+            long objetivo = rotaciones + 1;
+            rotacionPedida = true;
+            candado.notifyAll( );
+            while( rotaciones < objetivo && error == null )
+                esperar( );
+            verificarEstado( );
+
+            List<Path> anteriores = new ArrayList<Path>( );
+            for( Path segmento : buscarSegmentos( archivo ) )
+            {
+                if( numeroSegmento( archivo, segmento ) < segmentoActual )
+                    anteriores.add( segmento );
+            }
+            return anteriores;
+        }
+    }
+
+    /**
+     * Escribe las operaciones pendientes y cierra la bitácora
+     */
+    @Override
+    public void close( ) throws IOException
+    {
+        synchronized( candado )
+        {
+            cerrada = true;
+            candado.notifyAll( );
+        }
+        try
+        {
+            escritor.join( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+        }
+        canal.close( );
+        if( error != null )
+            throw new IOException( "No se pudo escribir la bitácora", error );
+    }
+
+    private void verificarEstado( ) throws IOException
+    {
+        if( error != null )
+            throw new IOException( "No se pudo escribir la bitácora", error );
+        if( cerrada )
+            throw new IOException( "La bitácora está cerrada" );
+    }
+
+    /**
+     * Espera sobre el candado. Debe invocarse teniendo el candado.
+     */
+    private void esperar( )
+    {
+        try
+        {
+            candado.wait( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new IllegalStateException( "Se interrumpió la espera de la bitácora", e );
+        }
+    }
+
+    // --- Compactación ---
+
+    /**
+     * Salva la aerolínea completa (en formato JSON) y borra los segmentos de la bitácora que quedan incluidos en esa salvada. El trabajo se hace en un thread
+     * aparte: mientras tanto se pueden seguir vendiendo, usando y cancelando tiquetes, y registrando vuelos realizados.
+     *
+     * En cambio, hasta que el futuro se complete no se deben programar vuelos ni agregar clientes, rutas, aviones o aeropuertos: la salvada recorre las
+     * colecciones de la aerolínea donde quedan, que no están sincronizadas, y podría fallar o quedar incompleta si cambian mientras se recorren.
+     *
+     * Primero se pasa a un segmento nuevo, así que todas las operaciones de los segmentos anteriores ya están aplicadas sobre la aerolínea cuando se salva. Los
+     * archivos se escriben con otro nombre y al final reemplazan a los anteriores; los segmentos anteriores sólo se borran después de eso. Como las salvadas no
+     * incluyen cuáles vuelos se realizaron, los vuelos realizados se vuelven a registrar en el segmento nuevo.
+     * @param aerolinea La aerolínea cuyas operaciones se registran en esta bitácora
+     * @param archivoAerolinea El archivo donde se salva la información de la aerolínea
+     * @param archivoTiquetes El archivo donde se salvan los clientes y los tiquetes
+     * @return Un futuro que se completa cuando termina la compactación
+     */
+    public CompletableFuture<Void> compactar( Aerolinea aerolinea, String archivoAerolinea, String archivoTiquetes )
+    {
+        CompletableFuture<Void> resultado = new CompletableFuture<Void>( );
+        Thread compactador = new Thread( ( ) -> {
+            try
+            {
+                List<Path> anteriores = rotar( );
+                salvarReemplazando( archivoAerolinea, destino -> new PersistenciaAerolineaJson( ).salvarAerolinea( destino, aerolinea ) );
+                salvarReemplazando( archivoTiquetes, destino -> new PersistenciaTiquetesJson( ).salvarTiquetes( destino, aerolinea ) );
+
+                // Las salvadas no indican cuáles vuelos se realizaron, así que esas operaciones se pasan al segmento nuevo antes de borrar los anteriores
+                for( Vuelo vuelo : aerolinea.getVuelos( ) )
+                {
+                    if( vuelo.estaRealizado( ) )
+                        registrarVueloRealizado( vuelo.getFecha( ), vuelo.getRuta( ).getCodigoRuta( ) );
+                }
+                sincronizar( );
+                for( Path segmento : anteriores )
+                    Files.deleteIfExists( segmento );
+                resultado.complete( null );
+            }
+            catch( Throwable e )
+            {
+                resultado.completeExceptionally( e );
+            }
+        }, "compactacion-bitacora" );
+        compactador.setDaemon( true );
+        compactador.start( );
+        return resultado;
+    }
+
+    /**
+     * Una forma de salvar información en un archivo
+     */
+    private interface Salvada
+    {
+        void salvar( String archivo ) throws IOException;
+    }
+
+    private static void salvarReemplazando( String archivo, Salvada salvada ) throws IOException
+    {
+        Path destino = Paths.get( archivo ).toAbsolutePath( );
+        Path temporal = destino.resolveSibling( destino.getFileName( ) + ".tmp" );
+        salvada.salvar( temporal.toString( ) );
+        Files.move( temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    // --- Reproducción ---
+
+    /**
+     * Aplica sobre la aerolínea las operaciones de todos los segmentos de una bitácora, en el orden en el que se registraron. Las operaciones que ya estaban
+     * aplicadas sobre la aerolínea se ignoran.
+     *
+     * Mientras se reproduce la bitácora la aerolínea no debe tener una bitácora asociada, para no volver a registrar las operaciones.
+     * @param archivo La ruta de la bitácora, sin el número de segmento
+     * @param aerolinea La aerolínea, ya cargada a partir de la última salvada completa
+     * @return La cantidad de operaciones que se leyeron de la bitácora
+     * @throws IOException Si hay problemas leyendo la bitácora
+     * @throws InformacionInconsistenteException Si alguna operación hace referencia a información que no existe en la aerolínea
+     */
+    public static int reproducir( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        // Los códigos de los tiquetes que ya existen, para no volver a aplicar una venta que ya estaba en la salvada completa
+        Set<String> codigosExistentes = new HashSet<String>( );
+        for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+            codigosExistentes.add( tiquete.getCodigo( ) );
+
+        int operaciones = 0;
+        for( Path segmento : buscarSegmentos( Paths.get( archivo ).toAbsolutePath( ) ) )
+        {
+            try( DataInputStream entrada = new DataInputStream( new BufferedInputStream( Files.newInputStream( segmento ), 1 << 16 ) ) )
+            {
+                byte[] operacion;
+                while( ( operacion = leerOperacion( entrada ) ) != null )
+                {
+                    aplicar( operacion, aerolinea, codigosExistentes );
+                    operaciones++;
+                }
+            }
+        }
+        return operaciones;
+    }
+
+    /**
+     * Lee la siguiente operación completa de un segmento
+     * @return El tipo y los datos de la operación, o null si se llegó al final del segmento o la operación está incompleta o dañada
+     */
+    private static byte[] leerOperacion( InputStream entrada ) throws IOException
+    {
+        DataInputStream datos = new DataInputStream( entrada );
+        try
+        {
+            int longitud = datos.readInt( );
+            if( longitud <= 0 || longitud > LONGITUD_MAXIMA )
+                return null;
+            byte[] operacion = new byte[longitud];
+            datos.readFully( operacion );
+            int crcEsperado = datos.readInt( );
+            CRC32 crc = new CRC32( );
+            crc.update( operacion, 0, longitud );
+            return ( int )crc.getValue( ) == crcEsperado ? operacion : null;
+        }
+        catch( EOFException e )
+        {
+            return null;
+        }
+    }
+
+    private static void aplicar( byte[] operacion, Aerolinea aerolinea, Set<String> codigosExistentes ) throws IOException, InformacionInconsistenteException
+    {
+        DataInputStream datos = new DataInputStream( new ByteArrayInputStream( operacion ) );
+        byte tipo = datos.readByte( );
+        if( tipo == VENTA )
+        {
+            Cliente cliente = buscarCliente( aerolinea, datos.readUTF( ) );
+            Vuelo vuelo = buscarVuelo( aerolinea, datos.readUTF( ), datos.readUTF( ) );
+            int tarifa = datos.readInt( );
+            int cantidad = datos.readInt( );
+            for( int i = 0; i < cantidad; i++ )
+            {
+                String codigo = datos.readUTF( );
+                if( !codigosExistentes.add( codigo ) )
+                    continue;
+                Tiquete tiquete = new Tiquete( codigo, vuelo, cliente, tarifa );
+                GeneradorTiquetes.registrarTiquete( tiquete );
+                // Primero el vuelo: si no tiene cupo, el cliente no debe quedar con el tiquete
+                try
+                {
+                    vuelo.agregarTiquete( tiquete );
+                }
+                catch( VueloSobrevendidoException e )
+                {
+                    throw new InformacionInconsistenteException( e.getMessage( ) );
+                }
+                cliente.agregarTiquete( tiquete );
+            }
+        }
+        else if( tipo == PROGRAMACION )
+        {
+            String fecha = datos.readUTF( );
+            String codigoRuta = datos.readUTF( );
+            String nombreAvion = datos.readUTF( );
+            if( aerolinea.getVuelo( codigoRuta, fecha ) == null )
+            {
+                try
+                {
+                    aerolinea.programarVuelo( fecha, codigoRuta, nombreAvion );
+                }
+                catch( Exception e )
+                {
+                    throw new InformacionInconsistenteException( "No se pudo programar el vuelo de la bitácora: " + e.getMessage( ) );
+                }
+            }
+        }
+        else if( tipo == VUELO_REALIZADO )
+        {
+            String fecha = datos.readUTF( );
+            String codigoRuta = datos.readUTF( );
+            buscarVuelo( aerolinea, codigoRuta, fecha );
+            aerolinea.registrarVueloRealizado( fecha, codigoRuta );
+        }
+        else if( tipo == USO_TIQUETES )
+        {
+            Vuelo vuelo = buscarVuelo( aerolinea, datos.readUTF( ), datos.readUTF( ) );
+            int cantidad = datos.readInt( );
+            Set<String> codigos = new HashSet<String>( );
+            for( int i = 0; i < cantidad; i++ )
+                codigos.add( datos.readUTF( ) );
+            // Los tiquetes que ya están usados (porque la salvada completa se hizo después del uso) se dejan como están
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            {
+                if( codigos.remove( tiquete.getCodigo( ) ) && !tiquete.esUsado( ) )
+                    tiquete.marcarComoUsado( );
+            }
+            if( !codigos.isEmpty( ) )
+                throw new InformacionInconsistenteTiqueteException( "tiquete", codigos.iterator( ).next( ) );
+        }
+        else if( tipo == USO )
+        {
+            // Segmentos escritos antes de que el uso guardara los códigos de los tiquetes
+            Cliente cliente = buscarCliente( aerolinea, datos.readUTF( ) );
+            String fecha = datos.readUTF( );
+            Vuelo vuelo = buscarVuelo( aerolinea, datos.readUTF( ), fecha );
+            cliente.usarTiquetes( vuelo );
+        }
+        else if( tipo == CANCELACION )
+        {
+            String fecha = datos.readUTF( );
+            String codigoRuta = datos.readUTF( );
+            Vuelo vuelo = buscarVuelo( aerolinea, codigoRuta, fecha );
+            String codigo = datos.readUTF( );
+            // Si el tiquete ya no está (la salvada completa se hizo después de cancelarlo), no hay nada que aplicar. Si está, se cancela a través de la
+            // aerolínea para que la siguiente salvada incremental sea una salvada base: un delta no puede borrar el tiquete.
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            {
+                if( tiquete.getCodigo( ).equals( codigo ) )
+                {
+                    try
+                    {
+                        aerolinea.cancelarTiquete( fecha, codigoRuta, codigo );
+                    }
+                    catch( Exception e )
+                    {
+                        throw new InformacionInconsistenteException( "No se pudo cancelar el tiquete de la bitácora: " + e.getMessage( ) );
+                    }
+                    break;
+                }
+            }
+        }
+        else
+        {
+            throw new InformacionInconsistenteException( "La bitácora tiene una operación desconocida: " + tipo );
+        }
+    }
+
+    private static Cliente buscarCliente( Aerolinea aerolinea, String identificador ) throws InformacionInconsistenteException
+    {
+        Cliente cliente = aerolinea.getCliente( identificador );
+        if( cliente == null )
+            throw new InformacionInconsistenteTiqueteException( "cliente", identificador );
+        return cliente;
+    }
+
+    private static Vuelo buscarVuelo( Aerolinea aerolinea, String codigoRuta, String fecha ) throws InformacionInconsistenteException
+    {
+        Vuelo vuelo = aerolinea.getVuelo( codigoRuta, fecha );
+        if( vuelo == null )
+            throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fecha );
+        return vuelo;
+    }
+
+    // --- Segmentos ---
+
+    private FileChannel abrirSegmento( long numero ) throws IOException
+    {
+        Path segmento = archivo.resolveSibling( archivo.getFileName( ) + "." + numero );
+        return FileChannel.open( segmento, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE );
+    }
+
+    /**
+     * Busca los segmentos de una bitácora y los retorna ordenados por su número
+     */
+    private static List<Path> buscarSegmentos( Path archivo ) throws IOException
+    {
+        TreeMap<Long, Path> segmentos = new TreeMap<Long, Path>( );
+        Path carpeta = archivo.getParent( );
+        if( carpeta == null || !Files.isDirectory( carpeta ) )
+            return Collections.emptyList( );
+        try( DirectoryStream<Path> contenido = Files.newDirectoryStream( carpeta, archivo.getFileName( ) + ".*" ) )
+        {
+            for( Path candidato : contenido )
+            {
+                long numero = numeroSegmento( archivo, candidato );
+                if( numero > 0 )
+                    segmentos.put( numero, candidato );
+            }
+        }
+        return new ArrayList<Path>( segmentos.values( ) );
+    }
+
+    /**
+     * Retorna el número de un segmento de la bitácora, o -1 si el archivo no es un segmento de la bitácora
+     */
+    private static long numeroSegmento( Path archivo, Path segmento )
+    {
+        String sufijo = segmento.getFileName( ).toString( ).substring( archivo.getFileName( ).toString( ).length( ) + 1 );
+        if( sufijo.isEmpty( ) || sufijo.length( ) > 18 )
+            return -1;
+        for( int i = 0; i < sufijo.length( ); i++ )
+        {
+            if( !Character.isDigit( sufijo.charAt( i ) ) )
+                return -1;
+        }
+        return Long.parseLong( sufijo );
+    }
+}
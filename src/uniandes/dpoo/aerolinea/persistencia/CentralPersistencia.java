@@ -17,11 +17,31 @@ public class CentralPersistencia
      */
     public static final String PLAIN = "PLAIN";
 
+    /**
+     * Cadena que identifica al tipo de persistencia en formato binario.
+     */
+    public static final String BINARY = "BINARY";
+
+    /**
+     * Cadena que identifica al tipo de persistencia de tiquetes en un archivo mapeado en memoria. Sólo sirve para los tiquetes.
+     */
+    public static final String MAPPED = "MAPPED";
+
+    /**
+     * Cadena que identifica al tipo de persistencia incremental de tiquetes (una salvada base en formato JSON y archivos delta). Sólo sirve para los tiquetes.
+     */
+    public static final String INCREMENTAL = "INCREMENTAL";
+
+    /**
+     * Cadena que identifica al tipo de persistencia de tiquetes en varios archivos JSON que se cargan en paralelo. Sólo sirve para los tiquetes.
+     */
+    public static final String PARTITIONED = "PARTITIONED";
+
     // --- Métodos Estáticos ---
 
     /**
      * Retorna un objeto encargado de la persistencia de la aerolínea según el tipo.
-     * @param tipoArchivo El tipo de persistencia (JSON o PLAIN).
+     * @param tipoArchivo El tipo de persistencia (JSON, PLAIN o BINARY).
      * @return El objeto que implementa la interfaz IPersistenciaAerolinea.
      * @throws TipoInvalidoException Si el tipo indicado no es válido.
      */
@@ -33,8 +53,11 @@ public class CentralPersistencia
         }
         else if ( tipoArchivo.equals( PLAIN ) )
         {
-            // Nota: Si el taller no requiere implementar Plain, este podría retornar null o lanzar excepción
-            return  null; 
+            return new PersistenciaAerolineaPlaintext( );
+        }
+        else if ( tipoArchivo.equals( BINARY ) )
+        {
+            return new PersistenciaBinaria( );
         }
         else
         {
@@ -44,7 +67,7 @@ public class CentralPersistencia
 
     /**
      * Retorna un objeto encargado de la persistencia de los tiquetes según el tipo.
-     * @param tipoArchivo El tipo de persistencia (JSON o PLAIN).
+     * @param tipoArchivo El tipo de persistencia (JSON, PLAIN, BINARY, MAPPED, INCREMENTAL o PARTITIONED).
      * @return El objeto que implementa la interfaz IPersistenciaTiquetes.
      * @throws TipoInvalidoException Si el tipo indicado no es válido.
      */
@@ -56,7 +79,23 @@ public class CentralPersistencia
         }
         else if ( tipoArchivo.equals( PLAIN ) )
         {
-            return null;
+            return new PersistenciaAerolineaPlaintext( );
+        }
+        else if ( tipoArchivo.equals( BINARY ) )
+        {
+            return new PersistenciaBinaria( );
+        }
+        else if ( tipoArchivo.equals( MAPPED ) )
+        {
+            return new PersistenciaTiquetesMapeados( );
+        }
+        else if ( tipoArchivo.equals( INCREMENTAL ) )
+        {
+            return new PersistenciaTiquetesIncremental( );
+        }
+        else if ( tipoArchivo.equals( PARTITIONED ) )
+        {
+            return new PersistenciaTiquetesParticionada( );
         }
         else
         {
@@ -0,0 +1,205 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.json.JSONObject;
+
+/**
+ * Esta clase escribe un documento JSON a medida que se van recorriendo los objetos que se quieren salvar, sin construir antes el documento completo en memoria.
+ *
+ * Quien usa la clase debe invocar los métodos en el orden en el que deben aparecer los elementos dentro del documento: por ejemplo, iniciarObjeto, llave,
+ * valor, llave, valor y terminarObjeto. La clase se encarga de escribir las comas, los dos puntos y (si se pide) la indentación.
+ */
+class EscritorJson implements Closeable
+{
+    /**
+     * Tamaño del buffer con el que se escribe en el archivo
+     */
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /**
+     * El destino donde se escribe el documento
+     */
+    private Writer salida;
+
+    /**
+     * Cantidad de espacios que se usan para indentar cada nivel. Si es 0, el documento se escribe sin saltos de línea ni espacios.
+     */
+    private int indentacion;
+
+    /**
+     * Nivel de anidamiento del elemento que se está escribiendo (0 por fuera de todo objeto o arreglo)
+     */
+    private int nivel;
+
+    /**
+     * Indica, para cada nivel, si todavía no se ha escrito ningún elemento dentro del objeto o arreglo de ese nivel
+     */
+    private boolean[] nivelVacio;
+
+    /**
+     * Indica si se acaba de escribir una llave, caso en el cual el siguiente valor no va precedido de coma
+     */
+    private boolean despuesDeLlave;
+
+    /**
+     * Crea un escritor que escribe sobre el Writer dado.
+     * @param salida El destino donde se escribe el documento
+     * @param indentacion La cantidad de espacios por nivel, o 0 para escribir el documento sin indentación
+     */
+    public EscritorJson( Writer salida, int indentacion )
+    {
+        this.salida = salida;
+        this.indentacion = indentacion;
+        this.nivel = 0;
+        this.nivelVacio = new boolean[16];
+        this.despuesDeLlave = false;
+    }
+
+    /**
+     * Crea un escritor que escribe en un archivo, a través de un buffer. Si el archivo ya existía, se reemplaza su contenido.
+     * @param archivo La ruta del archivo
+     * @param indentacion La cantidad de espacios por nivel, o 0 para escribir el documento sin indentación
+     * @throws IOException Si no se puede abrir el archivo
+     */
+    public static EscritorJson abrirArchivo( String archivo, int indentacion ) throws IOException
+    {
+        FileChannel canal = FileChannel.open( Paths.get( archivo ), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING );
+        Writer escritor = new BufferedWriter( new OutputStreamWriter( Channels.newOutputStream( canal ), StandardCharsets.UTF_8 ), TAMANO_BUFFER );
+        return new EscritorJson( escritor, indentacion );
+    }
+
+    public void iniciarObjeto( ) throws IOException
+    {
+        antesDeValor( );
+        salida.write( '{' );
+        abrirNivel( );
+    }
+
+    public void terminarObjeto( ) throws IOException
+    {
+        cerrarNivel( );
+        salida.write( '}' );
+    }
+
+    public void iniciarArreglo( ) throws IOException
+    {
+        antesDeValor( );
+        salida.write( '[' );
+        abrirNivel( );
+    }
+
+    public void terminarArreglo( ) throws IOException
+    {
+        cerrarNivel( );
+        salida.write( ']' );
+    }
+
+    /**
+     * Escribe la llave del siguiente atributo del objeto que se está escribiendo. Después se debe escribir su valor.
+     */
+    public void llave( String nombre ) throws IOException
+    {
+        antesDeValor( );
+        JSONObject.quote( nombre, salida );
+        salida.write( indentacion > 0 ? ": " : ":" );
+        despuesDeLlave = true;
+    }
+
+    public void valor( String valor ) throws IOException
+    {
+        antesDeValor( );
+        JSONObject.quote( valor, salida );
+    }
+
+    public void valor( long valor ) throws IOException
+    {
+        antesDeValor( );
+        salida.write( Long.toString( valor ) );
+    }
+
+    public void valor( double valor ) throws IOException
+    {
+        antesDeValor( );
+        salida.write( JSONObject.numberToString( valor ) );
+    }
+
+    public void valor( boolean valor ) throws IOException
+    {
+        antesDeValor( );
+        salida.write( valor ? "true" : "false" );
+    }
+
+    /**
+     * Escribe un objeto JSON que ya estaba construido. Sólo debería usarse para objetos pequeños.
+     */
+    public void valor( JSONObject valor ) throws IOException
+    {
+        antesDeValor( );
+        valor.write( salida, indentacion, nivel * indentacion );
+    }
+
+    /**
+     * Escribe lo que quede en el buffer y cierra el destino
+     */
+    @Override
+    public void close( ) throws IOException
+    {
+        salida.close( );
+    }
+
+    /**
+     * Escribe lo que debe ir antes de un valor: la coma que lo separa del elemento anterior y el salto de línea con la indentación
+     */
+    private void antesDeValor( ) throws IOException
+    {
+        if( despuesDeLlave )
+        {
+            despuesDeLlave = false;
+            return;
+        }
+        if( nivel > 0 )
+        {
+            if( !nivelVacio[ nivel ] )
+                salida.write( ',' );
+            nivelVacio[ nivel ] = false;
+            nuevaLinea( );
+        }
+    }
+
+    private void abrirNivel( )
+    {
+        nivel++;
+        if( nivel == nivelVacio.length )
+            nivelVacio = Arrays.copyOf( nivelVacio, nivel * 2 );
+        nivelVacio[ nivel ] = true;
+    }
+
+    private void cerrarNivel( ) throws IOException
+    {
+        boolean vacio = nivelVacio[ nivel ];
+        nivel--;
+        if( !vacio )
+            nuevaLinea( );
+    }
+
+    private void nuevaLinea( ) throws IOException
+    {
+        if( indentacion > 0 )
+        {
+            salida.write( '\n' );
+            for( int i = nivel * indentacion; i > 0; i-- )
+                salida.write( ' ' );
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+/**
+ * Esta interfaz la implementan los objetos que quieren enterarse del avance de la carga de un archivo de tiquetes.
+ */
+public interface IProgresoCarga
+{
+    /**
+     * Informa cuántos elementos se han cargado hasta el momento. Se invoca periódicamente durante la carga y una última vez cuando la carga termina.
+     * @param clientesCargados La cantidad de clientes que se han cargado
+     * @param tiquetesCargados La cantidad de tiquetes que se han cargado
+     */
+    public void reportarProgreso( int clientesCargados, int tiquetesCargados );
+}
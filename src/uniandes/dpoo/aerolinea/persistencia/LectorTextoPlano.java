@@ -0,0 +1,281 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+
+/**
+ * Lee un archivo de texto plano con un registro por línea y los campos separados por tabuladores.
+ *
+ * El lector no crea objetos para cada línea: los caracteres se leen en un buffer propio, cada línea se copia a un arreglo que se reutiliza y sólo se anotan
+ * las posiciones donde empieza y termina cada campo. Los campos numéricos se interpretan directamente sobre esos caracteres, y sólo se crea un String cuando se
+ * pide un campo como cadena.
+ *
+ * Dentro de los campos, los caracteres especiales se escriben con una barra invertida: \t (tabulador), \n (salto de línea), \r (retorno de carro) y \\ (barra
+ * invertida). Las líneas vacías y las que empiezan con '#' se ignoran.
+ */
+class LectorTextoPlano implements Closeable
+{
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final Reader entrada;
+
+    private final char[] buffer = new char[TAMANO_BUFFER];
+    private int posicionBuffer;
+    private int finBuffer;
+
+    /**
+     * Los caracteres de la línea actual
+     */
+    private char[] linea = new char[256];
+    private int longitudLinea;
+
+    /**
+     * Las posiciones (dentro de linea) donde empieza y donde termina cada campo de la línea actual
+     */
+    private int[] inicios = new int[16];
+    private int[] fines = new int[16];
+    private int numCampos;
+
+    /**
+     * El número de la línea actual dentro del archivo, para los mensajes de error
+     */
+    private int numeroLinea;
+
+    LectorTextoPlano( Reader entrada )
+    {
+        this.entrada = entrada;
+    }
+
+    static LectorTextoPlano abrirArchivo( String archivo ) throws IOException
+    {
+        return new LectorTextoPlano( Files.newBufferedReader( Paths.get( archivo ), StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Avanza a la siguiente línea con información, saltando las líneas vacías y los comentarios
+     * @return false si se llegó al final del archivo
+     */
+    boolean siguienteLinea( ) throws IOException
+    {
+        while( leerLinea( ) )
+        {
+            if( longitudLinea > 0 && linea[ 0 ] != '#' )
+            {
+                separarCampos( );
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean leerLinea( ) throws IOException
+    {
+        longitudLinea = 0;
+        boolean leyoAlgo = false;
+        while( true )
+        {
+            if( posicionBuffer == finBuffer )
+            {
+                finBuffer = entrada.read( buffer );
+                posicionBuffer = 0;
+                if( finBuffer <= 0 )
+                {
+                    finBuffer = 0;
+                    if( leyoAlgo )
+                        numeroLinea++;
+                    return leyoAlgo;
+                }
+            }
+            leyoAlgo = true;
+
+            // Se busca el fin de línea dentro del buffer y se copia el pedazo de una vez
+            int inicio = posicionBuffer;
+            while( posicionBuffer < finBuffer && buffer[ posicionBuffer ] != '\n' )
+                posicionBuffer++;
+            agregarALinea( inicio, posicionBuffer - inicio );
+            if( posicionBuffer < finBuffer )
+            {
+                posicionBuffer++;
+                numeroLinea++;
+                if( longitudLinea > 0 && linea[ longitudLinea - 1 ] == '\r' )
+                    longitudLinea--;
+                return true;
+            }
+        }
+    }
+
+    private void agregarALinea( int inicio, int cantidad )
+    {
+        if( longitudLinea + cantidad > linea.length )
+            linea = Arrays.copyOf( linea, Math.max( linea.length * 2, longitudLinea + cantidad ) );
+        System.arraycopy( buffer, inicio, linea, longitudLinea, cantidad );
+        longitudLinea += cantidad;
+    }
+
+    private void separarCampos( )
+    {
+        numCampos = 0;
+        int inicio = 0;
+        for( int i = 0; i <= longitudLinea; i++ )
+        {
+            if( i == longitudLinea || linea[ i ] == '\t' )
+            {
+                if( numCampos == inicios.length )
+                {
+                    inicios = Arrays.copyOf( inicios, numCampos * 2 );
+                    fines = Arrays.copyOf( fines, numCampos * 2 );
+                }
+                inicios[ numCampos ] = inicio;
+                fines[ numCampos ] = i;
+                numCampos++;
+                inicio = i + 1;
+            }
+        }
+    }
+
+    int getNumeroLinea( )
+    {
+        return numeroLinea;
+    }
+
+    int getNumCampos( )
+    {
+        return numCampos;
+    }
+
+    /**
+     * Verifica que la línea actual tenga la cantidad de campos esperada
+     */
+    void verificarCampos( int esperados ) throws InformacionInconsistenteException
+    {
+        if( numCampos != esperados )
+            throw error( "se esperaban " + esperados + " campos pero hay " + numCampos );
+    }
+
+    /**
+     * Indica si un campo es igual a una cadena, sin crear un String con el campo
+     */
+    boolean campoEs( int campo, String valor )
+    {
+        int inicio = inicios[ campo ];
+        int longitud = fines[ campo ] - inicio;
+        if( longitud != valor.length( ) )
+            return false;
+        for( int i = 0; i < longitud; i++ )
+        {
+            if( linea[ inicio + i ] != valor.charAt( i ) )
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retorna el valor de un campo como una cadena, interpretando las secuencias de escape
+     */
+    String cadena( int campo ) throws InformacionInconsistenteException
+    {
+        int inicio = inicios[ campo ];
+        int fin = fines[ campo ];
+        int escape = inicio;
+        while( escape < fin && linea[ escape ] != '\\' )
+            escape++;
+        if( escape == fin )
+            return new String( linea, inicio, fin - inicio );
+
+        StringBuilder valor = new StringBuilder( fin - inicio );
+        valor.append( linea, inicio, escape - inicio );
+        for( int i = escape; i < fin; i++ )
+        {
+            char c = linea[ i ];
+            if( c == '\\' )
+            {
+                if( ++i == fin )
+                    throw error( "el campo " + ( campo + 1 ) + " termina con una barra invertida" );
+                char siguiente = linea[ i ];
+                if( siguiente == 't' )
+                    c = '\t';
+                else if( siguiente == 'n' )
+                    c = '\n';
+                else if( siguiente == 'r' )
+                    c = '\r';
+                else if( siguiente == '\\' )
+                    c = '\\';
+                else
+                    throw error( "la secuencia de escape \\" + siguiente + " no es válida" );
+            }
+            valor.append( c );
+        }
+        return valor.toString( );
+    }
+
+    /**
+     * Retorna el valor de un campo como un entero, interpretándolo directamente sobre los caracteres de la línea
+     */
+    int entero( int campo ) throws InformacionInconsistenteException
+    {
+        int inicio = inicios[ campo ];
+        int fin = fines[ campo ];
+        boolean negativo = inicio < fin && linea[ inicio ] == '-';
+        if( negativo )
+            inicio++;
+        if( inicio == fin || fin - inicio > 10 )
+            throw error( "el campo " + ( campo + 1 ) + " no es un número entero" );
+        long valor = 0;
+        for( int i = inicio; i < fin; i++ )
+        {
+            char c = linea[ i ];
+            if( c < '0' || c > '9' )
+                throw error( "el campo " + ( campo + 1 ) + " no es un número entero" );
+            valor = valor * 10 + ( c - '0' );
+        }
+        valor = negativo ? -valor : valor;
+        if( valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE )
+            throw error( "el campo " + ( campo + 1 ) + " no es un número entero" );
+        return ( int )valor;
+    }
+
+    double decimal( int campo ) throws InformacionInconsistenteException
+    {
+        try
+        {
+            return Double.parseDouble( new String( linea, inicios[ campo ], fines[ campo ] - inicios[ campo ] ) );
+        }
+        catch( NumberFormatException e )
+        {
+            throw error( "el campo " + ( campo + 1 ) + " no es un número" );
+        }
+    }
+
+    /**
+     * Retorna el valor de un campo que sólo puede ser 0 o 1
+     */
+    boolean booleano( int campo ) throws InformacionInconsistenteException
+    {
+        if( campoEs( campo, "1" ) )
+            return true;
+        if( campoEs( campo, "0" ) )
+            return false;
+        throw error( "el campo " + ( campo + 1 ) + " debe ser 0 o 1" );
+    }
+
+    /**
+     * Construye una excepción que indica en qué línea está el problema
+     */
+    InformacionInconsistenteException error( String problema )
+    {
+        return new InformacionInconsistenteException( "Línea " + numeroLinea + ": " + problema );
+    }
+
+    @Override
+    public void close( ) throws IOException
+    {
+        entrada.close( );
+    }
+}
@@ -2,32 +2,62 @@ package uniandes.dpoo.aerolinea.persistencia;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
 import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
 import uniandes.dpoo.aerolinea.modelo.Aerolinea;
 import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.ProgramacionVuelo;
 import uniandes.dpoo.aerolinea.modelo.Ruta;
 import uniandes.dpoo.aerolinea.modelo.Vuelo;
 import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
 
 /**
  * Clase encargada de cargar y salvar la información de la aerolínea en formato JSON.
+ *
+ * Los aeropuertos se salvan una sola vez, en la tabla "aeropuertos", y las rutas los referencian por su código. Al cargar también se aceptan los archivos
+ * anteriores, en los que cada ruta tenía los objetos completos de su origen y su destino.
  */
 public class PersistenciaAerolineaJson implements IPersistenciaAerolinea {
 
+    /**
+     * Cantidad de espacios con la que se indenta el archivo al salvarlo (0 si se salva sin indentación)
+     */
+    private int indentacion;
+
+    /**
+     * Crea un objeto de persistencia que salva los archivos indentados.
+     */
+    public PersistenciaAerolineaJson() {
+        this(true);
+    }
+
+    /**
+     * Crea un objeto de persistencia de la aerolínea en formato JSON.
+     * @param indentar Indica si los archivos se salvan indentados. Sin indentación los archivos son más pequeños y se salvan más rápido.
+     */
+    public PersistenciaAerolineaJson(boolean indentar) {
+        this.indentacion = indentar ? 4 : 0;
+    }
+
     @Override
     public void cargarAerolinea(String archivo, Aerolinea aerolinea) throws IOException, InformacionInconsistenteException {
         try {
-            String contenido = new String(Files.readAllBytes(new File(archivo).toPath()));
+            String contenido = new String(Files.readAllBytes(new File(archivo).toPath()), StandardCharsets.UTF_8);
             JSONObject root = new JSONObject(contenido);
 
+            JSONArray jAeropuertos = root.optJSONArray("aeropuertos");
+            if (jAeropuertos != null)
+                cargarAeropuertos(aerolinea, jAeropuertos);
             cargarAviones(aerolinea, root.getJSONArray("aviones"));
             cargarRutas(aerolinea, root.getJSONArray("rutas"));
             cargarVuelos(aerolinea, root.getJSONArray("vuelos"));
@@ -39,51 +69,77 @@ public class PersistenciaAerolineaJson implements IPersistenciaAerolinea {
 
     @Override
     public void salvarAerolinea(String archivo, Aerolinea aerolinea) throws IOException {
-        JSONObject root = new JSONObject();
-
-        // 1. Salvar Aviones
-        JSONArray jAviones = new JSONArray();
-        for (Avion avion : aerolinea.getAviones()) {
-            JSONObject jAvion = new JSONObject();
-            jAvion.put("nombre", avion.getNombre());
-            jAvion.put("capacidad", avion.getCapacidad());
-            jAviones.put(jAvion);
-        }
-        root.put("aviones", jAviones);
-
-        // 2. Salvar Rutas
-        JSONArray jRutas = new JSONArray();
-        for (Ruta ruta : aerolinea.getRutas()) {
-            JSONObject jRuta = new JSONObject();
-            jRuta.put("codigo", ruta.getCodigoRuta());
-            jRuta.put("salida", ruta.getHoraSalida());
-            jRuta.put("llegada", ruta.getHoraLlegada());
-            // Salvar aeropuertos (se asume que se guardan los datos básicos)
-            jRuta.put("origen", salvarAeropuerto(ruta.getOrigen()));
-            jRuta.put("destino", salvarAeropuerto(ruta.getDestino()));
-            jRutas.put(jRuta);
-        }
-        root.put("rutas", jRutas);
-
-        // 3. Salvar Vuelos (solo referencias a avión y ruta)
-        JSONArray jVuelos = new JSONArray();
-        for (Vuelo vuelo : aerolinea.getVuelos()) {
-            JSONObject jVuelo = new JSONObject();
-            jVuelo.put("fecha", vuelo.getFecha());
-            jVuelo.put("codigoRuta", vuelo.getRuta().getCodigoRuta());
-            jVuelo.put("nombreAvion", vuelo.getAvion().getNombre());
-            jVuelos.put(jVuelo);
-        }
-        root.put("vuelos", jVuelos);
+        // El archivo se escribe a medida que se recorre la aerolínea, sin construir antes el documento JSON completo
+        try (EscritorJson escritor = EscritorJson.abrirArchivo(archivo, indentacion)) {
+            escritor.iniciarObjeto();
+
+            // 1. Salvar Aeropuertos (las rutas sólo tienen sus códigos)
+            escritor.llave("aeropuertos");
+            escritor.iniciarArreglo();
+            for (Aeropuerto aeropuerto : aerolinea.getAeropuertos()) {
+                salvarAeropuerto(aeropuerto, escritor);
+            }
+            escritor.terminarArreglo();
+
+            // 2. Salvar Aviones
+            escritor.llave("aviones");
+            escritor.iniciarArreglo();
+            for (Avion avion : aerolinea.getAviones()) {
+                escritor.iniciarObjeto();
+                escritor.llave("nombre");
+                escritor.valor(avion.getNombre());
+                escritor.llave("capacidad");
+                escritor.valor(avion.getCapacidad());
+                escritor.terminarObjeto();
+            }
+            escritor.terminarArreglo();
+
+            // 3. Salvar Rutas
+            escritor.llave("rutas");
+            escritor.iniciarArreglo();
+            for (Ruta ruta : aerolinea.getRutas()) {
+                escritor.iniciarObjeto();
+                escritor.llave("codigo");
+                escritor.valor(ruta.getCodigoRuta());
+                escritor.llave("salida");
+                escritor.valor(ruta.getHoraSalida());
+                escritor.llave("llegada");
+                escritor.valor(ruta.getHoraLlegada());
+                escritor.llave("origen");
+                escritor.valor(ruta.getOrigen().getCodigo());
+                escritor.llave("destino");
+                escritor.valor(ruta.getDestino().getCodigo());
+                escritor.terminarObjeto();
+            }
+            escritor.terminarArreglo();
+
+            // 4. Salvar Vuelos (solo referencias a avión y ruta)
+            escritor.llave("vuelos");
+            escritor.iniciarArreglo();
+            for (Vuelo vuelo : aerolinea.getVuelos()) {
+                escritor.iniciarObjeto();
+                escritor.llave("fecha");
+                escritor.valor(vuelo.getFecha());
+                escritor.llave("codigoRuta");
+                escritor.valor(vuelo.getRuta().getCodigoRuta());
+                escritor.llave("nombreAvion");
+                escritor.valor(vuelo.getAvion().getNombre());
+                escritor.terminarObjeto();
+            }
+            escritor.terminarArreglo();
 
-        // Escribir al archivo
-        try (PrintWriter pw = new PrintWriter(archivo)) {
-            pw.print(root.toString(4)); // Indentación de 4 espacios
+            escritor.terminarObjeto();
         }
     }
 
     // --- Métodos Auxiliares para Cargar ---
 
+    private void cargarAeropuertos(Aerolinea aerolinea, JSONArray jAeropuertos) throws InformacionInconsistenteException {
+        for (int i = 0; i < jAeropuertos.length(); i++) {
+            cargarAeropuerto(aerolinea, jAeropuertos.getJSONObject(i));
+        }
+    }
+
     private void cargarAviones(Aerolinea aerolinea, JSONArray jAviones) {
         for (int i = 0; i < jAviones.length(); i++) {
             JSONObject jAvion = jAviones.getJSONObject(i);
@@ -96,49 +152,75 @@ public class PersistenciaAerolineaJson implements IPersistenciaAerolinea {
         for (int i = 0; i < jRutas.length(); i++) {
             JSONObject jRuta = jRutas.getJSONObject(i);
             
-            // Reconstruir aeropuertos
-            Aeropuerto origen = cargarAeropuerto(jRuta.getJSONObject("origen"));
-            Aeropuerto destino = cargarAeropuerto(jRuta.getJSONObject("destino"));
-            
+            Aeropuerto origen = aeropuertoRuta(aerolinea, jRuta.get("origen"));
+            Aeropuerto destino = aeropuertoRuta(aerolinea, jRuta.get("destino"));
+
             Ruta ruta = new Ruta(origen, destino, jRuta.getString("salida"), jRuta.getString("llegada"), jRuta.getString("codigo"));
-            aerolinea.agregarRuta(ruta);
+            try {
+                aerolinea.agregarRuta(ruta);
+            } catch (AeropuertoDuplicadoException e) {
+                throw new InformacionInconsistenteException(e.getMessage());
+            }
         }
     }
 
     private void cargarVuelos(Aerolinea aerolinea, JSONArray jVuelos) throws InformacionInconsistenteException {
+        List<ProgramacionVuelo> programaciones = new ArrayList<>(jVuelos.length());
         for (int i = 0; i < jVuelos.length(); i++) {
             JSONObject jVuelo = jVuelos.getJSONObject(i);
             String fecha = jVuelo.getString("fecha");
             String codigoRuta = jVuelo.getString("codigoRuta");
             String nombreAvion = jVuelo.getString("nombreAvion");
+            programaciones.add(new ProgramacionVuelo(fecha, codigoRuta, nombreAvion));
+        }
 
-            try {
-                aerolinea.programarVuelo(fecha, codigoRuta, nombreAvion);
-            } catch (Exception e) {
-                throw new InformacionInconsistenteException("No se pudo programar el vuelo cargado: " + e.getMessage());
-            }
+        // Todo el calendario se valida y se programa de una vez
+        try {
+            aerolinea.programarVuelos(programaciones);
+        } catch (Exception e) {
+            throw new InformacionInconsistenteException("No se pudo programar el vuelo cargado: " + e.getMessage());
         }
     }
 
-    private Aeropuerto cargarAeropuerto(JSONObject jAeropuerto) {
-        // Nota: El constructor de Aeropuerto lanza excepción si hay duplicados
+    /**
+     * Retorna el aeropuerto de una ruta: en el formato actual la ruta tiene el código del aeropuerto, y en el formato anterior tiene el objeto completo.
+     */
+    private Aeropuerto aeropuertoRuta(Aerolinea aerolinea, Object jAeropuerto) throws InformacionInconsistenteException {
+        if (jAeropuerto instanceof JSONObject) {
+            return cargarAeropuerto(aerolinea, (JSONObject) jAeropuerto);
+        }
+        String codigo = jAeropuerto.toString();
+        Aeropuerto aeropuerto = aerolinea.getAeropuerto(codigo);
+        if (aeropuerto == null) {
+            throw new InformacionInconsistenteException("El aeropuerto '" + codigo + "' no está en la tabla de aeropuertos");
+        }
+        return aeropuerto;
+    }
+
+    /**
+     * Registra en la aerolínea el aeropuerto descrito por el objeto JSON. Si ya estaba registrado, retorna el aeropuerto registrado sin crear otro.
+     */
+    private Aeropuerto cargarAeropuerto(Aerolinea aerolinea, JSONObject jAeropuerto) throws InformacionInconsistenteException {
         try {
-            return new Aeropuerto(jAeropuerto.getString("nombre"), jAeropuerto.getString("codigo"), 
-                                  jAeropuerto.getString("ciudad"), jAeropuerto.getDouble("latitud"), 
-                                  jAeropuerto.getDouble("longitud"));
-        } catch (Exception e) {
-            // Si ya existía, lo buscamos o manejamos (aquí simplificado)
-            return null; 
+            return aerolinea.getRegistroAeropuertos().registrarAeropuerto(jAeropuerto.getString("nombre"), jAeropuerto.getString("codigo"),
+                    jAeropuerto.getString("ciudad"), jAeropuerto.getDouble("latitud"), jAeropuerto.getDouble("longitud"));
+        } catch (AeropuertoDuplicadoException e) {
+            throw new InformacionInconsistenteException(e.getMessage());
         }
     }
 
-    private JSONObject salvarAeropuerto(Aeropuerto aeropuerto) {
-        JSONObject jAero = new JSONObject();
-        jAero.put("nombre", aeropuerto.getNombre());
-        jAero.put("codigo", aeropuerto.getCodigo());
-        jAero.put("ciudad", aeropuerto.getNombreCiudad());
-        jAero.put("latitud", aeropuerto.getLatitud());
-        jAero.put("longitud", aeropuerto.getLongitud());
-        return jAero;
+    private void salvarAeropuerto(Aeropuerto aeropuerto, EscritorJson escritor) throws IOException {
+        escritor.iniciarObjeto();
+        escritor.llave("nombre");
+        escritor.valor(aeropuerto.getNombre());
+        escritor.llave("codigo");
+        escritor.valor(aeropuerto.getCodigo());
+        escritor.llave("ciudad");
+        escritor.valor(aeropuerto.getNombreCiudad());
+        escritor.llave("latitud");
+        escritor.valor(aeropuerto.getLatitud());
+        escritor.llave("longitud");
+        escritor.valor(aeropuerto.getLongitud());
+        escritor.terminarObjeto();
     }
-}
\ No newline at end of file
+}
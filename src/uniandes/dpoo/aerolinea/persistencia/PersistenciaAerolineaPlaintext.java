@@ -1,25 +1,370 @@
 package uniandes.dpoo.aerolinea.persistencia;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
+import uniandes.dpoo.aerolinea.exceptions.ClienteRepetidoException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
 import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.ProgramacionVuelo;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.tiquetes.GeneradorTiquetes;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
 
 /**
- * Esta clase no está implementada - y no debería implementarse como parte del taller.
- * 
- * Su objetivo es sólo ilustrar que podría haber varias implementaciones de la misma interfaz, y que durante la ejecución alguien podría decidir cuál de estas implementaciones
- * usar.
+ * Esta clase salva y carga la información de la aerolínea y de sus tiquetes en archivos de texto plano, con un registro por línea y los campos separados por
+ * tabuladores. El formato está pensado para poder revisar los archivos con herramientas como grep o awk: el primer campo de cada línea indica el tipo de
+ * registro, y los elementos se referencian por su código o su nombre.
+ *
+ * Archivo de la aerolínea:
+ *
+ * <pre>
+ * AEROPUERTO código nombre ciudad latitud longitud
+ * AVION      nombre capacidad
+ * RUTA       código salida llegada código-origen código-destino
+ * VUELO      fecha código-ruta nombre-avión
+ * </pre>
+ *
+ * Archivo de tiquetes:
+ *
+ * <pre>
+ * CLIENTE Natural identificador
+ * CLIENTE Corporativo identificador tamaño
+ * TIQUETE código código-ruta fecha tarifa usado(0 o 1) identificador-cliente
+ * </pre>
+ *
+ * Los aeropuertos, aviones y rutas deben aparecer antes que los registros que los usan, y los clientes antes que sus tiquetes. Las líneas que empiezan con '#'
+ * son comentarios. Los tabuladores, saltos de línea y barras invertidas que aparezcan dentro de un campo se escriben como \t, \n, \r y \\.
  */
-public class PersistenciaAerolineaPlaintext implements IPersistenciaAerolinea
+public class PersistenciaAerolineaPlaintext implements IPersistenciaAerolinea, IPersistenciaTiquetes
 {
+    private static final String AEROPUERTO = "AEROPUERTO";
+    private static final String AVION = "AVION";
+    private static final String RUTA = "RUTA";
+    private static final String VUELO = "VUELO";
+    private static final String CLIENTE = "CLIENTE";
+    private static final String TIQUETE = "TIQUETE";
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
     @Override
-    public void cargarAerolinea( String archivo, Aerolinea aerolinea )
+    public void cargarAerolinea( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
     {
-        // No está implementado (y no es necesario para el taller)
+        List<ProgramacionVuelo> programaciones = new ArrayList<ProgramacionVuelo>( );
+        try( LectorTextoPlano lector = LectorTextoPlano.abrirArchivo( archivo ) )
+        {
+            while( lector.siguienteLinea( ) )
+            {
+                if( lector.campoEs( 0, AEROPUERTO ) )
+                {
+                    lector.verificarCampos( 6 );
+                    try
+                    {
+                        aerolinea.getRegistroAeropuertos( ).registrarAeropuerto( lector.cadena( 2 ), lector.cadena( 1 ), lector.cadena( 3 ), lector.decimal( 4 ),
+                                lector.decimal( 5 ) );
+                    }
+                    catch( AeropuertoDuplicadoException e )
+                    {
+                        throw new InformacionInconsistenteException( e.getMessage( ) );
+                    }
+                }
+                else if( lector.campoEs( 0, AVION ) )
+                {
+                    lector.verificarCampos( 3 );
+                    aerolinea.agregarAvion( new Avion( lector.cadena( 1 ), lector.entero( 2 ) ) );
+                }
+                else if( lector.campoEs( 0, RUTA ) )
+                {
+                    lector.verificarCampos( 6 );
+                    Aeropuerto origen = aerolinea.getAeropuerto( lector.cadena( 4 ) );
+                    Aeropuerto destino = aerolinea.getAeropuerto( lector.cadena( 5 ) );
+                    if( origen == null || destino == null )
+                        throw lector.error( "la ruta usa un aeropuerto que no se ha definido" );
+                    try
+                    {
+                        aerolinea.agregarRuta( new Ruta( origen, destino, lector.cadena( 2 ), lector.cadena( 3 ), lector.cadena( 1 ) ) );
+                    }
+                    catch( AeropuertoDuplicadoException e )
+                    {
+                        throw new InformacionInconsistenteException( e.getMessage( ) );
+                    }
+                }
+                else if( lector.campoEs( 0, VUELO ) )
+                {
+                    lector.verificarCampos( 4 );
+                    programaciones.add( new ProgramacionVuelo( lector.cadena( 1 ), lector.cadena( 2 ), lector.cadena( 3 ) ) );
+                }
+                else
+                {
+                    throw lector.error( "el tipo de registro " + lector.cadena( 0 ) + " no es válido" );
+                }
+            }
+        }
+
+        // Todo el calendario se valida y se programa de una vez
+        try
+        {
+            aerolinea.programarVuelos( programaciones );
+        }
+        catch( Exception e )
+        {
+            throw new InformacionInconsistenteException( "No se pudo programar el vuelo cargado: " + e.getMessage( ) );
+        }
     }
 
     @Override
-    public void salvarAerolinea( String archivo, Aerolinea aerolinea )
+    public void salvarAerolinea( String archivo, Aerolinea aerolinea ) throws IOException
     {
-        // No está implementado (y no es necesario para el taller)
+        try( Writer salida = abrirSalida( archivo ) )
+        {
+            salida.write( "# AEROPUERTO\tcódigo\tnombre\tciudad\tlatitud\tlongitud\n" );
+            for( Aeropuerto aeropuerto : aerolinea.getAeropuertos( ) )
+            {
+                salida.write( AEROPUERTO );
+                escribirCampo( salida, aeropuerto.getCodigo( ) );
+                escribirCampo( salida, aeropuerto.getNombre( ) );
+                escribirCampo( salida, aeropuerto.getNombreCiudad( ) );
+                escribirCampo( salida, Double.toString( aeropuerto.getLatitud( ) ) );
+                escribirCampo( salida, Double.toString( aeropuerto.getLongitud( ) ) );
+                salida.write( '\n' );
+            }
+
+            salida.write( "# AVION\tnombre\tcapacidad\n" );
+            for( Avion avion : aerolinea.getAviones( ) )
+            {
+                salida.write( AVION );
+                escribirCampo( salida, avion.getNombre( ) );
+                escribirCampo( salida, avion.getCapacidad( ) );
+                salida.write( '\n' );
+            }
+
+            salida.write( "# RUTA\tcódigo\tsalida\tllegada\torigen\tdestino\n" );
+            for( Ruta ruta : aerolinea.getRutas( ) )
+            {
+                salida.write( RUTA );
+                escribirCampo( salida, ruta.getCodigoRuta( ) );
+                escribirCampo( salida, ruta.getHoraSalida( ) );
+                escribirCampo( salida, ruta.getHoraLlegada( ) );
+                escribirCampo( salida, ruta.getOrigen( ).getCodigo( ) );
+                escribirCampo( salida, ruta.getDestino( ).getCodigo( ) );
+                salida.write( '\n' );
+            }
+
+            salida.write( "# VUELO\tfecha\truta\tavión\n" );
+            for( Vuelo vuelo : aerolinea.getVuelos( ) )
+            {
+                salida.write( VUELO );
+                escribirCampo( salida, vuelo.getFecha( ) );
+                escribirCampo( salida, vuelo.getRuta( ).getCodigoRuta( ) );
+                escribirCampo( salida, vuelo.getAvion( ).getNombre( ) );
+                salida.write( '\n' );
+            }
+        }
     }
 
+    @Override
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        // Los códigos de los tiquetes que ya tiene la aerolínea, para no cargar otra vez un tiquete que ya existe
+        Set<String> codigosCargados = new HashSet<String>( );
+        for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+            codigosCargados.add( tiquete.getCodigo( ) );
+        try( LectorTextoPlano lector = LectorTextoPlano.abrirArchivo( archivo ) )
+        {
+            // Los tiquetes se escriben agrupados por vuelo, así que casi siempre el vuelo de un tiquete es el mismo del tiquete anterior y no hay que buscarlo
+            String rutaAnterior = null;
+            String fechaAnterior = null;
+            Vuelo vuelo = null;
+            while( lector.siguienteLinea( ) )
+            {
+                if( lector.campoEs( 0, TIQUETE ) )
+                {
+                    lector.verificarCampos( 7 );
+                    if( vuelo == null || !lector.campoEs( 2, rutaAnterior ) || !lector.campoEs( 3, fechaAnterior ) )
+                    {
+                        rutaAnterior = lector.cadena( 2 );
+                        fechaAnterior = lector.cadena( 3 );
+                        if( aerolinea.getRuta( rutaAnterior ) == null )
+                            throw new InformacionInconsistenteTiqueteException( "ruta", rutaAnterior );
+                        vuelo = aerolinea.getVuelo( rutaAnterior, fechaAnterior );
+                        if( vuelo == null )
+                            throw new InformacionInconsistenteTiqueteException( "vuelo", rutaAnterior + " en " + fechaAnterior );
+                    }
+                    String identificador = lector.cadena( 6 );
+                    Cliente cliente = aerolinea.getCliente( identificador );
+                    if( cliente == null )
+                        throw new InformacionInconsistenteTiqueteException( "cliente", identificador );
+                    cargarTiquete( vuelo, cliente, lector.cadena( 1 ), lector.entero( 4 ), lector.booleano( 5 ), codigosCargados );
+                }
+                else if( lector.campoEs( 0, CLIENTE ) )
+                {
+                    Cliente cliente;
+                    if( lector.getNumCampos( ) == 3 && lector.campoEs( 1, ClienteNatural.NATURAL ) )
+                    {
+                        cliente = new ClienteNatural( lector.cadena( 2 ) );
+                    }
+                    else if( lector.getNumCampos( ) == 4 && lector.campoEs( 1, ClienteCorporativo.CORPORATIVO ) )
+                    {
+                        cliente = new ClienteCorporativo( lector.cadena( 2 ), lector.entero( 3 ) );
+                    }
+                    else
+                    {
+                        throw lector.error( "el cliente no es válido" );
+                    }
+
+                    if( aerolinea.existeCliente( cliente.getIdentificador( ) ) )
+                        throw new ClienteRepetidoException( cliente.getTipoCliente( ), cliente.getIdentificador( ) );
+                    aerolinea.agregarCliente( cliente );
+                }
+                else
+                {
+                    throw lector.error( "el tipo de registro " + lector.cadena( 0 ) + " no es válido" );
+                }
+            }
+        }
+    }
+
+    /**
+     * Crea un tiquete que se leyó del archivo y lo vincula con su vuelo y con su cliente
+     */
+    private void cargarTiquete( Vuelo vuelo, Cliente cliente, String codigo, int tarifa, boolean usado, Set<String> codigosCargados )
+            throws InformacionInconsistenteException
+    {
+        if( !codigosCargados.add( codigo ) )
+            throw new InformacionInconsistenteTiqueteException( "tiquete", codigo, false );
+
+        Tiquete tiquete = new Tiquete( codigo, vuelo, cliente, tarifa );
+        GeneradorTiquetes.registrarTiquete( tiquete );
+        // Primero el vuelo: si no tiene cupo, el cliente no debe quedar con el tiquete
+        try
+        {
+            vuelo.agregarTiquete( tiquete );
+        }
+        catch( VueloSobrevendidoException e )
+        {
+            throw new InformacionInconsistenteException( e.getMessage( ) );
+        }
+        cliente.agregarTiquete( tiquete );
+
+        // Se marca después de vincularlo con el cliente para que el saldo del cliente quede actualizado
+        if( usado )
+            tiquete.marcarComoUsado( );
+    }
+
+    @Override
+    public void salvarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        try( Writer salida = abrirSalida( archivo ) )
+        {
+            salida.write( "# CLIENTE\ttipo\tidentificador\t[tamaño]\n" );
+            for( Cliente cliente : aerolinea.getClientes( ) )
+            {
+                salida.write( CLIENTE );
+                escribirCampo( salida, cliente.getTipoCliente( ) );
+                escribirCampo( salida, cliente.getIdentificador( ) );
+                if( cliente instanceof ClienteCorporativo )
+                    escribirCampo( salida, ( ( ClienteCorporativo )cliente ).getTamanoEmpresa( ) );
+                salida.write( '\n' );
+            }
+
+            salida.write( "# TIQUETE\tcódigo\truta\tfecha\ttarifa\tusado\tcliente\n" );
+            for( Vuelo vuelo : aerolinea.getVuelos( ) )
+            {
+                // La ruta y la fecha son iguales para todos los tiquetes del vuelo, así que se escapan una sola vez
+                String ruta = escapar( vuelo.getRuta( ).getCodigoRuta( ) );
+                String fecha = escapar( vuelo.getFecha( ) );
+                for( Tiquete tiquete : vuelo.getTiquetes( ).toArray( new Tiquete[0] ) )
+                {
+                    salida.write( TIQUETE );
+                    escribirCampo( salida, tiquete.getCodigo( ) );
+                    salida.write( '\t' );
+                    salida.write( ruta );
+                    salida.write( '\t' );
+                    salida.write( fecha );
+                    escribirCampo( salida, tiquete.getTarifa( ) );
+                    salida.write( '\t' );
+                    salida.write( tiquete.esUsado( ) ? '1' : '0' );
+                    escribirCampo( salida, tiquete.getCliente( ).getIdentificador( ) );
+                    salida.write( '\n' );
+                }
+            }
+        }
+    }
+
+    private static Writer abrirSalida( String archivo ) throws IOException
+    {
+        return new BufferedWriter( new OutputStreamWriter( Files.newOutputStream( Paths.get( archivo ) ), StandardCharsets.UTF_8 ), TAMANO_BUFFER );
+    }
+
+    /**
+     * Escribe un separador y un campo de texto, escapando los caracteres especiales
+     */
+    private static void escribirCampo( Writer salida, String valor ) throws IOException
+    {
+        salida.write( '\t' );
+        salida.write( escapar( valor ) );
+    }
+
+    /**
+     * Escribe un separador y un campo numérico
+     */
+    private static void escribirCampo( Writer salida, int valor ) throws IOException
+    {
+        salida.write( '\t' );
+        salida.write( Integer.toString( valor ) );
+    }
+
+    /**
+     * Retorna la cadena con los tabuladores, saltos de línea y barras invertidas escapados. Si la cadena no tiene caracteres especiales, retorna la misma
+     * cadena.
+     */
+    static String escapar( String valor )
+    {
+        int i = 0;
+        while( i < valor.length( ) && !esEspecial( valor.charAt( i ) ) )
+            i++;
+        if( i == valor.length( ) )
+            return valor;
+
+        StringBuilder escapado = new StringBuilder( valor.length( ) + 8 );
+        escapado.append( valor, 0, i );
+        for( ; i < valor.length( ); i++ )
+        {
+            char c = valor.charAt( i );
+            if( c == '\t' )
+                escapado.append( "\\t" );
+            else if( c == '\n' )
+                escapado.append( "\\n" );
+            else if( c == '\r' )
+                escapado.append( "\\r" );
+            else if( c == '\\' )
+                escapado.append( "\\\\" );
+            else
+                escapado.append( c );
+        }
+        return escapado.toString( );
+    }
+
+    private static boolean esEspecial( char c )
+    {
+        return c == '\t' || c == '\n' || c == '\r' || c == '\\';
+    }
 }
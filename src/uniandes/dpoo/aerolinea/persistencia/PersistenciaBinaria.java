@@ -0,0 +1,570 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
+import uniandes.dpoo.aerolinea.exceptions.ClienteRepetidoException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.ProgramacionVuelo;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.tiquetes.GeneradorTiquetes;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Esta clase salva y carga la información de la aerolínea y de sus tiquetes en un formato binario compacto.
+ *
+ * Los dos tipos de archivo empiezan con un número que identifica el tipo de archivo y con la versión del formato. Después vienen unas tablas con las cadenas
+ * que se repiten mucho (códigos de aeropuertos y de rutas, identificadores de clientes, fechas), cada una precedida por su cantidad de elementos, y al final
+ * vienen los registros, que hacen referencia a esas cadenas por su posición dentro de las tablas. Todas las cadenas se escriben precedidas por su longitud.
+ *
+ * Archivo de la aerolínea:
+ *
+ * <pre>
+ * int MAGICO_AEROLINEA, short VERSION
+ * aeropuertos: int n, n x (código, nombre, ciudad, double latitud, double longitud)
+ * aviones:     int n, n x (nombre, int capacidad)
+ * rutas:       int n, n x (código, salida, llegada, int aeropuerto de origen, int aeropuerto de destino)
+ * fechas:      int n, n x fecha
+ * vuelos:      int n, n x (int ruta, int fecha, int avión)
+ * </pre>
+ *
+ * Archivo de tiquetes:
+ *
+ * <pre>
+ * int MAGICO_TIQUETES, short VERSION
+ * clientes:  int n, n x (byte tipo, identificador, [byte tamaño si es corporativo])
+ * rutas:     int n, n x código
+ * fechas:    int n, n x fecha
+ * códigos:   int n, n x código de tiquete que no es numérico
+ * vuelos:    int n, n x (int ruta, int fecha, int m, m x tiquete)
+ * tiquete:   long código, int cliente, int tarifa, byte usado (TAMANO_TIQUETE bytes)
+ * </pre>
+ *
+ * Los códigos de tiquete numéricos (que son los que emite el GeneradorTiquetes) se guardan directamente como un long; los demás se guardan en la tabla de
+ * códigos y en el registro se guarda -(posición + 1).
+ */
+public class PersistenciaBinaria implements IPersistenciaAerolinea, IPersistenciaTiquetes
+{
+    /**
+     * Número con el que empiezan los archivos binarios de la aerolínea ('DPOA')
+     */
+    static final int MAGICO_AEROLINEA = 0x44504F41;
+
+    /**
+     * Número con el que empiezan los archivos binarios de tiquetes ('DPOT')
+     */
+    static final int MAGICO_TIQUETES = 0x44504F54;
+
+    /**
+     * Versión del formato que escribe esta clase. Se pueden cargar archivos de esta versión o de versiones anteriores.
+     */
+    static final short VERSION = 1;
+
+    /**
+     * Cantidad de bytes que ocupa cada tiquete dentro del archivo
+     */
+    static final int TAMANO_TIQUETE = 8 + 4 + 4 + 1;
+
+    static final byte TIPO_NATURAL = 0;
+    static final byte TIPO_CORPORATIVO = 1;
+
+    /**
+     * Tamaño de los buffers con los que se lee y se escribe en los archivos
+     */
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /**
+     * Cantidad de tiquetes que se leen o se escriben de una vez
+     */
+    private static final int TIQUETES_POR_BLOQUE = TAMANO_BUFFER / TAMANO_TIQUETE;
+
+    /**
+     * Cada cuántos elementos (clientes o tiquetes) se le informa el avance a quien esté siguiendo la carga
+     */
+    private static final int INTERVALO_PROGRESO = 10000;
+
+    // ************************************************************************************
+    //
+    // Aerolínea
+    //
+    // ************************************************************************************
+
+    @Override
+    public void cargarAerolinea( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        try( DataInputStream entrada = abrirEntrada( archivo ) )
+        {
+            leerEncabezado( entrada, MAGICO_AEROLINEA );
+
+            Aeropuerto[] aeropuertos = new Aeropuerto[leerCantidad( entrada )];
+            for( int i = 0; i < aeropuertos.length; i++ )
+            {
+                String codigo = entrada.readUTF( );
+                String nombre = entrada.readUTF( );
+                String ciudad = entrada.readUTF( );
+                double latitud = entrada.readDouble( );
+                double longitud = entrada.readDouble( );
+                try
+                {
+                    aeropuertos[ i ] = aerolinea.getRegistroAeropuertos( ).registrarAeropuerto( nombre, codigo, ciudad, latitud, longitud );
+                }
+                catch( AeropuertoDuplicadoException e )
+                {
+                    throw new InformacionInconsistenteException( e.getMessage( ) );
+                }
+            }
+
+            Avion[] aviones = new Avion[leerCantidad( entrada )];
+            for( int i = 0; i < aviones.length; i++ )
+            {
+                aviones[ i ] = new Avion( entrada.readUTF( ), entrada.readInt( ) );
+                aerolinea.agregarAvion( aviones[ i ] );
+            }
+
+            Ruta[] rutas = new Ruta[leerCantidad( entrada )];
+            for( int i = 0; i < rutas.length; i++ )
+            {
+                String codigo = entrada.readUTF( );
+                String salida = entrada.readUTF( );
+                String llegada = entrada.readUTF( );
+                Aeropuerto origen = elemento( aeropuertos, entrada.readInt( ), "aeropuerto" );
+                Aeropuerto destino = elemento( aeropuertos, entrada.readInt( ), "aeropuerto" );
+                rutas[ i ] = new Ruta( origen, destino, salida, llegada, codigo );
+                try
+                {
+                    aerolinea.agregarRuta( rutas[ i ] );
+                }
+                catch( AeropuertoDuplicadoException e )
+                {
+                    throw new InformacionInconsistenteException( e.getMessage( ) );
+                }
+            }
+
+            String[] fechas = leerTabla( entrada );
+
+            int numVuelos = leerCantidad( entrada );
+            List<ProgramacionVuelo> programaciones = new ArrayList<ProgramacionVuelo>( numVuelos );
+            for( int i = 0; i < numVuelos; i++ )
+            {
+                Ruta ruta = elemento( rutas, entrada.readInt( ), "ruta" );
+                String fecha = elemento( fechas, entrada.readInt( ), "fecha" );
+                Avion avion = elemento( aviones, entrada.readInt( ), "avión" );
+                programaciones.add( new ProgramacionVuelo( fecha, ruta.getCodigoRuta( ), avion.getNombre( ) ) );
+            }
+
+            // Todo el calendario se valida y se programa de una vez
+            try
+            {
+                aerolinea.programarVuelos( programaciones );
+            }
+            catch( Exception e )
+            {
+                throw new InformacionInconsistenteException( "No se pudo programar el vuelo cargado: " + e.getMessage( ) );
+            }
+        }
+    }
+
+    @Override
+    public void salvarAerolinea( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        // Cada aeropuerto se escribe una sola vez aunque esté en varias rutas, y las rutas lo referencian por su posición
+        List<Aeropuerto> aeropuertos = new ArrayList<Aeropuerto>( aerolinea.getAeropuertos( ) );
+        Map<String, Integer> posicionAeropuertos = new HashMap<String, Integer>( );
+        for( Aeropuerto aeropuerto : aeropuertos )
+            posicionAeropuertos.put( aeropuerto.getCodigo( ), posicionAeropuertos.size( ) );
+
+        try( DataOutputStream salida = abrirSalida( archivo ) )
+        {
+            salida.writeInt( MAGICO_AEROLINEA );
+            salida.writeShort( VERSION );
+
+            salida.writeInt( aeropuertos.size( ) );
+            for( Aeropuerto aeropuerto : aeropuertos )
+            {
+                salida.writeUTF( aeropuerto.getCodigo( ) );
+                salida.writeUTF( aeropuerto.getNombre( ) );
+                salida.writeUTF( aeropuerto.getNombreCiudad( ) );
+                salida.writeDouble( aeropuerto.getLatitud( ) );
+                salida.writeDouble( aeropuerto.getLongitud( ) );
+            }
+
+            TablaCadenas aviones = new TablaCadenas( );
+            List<Avion> listaAviones = new ArrayList<Avion>( aerolinea.getAviones( ) );
+            salida.writeInt( listaAviones.size( ) );
+            for( Avion avion : listaAviones )
+            {
+                aviones.posicion( avion.getNombre( ) );
+                salida.writeUTF( avion.getNombre( ) );
+                salida.writeInt( avion.getCapacidad( ) );
+            }
+
+            TablaCadenas rutas = new TablaCadenas( );
+            List<Ruta> listaRutas = new ArrayList<Ruta>( aerolinea.getRutas( ) );
+            salida.writeInt( listaRutas.size( ) );
+            for( Ruta ruta : listaRutas )
+            {
+                rutas.posicion( ruta.getCodigoRuta( ) );
+                salida.writeUTF( ruta.getCodigoRuta( ) );
+                salida.writeUTF( ruta.getHoraSalida( ) );
+                salida.writeUTF( ruta.getHoraLlegada( ) );
+                salida.writeInt( posicionAeropuertos.get( ruta.getOrigen( ).getCodigo( ) ) );
+                salida.writeInt( posicionAeropuertos.get( ruta.getDestino( ).getCodigo( ) ) );
+            }
+
+            List<Vuelo> vuelos = new ArrayList<Vuelo>( aerolinea.getVuelos( ) );
+            TablaCadenas fechas = new TablaCadenas( );
+            for( Vuelo vuelo : vuelos )
+                fechas.posicion( vuelo.getFecha( ) );
+            fechas.escribir( salida );
+
+            salida.writeInt( vuelos.size( ) );
+            for( Vuelo vuelo : vuelos )
+            {
+                salida.writeInt( rutas.posicion( vuelo.getRuta( ).getCodigoRuta( ) ) );
+                salida.writeInt( fechas.posicion( vuelo.getFecha( ) ) );
+                salida.writeInt( aviones.posicion( vuelo.getAvion( ).getNombre( ) ) );
+            }
+        }
+    }
+
+    // ************************************************************************************
+    //
+    // Tiquetes
+    //
+    // ************************************************************************************
+
+    @Override
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        cargarTiquetes( archivo, aerolinea, null );
+    }
+
+    /**
+     * Carga la información de los clientes y tiquetes vendidos por la aerolínea, y actualiza la estructura de objetos que se encuentra dentro de la aerolínea
+     * @param archivo La ruta al archivo que contiene la información que se va a cargar
+     * @param aerolinea La aerolínea dentro de la cual debe almacenarse la información
+     * @param progreso El objeto al que se le informa el avance de la carga. Puede ser null.
+     * @throws IOException Se lanza esta excepción si hay problemas leyendo el archivo
+     * @throws InformacionInconsistenteException Se lanza esta excepción si hay información inconsistente dentro del archivo, o entre el archivo y el estado de la
+     *         aerolínea
+     */
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea, IProgresoCarga progreso ) throws IOException, InformacionInconsistenteException
+    {
+        try( DataInputStream entrada = abrirEntrada( archivo ) )
+        {
+            leerEncabezado( entrada, MAGICO_TIQUETES );
+
+            Cliente[] clientes = new Cliente[leerCantidad( entrada )];
+            for( int i = 0; i < clientes.length; i++ )
+            {
+                byte tipo = entrada.readByte( );
+                String identificador = entrada.readUTF( );
+                if( tipo == TIPO_NATURAL )
+                    clientes[ i ] = new ClienteNatural( identificador );
+                else if( tipo == TIPO_CORPORATIVO )
+                    clientes[ i ] = new ClienteCorporativo( identificador, entrada.readByte( ) );
+                else
+                    throw new InformacionInconsistenteException( "El tipo de cliente " + tipo + " no es válido" );
+
+                if( aerolinea.existeCliente( identificador ) )
+                    throw new ClienteRepetidoException( clientes[ i ].getTipoCliente( ), identificador );
+                aerolinea.agregarCliente( clientes[ i ] );
+                if( progreso != null && ( i + 1 ) % INTERVALO_PROGRESO == 0 )
+                    progreso.reportarProgreso( i + 1, 0 );
+            }
+
+            String[] rutas = leerTabla( entrada );
+            String[] fechas = leerTabla( entrada );
+            String[] codigos = leerTabla( entrada );
+
+            // Los códigos de los tiquetes que ya tiene la aerolínea, para no cargar otra vez un tiquete que ya existe
+            Set<String> codigosCargados = new HashSet<String>( );
+            for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+                codigosCargados.add( tiquete.getCodigo( ) );
+            byte[] bloque = new byte[TIQUETES_POR_BLOQUE * TAMANO_TIQUETE];
+            ByteBuffer registros = ByteBuffer.wrap( bloque );
+            int numTiquetes = 0;
+
+            int numVuelos = leerCantidad( entrada );
+            for( int v = 0; v < numVuelos; v++ )
+            {
+                String codigoRuta = elemento( rutas, entrada.readInt( ), "ruta" );
+                String fecha = elemento( fechas, entrada.readInt( ), "fecha" );
+                if( aerolinea.getRuta( codigoRuta ) == null )
+                    throw new InformacionInconsistenteTiqueteException( "ruta", codigoRuta );
+                Vuelo vuelo = aerolinea.getVuelo( codigoRuta, fecha );
+                if( vuelo == null )
+                    throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fecha );
+
+                // Los tiquetes del vuelo se leen por bloques, sin pasar uno por uno por el DataInputStream
+                int pendientes = leerCantidad( entrada );
+                while( pendientes > 0 )
+                {
+                    int enBloque = Math.min( pendientes, TIQUETES_POR_BLOQUE );
+                    entrada.readFully( bloque, 0, enBloque * TAMANO_TIQUETE );
+                    registros.clear( );
+                    for( int i = 0; i < enBloque; i++ )
+                    {
+                        long valorCodigo = registros.getLong( );
+                        Cliente cliente = elemento( clientes, registros.getInt( ), "cliente" );
+                        int tarifa = registros.getInt( );
+                        boolean usado = registros.get( ) != 0;
+                        String codigo = valorCodigo >= 0 ? Long.toString( valorCodigo ) : elemento( codigos, ( int ) ( -valorCodigo - 1 ), "código de tiquete" );
+                        cargarTiquete( vuelo, cliente, codigo, tarifa, usado, codigosCargados );
+
+                        numTiquetes++;
+                        if( progreso != null && numTiquetes % INTERVALO_PROGRESO == 0 )
+                            progreso.reportarProgreso( clientes.length, numTiquetes );
+                    }
+                    pendientes -= enBloque;
+                }
+            }
+
+            if( progreso != null )
+                progreso.reportarProgreso( clientes.length, numTiquetes );
+        }
+    }
+
+    /**
+     * Crea un tiquete que se leyó del archivo y lo vincula con su vuelo y con su cliente
+     */
+    private void cargarTiquete( Vuelo vuelo, Cliente cliente, String codigo, int tarifa, boolean usado, Set<String> codigosCargados )
+            throws InformacionInconsistenteException
+    {
+        if( !codigosCargados.add( codigo ) )
+            throw new InformacionInconsistenteTiqueteException( "tiquete", codigo, false );
+
+        Tiquete tiquete = new Tiquete( codigo, vuelo, cliente, tarifa );
+        GeneradorTiquetes.registrarTiquete( tiquete );
+        // Primero el vuelo: si no tiene cupo, el cliente no debe quedar con el tiquete
+        try
+        {
+            vuelo.agregarTiquete( tiquete );
+        }
+        catch( VueloSobrevendidoException e )
+        {
+            throw new InformacionInconsistenteException( e.getMessage( ) );
+        }
+        cliente.agregarTiquete( tiquete );
+
+        // Se marca después de vincularlo con el cliente para que el saldo del cliente quede actualizado
+        if( usado )
+            tiquete.marcarComoUsado( );
+    }
+
+    @Override
+    public void salvarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        // Primero se construyen las tablas, porque en el archivo van antes que los tiquetes. Los tiquetes de cada vuelo se toman una sola vez, para que las
+        // cantidades que quedan en el archivo correspondan con los tiquetes que se escriben aunque se sigan vendiendo tiquetes mientras se salva.
+        List<Cliente> clientes = new ArrayList<Cliente>( aerolinea.getClientes( ) );
+        Map<String, Integer> posicionClientes = new HashMap<String, Integer>( );
+        for( Cliente cliente : clientes )
+            posicionClientes.put( cliente.getIdentificador( ), posicionClientes.size( ) );
+
+        TablaCadenas rutas = new TablaCadenas( );
+        TablaCadenas fechas = new TablaCadenas( );
+        TablaCadenas codigos = new TablaCadenas( );
+        List<Vuelo> vuelos = new ArrayList<Vuelo>( );
+        List<Tiquete[]> tiquetesVuelos = new ArrayList<Tiquete[]>( );
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            Tiquete[] tiquetes = vuelo.getTiquetes( ).toArray( new Tiquete[0] );
+            if( tiquetes.length == 0 )
+                continue;
+            rutas.posicion( vuelo.getRuta( ).getCodigoRuta( ) );
+            fechas.posicion( vuelo.getFecha( ) );
+            for( Tiquete tiquete : tiquetes )
+            {
+                if( valorNumerico( tiquete.getCodigo( ) ) < 0 )
+                    codigos.posicion( tiquete.getCodigo( ) );
+            }
+            vuelos.add( vuelo );
+            tiquetesVuelos.add( tiquetes );
+        }
+
+        try( DataOutputStream salida = abrirSalida( archivo ) )
+        {
+            salida.writeInt( MAGICO_TIQUETES );
+            salida.writeShort( VERSION );
+
+            salida.writeInt( clientes.size( ) );
+            for( Cliente cliente : clientes )
+            {
+                if( cliente instanceof ClienteCorporativo )
+                {
+                    salida.writeByte( TIPO_CORPORATIVO );
+                    salida.writeUTF( cliente.getIdentificador( ) );
+                    salida.writeByte( ( ( ClienteCorporativo )cliente ).getTamanoEmpresa( ) );
+                }
+                else
+                {
+                    salida.writeByte( TIPO_NATURAL );
+                    salida.writeUTF( cliente.getIdentificador( ) );
+                }
+            }
+
+            rutas.escribir( salida );
+            fechas.escribir( salida );
+            codigos.escribir( salida );
+
+            ByteBuffer registros = ByteBuffer.allocate( TIQUETES_POR_BLOQUE * TAMANO_TIQUETE );
+            salida.writeInt( vuelos.size( ) );
+            for( int v = 0; v < vuelos.size( ); v++ )
+            {
+                Vuelo vuelo = vuelos.get( v );
+                Tiquete[] tiquetes = tiquetesVuelos.get( v );
+                // Los tiquetes que quedaron pendientes del vuelo anterior deben quedar antes del encabezado de este vuelo
+                salida.write( registros.array( ), 0, registros.position( ) );
+                registros.clear( );
+                salida.writeInt( rutas.posicion( vuelo.getRuta( ).getCodigoRuta( ) ) );
+                salida.writeInt( fechas.posicion( vuelo.getFecha( ) ) );
+                salida.writeInt( tiquetes.length );
+                for( Tiquete tiquete : tiquetes )
+                {
+                    long valorCodigo = valorNumerico( tiquete.getCodigo( ) );
+                    registros.putLong( valorCodigo >= 0 ? valorCodigo : -( codigos.posicion( tiquete.getCodigo( ) ) + 1L ) );
+                    registros.putInt( posicionClientes.get( tiquete.getCliente( ).getIdentificador( ) ) );
+                    registros.putInt( tiquete.getTarifa( ) );
+                    registros.put( tiquete.esUsado( ) ? ( byte )1 : ( byte )0 );
+                    if( !registros.hasRemaining( ) )
+                    {
+                        salida.write( registros.array( ), 0, registros.position( ) );
+                        registros.clear( );
+                    }
+                }
+            }
+            salida.write( registros.array( ), 0, registros.position( ) );
+        }
+    }
+
+    // ************************************************************************************
+    //
+    // Métodos auxiliares
+    //
+    // ************************************************************************************
+
+    static DataInputStream abrirEntrada( String archivo ) throws IOException
+    {
+        return new DataInputStream( new BufferedInputStream( Files.newInputStream( Paths.get( archivo ) ), TAMANO_BUFFER ) );
+    }
+
+    static DataOutputStream abrirSalida( String archivo ) throws IOException
+    {
+        return new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( Paths.get( archivo ) ), TAMANO_BUFFER ) );
+    }
+
+    /**
+     * Lee el número con el que empieza el archivo y la versión del formato, y verifica que se trate de un archivo que esta clase sepa cargar
+     */
+    static void leerEncabezado( DataInputStream entrada, int magico ) throws IOException, InformacionInconsistenteException
+    {
+        if( entrada.readInt( ) != magico )
+            throw new InformacionInconsistenteException( "El archivo no tiene el formato binario esperado" );
+        short version = entrada.readShort( );
+        if( version < 1 || version > VERSION )
+            throw new InformacionInconsistenteException( "La versión " + version + " del formato binario no está soportada" );
+    }
+
+    /**
+     * Lee la cantidad de elementos de una sección del archivo
+     */
+    static int leerCantidad( DataInputStream entrada ) throws IOException, InformacionInconsistenteException
+    {
+        int cantidad = entrada.readInt( );
+        if( cantidad < 0 )
+            throw new InformacionInconsistenteException( "El archivo tiene una cantidad de elementos inválida: " + cantidad );
+        return cantidad;
+    }
+
+    private static String[] leerTabla( DataInputStream entrada ) throws IOException, InformacionInconsistenteException
+    {
+        String[] tabla = new String[leerCantidad( entrada )];
+        for( int i = 0; i < tabla.length; i++ )
+            tabla[ i ] = entrada.readUTF( );
+        return tabla;
+    }
+
+    /**
+     * Retorna el elemento de una tabla al que hace referencia un registro del archivo, verificando que la posición sea válida
+     */
+    private static <T> T elemento( T[] tabla, int posicion, String tipoElemento ) throws InformacionInconsistenteException
+    {
+        if( posicion < 0 || posicion >= tabla.length )
+            throw new InformacionInconsistenteException( "El archivo hace referencia a un(a) " + tipoElemento + " que no existe: " + posicion );
+        return tabla[ posicion ];
+    }
+
+    /**
+     * Retorna el valor de un código de tiquete si se puede guardar como un número sin perder información (sólo dígitos y sin ceros a la izquierda), o -1 si
+     * no se puede
+     */
+    static long valorNumerico( String codigo )
+    {
+        int longitud = codigo.length( );
+        if( longitud == 0 || longitud > 18 || ( codigo.charAt( 0 ) == '0' && longitud > 1 ) )
+            return -1;
+        long valor = 0;
+        for( int i = 0; i < longitud; i++ )
+        {
+            char c = codigo.charAt( i );
+            if( c < '0' || c > '9' )
+                return -1;
+            valor = valor * 10 + ( c - '0' );
+        }
+        return valor;
+    }
+
+    /**
+     * Tabla de cadenas que se escriben una sola vez en el archivo y a las que los registros hacen referencia por su posición
+     */
+    private static class TablaCadenas
+    {
+        private Map<String, Integer> posiciones = new HashMap<String, Integer>( );
+        private List<String> cadenas = new ArrayList<String>( );
+
+        /**
+         * Retorna la posición de una cadena dentro de la tabla, agregándola al final si no estaba
+         */
+        int posicion( String cadena )
+        {
+            Integer posicion = posiciones.get( cadena );
+            if( posicion == null )
+            {
+                posicion = cadenas.size( );
+                posiciones.put( cadena, posicion );
+                cadenas.add( cadena );
+            }
+            return posicion;
+        }
+
+        void escribir( DataOutputStream salida ) throws IOException
+        {
+            salida.writeInt( cadenas.size( ) );
+            for( String cadena : cadenas )
+                salida.writeUTF( cadena );
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.tiquetes.GeneradorTiquetes;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Esta clase salva los tiquetes de forma incremental: en lugar de volver a escribir todos los clientes y tiquetes cada vez, escribe una salvada base completa
+ * y después, en cada salvada, un archivo delta con sólo los clientes y tiquetes que son nuevos o cambiaron desde la salvada anterior.
+ *
+ * La salvada base es un archivo de tiquetes en formato JSON (ver PersistenciaTiquetesJson) que indica al comienzo su generación, un número que la identifica.
+ * Los deltas se guardan en archivos con el nombre de la salvada base seguido de ".delta." y un número consecutivo, empezando en 1:
+ *
+ * <pre>
+ * int MAGICO_DELTA, short VERSION, long generación de la salvada base, int número del delta
+ * clientes: int n, n x (byte tipo, identificador, [byte tamaño si es corporativo])
+ * tiquetes: int n, n x (código de ruta, fecha, código del tiquete, identificador del cliente, int tarifa, boolean usado)
+ * </pre>
+ *
+ * Para saber qué cambió, los vuelos, clientes y tiquetes se marcan como modificados cuando se venden o se usan tiquetes, y se marcan como salvados cuando se
+ * escriben. Estas marcas sólo son válidas con respecto a la salvada base de la que se cargó o en la que se salvó la aerolínea (ver
+ * {@link Aerolinea#getGeneracionTiquetes()}): si la aerolínea no corresponde a la salvada base que está en el archivo, se escribe una salvada base nueva. Si
+ * una salvada falla después de quitar las marcas, la generación de la aerolínea vuelve a 0 para que la siguiente salvada sea una salvada base completa.
+ */
+public class PersistenciaTiquetesIncremental implements IPersistenciaTiquetes
+{
+    /**
+     * Número con el que empiezan los archivos delta ('DPOD')
+     */
+    static final int MAGICO_DELTA = 0x44504F44;
+
+    // --- Carga ---
+
+    /**
+     * Carga la salvada base y, en orden, todos los deltas que le corresponden. Al final, todos los vuelos, clientes y tiquetes quedan marcados como salvados.
+     *
+     * La cadena de deltas termina en el primer número que no existe o en el primer delta que corresponde a otra salvada base (un delta que quedó de una salvada
+     * base anterior).
+     * @param archivo La ruta de la salvada base
+     * @param aerolinea La aerolínea dentro de la cual debe almacenarse la información
+     * @throws IOException Si hay problemas leyendo los archivos
+     * @throws InformacionInconsistenteException Si hay información inconsistente en los archivos, o entre los archivos y el estado de la aerolínea
+     */
+    @Override
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        long generacion = PersistenciaTiquetesJson.leerGeneracion( archivo );
+        new PersistenciaTiquetesJson( ).cargarTiquetes( archivo, aerolinea );
+
+        if( generacion != 0 )
+        {
+            Map<String, Tiquete> tiquetesPorCodigo = new HashMap<String, Tiquete>( );
+            for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+                tiquetesPorCodigo.put( tiquete.getCodigo( ), tiquete );
+
+            for( int numero = 1; Files.exists( archivoDelta( archivo, numero ) ); numero++ )
+            {
+                if( !cargarDelta( archivoDelta( archivo, numero ), generacion, numero, aerolinea, tiquetesPorCodigo ) )
+                    break;
+            }
+        }
+
+        marcarTodoComoSalvado( aerolinea );
+        aerolinea.setGeneracionTiquetes( generacion );
+    }
+
+    /**
+     * Aplica un delta sobre la aerolínea
+     * @return false si el delta corresponde a otra salvada base, caso en el cual no se aplica
+     */
+    private boolean cargarDelta( Path delta, long generacion, int numero, Aerolinea aerolinea, Map<String, Tiquete> tiquetesPorCodigo )
+            throws IOException, InformacionInconsistenteException
+    {
+        try( DataInputStream entrada = PersistenciaBinaria.abrirEntrada( delta.toString( ) ) )
+        {
+            PersistenciaBinaria.leerEncabezado( entrada, MAGICO_DELTA );
+            if( entrada.readLong( ) != generacion )
+                return false;
+            int numeroLeido = entrada.readInt( );
+            if( numeroLeido != numero )
+                throw new InformacionInconsistenteException( "El archivo " + delta.getFileName( ) + " tiene el número de delta " + numeroLeido );
+
+            int numClientes = PersistenciaBinaria.leerCantidad( entrada );
+            for( int i = 0; i < numClientes; i++ )
+            {
+                byte tipo = entrada.readByte( );
+                String identificador = entrada.readUTF( );
+                byte tamano = tipo == PersistenciaBinaria.TIPO_CORPORATIVO ? entrada.readByte( ) : 0;
+                if( tipo != PersistenciaBinaria.TIPO_NATURAL && tipo != PersistenciaBinaria.TIPO_CORPORATIVO )
+                    throw new InformacionInconsistenteException( "El tipo de cliente " + tipo + " no es válido" );
+
+                // Un cliente que ya existe sólo aparece en el delta porque cambiaron sus tiquetes
+                if( !aerolinea.existeCliente( identificador ) )
+                    aerolinea.agregarCliente( tipo == PersistenciaBinaria.TIPO_NATURAL ? new ClienteNatural( identificador ) : new ClienteCorporativo( identificador, tamano ) );
+            }
+
+            int numTiquetes = PersistenciaBinaria.leerCantidad( entrada );
+            for( int i = 0; i < numTiquetes; i++ )
+            {
+                String codigoRuta = entrada.readUTF( );
+                String fecha = entrada.readUTF( );
+                String codigo = entrada.readUTF( );
+                String identificadorCliente = entrada.readUTF( );
+                int tarifa = entrada.readInt( );
+                boolean usado = entrada.readBoolean( );
+                cargarTiquete( aerolinea, tiquetesPorCodigo, codigoRuta, fecha, codigo, identificadorCliente, tarifa, usado );
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aplica un tiquete de un delta: si el tiquete ya existía se actualiza su estado, y si no se crea y se vincula con su vuelo y con su cliente
+     */
+    private void cargarTiquete( Aerolinea aerolinea, Map<String, Tiquete> tiquetesPorCodigo, String codigoRuta, String fecha, String codigo,
+            String identificadorCliente, int tarifa, boolean usado ) throws InformacionInconsistenteException
+    {
+        Tiquete tiquete = tiquetesPorCodigo.get( codigo );
+        if( tiquete == null )
+        {
+            Vuelo vuelo = aerolinea.getVuelo( codigoRuta, fecha );
+            if( vuelo == null )
+                throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fecha );
+            Cliente cliente = aerolinea.getCliente( identificadorCliente );
+            if( cliente == null )
+                throw new InformacionInconsistenteTiqueteException( "cliente", identificadorCliente );
+
+            tiquete = new Tiquete( codigo, vuelo, cliente, tarifa );
+            GeneradorTiquetes.registrarTiquete( tiquete );
+            // Primero el vuelo: si no tiene cupo, el cliente no debe quedar con el tiquete
+            try
+            {
+                vuelo.agregarTiquete( tiquete );
+            }
+            catch( VueloSobrevendidoException e )
+            {
+                throw new InformacionInconsistenteException( e.getMessage( ) );
+            }
+            cliente.agregarTiquete( tiquete );
+            tiquetesPorCodigo.put( codigo, tiquete );
+        }
+
+        // Un tiquete usado no vuelve a quedar sin usar, así que el único cambio posible de un tiquete existente es que se haya usado
+        if( usado )
+            tiquete.marcarComoUsado( );
+    }
+
+    // --- Salvada ---
+
+    /**
+     * Salva los tiquetes de la aerolínea. Si la aerolínea corresponde a la salvada base que está en el archivo, se escribe sólo un delta con lo que cambió desde
+     * la salvada anterior; si no, se escribe una salvada base nueva.
+     * @param archivo La ruta de la salvada base
+     * @param aerolinea La aerolínea que tiene la información que se quiere almacenar
+     * @throws IOException Si hay problemas escribiendo los archivos
+     */
+    @Override
+    public void salvarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        long generacion = aerolinea.getGeneracionTiquetes( );
+        if( generacion != 0 && Files.exists( Paths.get( archivo ) ) && PersistenciaTiquetesJson.leerGeneracion( archivo ) == generacion )
+            salvarDelta( archivo, aerolinea, generacion );
+        else
+            salvarBase( archivo, aerolinea );
+    }
+
+    /**
+     * Escribe una salvada base nueva con todos los clientes y tiquetes de la aerolínea, y borra los deltas de la salvada base anterior.
+     *
+     * La salvada se escribe en un archivo temporal que después reemplaza al anterior, así que si la aplicación termina mientras se escribe, la salvada base
+     * anterior y sus deltas siguen siendo válidos.
+     * @param archivo La ruta de la salvada base
+     * @param aerolinea La aerolínea que tiene la información que se quiere almacenar
+     * @throws IOException Si hay problemas escribiendo el archivo
+     */
+    public void salvarBase( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        long generacion;
+        do
+        {
+            generacion = ThreadLocalRandom.current( ).nextLong( );
+        } while( generacion == 0 || generacion == aerolinea.getGeneracionTiquetes( ) );
+
+        // Las marcas se quitan antes de escribir: lo que cambie mientras se escribe queda marcado para el siguiente delta
+        marcarTodoComoSalvado( aerolinea );
+        Path destino = Paths.get( archivo );
+        Path temporal = destino.resolveSibling( destino.getFileName( ) + ".tmp" );
+        try
+        {
+            new PersistenciaTiquetesJson( false ).salvarTiquetes( temporal.toString( ), aerolinea, generacion );
+            Files.move( temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch( IOException | RuntimeException e )
+        {
+            descartarSalvada( aerolinea, temporal );
+            throw e;
+        }
+        aerolinea.setGeneracionTiquetes( generacion );
+
+        for( int numero = 1; Files.deleteIfExists( archivoDelta( archivo, numero ) ); numero++ )
+        {
+            // Los deltas anteriores ya no sirven: su información quedó en la salvada base nueva
+        }
+    }
+
+    /**
+     * Escribe un delta con los clientes y tiquetes que cambiaron desde la salvada anterior. Si no se puede escribir, la siguiente salvada es una salvada base.
+     */
+    private void salvarDelta( String archivo, Aerolinea aerolinea, long generacion ) throws IOException
+    {
+        int numero = 1;
+        while( esDeltaDeGeneracion( archivoDelta( archivo, numero ), generacion ) )
+            numero++;
+
+        // Primero se recogen los cambios (quitando las marcas antes de leer el estado) y después se escriben
+        List<Cliente> clientes = new ArrayList<Cliente>( );
+        for( Cliente cliente : aerolinea.getClientes( ) )
+        {
+            if( cliente.estaModificado( ) )
+            {
+                cliente.marcarComoSalvado( );
+                clientes.add( cliente );
+            }
+        }
+        List<Tiquete> tiquetes = new ArrayList<Tiquete>( );
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            if( vuelo.tieneTiquetesModificados( ) )
+            {
+                vuelo.marcarComoSalvado( );
+                for( Tiquete tiquete : vuelo.getTiquetes( ) )
+                {
+                    if( tiquete.estaModificado( ) )
+                    {
+                        tiquete.marcarComoSalvado( );
+                        tiquetes.add( tiquete );
+                    }
+                }
+            }
+        }
+
+        Path destino = archivoDelta( archivo, numero );
+        Path temporal = destino.resolveSibling( destino.getFileName( ) + ".tmp" );
+        try
+        {
+            escribirDelta( temporal, generacion, numero, clientes, tiquetes );
+            Files.move( temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch( IOException | RuntimeException e )
+        {
+            descartarSalvada( aerolinea, temporal );
+            throw e;
+        }
+    }
+
+    /**
+     * Maneja una salvada que falló: las marcas de lo que se iba a salvar ya se quitaron, así que la aerolínea deja de corresponder a la salvada base del archivo
+     * y la siguiente salvada es una salvada base completa
+     */
+    private static void descartarSalvada( Aerolinea aerolinea, Path temporal )
+    {
+        aerolinea.setGeneracionTiquetes( 0 );
+        try
+        {
+            Files.deleteIfExists( temporal );
+        }
+        catch( IOException e )
+        {
+            // El archivo temporal se reemplaza en la siguiente salvada
+        }
+    }
+
+    private static void escribirDelta( Path temporal, long generacion, int numero, List<Cliente> clientes, List<Tiquete> tiquetes ) throws IOException
+    {
+        try( DataOutputStream salida = PersistenciaBinaria.abrirSalida( temporal.toString( ) ) )
+        {
+            salida.writeInt( MAGICO_DELTA );
+            salida.writeShort( PersistenciaBinaria.VERSION );
+            salida.writeLong( generacion );
+            salida.writeInt( numero );
+
+            salida.writeInt( clientes.size( ) );
+            for( Cliente cliente : clientes )
+            {
+                if( cliente instanceof ClienteCorporativo )
+                {
+                    salida.writeByte( PersistenciaBinaria.TIPO_CORPORATIVO );
+                    salida.writeUTF( cliente.getIdentificador( ) );
+                    salida.writeByte( ( ( ClienteCorporativo )cliente ).getTamanoEmpresa( ) );
+                }
+                else
+                {
+                    salida.writeByte( PersistenciaBinaria.TIPO_NATURAL );
+                    salida.writeUTF( cliente.getIdentificador( ) );
+                }
+            }
+
+            salida.writeInt( tiquetes.size( ) );
+            for( Tiquete tiquete : tiquetes )
+            {
+                salida.writeUTF( tiquete.getVuelo( ).getRuta( ).getCodigoRuta( ) );
+                salida.writeUTF( tiquete.getVuelo( ).getFecha( ) );
+                salida.writeUTF( tiquete.getCodigo( ) );
+                salida.writeUTF( tiquete.getCliente( ).getIdentificador( ) );
+                salida.writeInt( tiquete.getTarifa( ) );
+                salida.writeBoolean( tiquete.esUsado( ) );
+            }
+        }
+    }
+
+    /**
+     * Indica si un archivo es un delta de la salvada base con la generación dada
+     */
+    private static boolean esDeltaDeGeneracion( Path delta, long generacion ) throws IOException
+    {
+        if( !Files.exists( delta ) )
+            return false;
+        try( DataInputStream entrada = PersistenciaBinaria.abrirEntrada( delta.toString( ) ) )
+        {
+            PersistenciaBinaria.leerEncabezado( entrada, MAGICO_DELTA );
+            return entrada.readLong( ) == generacion;
+        }
+        catch( InformacionInconsistenteException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Retorna la ruta del delta con el número dado de una salvada base
+     */
+    static Path archivoDelta( String archivo, int numero )
+    {
+        Path base = Paths.get( archivo );
+        return base.resolveSibling( base.getFileName( ) + ".delta." + numero );
+    }
+
+    /**
+     * Marca como salvados todos los vuelos, clientes y tiquetes de la aerolínea
+     */
+    private static void marcarTodoComoSalvado( Aerolinea aerolinea )
+    {
+        for( Cliente cliente : aerolinea.getClientes( ) )
+            cliente.marcarComoSalvado( );
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            vuelo.marcarComoSalvado( );
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+                tiquete.marcarComoSalvado( );
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package uniandes.dpoo.aerolinea.persistencia;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
 
-import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import uniandes.dpoo.aerolinea.exceptions.ClienteRepetidoException;
 import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
 import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
 import uniandes.dpoo.aerolinea.modelo.Aerolinea;
 import uniandes.dpoo.aerolinea.modelo.Ruta;
 import uniandes.dpoo.aerolinea.modelo.Vuelo;
@@ -23,14 +28,42 @@ import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
 public class PersistenciaTiquetesJson implements IPersistenciaTiquetes
 {
 
-    private static final String NOMBRE_CLIENTE = "nombre";
-    private static final String TIPO_CLIENTE = "tipoCliente";
-    private static final String CLIENTE = "cliente";
-    private static final String USADO = "usado";
-    private static final String TARIFA = "tarifa";
-    private static final String CODIGO_TIQUETE = "codigoTiquete";
-    private static final String FECHA = "fecha";
-    private static final String CODIGO_RUTA = "codigoRuta";
+    static final String NOMBRE_CLIENTE = "nombre";
+    static final String TIPO_CLIENTE = "tipoCliente";
+    static final String CLIENTE = "cliente";
+    static final String USADO = "usado";
+    static final String TARIFA = "tarifa";
+    static final String CODIGO_TIQUETE = "codigoTiquete";
+    static final String FECHA = "fecha";
+    static final String CODIGO_RUTA = "codigoRuta";
+    private static final String GENERACION = "generacion";
+
+    /**
+     * Cantidad de espacios con la que se indenta el archivo al salvarlo (0 si se salva sin indentación)
+     */
+    private int indentacion;
+
+    /**
+     * Crea un objeto de persistencia que salva los archivos indentados
+     */
+    public PersistenciaTiquetesJson( )
+    {
+        this( true );
+    }
+
+    /**
+     * Crea un objeto de persistencia de tiquetes en formato JSON
+     * @param indentar Indica si los archivos se salvan indentados. Sin indentación los archivos son más pequeños y se salvan más rápido.
+     */
+    public PersistenciaTiquetesJson( boolean indentar )
+    {
+        this.indentacion = indentar ? 2 : 0;
+    }
+
+    /**
+     * Cada cuántos elementos (clientes o tiquetes) se le informa el avance a quien esté siguiendo la carga
+     */
+    private static final int INTERVALO_PROGRESO = 10000;
 
     /**
      * Carga la información de los clientes y tiquetes vendidos por la aerolínea, y actualiza la estructura de objetos que se encuentra dentro de la aerolínea
@@ -42,11 +75,144 @@ public class PersistenciaTiquetesJson implements IPersistenciaTiquetes
     @Override
     public void cargarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
     {
-        String jsonCompleto = new String( Files.readAllBytes( new File( archivo ).toPath( ) ) );
-        JSONObject raiz = new JSONObject( jsonCompleto );
+        cargarTiquetes( archivo, aerolinea, null );
+    }
+
+    /**
+     * Carga la información de los clientes y tiquetes vendidos por la aerolínea, y actualiza la estructura de objetos que se encuentra dentro de la aerolínea.
+     * 
+     * El archivo no se carga completo en memoria: se lee por partes y cada cliente y cada tiquete se procesa apenas se termina de leer, así que la memoria que se
+     * usa durante la lectura no depende del tamaño del archivo. Por esto, dentro del archivo la llave 'clientes' debe aparecer antes que la llave 'tiquetes'
+     * (que es el orden en el que se salvan).
+     * @param archivo La ruta al archivo que contiene la información que se va a cargar
+     * @param aerolinea La aerolínea dentro de la cual debe almacenarse la información
+     * @param progreso El objeto al que se le informa el avance de la carga. Puede ser null.
+     * @throws IOException Se lanza esta excepción si hay problemas leyendo el archivo
+     * @throws InformacionInconsistenteException Se lanza esta excepción si hay información inconsistente dentro del archivo, o entre el archivo y el estado de la aerolínea
+     */
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea, IProgresoCarga progreso ) throws IOException, InformacionInconsistenteException
+    {
+        try( Reader lector = Files.newBufferedReader( Paths.get( archivo ), StandardCharsets.UTF_8 ) )
+        {
+            JSONTokener tokener = new JSONTokener( lector );
+            // Los códigos de los tiquetes que ya tiene la aerolínea, para no cargar otra vez un tiquete que ya existe
+            Set<String> codigosCargados = new HashSet<String>( );
+            for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+                codigosCargados.add( tiquete.getCodigo( ) );
+            int numClientes = 0;
+            int numTiquetes = 0;
+            boolean hayClientes = false;
+            boolean hayTiquetes = false;
+
+            if( tokener.nextClean( ) != '{' )
+                throw tokener.syntaxError( "El archivo debe empezar con '{'" );
+
+            for( boolean primero = true; haySiguienteElemento( tokener, '}', primero ); primero = false )
+            {
+                String llave = tokener.nextValue( ).toString( );
+                if( tokener.nextClean( ) != ':' )
+                    throw tokener.syntaxError( "Se esperaba ':' después de la llave " + llave );
+
+                if( "clientes".equals( llave ) )
+                {
+                    hayClientes = true;
+                    abrirArreglo( tokener );
+                    for( boolean primerCliente = true; haySiguienteElemento( tokener, ']', primerCliente ); primerCliente = false )
+                    {
+                        cargarCliente( aerolinea, siguienteObjeto( tokener ) );
+                        numClientes++;
+                        if( progreso != null && numClientes % INTERVALO_PROGRESO == 0 )
+                            progreso.reportarProgreso( numClientes, numTiquetes );
+                    }
+                }
+                else if( "tiquetes".equals( llave ) )
+                {
+                    hayTiquetes = true;
+                    abrirArreglo( tokener );
+                    for( boolean primerTiquete = true; haySiguienteElemento( tokener, ']', primerTiquete ); primerTiquete = false )
+                    {
+                        cargarTiquete( aerolinea, siguienteObjeto( tokener ), codigosCargados );
+                        numTiquetes++;
+                        if( progreso != null && numTiquetes % INTERVALO_PROGRESO == 0 )
+                            progreso.reportarProgreso( numClientes, numTiquetes );
+                    }
+                }
+                else
+                {
+                    // Las llaves desconocidas se leen y se ignoran
+                    tokener.nextValue( );
+                }
+            }
+
+            if( !hayClientes )
+                throw new JSONException( "JSONObject[\"clientes\"] not found." );
+            if( !hayTiquetes )
+                throw new JSONException( "JSONObject[\"tiquetes\"] not found." );
+            if( progreso != null )
+                progreso.reportarProgreso( numClientes, numTiquetes );
+        }
+    }
+
+    /**
+     * Lee la generación que se indicó al salvar un archivo de tiquetes con salvarTiquetes( archivo, aerolinea, generacion ). Sólo se lee el comienzo del
+     * archivo.
+     * @return La generación del archivo, o 0 si el archivo no indica su generación
+     */
+    static long leerGeneracion( String archivo ) throws IOException
+    {
+        try( Reader lector = Files.newBufferedReader( Paths.get( archivo ), StandardCharsets.UTF_8 ) )
+        {
+            JSONTokener tokener = new JSONTokener( lector );
+            if( tokener.nextClean( ) != '{' || !haySiguienteElemento( tokener, '}', true ) )
+                return 0;
+            if( !GENERACION.equals( tokener.nextValue( ).toString( ) ) || tokener.nextClean( ) != ':' )
+                return 0;
+            Object valor = tokener.nextValue( );
+            return valor instanceof Number ? ( ( Number )valor ).longValue( ) : 0;
+        }
+        catch( JSONException e )
+        {
+            return 0;
+        }
+    }
 
-        cargarClientes( aerolinea, raiz.getJSONArray( "clientes" ) );
-        cargarTiquetes( aerolinea, raiz.getJSONArray( "tiquetes" ) );
+    /**
+     * Verifica que lo siguiente en el archivo sea el inicio de un arreglo
+     */
+    static void abrirArreglo( JSONTokener tokener )
+    {
+        if( tokener.nextClean( ) != '[' )
+            throw tokener.syntaxError( "Se esperaba '['" );
+    }
+
+    /**
+     * Avanza hasta el siguiente elemento de un objeto o de un arreglo que se está leyendo, consumiendo la coma que lo separa del elemento anterior.
+     * @param tokener El tokener del que se está leyendo
+     * @param cierre El carácter que cierra el objeto o el arreglo ('}' o ']')
+     * @param primero Indica si se está buscando el primer elemento
+     * @return Retorna true si hay otro elemento, o false si se llegó al final del objeto o del arreglo
+     */
+    static boolean haySiguienteElemento( JSONTokener tokener, char cierre, boolean primero )
+    {
+        char c = tokener.nextClean( );
+        if( c == cierre )
+            return false;
+        if( primero )
+            tokener.back( );
+        else if( c != ',' )
+            throw tokener.syntaxError( "Se esperaba ',' o '" + cierre + "'" );
+        return true;
+    }
+
+    /**
+     * Lee el siguiente valor del archivo, que debe ser un objeto JSON
+     */
+    static JSONObject siguienteObjeto( JSONTokener tokener )
+    {
+        Object valor = tokener.nextValue( );
+        if( !( valor instanceof JSONObject ) )
+            throw tokener.syntaxError( "Se esperaba un objeto JSON" );
+        return ( JSONObject )valor;
     }
 
     /**
@@ -58,177 +224,219 @@ public class PersistenciaTiquetesJson implements IPersistenciaTiquetes
     @Override
     public void salvarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException
     {
-        JSONObject jobject = new JSONObject( );
+        salvarTiquetes( archivo, aerolinea, 0 );
+    }
+
+    /**
+     * Salva la información de los clientes y los tiquetes, como salvarTiquetes( archivo, aerolinea ), indicando al comienzo del archivo (en la llave
+     * 'generacion') la generación a la que corresponde la información. La usa PersistenciaTiquetesIncremental para identificar su salvada base.
+     * @param generacion La generación de la información, o 0 si no se quiere incluir
+     */
+    void salvarTiquetes( String archivo, Aerolinea aerolinea, long generacion ) throws IOException
+    {
+        // La estructura JSON se escribe en el archivo a medida que se recorren los clientes y los tiquetes
+        try( EscritorJson escritor = EscritorJson.abrirArchivo( archivo, indentacion ) )
+        {
+            escritor.iniciarObjeto( );
+
+            if( generacion != 0 )
+            {
+                escritor.llave( GENERACION );
+                escritor.valor( generacion );
+            }
 
-        // Salvar clientes
-        salvarClientes( aerolinea, jobject );
+            // Salvar clientes
+            salvarClientes( aerolinea, escritor );
 
-        // Salvar tiquetes
-        salvarTiquetes( aerolinea, jobject );
+            // Salvar tiquetes
+            salvarTiquetes( aerolinea, escritor );
 
-        // Escribir la estructura JSON en un archivo
-        PrintWriter pw = new PrintWriter( archivo );
-        jobject.write( pw, 2, 0 );
-        pw.close( );
+            escritor.terminarObjeto( );
+        }
     }
 
     /**
-     * Carga los clientes de la aerolínea a partir de un archivo JSON
-     * @param aerolinea La aerolínea donde deben quedar los clientes
-     * @param jClientes El elemento JSON donde está la información de los clientes
-     * @throws ClienteRepetidoException Lanza esta excepción si alguno de los clientes que se van a cargar tiene el mismo identificador que otro cliente
+     * Carga un cliente de la aerolínea a partir de un objeto JSON
+     * @param aerolinea La aerolínea donde debe quedar el cliente
+     * @param cliente El elemento JSON donde está la información del cliente
+     * @throws ClienteRepetidoException Lanza esta excepción si el cliente que se va a cargar tiene el mismo identificador que otro cliente
      */
-    private void cargarClientes( Aerolinea aerolinea, JSONArray jClientes ) throws ClienteRepetidoException
+    private void cargarCliente( Aerolinea aerolinea, JSONObject cliente ) throws ClienteRepetidoException
     {
-        int numClientes = jClientes.length( );
-        for( int i = 0; i < numClientes; i++ )
+        String tipoCliente = cliente.getString( TIPO_CLIENTE );
+        Cliente nuevoCliente = null;
+        // En las siguientes líneas se utilizan dos estrategias para implementar la carga de objetos: en la primera estrategia, la carga de los objetos
+        // lo hace alguien externo al objeto que se carga; en la segunda estrategia, los objetos saben cargarse.
+        // En general es una mala idea mezclar las dos estrategias: acá lo hacemos para ilustrar las dos posibilidades y mostrar las ventajas y desventajas de cada una.
+        // Lo que sí es recomendable es seleccionar una estrategia y usarla consistentemente para cargar y salvar.
+        if( ClienteNatural.NATURAL.equals( tipoCliente ) )
         {
-            JSONObject cliente = jClientes.getJSONObject( i );
-            String tipoCliente = cliente.getString( TIPO_CLIENTE );
-            Cliente nuevoCliente = null;
-            // En las siguientes líneas se utilizan dos estrategias para implementar la carga de objetos: en la primera estrategia, la carga de los objetos
-            // lo hace alguien externo al objeto que se carga; en la segunda estrategia, los objetos saben cargarse.
-            // En general es una mala idea mezclar las dos estrategias: acá lo hacemos para ilustrar las dos posibilidades y mostrar las ventajas y desventajas de cada una.
-            // Lo que sí es recomendable es seleccionar una estrategia y usarla consistentemente para cargar y salvar.
-            if( ClienteNatural.NATURAL.equals( tipoCliente ) )
-            {
-                // 1. En esta estrategia, en ESTA clase se realiza todo lo que tiene que ver con cargar objetos de la clase ClienteNatural
-                // Al revisar el código de la clase ClienteNatural, no hay nada que tenga que ver con cargar o salvar.
-                // En este caso, la persistencia es una preocupación transversal de la que no se ocupa la clase ClienteNatural
-                String nombre = cliente.getString( NOMBRE_CLIENTE );
-                nuevoCliente = new ClienteNatural( nombre );
-            }
-            else
-            {
-                // 2. En esta estrategia, en la clase ClienteCorporativo se realiza una parte de lo que tiene que ver con cargar objetos de la clase ClienteCorporativo.
-                // La clase ClienteCorporativo tiene un método para cargar y otro para salvar.
-                // En este caso, la persistencia es una preocupación de la cual se ocupa la clase ClienteCorporativo
-                nuevoCliente = ClienteCorporativo.cargarDesdeJSON( cliente );
-            }
-            if( !aerolinea.existeCliente( nuevoCliente.getIdentificador( ) ) )
-                aerolinea.agregarCliente( nuevoCliente );
-            else
-                throw new ClienteRepetidoException( nuevoCliente.getTipoCliente( ), nuevoCliente.getIdentificador( ) );
+            // 1. En esta estrategia, en ESTA clase se realiza todo lo que tiene que ver con cargar objetos de la clase ClienteNatural
+            // Al revisar el código de la clase ClienteNatural, no hay nada que tenga que ver con cargar o salvar.
+            // En este caso, la persistencia es una preocupación transversal de la que no se ocupa la clase ClienteNatural
+            String nombre = cliente.getString( NOMBRE_CLIENTE );
+            nuevoCliente = new ClienteNatural( nombre );
+        }
+        else
+        {
+            // 2. En esta estrategia, en la clase ClienteCorporativo se realiza una parte de lo que tiene que ver con cargar objetos de la clase ClienteCorporativo.
+            // La clase ClienteCorporativo tiene un método para cargar y otro para salvar.
+            // En este caso, la persistencia es una preocupación de la cual se ocupa la clase ClienteCorporativo
+            nuevoCliente = ClienteCorporativo.cargarDesdeJSON( cliente );
         }
+        if( !aerolinea.existeCliente( nuevoCliente.getIdentificador( ) ) )
+            aerolinea.agregarCliente( nuevoCliente );
+        else
+            throw new ClienteRepetidoException( nuevoCliente.getTipoCliente( ), nuevoCliente.getIdentificador( ) );
     }
 
     /**
-     * Salva la información de los clientes de la aerolínea dentro del objeto json que se recibe por parámetro.
+     * Salva la información de los clientes de la aerolínea usando el escritor que se recibe por parámetro.
      * 
      * La información de los clientes queda dentro de la llave 'clientes'
      * @param aerolinea La aerolínea que tiene la información
-     * @param jobject El objeto JSON donde debe quedar la información de los clientes
+     * @param escritor El escritor del documento JSON donde debe quedar la información de los clientes
      */
-    private void salvarClientes( Aerolinea aerolinea, JSONObject jobject )
+    void salvarClientes( Aerolinea aerolinea, EscritorJson escritor ) throws IOException
     {
-        JSONArray jClientes = new JSONArray( );
+        escritor.llave( "clientes" );
+        escritor.iniciarArreglo( );
         for( Cliente cliente : aerolinea.getClientes( ) )
         {
             // Acá también se utilizaron dos estrategias para salvar los clientes.
             // Para los clientes naturales, esta clase extrae la información de los objetos y la organiza para que luego sea salvada.
             // Para los clientes corporativos, la clase ClienteCorporativo hace todo lo que está en sus manos para persistir un cliente
+            // En los dos casos se agrega el tipo del cliente, que es lo que usa el método cargarCliente para saber cómo cargarlo
             if( ClienteNatural.NATURAL.equals( cliente.getTipoCliente( ) ) )
             {
-                JSONObject jCliente = new JSONObject( );
-                jCliente.put( NOMBRE_CLIENTE, cliente.getIdentificador( ) );
-                jClientes.put( jCliente );
+                escritor.iniciarObjeto( );
+                escritor.llave( TIPO_CLIENTE );
+                escritor.valor( ClienteNatural.NATURAL );
+                escritor.llave( NOMBRE_CLIENTE );
+                escritor.valor( cliente.getIdentificador( ) );
+                escritor.terminarObjeto( );
             }
             else
             {
                 ClienteCorporativo cc = ( ClienteCorporativo )cliente;
                 JSONObject jCliente = cc.salvarEnJSON( );
-                jClientes.put( jCliente );
+                jCliente.put( TIPO_CLIENTE, cc.getTipoCliente( ) );
+                escritor.valor( jCliente );
             }
         }
-
-        jobject.put( "clientes", jClientes );
+        escritor.terminarArreglo( );
     }
 
     /**
-     * Carga la información de los tiquetes a partir de un JSONArray y la integra con la aerolínea.
+     * Carga la información de un tiquete a partir de un objeto JSON y la integra con la aerolínea.
      * * @param aerolinea La instancia de la aerolínea donde se registrarán los tiquetes y clientes.
-     * @param jTiquetes El arreglo JSON que contiene la información de los tiquetes.
+     * @param tiquete El objeto JSON que contiene la información del tiquete.
+     * @param codigosCargados Los códigos de los tiquetes que ya tenía la aerolínea y de los que ya se cargaron del mismo archivo.
      * @throws InformacionInconsistenteTiqueteException Si algún dato (vuelo, ruta, cliente) no existe o el tiquete está duplicado.
+     * @throws InformacionInconsistenteException Si el vuelo del tiquete ya no tiene cupo.
      */
-    private void cargarTiquetes( Aerolinea aerolinea, JSONArray jTiquetes ) throws InformacionInconsistenteTiqueteException
+    private void cargarTiquete( Aerolinea aerolinea, JSONObject tiquete, Set<String> codigosCargados ) throws InformacionInconsistenteException
     {
-        int numTiquetes = jTiquetes.length( );
-        for( int i = 0; i < numTiquetes; i++ )
+        // 1. Extraer y validar la existencia de la Ruta
+        String codigoRuta = tiquete.getString( "codigoRuta" ); // Ajustar nombre de llave si es necesario
+        Ruta laRuta = aerolinea.getRuta( codigoRuta );
+        if( laRuta == null )
+            throw new InformacionInconsistenteTiqueteException( "ruta", codigoRuta );
+
+        // 2. Extraer y validar la existencia del Vuelo
+        String fechaVuelo = tiquete.getString( "fecha" ); 
+        Vuelo elVuelo = aerolinea.getVuelo( codigoRuta, fechaVuelo );
+        if( elVuelo == null )
+            throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fechaVuelo );
+
+        // 3. Validar que el código del tiquete no esté duplicado dentro del archivo ni en la aerolínea
+        String codigoTiquete = tiquete.getString( "codigoTiquete" );
+        boolean existe = !codigosCargados.add( codigoTiquete );
+
+        if( existe )
+            throw new InformacionInconsistenteTiqueteException( "tiquete", codigoTiquete, false );
+
+        // 4. Validar la existencia del Cliente
+        String identificadorCliente = tiquete.getString( "cliente" );
+        Cliente elCliente = aerolinea.getCliente( identificadorCliente );
+        if( elCliente == null )
+            throw new InformacionInconsistenteTiqueteException( "cliente", identificadorCliente );
+
+        // 5. Extraer datos económicos
+        int tarifa = tiquete.getInt( "tarifa" );
+        boolean tiqueteUsado = tiquete.getBoolean( "usado" );
+
+        // 6. Construir el tiquete
+        Tiquete nuevoTiquete = new Tiquete( codigoTiquete, elVuelo, elCliente, tarifa );
+
+        // 7. REGISTRO Y VINCULACIÓN (Puntos críticos según UML y clase Vuelo)
+        
+        // Registrar el código en el Generador para que no vuelva a emitirlo
+        GeneradorTiquetes.registrarTiquete( nuevoTiquete );
+        
+        // Vincular con el vuelo (Ocupación del avión). Se hace antes que con el cliente para que, si el vuelo no tiene cupo, el cliente no quede con el tiquete
+        try
         {
-            JSONObject tiquete = jTiquetes.getJSONObject( i );
-
-            // 1. Extraer y validar la existencia de la Ruta
-            String codigoRuta = tiquete.getString( "codigoRuta" ); // Ajustar nombre de llave si es necesario
-            Ruta laRuta = aerolinea.getRuta( codigoRuta );
-            if( laRuta == null )
-                throw new InformacionInconsistenteTiqueteException( "ruta", codigoRuta );
-
-            // 2. Extraer y validar la existencia del Vuelo
-            String fechaVuelo = tiquete.getString( "fecha" ); 
-            Vuelo elVuelo = aerolinea.getVuelo( codigoRuta, fechaVuelo );
-            if( elVuelo == null )
-                throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fechaVuelo );
-
-            // 3. Validar que el código del tiquete no esté duplicado en el Generador
-            String codigoTiquete = tiquete.getString( "codigoTiquete" );
-            boolean existe = GeneradorTiquetes.validarTiquete( codigoTiquete );
-
-            if( existe )
-                throw new InformacionInconsistenteTiqueteException( "tiquete", codigoTiquete, false );
-
-            // 4. Validar la existencia del Cliente
-            String identificadorCliente = tiquete.getString( "cliente" );
-            Cliente elCliente = aerolinea.getCliente( identificadorCliente );
-            if( elCliente == null )
-                throw new InformacionInconsistenteTiqueteException( "cliente", identificadorCliente );
-
-            // 5. Extraer datos económicos
-            int tarifa = tiquete.getInt( "tarifa" );
-            boolean tiqueteUsado = tiquete.getBoolean( "usado" );
-
-            // 6. Construir el tiquete y configurar su estado
-            Tiquete nuevoTiquete = new Tiquete( codigoTiquete, elVuelo, elCliente, tarifa );
-            if( tiqueteUsado ) {
-                nuevoTiquete.marcarComoUsado( );
-            }
+            elVuelo.agregarTiquete( nuevoTiquete );
+        }
+        catch( VueloSobrevendidoException e )
+        {
+            throw new InformacionInconsistenteException( e.getMessage( ) );
+        }
 
-            // 7. REGISTRO Y VINCULACIÓN (Puntos críticos según UML y clase Vuelo)
-            
-            // Registrar el código en el Set global del Generador
-            GeneradorTiquetes.registrarTiquete( nuevoTiquete );
-            
-            // Vincular con el cliente (Historial de compras)
-            elCliente.agregarTiquete( nuevoTiquete );
-            
-            // Vincular con el vuelo (Ocupación del avión)
-            // Como Vuelo no tiene "agregarTiquete", accedemos a la colección interna
-            elVuelo.getTiquetes().add( nuevoTiquete );
+        // Vincular con el cliente (Historial de compras)
+        elCliente.agregarTiquete( nuevoTiquete );
+
+        // 8. Configurar su estado: se marca después de vincularlo con el cliente para que el saldo del cliente quede actualizado
+        if( tiqueteUsado ) {
+            nuevoTiquete.marcarComoUsado( );
         }
     }
 
     /**
-     * Salva la información de los tiquetes de la aerolínea dentro del objeto json que se recibe por parámetro.
+     * Salva la información de los tiquetes de la aerolínea usando el escritor que se recibe por parámetro.
      * 
-     * La información de los tiquetes queda dentro de la llave 'tiquetes'
+     * La información de los tiquetes queda dentro de la llave 'tiquetes'. Los tiquetes se recorren vuelo por vuelo, sin reunirlos antes en una sola colección.
      * @param aerolinea La aerolínea que tiene la información
-     * @param jobject El objeto JSON donde debe quedar la información de los tiquetes
+     * @param escritor El escritor del documento JSON donde debe quedar la información de los tiquetes
      */
-    private void salvarTiquetes( Aerolinea aerolinea, JSONObject jobject )
+    private void salvarTiquetes( Aerolinea aerolinea, EscritorJson escritor ) throws IOException
     {
-        JSONArray jTiquetes = new JSONArray( );
-        for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+        salvarTiquetes( aerolinea.getVuelos( ), escritor );
+    }
+
+    /**
+     * Salva la información de los tiquetes de algunos vuelos usando el escritor que se recibe por parámetro. La información de los tiquetes queda dentro de la
+     * llave 'tiquetes'.
+     * @param vuelos Los vuelos cuyos tiquetes se quieren salvar
+     * @param escritor El escritor del documento JSON donde debe quedar la información de los tiquetes
+     */
+    void salvarTiquetes( Iterable<Vuelo> vuelos, EscritorJson escritor ) throws IOException
+    {
+        escritor.llave( "tiquetes" );
+        escritor.iniciarArreglo( );
+        for( Vuelo vuelo : vuelos )
         {
-            JSONObject jTiquete = new JSONObject( );
-            jTiquete.put( CODIGO_TIQUETE, tiquete.getCodigo( ) );
-            jTiquete.put( CODIGO_RUTA, tiquete.getVuelo( ).getRuta( ).getCodigoRuta( ) );
-            jTiquete.put( FECHA, tiquete.getVuelo( ).getFecha( ) );
-            jTiquete.put( TARIFA, tiquete.getTarifa( ) );
-            jTiquete.put( USADO, tiquete.esUsado( ) );
-            jTiquete.put( CLIENTE, tiquete.getCliente( ).getIdentificador( ) );
-
-            jTiquetes.put( jTiquete );
+            String codigoRuta = vuelo.getRuta( ).getCodigoRuta( );
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            {
+                escritor.iniciarObjeto( );
+                escritor.llave( CODIGO_TIQUETE );
+                escritor.valor( tiquete.getCodigo( ) );
+                escritor.llave( CODIGO_RUTA );
+                escritor.valor( codigoRuta );
+                escritor.llave( FECHA );
+                escritor.valor( vuelo.getFecha( ) );
+                escritor.llave( TARIFA );
+                escritor.valor( tiquete.getTarifa( ) );
+                escritor.llave( USADO );
+                escritor.valor( tiquete.esUsado( ) );
+                escritor.llave( CLIENTE );
+                escritor.valor( tiquete.getCliente( ).getIdentificador( ) );
+                escritor.terminarObjeto( );
+            }
         }
-        jobject.put( "tiquetes", jTiquetes );
+        escritor.terminarArreglo( );
     }
 
 }
@@ -0,0 +1,28 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.IOException;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.tiquetes.AlmacenTiquetesMapeado;
+
+/**
+ * Esta clase guarda los tiquetes en un archivo que después se mapea en memoria (ver AlmacenTiquetesMapeado).
+ *
+ * Cargar un archivo no crea los tiquetes en el heap: los vuelos quedan leyendo sus tiquetes directamente del archivo, así que la carga sólo toma el tiempo de
+ * leer las tablas de clientes y vuelos, sin importar cuántos tiquetes haya.
+ */
+public class PersistenciaTiquetesMapeados implements IPersistenciaTiquetes
+{
+    @Override
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        AlmacenTiquetesMapeado.abrir( archivo, aerolinea );
+    }
+
+    @Override
+    public void salvarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        AlmacenTiquetesMapeado.escribir( archivo, aerolinea );
+    }
+}
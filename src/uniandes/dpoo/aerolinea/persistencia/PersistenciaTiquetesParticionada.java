@@ -0,0 +1,329 @@
+package uniandes.dpoo.aerolinea.persistencia;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.tiquetes.GeneradorTiquetes;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Esta clase salva y carga los tiquetes en varios archivos JSON (particiones) que se pueden leer en paralelo.
+ *
+ * El archivo principal tiene el mismo formato que el de PersistenciaTiquetesJson y contiene todos los clientes. Los tiquetes están en las particiones, que son
+ * archivos con el nombre del archivo principal seguido de ".parte." y un número consecutivo, empezando en 0, con el mismo formato (pero sin clientes). Los
+ * tiquetes se reparten entre las particiones según el código de su ruta, así que todos los tiquetes de un vuelo quedan en la misma partición.
+ *
+ * La carga tiene tres etapas:
+ * <ol>
+ * <li>Se cargan los clientes del archivo principal.</li>
+ * <li>Cada partición se procesa en paralelo en un ForkJoinPool: a medida que se lee cada tiquete se buscan su vuelo y su cliente, se crea el tiquete y se
+ * agrega a su vuelo. Las particiones no comparten vuelos; lo único que comparten son la tabla de tiquetes y los contadores de la aerolínea y el registro de
+ * códigos de GeneradorTiquetes, que se actualizan sin tomar un candado (ver TablaTiquetes y AgregadosTiquetes).</li>
+ * <li>Se vinculan los tiquetes con sus clientes recorriendo las particiones en orden, así que el resultado (el orden de los tiquetes de cada cliente y el
+ * primer error que se reporta) no depende de cuál partición terminó primero.</li>
+ * </ol>
+ */
+public class PersistenciaTiquetesParticionada implements IPersistenciaTiquetes
+{
+    /**
+     * La cantidad de particiones en las que se salvan los tiquetes si no se indica otra cosa
+     */
+    public static final int PARTICIONES_POR_DEFECTO = 16;
+
+    /**
+     * La cantidad de particiones en las que se salvan los tiquetes
+     */
+    private int particiones;
+
+    /**
+     * La cantidad de threads que se usan para salvar y cargar las particiones
+     */
+    private int paralelismo;
+
+    /**
+     * Crea la persistencia con PARTICIONES_POR_DEFECTO particiones, usando tantos threads como procesadores tenga la máquina
+     */
+    public PersistenciaTiquetesParticionada( )
+    {
+        this( PARTICIONES_POR_DEFECTO, Runtime.getRuntime( ).availableProcessors( ) );
+    }
+
+    /**
+     * Crea la persistencia
+     * @param particiones La cantidad de particiones en las que se salvan los tiquetes. No afecta la carga: se cargan todas las particiones que existan.
+     * @param paralelismo La cantidad de threads que se usan para salvar y cargar las particiones
+     */
+    public PersistenciaTiquetesParticionada( int particiones, int paralelismo )
+    {
+        if( particiones < 1 || paralelismo < 1 )
+            throw new IllegalArgumentException( "La cantidad de particiones y de threads debe ser positiva" );
+        this.particiones = particiones;
+        this.paralelismo = paralelismo;
+    }
+
+    // --- Carga ---
+
+    /**
+     * Carga los clientes del archivo principal y los tiquetes de todas sus particiones
+     * @param archivo La ruta del archivo principal
+     * @param aerolinea La aerolínea dentro de la cual debe almacenarse la información. Ya debe tener sus rutas y vuelos.
+     * @throws IOException Si hay problemas leyendo los archivos
+     * @throws InformacionInconsistenteException Si hay información inconsistente en los archivos, o entre los archivos y el estado de la aerolínea
+     */
+    @Override
+    public void cargarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        // 1. Clientes (y los tiquetes que tenga el archivo principal, si los tiene)
+        new PersistenciaTiquetesJson( ).cargarTiquetes( archivo, aerolinea );
+        Set<String> codigosCargados = new HashSet<String>( );
+        for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+            codigosCargados.add( tiquete.getCodigo( ) );
+
+        List<Path> archivosParticiones = new ArrayList<Path>( );
+        for( int i = 0; Files.exists( archivoParticion( archivo, i ) ); i++ )
+            archivosParticiones.add( archivoParticion( archivo, i ) );
+
+        // 2. Lectura de las particiones en paralelo
+        List<Particion> leidas = new ArrayList<Particion>( archivosParticiones.size( ) );
+        ForkJoinPool pool = new ForkJoinPool( paralelismo );
+        try
+        {
+            List<ForkJoinTask<Particion>> tareas = new ArrayList<ForkJoinTask<Particion>>( );
+            for( Path particion : archivosParticiones )
+                tareas.add( pool.submit( ( ) -> leerParticion( particion, aerolinea ) ) );
+
+            // Se espera cada tarea en orden: si varias fallan, se reporta el error de la primera partición
+            for( ForkJoinTask<Particion> tarea : tareas )
+                leidas.add( esperar( tarea ) );
+        }
+        finally
+        {
+            pool.shutdownNow( );
+        }
+
+        // 3. Vinculación con los clientes, en orden
+        for( Particion particion : leidas )
+        {
+            for( int i = 0; i < particion.tiquetes.size( ); i++ )
+            {
+                Tiquete tiquete = particion.tiquetes.get( i );
+                if( !codigosCargados.add( tiquete.getCodigo( ) ) )
+                    throw new InformacionInconsistenteTiqueteException( "tiquete", tiquete.getCodigo( ), false );
+                tiquete.getCliente( ).agregarTiquete( tiquete );
+                // Se marca después de vincularlo con el cliente para que el saldo del cliente quede actualizado
+                if( particion.usados.get( i ) )
+                    tiquete.marcarComoUsado( );
+            }
+        }
+    }
+
+    /**
+     * Los tiquetes leídos de una partición, en el orden en el que estaban en el archivo, e indicación de cuáles están usados
+     */
+    private static class Particion
+    {
+        private final List<Tiquete> tiquetes = new ArrayList<Tiquete>( );
+        private final BitSet usados = new BitSet( );
+    }
+
+    /**
+     * Lee una partición. Cada tiquete se crea y se agrega a su vuelo apenas se lee, pero no se agrega a su cliente.
+     */
+    private static Particion leerParticion( Path archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        Particion particion = new Particion( );
+        try( Reader lector = Files.newBufferedReader( archivo, StandardCharsets.UTF_8 ) )
+        {
+            JSONTokener tokener = new JSONTokener( lector );
+            if( tokener.nextClean( ) != '{' )
+                throw tokener.syntaxError( "El archivo debe empezar con '{'" );
+
+            for( boolean primero = true; PersistenciaTiquetesJson.haySiguienteElemento( tokener, '}', primero ); primero = false )
+            {
+                String llave = tokener.nextValue( ).toString( );
+                if( tokener.nextClean( ) != ':' )
+                    throw tokener.syntaxError( "Se esperaba ':' después de la llave " + llave );
+
+                if( "tiquetes".equals( llave ) )
+                {
+                    PersistenciaTiquetesJson.abrirArreglo( tokener );
+                    for( boolean primerTiquete = true; PersistenciaTiquetesJson.haySiguienteElemento( tokener, ']', primerTiquete ); primerTiquete = false )
+                        leerTiquete( aerolinea, PersistenciaTiquetesJson.siguienteObjeto( tokener ), particion );
+                }
+                else
+                {
+                    // Las particiones no tienen clientes: los clientes están en el archivo principal
+                    tokener.nextValue( );
+                }
+            }
+        }
+        return particion;
+    }
+
+    private static void leerTiquete( Aerolinea aerolinea, JSONObject tiquete, Particion particion ) throws InformacionInconsistenteException
+    {
+        String codigoRuta = tiquete.getString( PersistenciaTiquetesJson.CODIGO_RUTA );
+        if( aerolinea.getRuta( codigoRuta ) == null )
+            throw new InformacionInconsistenteTiqueteException( "ruta", codigoRuta );
+        String fecha = tiquete.getString( PersistenciaTiquetesJson.FECHA );
+        Vuelo vuelo = aerolinea.getVuelo( codigoRuta, fecha );
+        if( vuelo == null )
+            throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fecha );
+        String identificadorCliente = tiquete.getString( PersistenciaTiquetesJson.CLIENTE );
+        Cliente cliente = aerolinea.getCliente( identificadorCliente );
+        if( cliente == null )
+            throw new InformacionInconsistenteTiqueteException( "cliente", identificadorCliente );
+
+        Tiquete nuevoTiquete = new Tiquete( tiquete.getString( PersistenciaTiquetesJson.CODIGO_TIQUETE ), vuelo, cliente,
+                tiquete.getInt( PersistenciaTiquetesJson.TARIFA ) );
+        GeneradorTiquetes.registrarTiquete( nuevoTiquete );
+        try
+        {
+            vuelo.agregarTiquete( nuevoTiquete );
+        }
+        catch( VueloSobrevendidoException e )
+        {
+            throw new InformacionInconsistenteException( e.getMessage( ) );
+        }
+
+        if( tiquete.getBoolean( PersistenciaTiquetesJson.USADO ) )
+            particion.usados.set( particion.tiquetes.size( ) );
+        particion.tiquetes.add( nuevoTiquete );
+    }
+
+    // --- Salvada ---
+
+    /**
+     * Salva los clientes en el archivo principal y los tiquetes en las particiones, que se escriben en paralelo. Las particiones que sobren de una salvada
+     * anterior con más particiones se borran.
+     * @param archivo La ruta del archivo principal
+     * @param aerolinea La aerolínea que tiene la información que se quiere almacenar
+     * @throws IOException Si hay problemas escribiendo los archivos
+     */
+    @Override
+    public void salvarTiquetes( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        PersistenciaTiquetesJson json = new PersistenciaTiquetesJson( false );
+
+        // Los vuelos se reparten entre las particiones según el código de la ruta
+        List<List<Vuelo>> vuelosParticiones = new ArrayList<List<Vuelo>>( particiones );
+        for( int i = 0; i < particiones; i++ )
+            vuelosParticiones.add( new ArrayList<Vuelo>( ) );
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+            vuelosParticiones.get( particion( vuelo.getRuta( ).getCodigoRuta( ), particiones ) ).add( vuelo );
+
+        ForkJoinPool pool = new ForkJoinPool( paralelismo );
+        try
+        {
+            List<ForkJoinTask<Void>> tareas = new ArrayList<ForkJoinTask<Void>>( );
+            tareas.add( pool.submit( ( ) -> {
+                try( EscritorJson escritor = EscritorJson.abrirArchivo( archivo, 0 ) )
+                {
+                    escritor.iniciarObjeto( );
+                    json.salvarClientes( aerolinea, escritor );
+                    json.salvarTiquetes( new ArrayList<Vuelo>( ), escritor );
+                    escritor.terminarObjeto( );
+                }
+                return null;
+            } ) );
+            for( int i = 0; i < particiones; i++ )
+            {
+                List<Vuelo> vuelos = vuelosParticiones.get( i );
+                String destino = archivoParticion( archivo, i ).toString( );
+                tareas.add( pool.submit( ( ) -> {
+                    try( EscritorJson escritor = EscritorJson.abrirArchivo( destino, 0 ) )
+                    {
+                        escritor.iniciarObjeto( );
+                        json.salvarTiquetes( vuelos, escritor );
+                        escritor.terminarObjeto( );
+                    }
+                    return null;
+                } ) );
+            }
+            for( ForkJoinTask<Void> tarea : tareas )
+                esperar( tarea );
+        }
+        catch( InformacionInconsistenteException e )
+        {
+            // Salvar no produce información inconsistente
+            throw new IOException( e );
+        }
+        finally
+        {
+            pool.shutdownNow( );
+        }
+
+        for( int i = particiones; Files.deleteIfExists( archivoParticion( archivo, i ) ); i++ )
+        {
+            // Sobraban de una salvada anterior
+        }
+    }
+
+    /**
+     * Retorna la partición en la que quedan los tiquetes de una ruta
+     */
+    static int particion( String codigoRuta, int particiones )
+    {
+        return Math.floorMod( codigoRuta.hashCode( ), particiones );
+    }
+
+    /**
+     * Retorna la ruta de una de las particiones de un archivo
+     */
+    static Path archivoParticion( String archivo, int numero )
+    {
+        Path principal = Paths.get( archivo );
+        return principal.resolveSibling( principal.getFileName( ) + ".parte." + numero );
+    }
+
+    /**
+     * Espera a que termine una tarea y retorna su resultado, lanzando la misma excepción que lanzó la tarea
+     */
+    private static <T> T esperar( ForkJoinTask<T> tarea ) throws IOException, InformacionInconsistenteException
+    {
+        try
+        {
+            return tarea.get( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new IOException( "Se interrumpió la carga de los tiquetes", e );
+        }
+        catch( ExecutionException e )
+        {
+            // El ForkJoinPool envuelve las excepciones que no son RuntimeException: se busca la excepción original
+            Throwable causa = e.getCause( );
+            while( causa instanceof RuntimeException && causa.getCause( ) != null && causa.getClass( ) == RuntimeException.class )
+                causa = causa.getCause( );
+            if( causa instanceof IOException )
+                throw ( IOException )causa;
+            if( causa instanceof InformacionInconsistenteException )
+                throw ( InformacionInconsistenteException )causa;
+            if( causa instanceof RuntimeException )
+                throw ( RuntimeException )causa;
+            throw new IOException( causa );
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package uniandes.dpoo.aerolinea.reportes;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.stream.IntStream;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalendarioTemporadas;
+
+/**
+ * Reporte de ingresos y ocupación de una aerolínea: los ingresos y el factor de ocupación de cada vuelo, de cada ruta, de cada avión y de cada temporada (alta
+ * y baja, según el calendario de la aerolínea).
+ *
+ * El factor de ocupación es la cantidad de tiquetes dividida por la cantidad de sillas. La cantidad de tiquetes de un vuelo se lee de su mapa de sillas (cada
+ * tiquete ocupa una silla) y los ingresos de cada vuelo se calculan sobre la tabla de tiquetes de la aerolínea, así que el reporte no recorre los tiquetes.
+ *
+ * Los vuelos se reparten entre los threads de un stream paralelo. Cada thread suma los vuelos que le tocan en sus propios totales por ruta, por avión y por
+ * temporada, y los totales de los threads se suman al final; los valores de cada vuelo se escriben directamente en su posición de los arreglos del reporte.
+ *
+ * El reporte es una fotografía de la aerolínea en el momento en que se construye. Las rutas, los aviones y los vuelos se identifican por su identificador en la
+ * aerolínea (ver por ejemplo {@link Ruta#getId()}).
+ */
+public class ReporteAerolinea
+{
+    /**
+     * Encabezado del archivo CSV del reporte
+     */
+    public static final String ENCABEZADO_CSV = "tipo,clave,fecha,tiquetes,sillas,ingresos,ocupacion";
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final String[] codigosRutas;
+    private final String[] nombresAviones;
+
+    private final int[] rutaVuelo;
+    private final String[] fechaVuelo;
+    private final int[] tiquetesVuelo;
+    private final int[] sillasVuelo;
+    private final long[] ingresosVuelo;
+
+    /**
+     * Los totales por ruta, por avión y por temporada
+     */
+    private final Totales totales;
+
+    /**
+     * Construye el reporte de una aerolínea
+     * @param aerolinea La aerolínea
+     */
+    public ReporteAerolinea( Aerolinea aerolinea )
+    {
+        codigosRutas = new String[aerolinea.getRutas( ).size( )];
+        for( Ruta ruta : aerolinea.getRutas( ) )
+            codigosRutas[ ruta.getId( ) ] = ruta.getCodigoRuta( );
+        // Un avión que reemplaza a otro con el mismo nombre recibe su identificador, así que puede haber menos identificadores que aviones
+        int numAviones = 0;
+        for( Avion avion : aerolinea.getAviones( ) )
+            numAviones = Math.max( numAviones, avion.getId( ) + 1 );
+        nombresAviones = new String[numAviones];
+        for( Avion avion : aerolinea.getAviones( ) )
+            nombresAviones[ avion.getId( ) ] = avion.getNombre( );
+
+        int numVuelos = aerolinea.getVuelos( ).size( );
+        rutaVuelo = new int[numVuelos];
+        fechaVuelo = new String[numVuelos];
+        tiquetesVuelo = new int[numVuelos];
+        sillasVuelo = new int[numVuelos];
+        ingresosVuelo = aerolinea.getTablaTiquetes( ).calcularIngresosPorVuelo( );
+
+        CalendarioTemporadas calendario = aerolinea.getCalendario( );
+        totales = IntStream.range( 0, numVuelos ).parallel( ).collect( ( ) -> new Totales( codigosRutas.length, nombresAviones.length ), ( parciales, id ) -> {
+            Vuelo vuelo = aerolinea.getVuelo( id );
+            int sillas = vuelo.getAvion( ).getCapacidad( );
+            int tiquetes = sillas - vuelo.getMapaSillas( ).getSillasLibres( );
+            rutaVuelo[ id ] = vuelo.getRuta( ).getId( );
+            fechaVuelo[ id ] = vuelo.getFecha( );
+            tiquetesVuelo[ id ] = tiquetes;
+            sillasVuelo[ id ] = sillas;
+            parciales.agregar( parciales.grupoRuta( vuelo.getRuta( ).getId( ) ), tiquetes, sillas, ingresosVuelo[ id ] );
+            parciales.agregar( parciales.grupoAvion( vuelo.getAvion( ).getId( ) ), tiquetes, sillas, ingresosVuelo[ id ] );
+            parciales.agregar( parciales.grupoTemporada( calendario.esTemporadaAlta( vuelo.getFechaLocal( ) ) ), tiquetes, sillas, ingresosVuelo[ id ] );
+        }, Totales::sumar );
+    }
+
+    // ************************************************************************************
+    // Consultas
+    // ************************************************************************************
+
+    public int getNumRutas( )
+    {
+        return codigosRutas.length;
+    }
+
+    public int getNumAviones( )
+    {
+        return nombresAviones.length;
+    }
+
+    public int getNumVuelos( )
+    {
+        return rutaVuelo.length;
+    }
+
+    public long getIngresosRuta( int idRuta )
+    {
+        return totales.ingresos[ totales.grupoRuta( idRuta ) ];
+    }
+
+    public double getFactorOcupacionRuta( int idRuta )
+    {
+        return totales.factorOcupacion( totales.grupoRuta( idRuta ) );
+    }
+
+    public long getIngresosAvion( int idAvion )
+    {
+        return totales.ingresos[ totales.grupoAvion( idAvion ) ];
+    }
+
+    public double getFactorOcupacionAvion( int idAvion )
+    {
+        return totales.factorOcupacion( totales.grupoAvion( idAvion ) );
+    }
+
+    public long getIngresosVuelo( int idVuelo )
+    {
+        return ingresosVuelo[ idVuelo ];
+    }
+
+    public int getTiquetesVuelo( int idVuelo )
+    {
+        return tiquetesVuelo[ idVuelo ];
+    }
+
+    /**
+     * Retorna la cantidad de tiquetes del vuelo dividida por la capacidad de su avión
+     */
+    public double getFactorOcupacionVuelo( int idVuelo )
+    {
+        return factorOcupacion( tiquetesVuelo[ idVuelo ], sillasVuelo[ idVuelo ] );
+    }
+
+    /**
+     * Retorna los ingresos de los vuelos de temporada alta (si temporadaAlta es true) o de temporada baja
+     */
+    public long getIngresosTemporada( boolean temporadaAlta )
+    {
+        return totales.ingresos[ totales.grupoTemporada( temporadaAlta ) ];
+    }
+
+    public double getFactorOcupacionTemporada( boolean temporadaAlta )
+    {
+        return totales.factorOcupacion( totales.grupoTemporada( temporadaAlta ) );
+    }
+
+    public long getIngresosTotales( )
+    {
+        return getIngresosTemporada( true ) + getIngresosTemporada( false );
+    }
+
+    // ************************************************************************************
+    // CSV
+    // ************************************************************************************
+
+    /**
+     * Salva el reporte en un archivo CSV (ver {@link #escribirCsv(Writer)})
+     * @param archivo La ruta del archivo
+     */
+    public void salvarCsv( String archivo ) throws IOException
+    {
+        try( Writer salida = new BufferedWriter( new OutputStreamWriter( Files.newOutputStream( Paths.get( archivo ) ), StandardCharsets.UTF_8 ), TAMANO_BUFFER ) )
+        {
+            escribirCsv( salida );
+        }
+    }
+
+    /**
+     * Escribe el reporte en formato CSV: el encabezado {@link #ENCABEZADO_CSV} y una línea por cada ruta, cada avión, cada temporada y cada vuelo, en ese orden.
+     * El tipo de cada línea es "ruta", "avion", "temporada" o "vuelo"; la clave es el código de la ruta, el nombre del avión, "alta" o "baja", o el código de
+     * la ruta del vuelo; la fecha sólo se llena en las líneas de los vuelos.
+     * @param salida Donde se escribe el reporte. No se cierra.
+     */
+    public void escribirCsv( Writer salida ) throws IOException
+    {
+        salida.write( ENCABEZADO_CSV );
+        salida.write( '\n' );
+        for( int ruta = 0; ruta < codigosRutas.length; ruta++ )
+            escribirLinea( salida, "ruta", codigosRutas[ ruta ], "", totales.grupoRuta( ruta ) );
+        for( int avion = 0; avion < nombresAviones.length; avion++ )
+            escribirLinea( salida, "avion", nombresAviones[ avion ], "", totales.grupoAvion( avion ) );
+        escribirLinea( salida, "temporada", "alta", "", totales.grupoTemporada( true ) );
+        escribirLinea( salida, "temporada", "baja", "", totales.grupoTemporada( false ) );
+        for( int vuelo = 0; vuelo < rutaVuelo.length; vuelo++ )
+            escribirLinea( salida, "vuelo", codigosRutas[ rutaVuelo[ vuelo ] ], fechaVuelo[ vuelo ], tiquetesVuelo[ vuelo ], sillasVuelo[ vuelo ], ingresosVuelo[ vuelo ] );
+    }
+
+    private void escribirLinea( Writer salida, String tipo, String clave, String fecha, int grupo ) throws IOException
+    {
+        escribirLinea( salida, tipo, clave, fecha, totales.tiquetes[ grupo ], totales.sillas[ grupo ], totales.ingresos[ grupo ] );
+    }
+
+    private static void escribirLinea( Writer salida, String tipo, String clave, String fecha, long tiquetes, long sillas, long ingresos ) throws IOException
+    {
+        salida.write( tipo );
+        salida.write( ',' );
+        salida.write( escaparCsv( clave ) );
+        salida.write( ',' );
+        salida.write( fecha );
+        salida.write( ',' );
+        salida.write( Long.toString( tiquetes ) );
+        salida.write( ',' );
+        salida.write( Long.toString( sillas ) );
+        salida.write( ',' );
+        salida.write( Long.toString( ingresos ) );
+        salida.write( ',' );
+        salida.write( Double.toString( factorOcupacion( tiquetes, sillas ) ) );
+        salida.write( '\n' );
+    }
+
+    /**
+     * Retorna el valor entre comillas si tiene comas, comillas o saltos de línea (con las comillas duplicadas), o el mismo valor si no
+     */
+    static String escaparCsv( String valor )
+    {
+        for( int i = 0; i < valor.length( ); i++ )
+        {
+            char c = valor.charAt( i );
+            if( c == ',' || c == '"' || c == '\n' || c == '\r' )
+                return '"' + valor.replace( "\"", "\"\"" ) + '"';
+        }
+        return valor;
+    }
+
+    private static double factorOcupacion( long tiquetes, long sillas )
+    {
+        return sillas == 0 ? 0 : ( double )tiquetes / sillas;
+    }
+
+    /**
+     * Tiquetes, sillas e ingresos sumados por grupo. Los grupos son las rutas (desde 0), seguidas de los aviones y de las dos temporadas. Cada thread del
+     * stream paralelo suma en sus propios totales, así que los totales no se sincronizan.
+     */
+    private static class Totales
+    {
+        private final int numRutas;
+        private final int numAviones;
+
+        final long[] tiquetes;
+        final long[] sillas;
+        final long[] ingresos;
+
+        Totales( int numRutas, int numAviones )
+        {
+            this.numRutas = numRutas;
+            this.numAviones = numAviones;
+            int numGrupos = numRutas + numAviones + 2;
+            tiquetes = new long[numGrupos];
+            sillas = new long[numGrupos];
+            ingresos = new long[numGrupos];
+        }
+
+        int grupoRuta( int idRuta )
+        {
+            return idRuta;
+        }
+
+        int grupoAvion( int idAvion )
+        {
+            return numRutas + idAvion;
+        }
+
+        int grupoTemporada( boolean temporadaAlta )
+        {
+            return numRutas + numAviones + ( temporadaAlta ? 0 : 1 );
+        }
+
+        void agregar( int grupo, int tiquetesVuelo, int sillasVuelo, long ingresosVuelo )
+        {
+            tiquetes[ grupo ] += tiquetesVuelo;
+            sillas[ grupo ] += sillasVuelo;
+            ingresos[ grupo ] += ingresosVuelo;
+        }
+
+        /**
+         * Suma a estos totales los totales de otro thread
+         */
+        void sumar( Totales otros )
+        {
+            for( int g = 0; g < tiquetes.length; g++ )
+            {
+                tiquetes[ g ] += otros.tiquetes[ g ];
+                sillas[ g ] += otros.sillas[ g ];
+                ingresos[ g ] += otros.ingresos[ g ];
+            }
+        }
+
+        double factorOcupacion( int grupo )
+        {
+            return ReporteAerolinea.factorOcupacion( tiquetes[ grupo ], sillas[ grupo ] );
+        }
+    }
+}
@@ -0,0 +1,620 @@
+package uniandes.dpoo.aerolinea.tiquetes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import uniandes.dpoo.aerolinea.exceptions.ClienteRepetidoException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+
+/**
+ * Almacena los tiquetes de una aerolínea en un archivo de registros de tamaño fijo que se mapea en memoria, en lugar de tener un objeto por cada tiquete en el
+ * heap.
+ *
+ * Los vuelos y los clientes que tienen tiquetes en el archivo no guardan objetos Tiquete: cuando alguien recorre los tiquetes de un vuelo se construyen vistas
+ * (TiqueteMapeado) que leen la información directamente del archivo. Abrir un archivo sólo requiere leer las tablas de clientes, vuelos y códigos que están al
+ * comienzo; los registros de los tiquetes los trae el sistema operativo a medida que se consultan.
+ *
+ * Formato del archivo:
+ *
+ * <pre>
+ * encabezado: int MAGICO, short VERSION, int clientes, int vuelos, int códigos, int tiquetes, long mayor código numérico,
+ *             long posición de los saldos, long posición de los registros
+ * clientes:   (byte tipo, identificador, [byte tamaño si es corporativo])
+ * vuelos:     (código de la ruta, fecha, int primer registro, int cantidad de registros)
+ * códigos:    los códigos de tiquete que no son numéricos
+ * saldos:     TAMANO_SALDO bytes por cliente (long valor pendiente, long valor usado)
+ * registros:  TAMANO_REGISTRO bytes por tiquete (long código, int vuelo, int cliente, int tarifa, byte usado)
+ * </pre>
+ *
+ * Los tiquetes de un mismo vuelo quedan en registros consecutivos. Igual que en el formato binario, un código numérico se guarda directamente y cualquier
+ * otro código se guarda como -(posición en la tabla de códigos + 1). Marcar un tiquete como usado modifica su registro y los saldos de su cliente dentro del
+ * archivo.
+ */
+public class AlmacenTiquetesMapeado
+{
+    // --- Constantes ---
+
+    /**
+     * Número con el que empiezan los archivos ('DPOM')
+     */
+    static final int MAGICO = 0x44504F4D;
+
+    /**
+     * Versión del formato
+     */
+    static final short VERSION = 1;
+
+    /**
+     * Cantidad de bytes del encabezado
+     */
+    private static final int TAMANO_ENCABEZADO = 4 + 2 + 4 * 4 + 8 * 3;
+
+    /**
+     * Cantidad de bytes que ocupa cada tiquete. Los registros se completan hasta 24 bytes para que los campos de 8 bytes queden alineados.
+     */
+    static final int TAMANO_REGISTRO = 24;
+
+    /**
+     * Cantidad de bytes que ocupan los saldos de cada cliente
+     */
+    static final int TAMANO_SALDO = 16;
+
+    private static final int POS_CODIGO = 0;
+    private static final int POS_VUELO = 8;
+    private static final int POS_CLIENTE = 12;
+    private static final int POS_TARIFA = 16;
+    private static final int POS_USADO = 20;
+
+    private static final byte TIPO_NATURAL = 0;
+    private static final byte TIPO_CORPORATIVO = 1;
+
+    /**
+     * Un MappedByteBuffer no puede tener más de 2GB, así que los registros se mapean por segmentos de 2^BITS_SEGMENTO registros
+     */
+    private static final int BITS_SEGMENTO = 24;
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    // --- Atributos ---
+
+    /**
+     * Los segmentos mapeados del archivo donde están los registros de los tiquetes
+     */
+    private MappedByteBuffer[] segmentos;
+
+    /**
+     * La parte mapeada del archivo donde están los saldos de los clientes
+     */
+    private MappedByteBuffer saldos;
+
+    /**
+     * Los vuelos a los que corresponden los tiquetes, según la posición que tienen en la tabla de vuelos del archivo
+     */
+    private Vuelo[] vuelos;
+
+    /**
+     * Los clientes dueños de los tiquetes, según la posición que tienen en la tabla de clientes del archivo
+     */
+    private Cliente[] clientes;
+
+    /**
+     * Los códigos de tiquete que no son numéricos
+     */
+    private String[] codigos;
+
+    private int numTiquetes;
+
+    /**
+     * Las posiciones de los tiquetes que se marcaron como usados desde la última vez que se salvaron (ver Tiquete.estaModificado)
+     */
+    private final BitSet modificados = new BitSet( );
+
+    /**
+     * La fila de cada tiquete en la tabla de tiquetes de la aerolínea, más 1, para que las posiciones en 0 correspondan a tiquetes que no están en la tabla
+     * (ver Tiquete.getFila). Las vistas de los tiquetes se construyen cada vez que se recorren, así que la fila no se puede guardar en ellas.
+     */
+    private int[] filas;
+
+    // --- Constructor ---
+
+    private AlmacenTiquetesMapeado( )
+    {
+    }
+
+    // --- Abrir y escribir archivos ---
+
+    /**
+     * Abre un archivo de tiquetes y asocia sus tiquetes con los vuelos y los clientes de la aerolínea.
+     *
+     * Los vuelos deben existir en la aerolínea. Los clientes que no existan se agregan a la aerolínea. Los tiquetes no se cargan en el heap: cada vuelo queda
+     * con una vista de los registros del archivo que le corresponden y cada cliente suma a sus saldos los saldos guardados en el archivo.
+     * @param archivo La ruta del archivo
+     * @param aerolinea La aerolínea a la que pertenecen los tiquetes
+     * @return El almacén abierto
+     * @throws IOException Si hay problemas leyendo el archivo
+     * @throws InformacionInconsistenteException Si el archivo no tiene el formato esperado o no corresponde con la aerolínea
+     */
+    public static AlmacenTiquetesMapeado abrir( String archivo, Aerolinea aerolinea ) throws IOException, InformacionInconsistenteException
+    {
+        AlmacenTiquetesMapeado almacen = new AlmacenTiquetesMapeado( );
+        try( FileChannel canal = FileChannel.open( Paths.get( archivo ), StandardOpenOption.READ, StandardOpenOption.WRITE ) )
+        {
+            DataInputStream entrada = new DataInputStream( new BufferedInputStream( Channels.newInputStream( canal ), TAMANO_BUFFER ) );
+            if( entrada.readInt( ) != MAGICO )
+                throw new InformacionInconsistenteException( "El archivo no es un archivo de tiquetes mapeado" );
+            short version = entrada.readShort( );
+            if( version != VERSION )
+                throw new InformacionInconsistenteException( "La versión " + version + " del archivo de tiquetes mapeado no está soportada" );
+            int numClientes = entrada.readInt( );
+            int numVuelos = entrada.readInt( );
+            int numCodigos = entrada.readInt( );
+            almacen.numTiquetes = entrada.readInt( );
+            long mayorCodigo = entrada.readLong( );
+            long inicioSaldos = entrada.readLong( );
+            long inicioRegistros = entrada.readLong( );
+            if( numClientes < 0 || numVuelos < 0 || numCodigos < 0 || almacen.numTiquetes < 0 || inicioRegistros != inicioSaldos + ( long )numClientes * TAMANO_SALDO
+                    || canal.size( ) < inicioRegistros + ( long )almacen.numTiquetes * TAMANO_REGISTRO )
+                throw new InformacionInconsistenteException( "El archivo de tiquetes mapeado está incompleto" );
+
+            // Tablas
+            byte[] tipos = new byte[numClientes];
+            String[] identificadores = new String[numClientes];
+            int[] tamanos = new int[numClientes];
+            for( int i = 0; i < numClientes; i++ )
+            {
+                tipos[ i ] = entrada.readByte( );
+                identificadores[ i ] = entrada.readUTF( );
+                if( tipos[ i ] == TIPO_CORPORATIVO )
+                    tamanos[ i ] = entrada.readByte( );
+                else if( tipos[ i ] != TIPO_NATURAL )
+                    throw new InformacionInconsistenteException( "El tipo de cliente " + tipos[ i ] + " no es válido" );
+            }
+
+            almacen.vuelos = new Vuelo[numVuelos];
+            int[] primeros = new int[numVuelos];
+            int[] cantidades = new int[numVuelos];
+            for( int i = 0; i < numVuelos; i++ )
+            {
+                String codigoRuta = entrada.readUTF( );
+                String fecha = entrada.readUTF( );
+                primeros[ i ] = entrada.readInt( );
+                cantidades[ i ] = entrada.readInt( );
+                if( aerolinea.getRuta( codigoRuta ) == null )
+                    throw new InformacionInconsistenteTiqueteException( "ruta", codigoRuta );
+                almacen.vuelos[ i ] = aerolinea.getVuelo( codigoRuta, fecha );
+                if( almacen.vuelos[ i ] == null )
+                    throw new InformacionInconsistenteTiqueteException( "vuelo", codigoRuta + " en " + fecha );
+                if( primeros[ i ] < 0 || cantidades[ i ] < 0 || ( long )primeros[ i ] + cantidades[ i ] > almacen.numTiquetes )
+                    throw new InformacionInconsistenteException( "Los tiquetes del vuelo " + codigoRuta + " en " + fecha + " no están dentro del archivo" );
+            }
+
+            almacen.codigos = new String[numCodigos];
+            for( int i = 0; i < numCodigos; i++ )
+                almacen.codigos[ i ] = entrada.readUTF( );
+
+            // Saldos y registros
+            almacen.saldos = canal.map( FileChannel.MapMode.READ_WRITE, inicioSaldos, ( long )numClientes * TAMANO_SALDO );
+            int numSegmentos = ( int ) ( ( ( long )almacen.numTiquetes + ( 1 << BITS_SEGMENTO ) - 1 ) >>> BITS_SEGMENTO );
+            almacen.segmentos = new MappedByteBuffer[numSegmentos];
+            for( int s = 0; s < numSegmentos; s++ )
+            {
+                long primero = ( long )s << BITS_SEGMENTO;
+                long cantidad = Math.min( 1L << BITS_SEGMENTO, almacen.numTiquetes - primero );
+                almacen.segmentos[ s ] = canal.map( FileChannel.MapMode.READ_WRITE, inicioRegistros + primero * TAMANO_REGISTRO, cantidad * TAMANO_REGISTRO );
+            }
+
+            // Validación contra la aerolínea: los clientes que ya existen deben ser del mismo tipo y los vuelos deben tener cupo para sus tiquetes
+            almacen.clientes = new Cliente[numClientes];
+            List<Cliente> nuevos = new ArrayList<Cliente>( );
+            Map<String, Cliente> clientesNuevos = new HashMap<String, Cliente>( );
+            for( int i = 0; i < numClientes; i++ )
+            {
+                Cliente cliente = aerolinea.getCliente( identificadores[ i ] );
+                if( cliente == null )
+                    cliente = clientesNuevos.get( identificadores[ i ] );
+                if( cliente == null )
+                {
+                    cliente = tipos[ i ] == TIPO_CORPORATIVO ? new ClienteCorporativo( identificadores[ i ], tamanos[ i ] ) : new ClienteNatural( identificadores[ i ] );
+                    clientesNuevos.put( identificadores[ i ], cliente );
+                    nuevos.add( cliente );
+                }
+                else if( cliente.getTipoCliente( ).equals( ClienteCorporativo.CORPORATIVO ) != ( tipos[ i ] == TIPO_CORPORATIVO ) )
+                {
+                    throw new ClienteRepetidoException( cliente.getTipoCliente( ), identificadores[ i ] );
+                }
+                almacen.clientes[ i ] = cliente;
+            }
+            Map<Vuelo, Integer> posicionVuelos = new HashMap<Vuelo, Integer>( );
+            for( int i = 0; i < numVuelos; i++ )
+            {
+                Vuelo vuelo = almacen.vuelos[ i ];
+                if( posicionVuelos.put( vuelo, i ) != null )
+                    throw new InformacionInconsistenteException( "El vuelo " + vuelo.getRuta( ).getCodigoRuta( ) + " en " + vuelo.getFecha( ) + " está repetido en el archivo" );
+                if( vuelo.tieneTiquetesArchivados( ) )
+                    throw new InformacionInconsistenteException( "El vuelo " + vuelo.getRuta( ).getCodigoRuta( ) + " en " + vuelo.getFecha( ) + " ya tiene tiquetes archivados" );
+                if( cantidades[ i ] > vuelo.getCuposDisponibles( ) )
+                    throw new InformacionInconsistenteException( new VueloSobrevendidoException( vuelo ).getMessage( ) );
+            }
+            almacen.validarRegistros( primeros, cantidades );
+
+            // Sólo después de validar todo el archivo se modifica la aerolínea
+            almacen.filas = new int[almacen.numTiquetes];
+            for( Cliente cliente : nuevos )
+                aerolinea.agregarCliente( cliente );
+            for( int i = 0; i < numClientes; i++ )
+                almacen.clientes[ i ].agregarSaldosArchivados( almacen.saldos.getLong( i * TAMANO_SALDO ), almacen.saldos.getLong( i * TAMANO_SALDO + 8 ) );
+
+            for( int i = 0; i < numVuelos; i++ )
+            {
+                try
+                {
+                    almacen.vuelos[ i ].agregarTiquetesArchivados( almacen.new TiquetesVuelo( primeros[ i ], cantidades[ i ] ) );
+                }
+                catch( VueloSobrevendidoException e )
+                {
+                    throw new InformacionInconsistenteException( e.getMessage( ) );
+                }
+            }
+
+            if( mayorCodigo > 0 )
+                GeneradorTiquetes.registrarCodigo( Long.toString( mayorCodigo ) );
+        }
+        // Cerrar el canal no afecta las partes del archivo que ya se mapearon
+        return almacen;
+    }
+
+    /**
+     * Verifica que el vuelo, el cliente y el código de cada registro del archivo estén en las tablas del archivo, y que los registros de cada vuelo sean de
+     * ese vuelo
+     * @throws InformacionInconsistenteException Si algún registro hace referencia a una posición que no existe o a otro vuelo
+     */
+    private void validarRegistros( int[] primeros, int[] cantidades ) throws InformacionInconsistenteException
+    {
+        for( int indice = 0; indice < numTiquetes; indice++ )
+        {
+            ByteBuffer segmento = segmento( indice );
+            int posicion = posicion( indice );
+            long codigo = segmento.getLong( posicion + POS_CODIGO );
+            int vuelo = segmento.getInt( posicion + POS_VUELO );
+            int cliente = segmento.getInt( posicion + POS_CLIENTE );
+            if( vuelo < 0 || vuelo >= vuelos.length || cliente < 0 || cliente >= clientes.length || ( codigo < 0 && -( codigo + 1 ) >= codigos.length ) )
+                throw new InformacionInconsistenteException( "El registro " + indice + " del archivo de tiquetes mapeado no es válido" );
+        }
+        for( int v = 0; v < vuelos.length; v++ )
+        {
+            for( int indice = primeros[ v ]; indice < primeros[ v ] + cantidades[ v ]; indice++ )
+            {
+                if( segmento( indice ).getInt( posicion( indice ) + POS_VUELO ) != v )
+                    throw new InformacionInconsistenteException( "El registro " + indice + " del archivo de tiquetes mapeado no es del vuelo que lo contiene" );
+            }
+        }
+    }
+
+    /**
+     * Escribe en un archivo todos los tiquetes de la aerolínea, incluyendo los que estén en un almacén mapeado.
+     *
+     * El archivo se escribe primero con otro nombre y al final reemplaza al archivo original, así que se puede escribir sobre el mismo archivo del que se
+     * abrió el almacén que se está usando: el almacén abierto sigue viendo el archivo anterior.
+     * @param archivo La ruta del archivo
+     * @param aerolinea La aerolínea que tiene los tiquetes
+     * @throws IOException Si hay problemas escribiendo el archivo
+     */
+    public static void escribir( String archivo, Aerolinea aerolinea ) throws IOException
+    {
+        // Los tiquetes de cada vuelo se toman una sola vez, para que las tablas correspondan con los registros aunque se sigan vendiendo tiquetes
+        List<Cliente> listaClientes = new ArrayList<Cliente>( aerolinea.getClientes( ) );
+        Map<String, Integer> posicionClientes = new HashMap<String, Integer>( );
+        for( Cliente cliente : listaClientes )
+            posicionClientes.put( cliente.getIdentificador( ), posicionClientes.size( ) );
+        long[] pendientes = new long[listaClientes.size( )];
+        long[] usados = new long[listaClientes.size( )];
+
+        List<Vuelo> listaVuelos = new ArrayList<Vuelo>( );
+        List<Tiquete[]> tiquetesVuelos = new ArrayList<Tiquete[]>( );
+        Map<String, Integer> posicionCodigos = new HashMap<String, Integer>( );
+        List<String> listaCodigos = new ArrayList<String>( );
+        long mayorCodigo = 0;
+        int totalTiquetes = 0;
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            Tiquete[] tiquetes = vuelo.getTiquetes( ).toArray( new Tiquete[0] );
+            if( tiquetes.length == 0 )
+                continue;
+            for( Tiquete tiquete : tiquetes )
+            {
+                long valor = valorNumerico( tiquete.getCodigo( ) );
+                if( valor < 0 && !posicionCodigos.containsKey( tiquete.getCodigo( ) ) )
+                {
+                    posicionCodigos.put( tiquete.getCodigo( ), listaCodigos.size( ) );
+                    listaCodigos.add( tiquete.getCodigo( ) );
+                }
+                mayorCodigo = Math.max( mayorCodigo, valor );
+                int cliente = posicionClientes.get( tiquete.getCliente( ).getIdentificador( ) );
+                if( tiquete.esUsado( ) )
+                    usados[ cliente ] += tiquete.getTarifa( );
+                else
+                    pendientes[ cliente ] += tiquete.getTarifa( );
+            }
+            listaVuelos.add( vuelo );
+            tiquetesVuelos.add( tiquetes );
+            totalTiquetes += tiquetes.length;
+        }
+
+        // Las tablas se escriben primero en memoria para conocer la posición de los saldos y de los registros
+        ByteArrayOutputStream bytesTablas = new ByteArrayOutputStream( );
+        DataOutputStream tablas = new DataOutputStream( bytesTablas );
+        for( Cliente cliente : listaClientes )
+        {
+            boolean corporativo = cliente instanceof ClienteCorporativo;
+            tablas.writeByte( corporativo ? TIPO_CORPORATIVO : TIPO_NATURAL );
+            tablas.writeUTF( cliente.getIdentificador( ) );
+            if( corporativo )
+                tablas.writeByte( ( ( ClienteCorporativo )cliente ).getTamanoEmpresa( ) );
+        }
+        int primero = 0;
+        for( int v = 0; v < listaVuelos.size( ); v++ )
+        {
+            tablas.writeUTF( listaVuelos.get( v ).getRuta( ).getCodigoRuta( ) );
+            tablas.writeUTF( listaVuelos.get( v ).getFecha( ) );
+            tablas.writeInt( primero );
+            tablas.writeInt( tiquetesVuelos.get( v ).length );
+            primero += tiquetesVuelos.get( v ).length;
+        }
+        for( String codigo : listaCodigos )
+            tablas.writeUTF( codigo );
+        tablas.flush( );
+
+        int relleno = ( 8 - ( TAMANO_ENCABEZADO + bytesTablas.size( ) ) % 8 ) % 8;
+        long inicioSaldos = TAMANO_ENCABEZADO + bytesTablas.size( ) + relleno;
+        long inicioRegistros = inicioSaldos + ( long )listaClientes.size( ) * TAMANO_SALDO;
+
+        Path destino = Paths.get( archivo ).toAbsolutePath( );
+        Path temporal = destino.resolveSibling( destino.getFileName( ) + ".tmp" );
+        try( DataOutputStream salida = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temporal ), TAMANO_BUFFER ) ) )
+        {
+            salida.writeInt( MAGICO );
+            salida.writeShort( VERSION );
+            salida.writeInt( listaClientes.size( ) );
+            salida.writeInt( listaVuelos.size( ) );
+            salida.writeInt( listaCodigos.size( ) );
+            salida.writeInt( totalTiquetes );
+            salida.writeLong( mayorCodigo );
+            salida.writeLong( inicioSaldos );
+            salida.writeLong( inicioRegistros );
+            bytesTablas.writeTo( salida );
+            salida.write( new byte[relleno] );
+
+            for( int i = 0; i < listaClientes.size( ); i++ )
+            {
+                salida.writeLong( pendientes[ i ] );
+                salida.writeLong( usados[ i ] );
+            }
+
+            ByteBuffer registro = ByteBuffer.allocate( TAMANO_REGISTRO );
+            for( int v = 0; v < listaVuelos.size( ); v++ )
+            {
+                for( Tiquete tiquete : tiquetesVuelos.get( v ) )
+                {
+                    long valor = valorNumerico( tiquete.getCodigo( ) );
+                    registro.clear( );
+                    registro.putLong( POS_CODIGO, valor >= 0 ? valor : -( posicionCodigos.get( tiquete.getCodigo( ) ) + 1L ) );
+                    registro.putInt( POS_VUELO, v );
+                    registro.putInt( POS_CLIENTE, posicionClientes.get( tiquete.getCliente( ).getIdentificador( ) ) );
+                    registro.putInt( POS_TARIFA, tiquete.getTarifa( ) );
+                    registro.put( POS_USADO, tiquete.esUsado( ) ? ( byte )1 : ( byte )0 );
+                    salida.write( registro.array( ) );
+                }
+            }
+        }
+        Files.move( temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    // --- Métodos del almacén ---
+
+    /**
+     * Retorna la cantidad de tiquetes del almacén
+     */
+    public int getCantidadTiquetes( )
+    {
+        return numTiquetes;
+    }
+
+    /**
+     * Escribe en el disco los cambios que se han hecho sobre el archivo (tiquetes marcados como usados)
+     */
+    public void sincronizar( )
+    {
+        saldos.force( );
+        for( MappedByteBuffer segmento : segmentos )
+            segmento.force( );
+    }
+
+    String getCodigo( int indice )
+    {
+        long valor = segmento( indice ).getLong( posicion( indice ) + POS_CODIGO );
+        return valor >= 0 ? Long.toString( valor ) : codigos[ ( int ) ( -valor - 1 ) ];
+    }
+
+    Vuelo getVuelo( int indice )
+    {
+        return vuelos[ segmento( indice ).getInt( posicion( indice ) + POS_VUELO ) ];
+    }
+
+    Cliente getCliente( int indice )
+    {
+        return clientes[ segmento( indice ).getInt( posicion( indice ) + POS_CLIENTE ) ];
+    }
+
+    int getTarifa( int indice )
+    {
+        return segmento( indice ).getInt( posicion( indice ) + POS_TARIFA );
+    }
+
+    int getFila( int indice )
+    {
+        return filas[ indice ] - 1;
+    }
+
+    void asignarFila( int indice, int fila )
+    {
+        filas[ indice ] = fila + 1;
+    }
+
+    boolean esUsado( int indice )
+    {
+        return segmento( indice ).get( posicion( indice ) + POS_USADO ) != 0;
+    }
+
+    /**
+     * Marca un tiquete como usado dentro del archivo y actualiza los saldos de su cliente, tanto en el archivo como en el objeto del cliente.
+     *
+     * Igual que en Tiquete, se sincroniza sobre el cliente.
+     * @param indice La posición del registro del tiquete
+     * @param vista La vista del tiquete, que se le pasa al cliente
+     */
+    void marcarComoUsado( int indice, Tiquete vista )
+    {
+        ByteBuffer segmento = segmento( indice );
+        int posicion = posicion( indice );
+        int numCliente = segmento.getInt( posicion + POS_CLIENTE );
+        Cliente cliente = clientes[ numCliente ];
+        synchronized( cliente )
+        {
+            if( segmento.get( posicion + POS_USADO ) == 0 )
+            {
+                int tarifa = segmento.getInt( posicion + POS_TARIFA );
+                segmento.put( posicion + POS_USADO, ( byte )1 );
+                int saldo = numCliente * TAMANO_SALDO;
+                saldos.putLong( saldo, saldos.getLong( saldo ) - tarifa );
+                saldos.putLong( saldo + 8, saldos.getLong( saldo + 8 ) + tarifa );
+                cliente.registrarUsoTiquete( vista );
+                synchronized( modificados )
+                {
+                    modificados.set( indice );
+                }
+                getVuelo( indice ).registrarUsoTiquete( vista );
+            }
+        }
+    }
+
+    /**
+     * Indica si un tiquete se marcó como usado desde la última vez que se salvó
+     */
+    boolean estaModificado( int indice )
+    {
+        synchronized( modificados )
+        {
+            return modificados.get( indice );
+        }
+    }
+
+    void marcarComoSalvado( int indice )
+    {
+        synchronized( modificados )
+        {
+            modificados.clear( indice );
+        }
+    }
+
+    private ByteBuffer segmento( int indice )
+    {
+        return segmentos[ indice >>> BITS_SEGMENTO ];
+    }
+
+    private static int posicion( int indice )
+    {
+        return ( indice & ( ( 1 << BITS_SEGMENTO ) - 1 ) ) * TAMANO_REGISTRO;
+    }
+
+    /**
+     * Retorna el valor de un código de tiquete si se puede guardar como un número sin perder información (sólo dígitos y sin ceros a la izquierda), o -1 si
+     * no se puede
+     */
+    private static long valorNumerico( String codigo )
+    {
+        int longitud = codigo.length( );
+        if( longitud == 0 || longitud > 18 || ( codigo.charAt( 0 ) == '0' && longitud > 1 ) )
+            return -1;
+        long valor = 0;
+        for( int i = 0; i < longitud; i++ )
+        {
+            char c = codigo.charAt( i );
+            if( c < '0' || c > '9' )
+                return -1;
+            valor = valor * 10 + ( c - '0' );
+        }
+        return valor;
+    }
+
+    /**
+     * Los tiquetes de un vuelo dentro del archivo. Cada vez que se recorre la colección se construyen vistas nuevas de los tiquetes.
+     */
+    private class TiquetesVuelo extends AbstractCollection<Tiquete>
+    {
+        private final int primero;
+        private final int cantidad;
+
+        TiquetesVuelo( int primero, int cantidad )
+        {
+            this.primero = primero;
+            this.cantidad = cantidad;
+        }
+
+        @Override
+        public Iterator<Tiquete> iterator( )
+        {
+            return new Iterator<Tiquete>( )
+            {
+                private int siguiente = primero;
+
+                @Override
+                public boolean hasNext( )
+                {
+                    return siguiente < primero + cantidad;
+                }
+
+                @Override
+                public Tiquete next( )
+                {
+                    if( !hasNext( ) )
+                        throw new NoSuchElementException( );
+                    return new TiqueteMapeado( AlmacenTiquetesMapeado.this, siguiente++ );
+                }
+            };
+        }
+
+        @Override
+        public int size( )
+        {
+            return cantidad;
+        }
+    }
+}
@@ -1,28 +1,25 @@
 package uniandes.dpoo.aerolinea.tiquetes;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import uniandes.dpoo.aerolinea.modelo.Vuelo;
 import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
 
 /**
  * Esta clase se encarga de generar tiquetes únicos y de llevar un registro de los tiquetes creados.
+ * 
+ * Los códigos son números consecutivos que se toman de un contador atómico, así que se pueden generar tiquetes desde varios threads a la vez sin usar
+ * candados. En lugar de guardar todos los códigos emitidos, el generador sólo recuerda el mayor código emitido o registrado: la memoria que usa no
+ * depende de la cantidad de tiquetes.
  */
 public class GeneradorTiquetes {
 
     // --- Atributos ---
 
     /**
-     * Conjunto de códigos de tiquetes ya generados para garantizar unicidad.
-     * Según UML: -codigos = new HashSet<String>(): Set<String>
+     * El mayor código numérico que se ha emitido o registrado. El siguiente tiquete recibe el código siguiente.
      */
-    private static Set<String> codigos = new HashSet<String>();
-
-    /**
-     * Contador interno para generar números secuenciales.
-     */
-    private static int contador = 0;
+    private static final AtomicLong ultimoCodigo = new AtomicLong(0);
 
     // --- Métodos ---
 
@@ -31,35 +28,59 @@ public class GeneradorTiquetes {
      * Según UML: +generarTiquete(Vuelo, Cliente, int): Tiquete
      */
     public static Tiquete generarTiquete(Vuelo vuelo, Cliente cliente, int tarifa) {
-        String codigo;
-        
-        // Buscamos un código que no exista en el Set
-        do {
-            contador++;
-            codigo = String.valueOf(contador);
-        } while (validarTiquete(codigo));
-
-        Tiquete nuevoTiquete = new Tiquete(codigo, vuelo, cliente, tarifa);
-        
-        // Registrar el código en el Set para que no se repita
-        codigos.add(codigo);
-        
-        return nuevoTiquete;
+        String codigo = Long.toString(ultimoCodigo.incrementAndGet());
+        return new Tiquete(codigo, vuelo, cliente, tarifa);
     }
 
     /**
      * Registra un tiquete existente en el sistema de control de códigos.
+     * Si el código del tiquete es numérico y es mayor que todos los anteriores, los tiquetes que se generen después tendrán códigos mayores.
      * Según UML: +registrarTiquete(Tiquete): void
      */
     public static void registrarTiquete(Tiquete unTiquete) {
-        codigos.add(unTiquete.getCodigo());
+        registrarCodigo(unTiquete.getCodigo());
+    }
+
+    /**
+     * Registra el código de un tiquete existente, sin necesidad de tener el objeto del tiquete.
+     * Si el código es numérico y es mayor que todos los anteriores, los tiquetes que se generen después tendrán códigos mayores.
+     */
+    public static void registrarCodigo(String codigo) {
+        long numero = valorNumerico(codigo);
+        if (numero > 0) {
+            ultimoCodigo.accumulateAndGet(numero, Math::max);
+        }
     }
 
     /**
-     * Valida si un código de tiquete ya existe.
+     * Valida si un código de tiquete ya pudo haber sido emitido: retorna true si el código es numérico y no es mayor que el mayor código emitido o
+     * registrado.
+     * 
+     * El generador no guarda los códigos individuales, así que para detectar códigos repetidos entre tiquetes cargados de un archivo se debe llevar el
+     * registro por aparte.
      * Según UML: +validarTiquete(String): boolean
      */
     public static boolean validarTiquete(String codigoTiquete) {
-        return codigos.contains(codigoTiquete);
+        long numero = valorNumerico(codigoTiquete);
+        return numero > 0 && numero <= ultimoCodigo.get();
+    }
+
+    /**
+     * Retorna el valor numérico de un código de tiquete, o -1 si el código no es un número positivo que quepa en un long.
+     */
+    private static long valorNumerico(String codigo) {
+        int longitud = codigo.length();
+        if (longitud == 0 || longitud > 18) {
+            return -1;
+        }
+        long numero = 0;
+        for (int i = 0; i < longitud; i++) {
+            char c = codigo.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
     }
 }
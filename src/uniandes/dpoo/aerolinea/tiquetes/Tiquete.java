@@ -23,7 +23,7 @@ public class Tiquete {
     /**
      * Indica si el tiquete ya fue utilizado para realizar un vuelo. 
      */
-    private boolean usado;
+    private volatile boolean usado;
 
     /**
      * El vuelo para el cual se emitió el tiquete. 
@@ -35,6 +35,22 @@ public class Tiquete {
      */
     private Cliente cliente;
 
+    /**
+     * Indica si el tiquete es nuevo o cambió desde la última vez que se salvó. Lo usa la persistencia incremental para salvar sólo los tiquetes que cambiaron.
+     */
+    private volatile boolean modificado;
+
+    /**
+     * La silla que ocupa el tiquete en el avión (ver {@link uniandes.dpoo.aerolinea.modelo.MapaSillas}), o -1 si no tiene una silla asignada.
+     */
+    private volatile int silla;
+
+    /**
+     * La fila que ocupa el tiquete en la tabla de tiquetes de la aerolínea (ver {@link uniandes.dpoo.aerolinea.modelo.TablaTiquetes}), o -1 si no está en
+     * la tabla.
+     */
+    private volatile int fila;
+
     // --- Constructor ---
 
     /**
@@ -50,6 +66,9 @@ public class Tiquete {
         this.cliente = clienteComprador;
         this.tarifa = tarifa;
         this.usado = false; // Por defecto, un tiquete nuevo no ha sido usado.
+        this.modificado = true;
+        this.silla = -1;
+        this.fila = -1;
     }
 
     // --- Métodos ---
@@ -83,10 +102,50 @@ public class Tiquete {
     }
 
     /**
-     * Marca el tiquete como usado. 
+     * Retorna la silla que ocupa el tiquete en el avión, o -1 si no tiene una silla asignada.
+     */
+    public int getSilla() {
+        return silla;
+    }
+
+    /**
+     * Cambia la silla que ocupa el tiquete. Lo invoca el vuelo cuando le asigna o le libera la silla.
+     * @param silla La silla asignada, o -1 si el tiquete ya no ocupa ninguna silla.
+     */
+    public void asignarSilla(int silla) {
+        this.silla = silla;
+    }
+
+    /**
+     * Retorna la fila que ocupa el tiquete en la tabla de tiquetes de la aerolínea, o -1 si no está en la tabla.
+     */
+    public int getFila() {
+        return fila;
+    }
+
+    /**
+     * Cambia la fila que ocupa el tiquete en la tabla de tiquetes. Lo invoca la tabla cuando agrega o quita el tiquete.
+     * @param fila La fila del tiquete, o -1 si el tiquete ya no está en la tabla.
+     */
+    public void asignarFila(int fila) {
+        this.fila = fila;
+    }
+
+    /**
+     * Marca el tiquete como usado y actualiza el valor pendiente del cliente. 
+     * Si el tiquete ya estaba usado, no hace nada.
+     * 
+     * Se sincroniza sobre el cliente (y no sobre el tiquete) para que el único candado involucrado sea el del cliente.
      */
     public void marcarComoUsado() {
-        this.usado = true;
+        synchronized (cliente) {
+            if (!usado) {
+                this.usado = true;
+                this.modificado = true;
+                cliente.registrarUsoTiquete(this);
+                vuelo.registrarUsoTiquete(this);
+            }
+        }
     }
 
     /**
@@ -95,4 +154,21 @@ public class Tiquete {
     public boolean esUsado() {
         return usado;
     }
+
+    /**
+     * Indica si el tiquete es nuevo o cambió desde la última vez que se salvó.
+     */
+    public boolean estaModificado() {
+        return modificado;
+    }
+
+    /**
+     * Indica que el estado actual del tiquete ya quedó salvado.
+     * 
+     * Se debe invocar antes de leer el estado que se va a salvar: si el tiquete cambia mientras tanto, queda marcado como modificado otra vez y se salva en
+     * la siguiente ocasión.
+     */
+    public void marcarComoSalvado() {
+        modificado = false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package uniandes.dpoo.aerolinea.tiquetes;
+
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+
+/**
+ * Vista de un tiquete guardado en un AlmacenTiquetesMapeado.
+ *
+ * La vista no guarda la información del tiquete: sólo sabe en qué almacén y en qué registro está, y cada consulta se lee del archivo. Dos vistas del mismo
+ * registro son iguales.
+ */
+class TiqueteMapeado extends Tiquete
+{
+    private final AlmacenTiquetesMapeado almacen;
+
+    private final int indice;
+
+    TiqueteMapeado( AlmacenTiquetesMapeado almacen, int indice )
+    {
+        // Los atributos de Tiquete no se usan: toda la información se lee del almacén
+        super( null, null, null, 0 );
+        this.almacen = almacen;
+        this.indice = indice;
+    }
+
+    @Override
+    public Cliente getCliente( )
+    {
+        return almacen.getCliente( indice );
+    }
+
+    @Override
+    public Vuelo getVuelo( )
+    {
+        return almacen.getVuelo( indice );
+    }
+
+    @Override
+    public String getCodigo( )
+    {
+        return almacen.getCodigo( indice );
+    }
+
+    @Override
+    public int getTarifa( )
+    {
+        return almacen.getTarifa( indice );
+    }
+
+    @Override
+    public int getFila( )
+    {
+        return almacen.getFila( indice );
+    }
+
+    @Override
+    public void asignarFila( int fila )
+    {
+        almacen.asignarFila( indice, fila );
+    }
+
+    @Override
+    public void marcarComoUsado( )
+    {
+        almacen.marcarComoUsado( indice, this );
+    }
+
+    @Override
+    public boolean esUsado( )
+    {
+        return almacen.esUsado( indice );
+    }
+
+    @Override
+    public boolean estaModificado( )
+    {
+        return almacen.estaModificado( indice );
+    }
+
+    @Override
+    public void marcarComoSalvado( )
+    {
+        almacen.marcarComoSalvado( indice );
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if( !( obj instanceof TiqueteMapeado ) )
+            return false;
+        TiqueteMapeado otro = ( TiqueteMapeado )obj;
+        return almacen == otro.almacen && indice == otro.indice;
+    }
+
+    @Override
+    public int hashCode( )
+    {
+        return 31 * System.identityHashCode( almacen ) + indice;
+    }
+}
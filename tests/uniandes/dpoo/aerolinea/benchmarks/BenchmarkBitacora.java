@@ -0,0 +1,85 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.persistencia.BitacoraOperaciones;
+
+/**
+ * Mide cuántas ventas por segundo se pueden registrar en la bitácora de operaciones, con varios threads vendiendo tiquetes al tiempo.
+ *
+ * Se mide la bitácora sin esperar la escritura de cada venta (sólo se espera al final, con sincronizar) y esperándola (cada venta espera a que su lote quede
+ * en el disco). La meta es registrar al menos 100.000 ventas por segundo sin esperar la escritura.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkBitacora [threads].
+ */
+public class BenchmarkBitacora
+{
+    private static final int NUM_VENTAS = 200000;
+
+    public static void main( String[] args ) throws Exception
+    {
+        int numThreads = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 4;
+        Aerolinea aerolinea = DatosSinteticos.crearAerolinea( 100, 200, 366, 1000, 0 );
+        Vuelo[] vuelos = aerolinea.getVuelos( ).toArray( new Vuelo[0] );
+        String[] clientes = new String[aerolinea.getClientes( ).size( )];
+        int c = 0;
+        for( Cliente cliente : aerolinea.getClientes( ) )
+            clientes[ c++ ] = cliente.getIdentificador( );
+
+        File carpeta = Files.createTempDirectory( "bitacora" ).toFile( );
+        carpeta.deleteOnExit( );
+        String archivo = new File( carpeta, "bitacora" ).getPath( );
+        ExecutorService threads = Executors.newFixedThreadPool( numThreads );
+        System.out.println( "Ventas: " + NUM_VENTAS + ", threads: " + numThreads );
+
+        int[] siguienteVuelo = new int[1];
+        for( boolean esperarEscritura : new boolean[]{ false, true } )
+        {
+            // Con la espera de cada venta, los threads sólo pueden avanzar tan rápido como el disco: se mide una cantidad menor de ventas
+            int ventas = esperarEscritura ? NUM_VENTAS / 10 : NUM_VENTAS;
+            Medicion.medir( esperarEscritura ? "Bitácora esperando cada venta" : "Bitácora sin esperar cada venta", ventas, new File( archivo + ".1" ),
+                    ( ) -> borrarSegmentos( carpeta ), ( ) -> {
+                        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivo, esperarEscritura ) )
+                        {
+                            aerolinea.setBitacora( bitacora );
+                            List<Future<?>> resultados = new ArrayList<Future<?>>( );
+                            int primerVuelo = siguienteVuelo[ 0 ];
+                            for( int t = 0; t < numThreads; t++ )
+                            {
+                                int thread = t;
+                                resultados.add( threads.submit( ( ) -> {
+                                    for( int i = thread; i < ventas; i += numThreads )
+                                    {
+                                        Vuelo vuelo = vuelos[ ( primerVuelo + i ) % vuelos.length ];
+                                        aerolinea.venderTiquetes( clientes[ i % clientes.length ], vuelo.getFecha( ), vuelo.getRuta( ).getCodigoRuta( ), 1 );
+                                    }
+                                    return null;
+                                } ) );
+                            }
+                            for( Future<?> resultado : resultados )
+                                resultado.get( );
+                            bitacora.sincronizar( );
+                            siguienteVuelo[ 0 ] = ( primerVuelo + ventas ) % vuelos.length;
+                        }
+                        aerolinea.setBitacora( null );
+                    } );
+        }
+        threads.shutdown( );
+        borrarSegmentos( carpeta );
+    }
+
+    private static void borrarSegmentos( File carpeta )
+    {
+        for( File segmento : carpeta.listFiles( ) )
+            segmento.delete( );
+    }
+}
@@ -0,0 +1,47 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesParticionada;
+
+/**
+ * Compara el tiempo que toma cargar los tiquetes desde un solo archivo JSON con el tiempo que toma cargarlos desde particiones, con distintas cantidades de
+ * threads.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkCargaParticionada [particiones].
+ */
+public class BenchmarkCargaParticionada
+{
+    public static void main( String[] args ) throws Exception
+    {
+        int particiones = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : PersistenciaTiquetesParticionada.PARTICIONES_POR_DEFECTO;
+        Aerolinea aerolinea = DatosSinteticos.crearAerolineaPorDefecto( );
+        int numTiquetes = aerolinea.getTiquetes( ).size( );
+        int procesadores = Runtime.getRuntime( ).availableProcessors( );
+        System.out.println( "Tiquetes: " + numTiquetes + ", particiones: " + particiones + ", procesadores: " + procesadores );
+
+        File carpeta = Files.createTempDirectory( "tiquetes" ).toFile( );
+        File archivoJson = new File( carpeta, "tiquetes.json" );
+        File archivoParticionado = new File( carpeta, "particionado.json" );
+        new PersistenciaTiquetesJson( false ).salvarTiquetes( archivoJson.getPath( ), aerolinea );
+        new PersistenciaTiquetesParticionada( particiones, procesadores ).salvarTiquetes( archivoParticionado.getPath( ), aerolinea );
+        aerolinea = null;
+
+        Aerolinea[] destino = new Aerolinea[1];
+        Medicion.Operacion preparar = ( ) -> destino[ 0 ] = DatosSinteticos.crearAerolineaSinTiquetes( 100, 200, 366 );
+        Medicion.medir( "Un archivo JSON", numTiquetes, archivoJson, preparar, ( ) -> new PersistenciaTiquetesJson( ).cargarTiquetes( archivoJson.getPath( ), destino[ 0 ] ) );
+        for( int threads = 1; threads <= procesadores; threads *= 2 )
+        {
+            PersistenciaTiquetesParticionada persistencia = new PersistenciaTiquetesParticionada( particiones, threads );
+            Medicion.medir( "Particiones, " + threads + " thread(s)", numTiquetes, archivoParticionado, preparar,
+                    ( ) -> persistencia.cargarTiquetes( archivoParticionado.getPath( ), destino[ 0 ] ) );
+        }
+
+        for( File archivo : carpeta.listFiles( ) )
+            archivo.delete( );
+        carpeta.delete( );
+    }
+}
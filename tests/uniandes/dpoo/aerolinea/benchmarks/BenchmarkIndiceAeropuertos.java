@@ -0,0 +1,116 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.IndiceAeropuertos;
+
+/**
+ * Compara el tiempo que toman las búsquedas de los aeropuertos más cercanos y de los aeropuertos dentro de un radio usando el índice espacial con el tiempo que
+ * toman comparando el punto con todos los aeropuertos.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkIndiceAeropuertos [aeropuertos].
+ */
+public class BenchmarkIndiceAeropuertos
+{
+    private static final int CONSULTAS = 1000;
+
+    private static final int REPETICIONES = 3;
+
+    private static final int VECINOS = 5;
+
+    private static final double RADIO = 150;
+
+    /**
+     * Una búsqueda alrededor de un punto. Retorna la cantidad de aeropuertos encontrados.
+     */
+    private interface Busqueda
+    {
+        int buscar( double latitud, double longitud );
+    }
+
+    public static void main( String[] args )
+    {
+        int numAeropuertos = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 50000;
+        Random azar = new Random( 2026 );
+        List<Aeropuerto> aeropuertos = new ArrayList<Aeropuerto>( numAeropuertos );
+        for( int i = 0; i < numAeropuertos; i++ )
+        {
+            // Los aeropuertos se concentran en las latitudes medias, como en el mundo real
+            double latitud = Math.toDegrees( Math.asin( -0.95 + azar.nextDouble( ) * 1.9 ) );
+            aeropuertos.add( new Aeropuerto( "Aeropuerto " + i, "A" + i, "Ciudad " + i, latitud, -180 + azar.nextDouble( ) * 360 ) );
+        }
+
+        long inicio = System.nanoTime( );
+        IndiceAeropuertos indice = new IndiceAeropuertos( aeropuertos );
+        System.out.printf( "Aeropuertos: %d, construcción del índice: %.1f ms%n", numAeropuertos, ( System.nanoTime( ) - inicio ) / 1e6 );
+
+        double[] latitudes = new double[CONSULTAS];
+        double[] longitudes = new double[CONSULTAS];
+        for( int i = 0; i < CONSULTAS; i++ )
+        {
+            latitudes[ i ] = -60 + azar.nextDouble( ) * 120;
+            longitudes[ i ] = -180 + azar.nextDouble( ) * 360;
+        }
+
+        Aeropuerto[] todos = aeropuertos.toArray( new Aeropuerto[0] );
+        medir( "Fuerza bruta: " + VECINOS + " más cercanos", latitudes, longitudes, ( latitud, longitud ) -> masCercanosFuerzaBruta( todos, latitud, longitud ) );
+        medir( "Índice: " + VECINOS + " más cercanos", latitudes, longitudes, ( latitud, longitud ) -> indice.buscarMasCercanos( latitud, longitud, VECINOS ).size( ) );
+        medir( "Fuerza bruta: dentro de " + RADIO + " km", latitudes, longitudes, ( latitud, longitud ) -> radioFuerzaBruta( todos, latitud, longitud ) );
+        medir( "Índice: dentro de " + RADIO + " km", latitudes, longitudes, ( latitud, longitud ) -> indice.buscarDentroDeRadio( latitud, longitud, RADIO ).size( ) );
+    }
+
+    private static int masCercanosFuerzaBruta( Aeropuerto[] aeropuertos, double latitud, double longitud )
+    {
+        // Se mantienen las VECINOS menores distancias ordenadas, con inserción
+        double[] mejores = new double[VECINOS];
+        Arrays.fill( mejores, Double.MAX_VALUE );
+        for( Aeropuerto aeropuerto : aeropuertos )
+        {
+            double distancia = IndiceAeropuertos.calcularDistancia( latitud, longitud, aeropuerto.getLatitud( ), aeropuerto.getLongitud( ) );
+            int i = VECINOS - 1;
+            if( distancia >= mejores[ i ] )
+                continue;
+            while( i > 0 && mejores[ i - 1 ] > distancia )
+            {
+                mejores[ i ] = mejores[ i - 1 ];
+                i--;
+            }
+            mejores[ i ] = distancia;
+        }
+        return VECINOS;
+    }
+
+    private static int radioFuerzaBruta( Aeropuerto[] aeropuertos, double latitud, double longitud )
+    {
+        int encontrados = 0;
+        for( Aeropuerto aeropuerto : aeropuertos )
+        {
+            if( IndiceAeropuertos.calcularDistancia( latitud, longitud, aeropuerto.getLatitud( ), aeropuerto.getLongitud( ) ) <= RADIO )
+                encontrados++;
+        }
+        return encontrados;
+    }
+
+    /**
+     * Ejecuta todas las consultas varias veces e imprime el mejor tiempo promedio por consulta
+     */
+    private static void medir( String nombre, double[] latitudes, double[] longitudes, Busqueda busqueda )
+    {
+        long mejor = Long.MAX_VALUE;
+        long encontrados = 0;
+        for( int r = 0; r <= REPETICIONES; r++ )
+        {
+            encontrados = 0;
+            long inicio = System.nanoTime( );
+            for( int i = 0; i < latitudes.length; i++ )
+                encontrados += busqueda.buscar( latitudes[ i ], longitudes[ i ] );
+            if( r > 0 )
+                mejor = Math.min( mejor, System.nanoTime( ) - inicio );
+        }
+        System.out.printf( "%-45s %10.2f us/consulta %10d aeropuertos encontrados%n", nombre, mejor / 1e3 / latitudes.length, encontrados );
+    }
+}
@@ -0,0 +1,77 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.MatrizDistancias;
+
+/**
+ * Compara el tiempo que toma calcular la matriz de distancias entre todos los aeropuertos llamando Aeropuerto.calcularDistancia para cada pareja con el
+ * tiempo que toma MatrizDistancias, usando un solo thread y usando todos los procesadores.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkMatrizDistancias [aeropuertos].
+ */
+public class BenchmarkMatrizDistancias
+{
+    private static final int REPETICIONES = 5;
+
+    /**
+     * Un cálculo de la matriz completa
+     */
+    private interface Calculo
+    {
+        void calcular( );
+    }
+
+    public static void main( String[] args )
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 3000;
+        Random azar = new Random( 2026 );
+        Aeropuerto[] aeropuertos = new Aeropuerto[n];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for( int i = 0; i < n; i++ )
+        {
+            latitudes[ i ] = -60 + azar.nextDouble( ) * 120;
+            longitudes[ i ] = -180 + azar.nextDouble( ) * 360;
+            aeropuertos[ i ] = new Aeropuerto( "Aeropuerto " + i, "A" + i, "Ciudad " + i, latitudes[ i ], longitudes[ i ] );
+        }
+        int[] distancias = new int[n * n];
+        int procesadores = Runtime.getRuntime( ).availableProcessors( );
+        System.out.printf( "Aeropuertos: %d, distancias: %d, procesadores: %d%n", n, distancias.length, procesadores );
+
+        medir( "Aeropuerto.calcularDistancia", distancias.length, ( ) -> {
+            for( int i = 0; i < n; i++ )
+            {
+                for( int j = 0; j < n; j++ )
+                    distancias[ i * n + j ] = Aeropuerto.calcularDistancia( aeropuertos[ i ], aeropuertos[ j ] );
+            }
+        } );
+
+        ForkJoinPool unThread = new ForkJoinPool( 1 );
+        medir( "MatrizDistancias, 1 thread", distancias.length, ( ) -> MatrizDistancias.calcularDistancias( latitudes, longitudes, distancias, unThread ) );
+        unThread.shutdown( );
+
+        ForkJoinPool todos = new ForkJoinPool( procesadores );
+        medir( "MatrizDistancias, " + procesadores + " threads", distancias.length,
+                ( ) -> MatrizDistancias.calcularDistancias( latitudes, longitudes, distancias, todos ) );
+        todos.shutdown( );
+    }
+
+    /**
+     * Ejecuta el cálculo varias veces e imprime el mejor tiempo
+     */
+    private static void medir( String nombre, int elementos, Calculo calculo )
+    {
+        long mejor = Long.MAX_VALUE;
+        for( int r = 0; r <= REPETICIONES; r++ )
+        {
+            long inicio = System.nanoTime( );
+            calculo.calcular( );
+            if( r > 0 )
+                mejor = Math.min( mejor, System.nanoTime( ) - inicio );
+        }
+        System.out.printf( "%-45s %8.1f ms %8.2f ns/distancia%n", nombre, mejor / 1e6, ( double )mejor / elementos );
+    }
+}
@@ -0,0 +1,47 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.persistencia.IPersistenciaTiquetes;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaBinaria;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesMapeados;
+
+/**
+ * Compara el tiempo que toma salvar y cargar los tiquetes, y el tamaño de los archivos, con la persistencia en formato JSON, en formato binario y en un
+ * archivo mapeado en memoria.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkPersistenciaBinaria [tiquetes por vuelo]. Con 14 tiquetes por vuelo (el
+ * valor por defecto) la aerolínea tiene alrededor de un millón de tiquetes; con 70, alrededor de cinco millones.
+ */
+public class BenchmarkPersistenciaBinaria
+{
+    private static final int NUM_AEROPUERTOS = 100;
+    private static final int NUM_RUTAS = 200;
+    private static final int NUM_DIAS = 366;
+    private static final int NUM_CLIENTES = 50000;
+
+    public static void main( String[] args ) throws Exception
+    {
+        int tiquetesPorVuelo = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 14;
+        Aerolinea aerolinea = DatosSinteticos.crearAerolinea( NUM_AEROPUERTOS, NUM_RUTAS, NUM_DIAS, NUM_CLIENTES, tiquetesPorVuelo );
+        int numTiquetes = aerolinea.getTiquetes( ).size( );
+        System.out.println( "Tiquetes: " + numTiquetes );
+
+        medir( "JSON", new PersistenciaTiquetesJson( false ), aerolinea, numTiquetes );
+        medir( "Binario", new PersistenciaBinaria( ), aerolinea, numTiquetes );
+        medir( "Mapeado", new PersistenciaTiquetesMapeados( ), aerolinea, numTiquetes );
+    }
+
+    private static void medir( String nombre, IPersistenciaTiquetes persistencia, Aerolinea aerolinea, int numTiquetes ) throws Exception
+    {
+        File archivo = File.createTempFile( "tiquetes", ".dat" );
+        archivo.deleteOnExit( );
+        Medicion.medir( nombre + ": salvar", numTiquetes, archivo, null, ( ) -> persistencia.salvarTiquetes( archivo.getPath( ), aerolinea ) );
+
+        Aerolinea[] destino = new Aerolinea[1];
+        Medicion.medir( nombre + ": cargar", numTiquetes, archivo, ( ) -> destino[ 0 ] = DatosSinteticos.crearAerolineaSinTiquetes( NUM_AEROPUERTOS, NUM_RUTAS, NUM_DIAS ),
+                ( ) -> persistencia.cargarTiquetes( archivo.getPath( ), destino[ 0 ] ) );
+    }
+}
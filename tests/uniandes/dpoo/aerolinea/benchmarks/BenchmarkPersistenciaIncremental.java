@@ -0,0 +1,54 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesIncremental;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+
+/**
+ * Compara el tiempo que toma salvar todos los tiquetes en formato JSON con el tiempo que toma salvar sólo un delta con los tiquetes que cambiaron, cuando entre
+ * dos salvadas se venden unos pocos tiquetes.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkPersistenciaIncremental [ventas entre salvadas].
+ */
+public class BenchmarkPersistenciaIncremental
+{
+    public static void main( String[] args ) throws Exception
+    {
+        int ventas = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000;
+        Aerolinea aerolinea = DatosSinteticos.crearAerolineaPorDefecto( );
+        int numTiquetes = aerolinea.getTiquetes( ).size( );
+        System.out.println( "Tiquetes: " + numTiquetes + ", ventas entre salvadas: " + ventas );
+
+        Vuelo[] vuelos = aerolinea.getVuelos( ).toArray( new Vuelo[0] );
+        String cliente = aerolinea.getClientes( ).iterator( ).next( ).getIdentificador( );
+        Random azar = new Random( 2026 );
+        Medicion.Operacion vender = ( ) -> {
+            for( int i = 0; i < ventas; i++ )
+            {
+                Vuelo vuelo = vuelos[ azar.nextInt( vuelos.length ) ];
+                aerolinea.venderTiquetes( cliente, vuelo.getFecha( ), vuelo.getRuta( ).getCodigoRuta( ), 1 );
+            }
+        };
+
+        File archivoJson = File.createTempFile( "tiquetes", ".json" );
+        archivoJson.deleteOnExit( );
+        Medicion.medir( "JSON: salvar todo", numTiquetes, archivoJson, vender, ( ) -> new PersistenciaTiquetesJson( false ).salvarTiquetes( archivoJson.getPath( ), aerolinea ) );
+
+        File archivoBase = File.createTempFile( "tiquetes", ".json" );
+        archivoBase.deleteOnExit( );
+        PersistenciaTiquetesIncremental incremental = new PersistenciaTiquetesIncremental( );
+        incremental.salvarBase( archivoBase.getPath( ), aerolinea );
+        int[] numeroDelta = new int[1];
+        File[] delta = new File[1];
+        Medicion.medir( "Incremental: salvar delta", ventas, archivoBase, ( ) -> {
+            vender.ejecutar( );
+            delta[ 0 ] = new File( archivoBase.getPath( ) + ".delta." + ( ++numeroDelta[ 0 ] ) );
+            delta[ 0 ].deleteOnExit( );
+        }, ( ) -> incremental.salvarTiquetes( archivoBase.getPath( ), aerolinea ) );
+        System.out.printf( "Tamaño del último delta: %.1f KB%n", delta[ 0 ].length( ) / 1e3 );
+    }
+}
@@ -0,0 +1,73 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Compara el tiempo que toma salvar los tiquetes construyendo primero el documento JSON completo en memoria (como se hacía antes) con el tiempo que toma
+ * salvarlos escribiéndolos a medida que se recorre la aerolínea.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkPersistenciaJson
+ */
+public class BenchmarkPersistenciaJson
+{
+    public static void main( String[] args ) throws Exception
+    {
+        Aerolinea aerolinea = DatosSinteticos.crearAerolineaPorDefecto( );
+        int numTiquetes = aerolinea.getTiquetes( ).size( );
+        File archivo = File.createTempFile( "tiquetes", ".json" );
+        archivo.deleteOnExit( );
+        System.out.println( "Tiquetes: " + numTiquetes );
+
+        Medicion.medir( "Documento completo en memoria", numTiquetes, archivo, null, ( ) -> salvarConDocumentoCompleto( archivo.getPath( ), aerolinea ) );
+        Medicion.medir( "Escritura incremental", numTiquetes, archivo, null, ( ) -> new PersistenciaTiquetesJson( ).salvarTiquetes( archivo.getPath( ), aerolinea ) );
+        Medicion.medir( "Escritura incremental sin indentación", numTiquetes, archivo, null, ( ) -> new PersistenciaTiquetesJson( false ).salvarTiquetes( archivo.getPath( ), aerolinea ) );
+    }
+
+    /**
+     * Salva los tiquetes de la forma en la que se hacía antes: se construye un JSONObject con toda la información y luego se imprime
+     */
+    private static void salvarConDocumentoCompleto( String archivo, Aerolinea aerolinea ) throws Exception
+    {
+        JSONObject jobject = new JSONObject( );
+        JSONArray jClientes = new JSONArray( );
+        for( Cliente cliente : aerolinea.getClientes( ) )
+        {
+            JSONObject jCliente = new JSONObject( );
+            jCliente.put( "tipoCliente", cliente.getTipoCliente( ) );
+            jCliente.put( "nombre", cliente.getIdentificador( ) );
+            jClientes.put( jCliente );
+        }
+        jobject.put( "clientes", jClientes );
+
+        JSONArray jTiquetes = new JSONArray( );
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            {
+                JSONObject jTiquete = new JSONObject( );
+                jTiquete.put( "codigoTiquete", tiquete.getCodigo( ) );
+                jTiquete.put( "codigoRuta", vuelo.getRuta( ).getCodigoRuta( ) );
+                jTiquete.put( "fecha", vuelo.getFecha( ) );
+                jTiquete.put( "tarifa", tiquete.getTarifa( ) );
+                jTiquete.put( "usado", tiquete.esUsado( ) );
+                jTiquete.put( "cliente", tiquete.getCliente( ).getIdentificador( ) );
+                jTiquetes.put( jTiquete );
+            }
+        }
+        jobject.put( "tiquetes", jTiquetes );
+
+        PrintWriter pw = new PrintWriter( archivo );
+        jobject.write( pw, 2, 0 );
+        pw.close( );
+    }
+}
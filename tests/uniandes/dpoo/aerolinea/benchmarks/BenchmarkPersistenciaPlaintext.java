@@ -0,0 +1,38 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaAerolineaPlaintext;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+
+/**
+ * Compara el tiempo que toma salvar y cargar los tiquetes en formato JSON con el tiempo que toma hacerlo en el formato de texto plano separado por
+ * tabuladores.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkPersistenciaPlaintext.
+ */
+public class BenchmarkPersistenciaPlaintext
+{
+    public static void main( String[] args ) throws Exception
+    {
+        Aerolinea aerolinea = DatosSinteticos.crearAerolineaPorDefecto( );
+        int numTiquetes = aerolinea.getTiquetes( ).size( );
+        System.out.println( "Tiquetes: " + numTiquetes );
+
+        File archivoJson = File.createTempFile( "tiquetes", ".json" );
+        archivoJson.deleteOnExit( );
+        File archivoTexto = File.createTempFile( "tiquetes", ".txt" );
+        archivoTexto.deleteOnExit( );
+
+        Medicion.medir( "JSON: salvar", numTiquetes, archivoJson, null, ( ) -> new PersistenciaTiquetesJson( false ).salvarTiquetes( archivoJson.getPath( ), aerolinea ) );
+        Medicion.medir( "Texto plano: salvar", numTiquetes, archivoTexto, null,
+                ( ) -> new PersistenciaAerolineaPlaintext( ).salvarTiquetes( archivoTexto.getPath( ), aerolinea ) );
+
+        Aerolinea[] destino = new Aerolinea[1];
+        Medicion.Operacion preparar = ( ) -> destino[ 0 ] = DatosSinteticos.crearAerolineaSinTiquetes( 100, 200, 366 );
+        Medicion.medir( "JSON: cargar", numTiquetes, archivoJson, preparar, ( ) -> new PersistenciaTiquetesJson( ).cargarTiquetes( archivoJson.getPath( ), destino[ 0 ] ) );
+        Medicion.medir( "Texto plano: cargar", numTiquetes, archivoTexto, preparar,
+                ( ) -> new PersistenciaAerolineaPlaintext( ).cargarTiquetes( archivoTexto.getPath( ), destino[ 0 ] ) );
+    }
+}
@@ -0,0 +1,78 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.red.Itinerario;
+import uniandes.dpoo.aerolinea.modelo.red.RedRutas;
+
+/**
+ * Mide cuánto tarda cada tipo de búsqueda de itinerarios sobre una red grande de rutas generada al azar.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkRedRutas [aeropuertos] [rutas].
+ */
+public class BenchmarkRedRutas
+{
+    private static final int CONSULTAS = 2000;
+
+    private static final int REPETICIONES = 5;
+
+    /**
+     * Una búsqueda entre dos aeropuertos
+     */
+    private interface Busqueda
+    {
+        Itinerario buscar( String origen, String destino );
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        int numAeropuertos = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 5000;
+        int numRutas = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 8 * numAeropuertos;
+        Aerolinea aerolinea = DatosSinteticos.crearAerolinea( numAeropuertos, numRutas, 14, 1, 0 );
+
+        long inicio = System.nanoTime( );
+        RedRutas red = new RedRutas( aerolinea );
+        System.out.printf( "Aeropuertos: %d, rutas: %d, vuelos: %d, construcción de la red: %.1f ms%n", red.getNumAeropuertos( ), red.getNumRutas( ),
+                aerolinea.getVuelos( ).size( ), ( System.nanoTime( ) - inicio ) / 1e6 );
+
+        Aeropuerto[] aeropuertos = aerolinea.getAeropuertos( ).toArray( new Aeropuerto[0] );
+        String[] origenes = new String[CONSULTAS];
+        String[] destinos = new String[CONSULTAS];
+        Random azar = new Random( 2026 );
+        for( int i = 0; i < CONSULTAS; i++ )
+        {
+            origenes[ i ] = aeropuertos[ azar.nextInt( aeropuertos.length ) ].getCodigo( );
+            destinos[ i ] = aeropuertos[ azar.nextInt( aeropuertos.length ) ].getCodigo( );
+        }
+
+        LocalDateTime salida = LocalDateTime.of( 2024, 1, 1, 6, 0 );
+        medir( "Menos escalas (BFS)", origenes, destinos, red::buscarMenosEscalas );
+        medir( "Menor distancia (A*)", origenes, destinos, red::buscarMenorDistancia );
+        medir( "Llegada más temprana", origenes, destinos, ( origen, destino ) -> red.buscarLlegadaMasTemprana( origen, destino, salida ) );
+    }
+
+    /**
+     * Ejecuta todas las consultas varias veces e imprime el mejor tiempo promedio por consulta
+     */
+    private static void medir( String nombre, String[] origenes, String[] destinos, Busqueda busqueda )
+    {
+        long mejor = Long.MAX_VALUE;
+        int encontrados = 0;
+        for( int r = 0; r <= REPETICIONES; r++ )
+        {
+            encontrados = 0;
+            long inicio = System.nanoTime( );
+            for( int i = 0; i < origenes.length; i++ )
+            {
+                if( busqueda.buscar( origenes[ i ], destinos[ i ] ) != null )
+                    encontrados++;
+            }
+            if( r > 0 )
+                mejor = Math.min( mejor, System.nanoTime( ) - inicio );
+        }
+        System.out.printf( "%-45s %8.1f us/consulta %8d itinerarios encontrados%n", nombre, mejor / 1e3 / origenes.length, encontrados );
+    }
+}
@@ -0,0 +1,28 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.reportes.ReporteAerolinea;
+
+/**
+ * Mide el tiempo que toma construir el reporte de ingresos y ocupación de una aerolínea de prueba, y salvarlo en un archivo CSV.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkReporteAerolinea [tiquetes por vuelo]. Con 137 tiquetes por vuelo la
+ * aerolínea tiene alrededor de diez millones de tiquetes (hay que darle a la JVM varios GB de memoria).
+ */
+public class BenchmarkReporteAerolinea
+{
+    public static void main( String[] args ) throws Exception
+    {
+        int tiquetesPorVuelo = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 14;
+        Aerolinea aerolinea = DatosSinteticos.crearAerolinea( 100, 200, 366, 50000, tiquetesPorVuelo );
+        int tiquetes = aerolinea.getTablaTiquetes( ).getCantidadTiquetes( );
+        System.out.printf( "Tiquetes: %d, vuelos: %d, procesadores: %d%n", tiquetes, aerolinea.getVuelos( ).size( ), Runtime.getRuntime( ).availableProcessors( ) );
+
+        File archivo = File.createTempFile( "reporte", ".csv" );
+        archivo.deleteOnExit( );
+        Medicion.medir( "Construir el reporte", tiquetes, archivo, null, ( ) -> new ReporteAerolinea( aerolinea ) );
+        Medicion.medir( "Construir el reporte y salvar el CSV", tiquetes, archivo, null, ( ) -> new ReporteAerolinea( aerolinea ).salvarCsv( archivo.getPath( ) ) );
+    }
+}
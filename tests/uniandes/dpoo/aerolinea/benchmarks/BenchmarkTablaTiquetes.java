@@ -0,0 +1,68 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.TablaTiquetes;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+/**
+ * Compara el tiempo que toma calcular los ingresos por ruta y el valor pendiente recorriendo los tiquetes de la aerolínea (Tiquete, Vuelo, Ruta) con el tiempo
+ * que toma calcularlos sobre la tabla de tiquetes.
+ *
+ * Se ejecuta como una aplicación: java uniandes.dpoo.aerolinea.benchmarks.BenchmarkTablaTiquetes.
+ */
+public class BenchmarkTablaTiquetes
+{
+    private static final int REPETICIONES = 5;
+
+    /**
+     * Un cálculo sobre todos los tiquetes. Retorna un valor para que la JVM no pueda descartar el cálculo.
+     */
+    private interface Calculo
+    {
+        long calcular( );
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        Aerolinea aerolinea = DatosSinteticos.crearAerolineaPorDefecto( );
+        TablaTiquetes tabla = aerolinea.getTablaTiquetes( );
+        int tiquetes = tabla.getCantidadTiquetes( );
+        System.out.printf( "Tiquetes: %d, procesadores: %d%n", tiquetes, Runtime.getRuntime( ).availableProcessors( ) );
+
+        medir( "Ingresos por ruta, recorriendo tiquetes", tiquetes, ( ) -> {
+            long[] ingresos = new long[aerolinea.getRutas( ).size( )];
+            for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+                ingresos[ tiquete.getVuelo( ).getRuta( ).getId( ) ] += tiquete.getTarifa( );
+            return ingresos[ 0 ];
+        } );
+        medir( "Ingresos por ruta, tabla de tiquetes", tiquetes, ( ) -> tabla.calcularIngresosPorRuta( )[ 0 ] );
+
+        medir( "Valor pendiente, recorriendo tiquetes", tiquetes, ( ) -> {
+            long pendiente = 0;
+            for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+            {
+                if( !tiquete.esUsado( ) )
+                    pendiente += tiquete.getTarifa( );
+            }
+            return pendiente;
+        } );
+        medir( "Valor pendiente, tabla de tiquetes", tiquetes, tabla::calcularValorPendiente );
+    }
+
+    /**
+     * Ejecuta el cálculo varias veces e imprime el mejor tiempo
+     */
+    private static void medir( String nombre, int elementos, Calculo calculo )
+    {
+        long mejor = Long.MAX_VALUE;
+        long resultado = 0;
+        for( int r = 0; r <= REPETICIONES; r++ )
+        {
+            long inicio = System.nanoTime( );
+            resultado += calculo.calcular( );
+            if( r > 0 )
+                mejor = Math.min( mejor, System.nanoTime( ) - inicio );
+        }
+        System.out.printf( "%-45s %8.1f ms %12.0f tiquetes/s (%d)%n", nombre, mejor / 1e6, elementos / ( mejor / 1e9 ), resultado );
+    }
+}
@@ -0,0 +1,122 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.ProgramacionVuelo;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+
+/**
+ * Construye aerolíneas de prueba, del tamaño que se quiera, para medir el desempeño de las operaciones.
+ *
+ * Los datos se generan con una semilla fija, así que dos aerolíneas construidas con los mismos parámetros tienen la misma información.
+ */
+public class DatosSinteticos
+{
+    /**
+     * Contador que se usa para que los códigos de los aeropuertos sean distintos cada vez que se construye una aerolínea
+     */
+    private static int contadorAerolineas = 0;
+
+    /**
+     * Capacidad de todos los aviones de las aerolíneas de prueba
+     */
+    public static final int CAPACIDAD_AVIONES = 500;
+
+    /**
+     * Construye una aerolínea de prueba.
+     * @param numAeropuertos La cantidad de aeropuertos
+     * @param numRutas La cantidad de rutas, entre pares de aeropuertos escogidos al azar
+     * @param numDias La cantidad de días, a partir del 1 de enero de 2024, en los que hay un vuelo de cada ruta
+     * @param numClientes La cantidad de clientes (la mitad naturales y la mitad corporativos)
+     * @param tiquetesPorVuelo La cantidad de tiquetes que se venden en cada vuelo (a lo sumo CAPACIDAD_AVIONES)
+     * @return La aerolínea construida
+     */
+    public static Aerolinea crearAerolinea( int numAeropuertos, int numRutas, int numDias, int numClientes, int tiquetesPorVuelo ) throws Exception
+    {
+        Random azar = new Random( 2026 );
+        Aerolinea aerolinea = new Aerolinea( );
+        contadorAerolineas++;
+
+        List<Aeropuerto> aeropuertos = new ArrayList<Aeropuerto>( numAeropuertos );
+        for( int i = 0; i < numAeropuertos; i++ )
+        {
+            double latitud = -55 + azar.nextDouble( ) * 125;
+            double longitud = -170 + azar.nextDouble( ) * 340;
+            String codigo = "A" + contadorAerolineas + "-" + i;
+            aeropuertos.add( new Aeropuerto( "Aeropuerto " + i, codigo, "Ciudad " + i, latitud, longitud ) );
+        }
+
+        for( int i = 0; i < numRutas; i++ )
+        {
+            Aeropuerto origen = aeropuertos.get( azar.nextInt( numAeropuertos ) );
+            Aeropuerto destino = aeropuertos.get( azar.nextInt( numAeropuertos ) );
+            while( destino == origen )
+                destino = aeropuertos.get( azar.nextInt( numAeropuertos ) );
+            int salida = azar.nextInt( 24 ) * 100 + azar.nextInt( 60 );
+            int llegada = ( salida / 100 + 1 + azar.nextInt( 10 ) ) % 24 * 100 + azar.nextInt( 60 );
+            aerolinea.agregarRuta( new Ruta( origen, destino, String.valueOf( salida ), String.valueOf( llegada ), "R" + i ) );
+            aerolinea.agregarAvion( new Avion( "Avion " + i, CAPACIDAD_AVIONES ) );
+        }
+
+        List<ProgramacionVuelo> programaciones = new ArrayList<ProgramacionVuelo>( numRutas * numDias );
+        LocalDate inicio = LocalDate.of( 2024, 1, 1 );
+        for( int d = 0; d < numDias; d++ )
+        {
+            String fecha = inicio.plusDays( d ).toString( );
+            for( int i = 0; i < numRutas; i++ )
+            {
+                programaciones.add( new ProgramacionVuelo( fecha, "R" + i, "Avion " + i ) );
+            }
+        }
+        aerolinea.programarVuelos( programaciones );
+
+        String[] clientes = new String[numClientes];
+        for( int i = 0; i < numClientes; i++ )
+        {
+            if( i % 2 == 0 )
+                aerolinea.agregarCliente( new ClienteNatural( "Persona " + i ) );
+            else
+                aerolinea.agregarCliente( new ClienteCorporativo( "Empresa " + i, 1 + i % 3 ) );
+            clientes[ i ] = i % 2 == 0 ? "Persona " + i : "Empresa " + i;
+        }
+
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            int vendidos = 0;
+            while( vendidos < tiquetesPorVuelo )
+            {
+                int cantidad = Math.min( 1 + azar.nextInt( 4 ), tiquetesPorVuelo - vendidos );
+                aerolinea.venderTiquetes( clientes[ azar.nextInt( numClientes ) ], vuelo.getFecha( ), vuelo.getRuta( ).getCodigoRuta( ), cantidad );
+                vendidos += cantidad;
+            }
+        }
+        return aerolinea;
+    }
+
+    /**
+     * Construye la aerolínea de prueba que usan las mediciones si no se indica otra cosa: 200 rutas con vuelos diarios durante un año, con 14 tiquetes por
+     * vuelo (alrededor de un millón de tiquetes).
+     */
+    public static Aerolinea crearAerolineaPorDefecto( ) throws Exception
+    {
+        return crearAerolinea( 100, 200, 366, 50000, 14 );
+    }
+
+    /**
+     * Construye una aerolínea con las mismas rutas, aviones y vuelos que crearAerolinea( numAeropuertos, numRutas, numDias, ... ) pero sin clientes ni
+     * tiquetes, para cargar en ella los tiquetes de otra aerolínea construida con los mismos parámetros.
+     */
+    public static Aerolinea crearAerolineaSinTiquetes( int numAeropuertos, int numRutas, int numDias ) throws Exception
+    {
+        return crearAerolinea( numAeropuertos, numRutas, numDias, 0, 0 );
+    }
+}
@@ -0,0 +1,49 @@
+package uniandes.dpoo.aerolinea.benchmarks;
+
+import java.io.File;
+
+/**
+ * Mide el tiempo que toman las operaciones que se comparan en los benchmarks.
+ *
+ * Cada operación se ejecuta una vez sin medirla, para que la JVM compile el código, y luego varias veces más. Se reporta el mejor tiempo.
+ */
+public class Medicion
+{
+    /**
+     * Cantidad de veces que se mide cada operación
+     */
+    private static final int REPETICIONES = 5;
+
+    /**
+     * Una operación que se quiere medir
+     */
+    public interface Operacion
+    {
+        void ejecutar( ) throws Exception;
+    }
+
+    /**
+     * Mide una operación e imprime su mejor tiempo, cuántos elementos procesó por segundo y el tamaño del archivo con el que trabajó.
+     * @param nombre El nombre con el que se imprime la medición
+     * @param elementos La cantidad de elementos que procesa la operación
+     * @param archivo El archivo que la operación escribe o lee
+     * @param preparacion Una operación que se ejecuta antes de cada repetición, sin medirla. Puede ser null.
+     * @param operacion La operación que se mide
+     */
+    public static void medir( String nombre, int elementos, File archivo, Operacion preparacion, Operacion operacion ) throws Exception
+    {
+        long mejor = Long.MAX_VALUE;
+        for( int i = 0; i <= REPETICIONES; i++ )
+        {
+            if( preparacion != null )
+                preparacion.ejecutar( );
+            System.gc( );
+            long inicio = System.nanoTime( );
+            operacion.ejecutar( );
+            if( i > 0 )
+                mejor = Math.min( mejor, System.nanoTime( ) - inicio );
+        }
+        double segundos = mejor / 1e9;
+        System.out.printf( "%-45s %8.1f ms %12.0f elementos/s %10.1f MB%n", nombre, segundos * 1000, elementos / segundos, archivo.length( ) / 1e6 );
+    }
+}
@@ -0,0 +1,206 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.ProgramacionVuelo;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifasTemporadaBaja;
+
+class AerolineaTest
+{
+    /**
+     * Contador para generar códigos de aeropuerto distintos en cada prueba
+     */
+    private static int contadorAeropuertos = 0;
+
+    private Aerolinea aerolinea;
+
+    /**
+     * Crea un aeropuerto con un código que no se ha usado antes
+     */
+    static Aeropuerto crearAeropuerto( String ciudad, double latitud, double longitud ) throws Exception
+    {
+        contadorAeropuertos++;
+        return new Aeropuerto( "Aeropuerto " + ciudad, ciudad + contadorAeropuertos, ciudad, latitud, longitud );
+    }
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = new Aerolinea( );
+        Aeropuerto bog = crearAeropuerto( "BOG", 4.701, -74.146 );
+        Aeropuerto mde = crearAeropuerto( "MDE", 6.164, -75.423 );
+        aerolinea.agregarRuta( new Ruta( bog, mde, "1000", "1130", "4558" ) );
+        aerolinea.agregarRuta( new Ruta( mde, bog, "1400", "1530", "4559" ) );
+        aerolinea.agregarAvion( new Avion( "Boeing 737", 150 ) );
+        aerolinea.agregarAvion( new Avion( "Airbus 320", 180 ) );
+
+        aerolinea.programarVuelo( "2024-11-05", "4558", "Boeing 737" );
+        aerolinea.programarVuelo( "2024-11-07", "4558", "Boeing 737" );
+        aerolinea.programarVuelo( "2024-12-24", "4558", "Boeing 737" );
+        aerolinea.programarVuelo( "2024-11-05", "4559", "Airbus 320" );
+    }
+
+    @AfterEach
+    void tearDown( )
+    {
+        aerolinea = null;
+    }
+
+    @Test
+    void testGetVuelo( )
+    {
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-11-07" );
+        assertEquals( "4558", vuelo.getRuta( ).getCodigoRuta( ), "El vuelo encontrado no corresponde a la ruta buscada" );
+        assertEquals( "2024-11-07", vuelo.getFecha( ), "El vuelo encontrado no corresponde a la fecha buscada" );
+
+        assertNull( aerolinea.getVuelo( "4558", "2024-11-06" ), "No debería existir un vuelo en esa fecha" );
+        assertNull( aerolinea.getVuelo( "9999", "2024-11-05" ), "No debería existir un vuelo para esa ruta" );
+    }
+
+    @Test
+    void testGetVuelosRutaRango( )
+    {
+        Collection<Vuelo> enNoviembre = aerolinea.getVuelosRuta( "4558", "2024-11-01", "2024-11-30" );
+        assertEquals( 2, enNoviembre.size( ), "La cantidad de vuelos en el rango no es correcta" );
+
+        Iterator<Vuelo> it = enNoviembre.iterator( );
+        assertSame( aerolinea.getVuelo( "4558", "2024-11-05" ), it.next( ), "Los vuelos no están ordenados por fecha" );
+        assertSame( aerolinea.getVuelo( "4558", "2024-11-07" ), it.next( ), "Los vuelos no están ordenados por fecha" );
+
+        assertEquals( 3, aerolinea.getVuelosRuta( "4558", "2024-11-05", "2024-12-24" ).size( ), "Los extremos del rango deben incluirse" );
+        assertEquals( 3, aerolinea.getVuelosRuta( "4558" ).size( ), "La cantidad de vuelos de la ruta no es correcta" );
+        assertTrue( aerolinea.getVuelosRuta( "4558", "2024-12-25", "2024-12-31" ).isEmpty( ), "No debería haber vuelos en ese rango" );
+        assertTrue( aerolinea.getVuelosRuta( "9999", "2024-01-01", "2024-12-31" ).isEmpty( ), "La ruta no existe" );
+    }
+
+    @Test
+    void testProgramarVueloRepetido( )
+    {
+        assertThrows( Exception.class, ( ) -> aerolinea.programarVuelo( "2024-11-05", "4558", "Airbus 320" ), "No se pueden programar dos vuelos de la misma ruta en la misma fecha" );
+        assertThrows( Exception.class, ( ) -> aerolinea.programarVuelo( "2024-11-05", "4559", "Boeing 737" ), "El avión ya tiene un vuelo en esa fecha" );
+    }
+
+    @Test
+    void testProgramarVuelos( ) throws Exception
+    {
+        aerolinea.programarVuelos( Arrays.asList( new ProgramacionVuelo( "2025-01-10", "4558", "Boeing 737" ), new ProgramacionVuelo( "2025-01-10", "4559", "Airbus 320" ) ) );
+        assertNotNull( aerolinea.getVuelo( "4558", "2025-01-10" ), "El vuelo no quedó programado" );
+        assertNotNull( aerolinea.getVuelo( "4559", "2025-01-10" ), "El vuelo no quedó programado" );
+        assertTrue( aerolinea.estaOcupadoAvion( "Boeing 737", "2025-01-10" ), "El avión debería quedar ocupado en esa fecha" );
+        assertFalse( aerolinea.estaOcupadoAvion( "Boeing 737", "2025-01-11" ), "El avión no debería estar ocupado en esa fecha" );
+    }
+
+    @Test
+    void testProgramarVuelosConflictoEnLote( )
+    {
+        Collection<ProgramacionVuelo> lote = Arrays.asList( new ProgramacionVuelo( "2025-02-01", "4558", "Boeing 737" ), new ProgramacionVuelo( "2025-02-01", "4559", "Boeing 737" ) );
+        assertThrows( Exception.class, ( ) -> aerolinea.programarVuelos( lote ), "El avión no puede hacer dos vuelos el mismo día" );
+        assertNull( aerolinea.getVuelo( "4558", "2025-02-01" ), "Si el lote falla no se debe programar ningún vuelo" );
+        assertFalse( aerolinea.estaOcupadoAvion( "Boeing 737", "2025-02-01" ), "Si el lote falla el avión no debe quedar ocupado" );
+    }
+
+    @Test
+    void testIdentificadores( ) throws Exception
+    {
+        Ruta ruta = aerolinea.getRuta( "4559" );
+        assertEquals( 1, ruta.getId( ), "Las rutas se numeran en el orden de registro" );
+        assertSame( ruta, aerolinea.getRuta( ruta.getId( ) ) );
+        assertSame( aerolinea.getAvion( "Airbus 320" ), aerolinea.getAvion( 1 ) );
+        for( Aeropuerto aeropuerto : aerolinea.getAeropuertos( ) )
+            assertSame( aeropuerto, aerolinea.getAeropuerto( aeropuerto.getId( ) ) );
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-12-24" );
+        assertSame( vuelo, aerolinea.getVuelo( vuelo.getId( ) ) );
+        assertNull( aerolinea.getRuta( 2 ) );
+        assertNull( aerolinea.getAeropuerto( -1 ) );
+
+        // Redefinir una ruta conserva su identificador
+        Ruta nueva = new Ruta( ruta.getOrigen( ), ruta.getDestino( ), "1500", "1630", "4559" );
+        aerolinea.agregarRuta( nueva );
+        assertEquals( 1, nueva.getId( ) );
+        assertSame( nueva, aerolinea.getRuta( 1 ) );
+    }
+
+    /**
+     * Los objetos con la misma llave son iguales aunque no estén registrados, y un objeto no se puede registrar en dos aerolíneas
+     */
+    @Test
+    void testIgualdadYOtraAerolinea( ) throws Exception
+    {
+        Ruta ruta = aerolinea.getRuta( "4558" );
+        Ruta copia = new Ruta( ruta.getOrigen( ), ruta.getDestino( ), "1000", "1130", "4558" );
+        assertEquals( ruta, copia );
+        assertEquals( ruta.hashCode( ), copia.hashCode( ) );
+        assertEquals( aerolinea.getAvion( "Boeing 737" ), new Avion( "Boeing 737", 150 ) );
+        assertEquals( ruta.getOrigen( ), new Aeropuerto( "Otro", ruta.getOrigen( ).getCodigo( ), "Otra", 0, 0 ) );
+        assertEquals( aerolinea.getVuelo( "4558", "2024-11-05" ), new Vuelo( copia, "2024-11-05", new Avion( "Boeing 737", 150 ) ) );
+        assertNotEquals( aerolinea.getVuelo( "4558", "2024-11-05" ), aerolinea.getVuelo( "4558", "2024-11-07" ) );
+
+        Aerolinea otra = new Aerolinea( );
+        assertThrows( IllegalArgumentException.class, ( ) -> otra.agregarRuta( ruta ), "La ruta ya está registrada en otra aerolínea" );
+        assertThrows( IllegalArgumentException.class, ( ) -> otra.agregarAvion( aerolinea.getAvion( "Boeing 737" ) ) );
+
+        // Los aeropuertos sí se pueden compartir: la otra aerolínea registra una copia con su propio identificador
+        otra.agregarRuta( copia );
+        assertNotSame( ruta.getOrigen( ), copia.getOrigen( ) );
+        assertEquals( 0, copia.getOrigen( ).getId( ) );
+        assertEquals( ruta.getOrigen( ), copia.getOrigen( ) );
+    }
+
+    /**
+     * Las tarifas guardadas de una ruta no se deben usar para la ruta con el mismo código de otra aerolínea
+     */
+    @Test
+    void testTarifasRutasConMismoCodigo( ) throws Exception
+    {
+        Aerolinea otra = new Aerolinea( );
+        Ruta larga = new Ruta( crearAeropuerto( "LHR", 51.470, -0.454 ), crearAeropuerto( "JFK", 40.641, -73.778 ), "1000", "1800", "4558" );
+        otra.agregarRuta( larga );
+        otra.agregarAvion( new Avion( "Boeing 777", 300 ) );
+        otra.programarVuelo( "2024-11-05", "4558", "Boeing 777" );
+
+        CalculadoraTarifasTemporadaBaja calculadora = new CalculadoraTarifasTemporadaBaja( );
+        ClienteNatural cliente = new ClienteNatural( "Ana" );
+        int corta = calculadora.calcularTarifa( aerolinea.getVuelo( "4558", "2024-11-05" ), cliente );
+        int tarifaLarga = calculadora.calcularTarifa( otra.getVuelo( "4558", "2024-11-05" ), cliente );
+        assertTrue( tarifaLarga > corta, "La tarifa de la ruta larga no puede ser la guardada para la ruta corta" );
+        assertEquals( corta, calculadora.calcularTarifa( aerolinea.getVuelo( "4558", "2024-11-05" ), cliente ) );
+    }
+
+    /**
+     * Las tarifas que la aerolínea guardó para una ruta no se usan después de reemplazar la ruta
+     */
+    @Test
+    void testTarifasRutaReemplazada( ) throws Exception
+    {
+        aerolinea.agregarCliente( new ClienteNatural( "Ana" ) );
+        int corta = aerolinea.venderTiquetes( "Ana", "2024-11-05", "4558", 1 );
+
+        aerolinea.agregarRuta( new Ruta( crearAeropuerto( "LHR", 51.470, -0.454 ), crearAeropuerto( "JFK", 40.641, -73.778 ), "1000", "1800", "4558" ) );
+        aerolinea.programarVuelo( "2024-11-08", "4558", "Airbus 320" );
+        int larga = aerolinea.venderTiquetes( "Ana", "2024-11-08", "4558", 1 );
+        assertTrue( larga > corta, "La tarifa de la ruta nueva no puede ser la guardada para la ruta anterior" );
+        assertEquals( corta, aerolinea.venderTiquetes( "Ana", "2024-11-07", "4558", 1 ), "Los vuelos anteriores siguen usando la ruta anterior" );
+    }
+}
@@ -0,0 +1,223 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.AgregadosTiquetes;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.ContadoresTiquetes;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.tiquetes.AlmacenTiquetesMapeado;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class AgregadosTiquetesTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    /**
+     * Verifica que los contadores de la aerolínea sean consistentes con sus tiquetes, y que los de un vuelo tengan los valores que se obtienen recorriendo sus
+     * tiquetes
+     */
+    private static void assertConsistente( Aerolinea aerolinea, Vuelo vuelo )
+    {
+        assertEquals( new ArrayList<String>( ), aerolinea.getAgregados( ).verificarConsistencia( ), "Los contadores no son consistentes con los tiquetes" );
+
+        long ingresos = 0;
+        long pendiente = 0;
+        for( Tiquete tiquete : vuelo.getTiquetes( ) )
+        {
+            ingresos += tiquete.getTarifa( );
+            if( !tiquete.esUsado( ) )
+                pendiente += tiquete.getTarifa( );
+        }
+        ContadoresTiquetes contadores = aerolinea.getAgregados( ).getContadoresVuelo( vuelo.getId( ) );
+        assertEquals( vuelo.getTiquetes( ).size( ), contadores.getSillasVendidas( ), "La cantidad de sillas vendidas no es correcta" );
+        assertEquals( ingresos, contadores.getIngresos( ), "Los ingresos no son correctos" );
+        assertEquals( pendiente, contadores.getValorPendiente( ), "El valor pendiente no es correcto" );
+    }
+
+    /**
+     * Los contadores se mantienen al vender, usar y cancelar tiquetes y al realizar vuelos
+     */
+    @Test
+    void testMantenerContadores( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-12-24" );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        assertConsistente( aerolinea, vuelo );
+
+        aerolinea.usarTiquetes( "Apple", "2024-11-05", "4558" );
+        assertConsistente( aerolinea, aerolinea.getVuelo( "4558", "2024-11-05" ) );
+
+        Tiquete cancelado = vuelo.getTiquetes( ).stream( ).filter( t -> !t.esUsado( ) ).findFirst( ).get( );
+        long ingresosAntes = aerolinea.getAgregados( ).getTotales( ).getIngresos( );
+        aerolinea.cancelarTiquete( "2024-12-24", "4558", cancelado.getCodigo( ) );
+        assertEquals( ingresosAntes - cancelado.getTarifa( ), aerolinea.getAgregados( ).getTotales( ).getIngresos( ) );
+        assertConsistente( aerolinea, vuelo );
+
+        aerolinea.registrarVueloRealizado( "2024-12-24", "4558" );
+        assertConsistente( aerolinea, vuelo );
+        assertEquals( 0, aerolinea.getAgregados( ).getContadoresVuelo( vuelo.getId( ) ).getValorPendiente( ), "Todos los tiquetes del vuelo se usaron" );
+
+        long ingresosRuta = 0;
+        for( Vuelo otro : aerolinea.getVuelos( ) )
+            ingresosRuta += otro.getTiquetes( ).stream( ).mapToLong( Tiquete::getTarifa ).sum( );
+        assertEquals( ingresosRuta, aerolinea.getAgregados( ).getContadoresRuta( vuelo.getRuta( ).getId( ) ).getIngresos( ), "Todos los vuelos son de la ruta" );
+    }
+
+    /**
+     * Los tiquetes archivados entran a los contadores cuando se abre el almacén, y su valor deja de estar pendiente cuando se usan en el archivo
+     */
+    @Test
+    void testTiquetesArchivados( ) throws Exception
+    {
+        Aerolinea original = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( original );
+        File archivo = new File( carpetaTemporal, "tiquetes.map" );
+        AlmacenTiquetesMapeado.escribir( archivo.getPath( ), original );
+
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta );
+        Vuelo vuelo = abierta.getVuelo( "4558", "2024-11-05" );
+        assertConsistente( abierta, vuelo );
+        assertEquals( original.getAgregados( ).getTotales( ).getIngresos( ), abierta.getAgregados( ).getTotales( ).getIngresos( ) );
+
+        abierta.usarTiquetes( "Bob", "2024-11-05", "4558" );
+        abierta.venderTiquetes( "Bob", "2024-11-05", "4558", 2 );
+        assertConsistente( abierta, vuelo );
+        abierta.registrarVueloRealizado( "2024-11-05", "4558" );
+        assertConsistente( abierta, vuelo );
+    }
+
+    /**
+     * Las ventas desde varios threads no pierden ninguna suma
+     */
+    @Test
+    void testVentasConcurrentes( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        aerolinea.agregarRuta( new Ruta( AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 ), AerolineaTest.crearAeropuerto( "MIA", 25.795, -80.287 ), "0800",
+                "1200", "900" ) );
+        aerolinea.agregarAvion( new Avion( "Grande", 10000 ) );
+        aerolinea.programarVuelo( "2024-03-10", "900", "Grande" );
+        aerolinea.agregarCliente( new ClienteNatural( "Ana" ) );
+        aerolinea.agregarCliente( new ClienteCorporativo( "Acme", ClienteCorporativo.GRANDE ) );
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<Integer>> ventas = new ArrayList<Future<Integer>>( );
+            for( int venta = 0; venta < 400; venta++ )
+            {
+                String cliente = venta % 2 == 0 ? "Acme" : "Ana";
+                ventas.add( ejecutor.submit( ( ) -> aerolinea.venderTiquetes( cliente, "2024-03-10", "900", 20 ) ) );
+            }
+            long esperado = 0;
+            for( Future<Integer> venta : ventas )
+                esperado += venta.get( );
+
+            AgregadosTiquetes agregados = aerolinea.getAgregados( );
+            assertEquals( 8000, agregados.getTotales( ).getSillasVendidas( ) );
+            assertEquals( esperado, agregados.getTotales( ).getIngresos( ) );
+            assertEquals( 4000, agregados.getContadoresTipoCliente( ClienteNatural.NATURAL ).getSillasVendidas( ) );
+            assertConsistente( aerolinea, aerolinea.getVuelo( "900", "2024-03-10" ) );
+        }
+        finally
+        {
+            ejecutor.shutdown( );
+        }
+    }
+
+    /**
+     * Los tiquetes que se usan mientras otros threads todavía los están vendiendo no quedan contados como pendientes
+     */
+    @Test
+    void testUsarMientrasSeVende( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        aerolinea.agregarRuta( new Ruta( AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 ), AerolineaTest.crearAeropuerto( "MIA", 25.795, -80.287 ), "0800",
+                "1200", "900" ) );
+        aerolinea.agregarAvion( new Avion( "Grande", 10000 ) );
+        aerolinea.programarVuelo( "2024-03-10", "900", "Grande" );
+        aerolinea.agregarCliente( new ClienteNatural( "Ana" ) );
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<?>> tareas = new ArrayList<Future<?>>( );
+            for( int venta = 0; venta < 200; venta++ )
+            {
+                tareas.add( ejecutor.submit( ( ) -> aerolinea.venderTiquetes( "Ana", "2024-03-10", "900", 10 ) ) );
+                if( venta % 10 == 0 )
+                    tareas.add( ejecutor.submit( ( ) -> {
+                        aerolinea.usarTiquetes( "Ana", "2024-03-10", "900" );
+                        return null;
+                    } ) );
+            }
+            for( Future<?> tarea : tareas )
+                tarea.get( );
+
+            assertConsistente( aerolinea, aerolinea.getVuelo( "900", "2024-03-10" ) );
+            assertEquals( aerolinea.getCliente( "Ana" ).getValorPendiente( ), aerolinea.getAgregados( ).getTotales( ).getValorPendiente( ) );
+        }
+        finally
+        {
+            ejecutor.shutdown( );
+        }
+    }
+
+    /**
+     * Si la tarifa de un tiquete cambia después de venderlo, la verificación reporta la diferencia en el vuelo, la ruta, el tipo de cliente y la aerolínea
+     */
+    @Test
+    void testDetectarDiferencias( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-12-24" );
+        Cliente cliente = new ClienteNatural( "Eva" );
+        aerolinea.agregarCliente( cliente );
+        TiqueteAjustable tiquete = new TiqueteAjustable( vuelo, cliente );
+        vuelo.agregarTiquete( tiquete );
+        assertTrue( aerolinea.getAgregados( ).verificarConsistencia( ).isEmpty( ) );
+
+        tiquete.tarifa = 150;
+        List<String> diferencias = aerolinea.getAgregados( ).verificarConsistencia( );
+        assertFalse( diferencias.isEmpty( ) );
+        assertTrue( diferencias.contains( "Aerolínea: ingresos es 100 en los contadores y 150 en los tiquetes" ), diferencias.toString( ) );
+        assertEquals( 8, diferencias.size( ), "Cambian los ingresos y el valor pendiente de cuatro grupos" );
+    }
+
+    private static class TiqueteAjustable extends Tiquete
+    {
+        private int tarifa = 100;
+
+        TiqueteAjustable( Vuelo vuelo, Cliente cliente )
+        {
+            super( "9999999", vuelo, cliente, 100 );
+        }
+
+        @Override
+        public int getTarifa( )
+        {
+            return tarifa;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesMapeados;
+import uniandes.dpoo.aerolinea.tiquetes.AlmacenTiquetesMapeado;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class AlmacenTiquetesMapeadoTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    private Aerolinea original;
+    private File archivo;
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        original = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( original );
+        archivo = new File( carpetaTemporal, "tiquetes.map" );
+        AlmacenTiquetesMapeado.escribir( archivo.getPath( ), original );
+    }
+
+    @Test
+    void testAbrir( ) throws Exception
+    {
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado almacen = AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta );
+
+        assertEquals( 6, almacen.getCantidadTiquetes( ), "La cantidad de tiquetes del archivo no es correcta" );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( original, abierta );
+        for( Vuelo vuelo : original.getVuelos( ) )
+        {
+            Vuelo vueloAbierto = abierta.getVuelo( vuelo.getRuta( ).getCodigoRuta( ), vuelo.getFecha( ) );
+            assertEquals( vuelo.getCuposDisponibles( ), vueloAbierto.getCuposDisponibles( ), "Los tiquetes archivados deben ocupar cupos" );
+        }
+    }
+
+    /**
+     * Usar un tiquete archivado cambia el archivo: al volverlo a abrir, el tiquete sigue usado y los saldos del cliente lo reflejan
+     */
+    @Test
+    void testUsarTiqueteArchivado( ) throws Exception
+    {
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado almacen = AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta );
+        Vuelo vuelo = abierta.getVuelo( "4558", "2024-11-05" );
+        long pendienteBob = abierta.getCliente( "Bob" ).getValorPendiente( );
+        abierta.getCliente( "Bob" ).usarTiquetes( vuelo );
+        almacen.sincronizar( );
+
+        assertEquals( pendienteBob - 450000, abierta.getCliente( "Bob" ).getValorPendiente( ), "El saldo pendiente debe descontar el tiquete usado" );
+
+        Aerolinea reabierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado.abrir( archivo.getPath( ), reabierta );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( abierta, reabierta );
+        assertEquals( 450000, reabierta.getCliente( "Bob" ).getValorUsado( ), "El uso del tiquete debe quedar en el archivo" );
+    }
+
+    /**
+     * Al realizar un vuelo también se usan sus tiquetes archivados
+     */
+    @Test
+    void testRealizarVueloConTiquetesArchivados( ) throws Exception
+    {
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta );
+        Vuelo vuelo = abierta.getVuelo( "4558", "2024-11-05" );
+        abierta.venderTiquetes( "Bob", "2024-11-05", "4558", 1 );
+        int cantidad = vuelo.getTiquetes( ).size( );
+        int sinUsar = ( int )vuelo.getTiquetes( ).stream( ).filter( t -> !t.esUsado( ) ).count( );
+
+        assertEquals( sinUsar, abierta.registrarVueloRealizado( "2024-11-05", "4558" ) );
+        assertEquals( cantidad, vuelo.getTiquetes( ).size( ) );
+        for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            assertTrue( tiquete.esUsado( ) );
+    }
+
+    /**
+     * Se pueden vender tiquetes en un vuelo con tiquetes archivados, y volver a escribir el archivo mientras está abierto
+     */
+    @Test
+    void testVenderYReescribir( ) throws Exception
+    {
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        CentralPersistencia.getPersistenciaTiquetes( CentralPersistencia.MAPPED ).cargarTiquetes( archivo.getPath( ), abierta );
+        abierta.venderTiquetes( "Boeing", "2024-11-05", "4558", 2 );
+        assertEquals( 8, abierta.getTiquetes( ).size( ), "Los tiquetes vendidos deben sumarse a los archivados" );
+
+        new PersistenciaTiquetesMapeados( ).salvarTiquetes( archivo.getPath( ), abierta );
+
+        Aerolinea reabierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado.abrir( archivo.getPath( ), reabierta );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( abierta, reabierta );
+        assertTrue( reabierta.getCliente( "Boeing" ).getValorPendiente( ) > 0, "El cliente debe tener el saldo de los tiquetes vendidos" );
+    }
+
+    @Test
+    void testArchivoInvalido( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        assertThrows( InformacionInconsistenteException.class, ( ) -> AlmacenTiquetesMapeado.abrir( "./datos/tiquetes.json", aerolinea ),
+                "Un archivo JSON no es un archivo de tiquetes mapeado" );
+    }
+
+    /**
+     * Si el archivo no se puede asociar con la aerolínea, la aerolínea no cambia
+     */
+    @Test
+    void testAbrirSinCupo( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        aerolinea.registrarVueloRealizado( "2024-11-05", "4558" );
+        assertThrows( InformacionInconsistenteException.class, ( ) -> AlmacenTiquetesMapeado.abrir( archivo.getPath( ), aerolinea ),
+                "El vuelo realizado no tiene cupo para los tiquetes archivados" );
+        assertTrue( aerolinea.getClientes( ).isEmpty( ), "No se deben agregar los clientes del archivo" );
+        assertEquals( 0, aerolinea.getVuelo( "4558", "2024-12-24" ).getTiquetes( ).size( ), "No se deben asociar tiquetes a los otros vuelos" );
+
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta );
+        long pendiente = abierta.getCliente( "Apple" ).getValorPendiente( );
+        assertThrows( InformacionInconsistenteException.class, ( ) -> AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta ),
+                "Los vuelos ya tienen tiquetes archivados" );
+        assertEquals( pendiente, abierta.getCliente( "Apple" ).getValorPendiente( ), "Los saldos del archivo no se deben sumar otra vez" );
+    }
+
+    /**
+     * Un registro que hace referencia a un cliente que no está en el archivo es un error de formato
+     */
+    @Test
+    void testRegistroInvalido( ) throws Exception
+    {
+        try( RandomAccessFile acceso = new RandomAccessFile( archivo, "rw" ) )
+        {
+            // El cliente está en la posición 12 de cada registro de 24 bytes
+            acceso.seek( acceso.length( ) - 24 + 12 );
+            acceso.writeInt( 1000 );
+        }
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        assertThrows( InformacionInconsistenteException.class, ( ) -> AlmacenTiquetesMapeado.abrir( archivo.getPath( ), aerolinea ) );
+        assertTrue( aerolinea.getClientes( ).isEmpty( ) );
+    }
+}
@@ -0,0 +1,268 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.persistencia.BitacoraOperaciones;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaAerolineaJson;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesIncremental;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class BitacoraOperacionesTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    private Aerolinea aerolinea;
+    private String archivoBitacora;
+    private File salvadaInicial;
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        archivoBitacora = new File( carpetaTemporal, "bitacora" ).getPath( );
+        salvadaInicial = new File( carpetaTemporal, "tiquetes-inicial.json" );
+        new PersistenciaTiquetesJson( ).salvarTiquetes( salvadaInicial.getPath( ), aerolinea );
+    }
+
+    /**
+     * Carga la salvada que se hizo antes de registrar operaciones en la bitácora
+     */
+    private Aerolinea crearSalvadaInicial( ) throws Exception
+    {
+        Aerolinea recuperada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        new PersistenciaTiquetesJson( ).cargarTiquetes( salvadaInicial.getPath( ), recuperada );
+        return recuperada;
+    }
+
+    /**
+     * Registra algunas operaciones de cada tipo sobre la aerolínea
+     */
+    private void registrarOperaciones( BitacoraOperaciones bitacora ) throws Exception
+    {
+        aerolinea.setBitacora( bitacora );
+        aerolinea.programarVuelo( "2025-01-15", "4558", "Boeing 737" );
+        aerolinea.venderTiquetes( "Bob", "2025-01-15", "4558", 2 );
+        aerolinea.venderTiquetes( "Boeing", "2024-11-05", "4558", 1 );
+        aerolinea.usarTiquetes( "Bob", "2025-01-15", "4558" );
+        aerolinea.registrarVueloRealizado( "2025-01-15", "4558" );
+        aerolinea.setBitacora( null );
+    }
+
+    @Test
+    void testReproducir( ) throws Exception
+    {
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, true ) )
+        {
+            registrarOperaciones( bitacora );
+            assertEquals( 5, bitacora.getOperacionesRegistradas( ), "Se deben haber registrado todas las operaciones" );
+        }
+
+        Aerolinea recuperada = crearSalvadaInicial( );
+        assertEquals( 5, BitacoraOperaciones.reproducir( archivoBitacora, recuperada ), "Se deben haber leído todas las operaciones" );
+        assertNotNull( recuperada.getVuelo( "4558", "2025-01-15" ), "El vuelo programado se debe haber recuperado" );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, recuperada );
+        assertEquals( aerolinea.getCliente( "Bob" ).getValorUsado( ), recuperada.getCliente( "Bob" ).getValorUsado( ), "El uso de los tiquetes se debe recuperar" );
+    }
+
+    /**
+     * Reproducir la bitácora sobre una salvada que ya incluye sus operaciones no cambia nada
+     */
+    @Test
+    void testReproducirEsIdempotente( ) throws Exception
+    {
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false ) )
+        {
+            registrarOperaciones( bitacora );
+        }
+
+        Aerolinea recuperada = crearSalvadaInicial( );
+        BitacoraOperaciones.reproducir( archivoBitacora, recuperada );
+        BitacoraOperaciones.reproducir( archivoBitacora, recuperada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, recuperada );
+        assertEquals( aerolinea.getCliente( "Bob" ).getValorPendiente( ), recuperada.getCliente( "Bob" ).getValorPendiente( ) );
+    }
+
+    /**
+     * Los tiquetes cancelados no reaparecen al reproducir la bitácora, aunque la venta también esté en ella
+     */
+    @Test
+    void testReproducirCancelacion( ) throws Exception
+    {
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false ) )
+        {
+            aerolinea.setBitacora( bitacora );
+            aerolinea.venderTiquetes( "Boeing", "2024-11-05", "4558", 3 );
+            Tiquete cancelado = aerolinea.getVuelo( "4558", "2024-11-05" ).getTiquetes( ).stream( )
+                    .filter( t -> t.getCliente( ).getIdentificador( ).equals( "Boeing" ) ).findFirst( ).get( );
+            aerolinea.cancelarTiquete( "2024-11-05", "4558", cancelado.getCodigo( ) );
+            aerolinea.setBitacora( null );
+        }
+
+        Aerolinea recuperada = crearSalvadaInicial( );
+        assertEquals( 2, BitacoraOperaciones.reproducir( archivoBitacora, recuperada ) );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, recuperada );
+        BitacoraOperaciones.reproducir( archivoBitacora, recuperada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, recuperada );
+        assertEquals( aerolinea.getCliente( "Boeing" ).getValorPendiente( ), recuperada.getCliente( "Boeing" ).getValorPendiente( ) );
+    }
+
+    /**
+     * Una cancelación reproducida sobre una salvada incremental no reaparece después de la siguiente salvada incremental
+     */
+    @Test
+    void testReproducirCancelacionIncremental( ) throws Exception
+    {
+        File archivoTiquetes = new File( carpetaTemporal, "tiquetes.json" );
+        PersistenciaTiquetesIncremental incremental = new PersistenciaTiquetesIncremental( );
+        incremental.salvarTiquetes( archivoTiquetes.getPath( ), aerolinea );
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false ) )
+        {
+            aerolinea.setBitacora( bitacora );
+            Tiquete cancelado = aerolinea.getVuelo( "4558", "2024-11-05" ).getTiquetes( ).stream( ).filter( t -> !t.esUsado( ) ).findFirst( ).get( );
+            aerolinea.cancelarTiquete( "2024-11-05", "4558", cancelado.getCodigo( ) );
+            aerolinea.setBitacora( null );
+        }
+
+        Aerolinea recuperada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        incremental.cargarTiquetes( archivoTiquetes.getPath( ), recuperada );
+        BitacoraOperaciones.reproducir( archivoBitacora, recuperada );
+        assertEquals( 0, recuperada.getGeneracionTiquetes( ), "La cancelación no se puede salvar en un delta" );
+        incremental.salvarTiquetes( archivoTiquetes.getPath( ), recuperada );
+
+        Aerolinea cargada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        incremental.cargarTiquetes( archivoTiquetes.getPath( ), cargada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, cargada );
+    }
+
+    /**
+     * Al reproducir el uso de unos tiquetes sólo se usan esos tiquetes, y no los que el cliente compró después para el mismo vuelo
+     */
+    @Test
+    void testReproducirUsoAntesDeOtraVenta( ) throws Exception
+    {
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false ) )
+        {
+            aerolinea.setBitacora( bitacora );
+            aerolinea.venderTiquetes( "Bob", "2024-12-24", "4558", 2 );
+            aerolinea.usarTiquetes( "Bob", "2024-12-24", "4558" );
+            aerolinea.venderTiquetes( "Bob", "2024-12-24", "4558", 3 );
+            aerolinea.setBitacora( null );
+        }
+
+        Aerolinea recuperada = crearSalvadaInicial( );
+        BitacoraOperaciones.reproducir( archivoBitacora, recuperada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, recuperada );
+        assertEquals( aerolinea.getCliente( "Bob" ).getValorPendiente( ), recuperada.getCliente( "Bob" ).getValorPendiente( ),
+                "Los tiquetes comprados después del uso siguen pendientes" );
+        assertEquals( aerolinea.getCliente( "Bob" ).getValorUsado( ), recuperada.getCliente( "Bob" ).getValorUsado( ) );
+    }
+
+    /**
+     * Si la aplicación termina mientras se escribe una operación, se recuperan las operaciones anteriores
+     */
+    @Test
+    void testOperacionIncompleta( ) throws Exception
+    {
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false ) )
+        {
+            aerolinea.setBitacora( bitacora );
+            aerolinea.venderTiquetes( "Bob", "2024-11-05", "4558", 1 );
+            aerolinea.venderTiquetes( "Alice", "2024-12-24", "4558", 3 );
+        }
+
+        File segmento = new File( archivoBitacora + ".1" );
+        try( RandomAccessFile archivo = new RandomAccessFile( segmento, "rw" ) )
+        {
+            archivo.setLength( archivo.length( ) - 5 );
+        }
+
+        Aerolinea recuperada = crearSalvadaInicial( );
+        assertEquals( 1, BitacoraOperaciones.reproducir( archivoBitacora, recuperada ), "Sólo la primera venta está completa" );
+        assertEquals( aerolinea.getTiquetes( ).size( ) - 3, recuperada.getTiquetes( ).size( ) );
+    }
+
+    /**
+     * Al compactar se salva la aerolínea y se borran los segmentos anteriores; las operaciones posteriores quedan en un segmento nuevo
+     */
+    @Test
+    void testCompactar( ) throws Exception
+    {
+        File archivoAerolinea = new File( carpetaTemporal, "aerolinea.json" );
+        File archivoTiquetes = new File( carpetaTemporal, "tiquetes.json" );
+        try( BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false ) )
+        {
+            registrarOperaciones( bitacora );
+            bitacora.compactar( aerolinea, archivoAerolinea.getPath( ), archivoTiquetes.getPath( ) ).get( 30, TimeUnit.SECONDS );
+            assertTrue( !new File( archivoBitacora + ".1" ).exists( ), "El segmento anterior se debe haber borrado" );
+
+            aerolinea.setBitacora( bitacora );
+            aerolinea.venderTiquetes( "Alice", "2024-11-05", "4558", 2 );
+            aerolinea.setBitacora( null );
+        }
+
+        Aerolinea recuperada = new Aerolinea( );
+        new PersistenciaAerolineaJson( ).cargarAerolinea( archivoAerolinea.getPath( ), recuperada );
+        new PersistenciaTiquetesJson( ).cargarTiquetes( archivoTiquetes.getPath( ), recuperada );
+        assertEquals( 2, BitacoraOperaciones.reproducir( archivoBitacora, recuperada ),
+                "Sólo el vuelo realizado y la venta posterior a la compactación están en la bitácora" );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, recuperada );
+        Vuelo realizado = recuperada.getVuelo( "4558", "2025-01-15" );
+        assertTrue( realizado.estaRealizado( ), "El vuelo realizado se debe conservar después de compactar" );
+        assertEquals( 0, realizado.getCuposDisponibles( ) );
+        assertThrows( VueloSobrevendidoException.class, ( ) -> recuperada.venderTiquetes( "Alice", "2025-01-15", "4558", 1 ) );
+    }
+
+    @Test
+    void testBitacoraCerrada( ) throws Exception
+    {
+        BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false );
+        bitacora.close( );
+        assertThrows( IOException.class, ( ) -> bitacora.registrarVueloRealizado( "2024-11-05", "4558" ), "No se pueden registrar operaciones en una bitácora cerrada" );
+    }
+
+    /**
+     * Si la bitácora está cerrada, las operaciones de la aerolínea fallan sin modificarla
+     */
+    @Test
+    void testOperacionesConBitacoraCerrada( ) throws Exception
+    {
+        BitacoraOperaciones bitacora = new BitacoraOperaciones( archivoBitacora, false );
+        bitacora.close( );
+        aerolinea.setBitacora( bitacora );
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-11-05" );
+        int tiquetes = vuelo.getTiquetes( ).size( );
+        int cupos = vuelo.getCuposDisponibles( );
+        long pendienteBob = aerolinea.getCliente( "Bob" ).getValorPendiente( );
+        long ingresos = aerolinea.getAgregados( ).getTotales( ).getIngresos( );
+
+        assertThrows( IOException.class, ( ) -> aerolinea.venderTiquetes( "Bob", "2024-11-05", "4558", 2 ) );
+        assertThrows( IOException.class, ( ) -> aerolinea.usarTiquetes( "Bob", "2024-11-05", "4558" ) );
+        assertThrows( IOException.class, ( ) -> aerolinea.registrarVueloRealizado( "2024-11-05", "4558" ) );
+        assertThrows( IOException.class, ( ) -> aerolinea.programarVuelo( "2025-01-15", "4558", "Boeing 737" ) );
+
+        assertEquals( tiquetes, vuelo.getTiquetes( ).size( ), "No se debe haber vendido ningún tiquete" );
+        assertEquals( cupos, vuelo.getCuposDisponibles( ) );
+        assertEquals( pendienteBob, aerolinea.getCliente( "Bob" ).getValorPendiente( ), "No se deben haber usado los tiquetes" );
+        assertEquals( ingresos, aerolinea.getAgregados( ).getTotales( ).getIngresos( ) );
+        assertTrue( !vuelo.estaRealizado( ), "El vuelo no se debe haber realizado" );
+        assertEquals( null, aerolinea.getVuelo( "4558", "2025-01-15" ), "El vuelo no se debe haber programado" );
+    }
+}
@@ -0,0 +1,43 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalendarioTemporadas;
+
+class CalendarioTemporadasTest
+{
+    @Test
+    void testCalendarioPorDefecto( )
+    {
+        CalendarioTemporadas calendario = CalendarioTemporadas.crearCalendarioPorDefecto( );
+        assertTrue( calendario.esTemporadaAlta( LocalDate.parse( "2024-06-01" ) ), "Junio es temporada alta" );
+        assertTrue( calendario.esTemporadaAlta( LocalDate.parse( "2024-07-31" ) ), "Julio es temporada alta" );
+        assertTrue( calendario.esTemporadaAlta( LocalDate.parse( "2024-12-24" ) ), "Diciembre es temporada alta" );
+        assertFalse( calendario.esTemporadaAlta( LocalDate.parse( "2024-05-31" ) ), "Mayo es temporada baja" );
+        assertFalse( calendario.esTemporadaAlta( LocalDate.parse( "2024-11-05" ) ), "Noviembre es temporada baja" );
+        assertFalse( calendario.esTemporadaAlta( LocalDate.parse( "2025-01-01" ) ), "Enero es temporada baja" );
+    }
+
+    @Test
+    void testTemporadaQueCruzaElAno( )
+    {
+        CalendarioTemporadas calendario = new CalendarioTemporadas( );
+        calendario.agregarTemporadaAlta( MonthDay.of( 12, 15 ), MonthDay.of( 1, 15 ) );
+        calendario.agregarTemporadaAlta( MonthDay.of( 2, 29 ), MonthDay.of( 2, 29 ) );
+
+        assertTrue( calendario.esTemporadaAlta( 12, 15 ), "El primer día del rango es temporada alta" );
+        assertTrue( calendario.esTemporadaAlta( 12, 31 ), "El último día del año está dentro del rango" );
+        assertTrue( calendario.esTemporadaAlta( 1, 1 ), "El primer día del año está dentro del rango" );
+        assertTrue( calendario.esTemporadaAlta( 1, 15 ), "El último día del rango es temporada alta" );
+        assertFalse( calendario.esTemporadaAlta( 1, 16 ), "El día siguiente al rango es temporada baja" );
+        assertFalse( calendario.esTemporadaAlta( 12, 14 ), "El día anterior al rango es temporada baja" );
+        assertTrue( calendario.esTemporadaAlta( LocalDate.parse( "2024-02-29" ) ), "El 29 de febrero se puede configurar" );
+        assertFalse( calendario.esTemporadaAlta( 3, 1 ), "El 1 de marzo es temporada baja" );
+    }
+}
@@ -0,0 +1,75 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class ClienteTest
+{
+    private Aerolinea aerolinea;
+    private ClienteNatural cliente;
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = new Aerolinea( );
+        Aeropuerto bog = AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 );
+        Aeropuerto mde = AerolineaTest.crearAeropuerto( "MDE", 6.164, -75.423 );
+        aerolinea.agregarRuta( new Ruta( bog, mde, "1000", "1130", "4558" ) );
+        aerolinea.agregarAvion( new Avion( "Boeing 737", 150 ) );
+        aerolinea.programarVuelo( "2024-11-05", "4558", "Boeing 737" );
+        aerolinea.programarVuelo( "2024-11-06", "4558", "Boeing 737" );
+
+        cliente = new ClienteNatural( "Alice" );
+        aerolinea.agregarCliente( cliente );
+    }
+
+    @AfterEach
+    void tearDown( )
+    {
+        aerolinea = null;
+        cliente = null;
+    }
+
+    @Test
+    void testSaldoPendiente( ) throws Exception
+    {
+        assertEquals( "0", aerolinea.consultarSaldoPendienteCliente( "Alice" ), "Un cliente sin tiquetes no debe tener saldo pendiente" );
+
+        int valor1 = aerolinea.venderTiquetes( "Alice", "2024-11-05", "4558", 2 );
+        int valor2 = aerolinea.venderTiquetes( "Alice", "2024-11-06", "4558", 1 );
+
+        assertEquals( String.valueOf( valor1 + valor2 ), aerolinea.consultarSaldoPendienteCliente( "Alice" ), "El saldo pendiente no corresponde a los tiquetes vendidos" );
+        assertEquals( valor1 + valor2, cliente.calcularValorTotalTiquetes( ), "El valor total de los tiquetes no es correcto" );
+        assertEquals( "0", aerolinea.consultarSaldoPendienteCliente( "Bob" ), "Un cliente que no existe no tiene saldo pendiente" );
+    }
+
+    @Test
+    void testUsarTiquetes( ) throws Exception
+    {
+        int valor1 = aerolinea.venderTiquetes( "Alice", "2024-11-05", "4558", 2 );
+        int valor2 = aerolinea.venderTiquetes( "Alice", "2024-11-06", "4558", 1 );
+
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-11-05" );
+        cliente.usarTiquetes( vuelo );
+
+        assertEquals( valor2, cliente.getValorPendiente( ), "El saldo pendiente debe descontar los tiquetes usados" );
+        assertEquals( valor1, cliente.getValorUsado( ), "El valor usado no corresponde a los tiquetes usados" );
+
+        // Usar un tiquete dos veces no cambia los saldos
+        Tiquete usado = vuelo.getTiquetes( ).iterator( ).next( );
+        usado.marcarComoUsado( );
+        assertEquals( valor2, cliente.getValorPendiente( ), "Marcar dos veces un tiquete no debe cambiar el saldo" );
+        assertEquals( valor1 + valor2, cliente.calcularValorTotalTiquetes( ), "El valor total de los tiquetes no es correcto" );
+    }
+}
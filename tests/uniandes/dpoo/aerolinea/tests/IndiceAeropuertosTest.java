@@ -0,0 +1,102 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.IndiceAeropuertos;
+
+class IndiceAeropuertosTest
+{
+    private static double distancia( Aeropuerto aeropuerto, double latitud, double longitud )
+    {
+        return IndiceAeropuertos.calcularDistancia( latitud, longitud, aeropuerto.getLatitud( ), aeropuerto.getLongitud( ) );
+    }
+
+    /**
+     * Crea aeropuertos al azar en todo el planeta, incluyendo algunos cerca de los polos y del meridiano 180
+     */
+    private static List<Aeropuerto> crearAeropuertos( Random azar, int cantidad )
+    {
+        List<Aeropuerto> aeropuertos = new ArrayList<Aeropuerto>( );
+        for( int i = 0; i < cantidad; i++ )
+        {
+            double latitud = i % 10 == 0 ? 85 + azar.nextDouble( ) * 5 : -90 + azar.nextDouble( ) * 180;
+            double longitud = i % 10 == 1 ? 179 + azar.nextDouble( ) * 2 - 360 * azar.nextInt( 2 ) : -180 + azar.nextDouble( ) * 360;
+            aeropuertos.add( new Aeropuerto( "Aeropuerto " + i, "A" + i, "Ciudad " + i, latitud, Math.max( -180, Math.min( 180, longitud ) ) ) );
+        }
+        return aeropuertos;
+    }
+
+    /**
+     * Los resultados del índice deben coincidir con los de comparar el punto con todos los aeropuertos
+     */
+    @Test
+    void testIgualQueFuerzaBruta( )
+    {
+        Random azar = new Random( 2026 );
+        List<Aeropuerto> aeropuertos = crearAeropuertos( azar, 3000 );
+        IndiceAeropuertos indice = new IndiceAeropuertos( aeropuertos );
+        assertEquals( 3000, indice.getCantidadAeropuertos( ) );
+
+        for( int consulta = 0; consulta < 200; consulta++ )
+        {
+            double latitud = -90 + azar.nextDouble( ) * 180;
+            double longitud = consulta % 4 == 0 ? 179.5 : -180 + azar.nextDouble( ) * 360;
+            double[] distancias = new double[aeropuertos.size( )];
+            for( int i = 0; i < distancias.length; i++ )
+                distancias[ i ] = distancia( aeropuertos.get( i ), latitud, longitud );
+            Arrays.sort( distancias );
+
+            List<Aeropuerto> cercanos = indice.buscarMasCercanos( latitud, longitud, 7 );
+            assertEquals( 7, cercanos.size( ) );
+            for( int i = 0; i < cercanos.size( ); i++ )
+                assertEquals( distancias[ i ], distancia( cercanos.get( i ), latitud, longitud ), 1e-6, "El vecino " + i + " no es correcto" );
+
+            double radio = 100 + azar.nextDouble( ) * 900;
+            Set<String> esperados = new HashSet<String>( );
+            for( Aeropuerto aeropuerto : aeropuertos )
+            {
+                if( distancia( aeropuerto, latitud, longitud ) <= radio )
+                    esperados.add( aeropuerto.getCodigo( ) );
+            }
+            Set<String> obtenidos = new HashSet<String>( );
+            double anterior = 0;
+            for( Aeropuerto aeropuerto : indice.buscarDentroDeRadio( latitud, longitud, radio ) )
+            {
+                obtenidos.add( aeropuerto.getCodigo( ) );
+                assertTrue( distancia( aeropuerto, latitud, longitud ) >= anterior, "Los aeropuertos deben quedar ordenados por distancia" );
+                anterior = distancia( aeropuerto, latitud, longitud );
+            }
+            assertEquals( esperados, obtenidos );
+        }
+    }
+
+    /**
+     * Dos aeropuertos a lados distintos del meridiano 180 están cerca
+     */
+    @Test
+    void testMeridiano180( )
+    {
+        Aeropuerto fiji = new Aeropuerto( "Este", "E", "Este", -17, 179.9 );
+        Aeropuerto samoa = new Aeropuerto( "Oeste", "O", "Oeste", -17, -179.9 );
+        Aeropuerto lejos = new Aeropuerto( "Lejos", "L", "Lejos", -17, 0 );
+        IndiceAeropuertos indice = new IndiceAeropuertos( Arrays.asList( fiji, samoa, lejos ) );
+
+        List<Aeropuerto> alternos = indice.buscarAlternos( fiji, 150 );
+        assertEquals( 1, alternos.size( ) );
+        assertEquals( "O", alternos.get( 0 ).getCodigo( ) );
+        assertEquals( "O", indice.buscarMasCercanos( -17, -179.95, 1 ).get( 0 ).getCodigo( ) );
+        assertEquals( 3, indice.buscarMasCercanos( 0, 0, 10 ).size( ), "No hay más aeropuertos que los del índice" );
+        assertEquals( 3, indice.buscarDentroDeRadio( 0, 0, 30000 ).size( ), "Un radio mayor que media vuelta al mundo incluye a todos" );
+    }
+}
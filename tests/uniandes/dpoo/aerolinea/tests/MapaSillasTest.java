@@ -0,0 +1,106 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.MapaSillas;
+
+class MapaSillasTest
+{
+    @Test
+    void testAsignarContiguas( )
+    {
+        MapaSillas mapa = new MapaSillas( 200 );
+        assertArrayEquals( new int[]{ 0, 1, 2 }, mapa.asignarSillas( 3 ) );
+        assertEquals( 3, mapa.asignarSilla( ) );
+        mapa.liberarSilla( 1 );
+        assertEquals( 4, mapa.buscarSillasContiguas( 2 ), "El hueco de la silla 1 no alcanza para dos sillas" );
+        assertEquals( 1, mapa.buscarSillasContiguas( 1 ) );
+
+        // Bloque que cruza de una palabra del mapa a la siguiente
+        mapa.asignarSillas( 55 );
+        assertEquals( 59, mapa.buscarSillasContiguas( 10 ) );
+        assertArrayEquals( new int[]{ 59, 60, 61, 62, 63, 64, 65, 66, 67, 68 }, mapa.asignarSillas( 10 ) );
+        assertEquals( 200 - 3 - 1 + 1 - 55 - 10, mapa.getSillasLibres( ) );
+    }
+
+    /**
+     * Si no hay un bloque libre del tamaño pedido se ocupan las primeras sillas libres, y si no hay suficientes sillas libres no se ocupa ninguna
+     */
+    @Test
+    void testSinBloqueContiguo( )
+    {
+        MapaSillas mapa = new MapaSillas( 10 );
+        mapa.asignarSillas( 10 );
+        mapa.liberarSilla( 2 );
+        mapa.liberarSilla( 5 );
+        mapa.liberarSilla( 9 );
+        assertEquals( -1, mapa.buscarSillasContiguas( 2 ) );
+        assertNull( mapa.asignarSillas( 4 ) );
+        assertEquals( 3, mapa.getSillasLibres( ) );
+        assertArrayEquals( new int[]{ 2, 5 }, mapa.asignarSillas( 2 ) );
+        assertEquals( 9, mapa.asignarSilla( ) );
+        assertEquals( -1, mapa.asignarSilla( ) );
+        assertThrows( IllegalStateException.class, ( ) -> new MapaSillas( 10 ).liberarSilla( 3 ), "La silla no estaba ocupada" );
+        assertThrows( IndexOutOfBoundsException.class, ( ) -> mapa.estaOcupada( 10 ) );
+    }
+
+    /**
+     * Los resultados deben coincidir con los de un BitSet recorrido silla por silla
+     */
+    @Test
+    void testIgualQueBitSet( )
+    {
+        Random azar = new Random( 2026 );
+        int capacidad = 853;
+        MapaSillas mapa = new MapaSillas( capacidad );
+        BitSet esperado = new BitSet( capacidad );
+        for( int paso = 0; paso < 5000; paso++ )
+        {
+            int cantidad = 1 + azar.nextInt( 12 );
+            if( azar.nextInt( 3 ) > 0 )
+            {
+                int inicio = -1;
+                for( int i = 0; i + cantidad <= capacidad && inicio < 0; i++ )
+                {
+                    if( esperado.nextSetBit( i ) < 0 || esperado.nextSetBit( i ) >= i + cantidad )
+                        inicio = i;
+                }
+                assertEquals( inicio, mapa.buscarSillasContiguas( cantidad ) );
+                if( inicio >= 0 )
+                {
+                    mapa.asignarSillas( cantidad );
+                    esperado.set( inicio, inicio + cantidad );
+                }
+            }
+            else
+            {
+                for( int i = 0; i < cantidad && !esperado.isEmpty( ); i++ )
+                {
+                    int silla = esperado.nextSetBit( azar.nextInt( capacidad ) );
+                    if( silla < 0 )
+                        silla = esperado.nextSetBit( 0 );
+                    esperado.clear( silla );
+                    mapa.liberarSilla( silla );
+                }
+            }
+            assertEquals( capacidad - esperado.cardinality( ), mapa.getSillasLibres( ) );
+        }
+        for( int silla = 0; silla < capacidad; silla++ )
+        {
+            if( esperado.get( silla ) )
+                assertTrue( mapa.estaOcupada( silla ) );
+            else
+                assertFalse( mapa.estaOcupada( silla ) );
+        }
+    }
+}
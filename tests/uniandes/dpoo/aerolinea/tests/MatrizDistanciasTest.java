@@ -0,0 +1,64 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.MatrizDistancias;
+
+class MatrizDistanciasTest
+{
+    /**
+     * Cada distancia de la matriz debe ser exactamente la que calcula Aeropuerto.calcularDistancia. Con 700 aeropuertos el cálculo se reparte en varias tareas.
+     */
+    @Test
+    void testIgualQueCalculoIndividual( )
+    {
+        Random azar = new Random( 2026 );
+        int n = 700;
+        List<Aeropuerto> aeropuertos = new ArrayList<Aeropuerto>( );
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for( int i = 0; i < n; i++ )
+        {
+            latitudes[ i ] = -90 + azar.nextDouble( ) * 180;
+            longitudes[ i ] = i % 10 == 0 ? 180 - azar.nextDouble( ) : -180 + azar.nextDouble( ) * 360;
+            aeropuertos.add( new Aeropuerto( "Aeropuerto " + i, "A" + i, "Ciudad " + i, latitudes[ i ], longitudes[ i ] ) );
+        }
+
+        int[] distancias = new int[n * n];
+        ForkJoinPool pool = new ForkJoinPool( 4 );
+        try
+        {
+            MatrizDistancias.calcularDistancias( latitudes, longitudes, distancias, pool );
+        }
+        finally
+        {
+            pool.shutdown( );
+        }
+
+        for( int i = 0; i < n; i++ )
+        {
+            for( int j = 0; j < n; j++ )
+                assertEquals( Aeropuerto.calcularDistancia( aeropuertos.get( i ), aeropuertos.get( j ) ), distancias[ i * n + j ], "Distancia de " + i + " a " + j );
+        }
+        assertArrayEquals( distancias, MatrizDistancias.calcularDistancias( aeropuertos ) );
+    }
+
+    @Test
+    void testTamanosInvalidos( )
+    {
+        assertThrows( IllegalArgumentException.class, ( ) -> MatrizDistancias.calcularDistancias( new double[3], new double[2], new int[9] ) );
+        assertThrows( IllegalArgumentException.class, ( ) -> MatrizDistancias.calcularDistancias( new double[3], new double[3], new int[8] ) );
+        assertEquals( 0, MatrizDistancias.calcularDistancias( Arrays.asList( ) ).length );
+    }
+}
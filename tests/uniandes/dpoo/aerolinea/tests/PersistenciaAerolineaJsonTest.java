@@ -0,0 +1,126 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaAerolineaJson;
+
+class PersistenciaAerolineaJsonTest
+{
+    private static final String ARCHIVO_AEROLINEA = "./datos/aerolinea.json";
+
+    @TempDir
+    File carpetaTemporal;
+
+    /**
+     * Crea una aerolínea con dos rutas de ida y vuelta entre los mismos aeropuertos
+     */
+    private static Aerolinea crearAerolinea( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        Ruta ida = aerolinea.getRuta( "4558" );
+        aerolinea.agregarRuta( new Ruta( ida.getDestino( ), ida.getOrigen( ), "1400", "1530", "4559" ) );
+        aerolinea.agregarAvion( new Avion( "Airbus 320", 180 ) );
+        aerolinea.programarVuelo( "2024-11-05", "4559", "Airbus 320" );
+        return aerolinea;
+    }
+
+    /**
+     * Los archivos del formato anterior, con los aeropuertos dentro de cada ruta, se siguen cargando
+     */
+    @Test
+    void testCargarFormatoAnterior( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        new PersistenciaAerolineaJson( ).cargarAerolinea( ARCHIVO_AEROLINEA, aerolinea );
+        Ruta ruta = aerolinea.getRuta( "4558" );
+        assertNotNull( ruta.getOrigen( ), "La ruta debe tener su aeropuerto de origen" );
+        assertSame( aerolinea.getAeropuerto( "BOG" ), ruta.getOrigen( ) );
+        assertSame( aerolinea.getAeropuerto( "MDE" ), ruta.getDestino( ) );
+    }
+
+    /**
+     * Dos aerolíneas cargadas del mismo archivo no interfieren entre sí por tener aeropuertos con los mismos códigos
+     */
+    @Test
+    void testCargarDosVeces( ) throws Exception
+    {
+        Aerolinea primera = new Aerolinea( );
+        new PersistenciaAerolineaJson( ).cargarAerolinea( ARCHIVO_AEROLINEA, primera );
+        Aerolinea segunda = new Aerolinea( );
+        new PersistenciaAerolineaJson( ).cargarAerolinea( ARCHIVO_AEROLINEA, segunda );
+        assertEquals( 2, segunda.getAeropuertos( ).size( ) );
+        assertEquals( primera.getRuta( "4558" ).getDistancia( ), segunda.getRuta( "4558" ).getDistancia( ) );
+    }
+
+    /**
+     * Los aeropuertos se salvan una sola vez en su tabla, y al cargar el archivo las rutas comparten los mismos objetos
+     */
+    @Test
+    void testSalvarYCargar( ) throws Exception
+    {
+        Aerolinea original = crearAerolinea( );
+        File archivo = new File( carpetaTemporal, "aerolinea.json" );
+        new PersistenciaAerolineaJson( ).salvarAerolinea( archivo.getPath( ), original );
+
+        JSONObject json = new JSONObject( new String( Files.readAllBytes( archivo.toPath( ) ), StandardCharsets.UTF_8 ) );
+        assertEquals( 2, json.getJSONArray( "aeropuertos" ).length( ) );
+        JSONObject jRuta = json.getJSONArray( "rutas" ).getJSONObject( 0 );
+        assertEquals( original.getRuta( jRuta.getString( "codigo" ) ).getOrigen( ).getCodigo( ), jRuta.get( "origen" ), "Las rutas sólo deben tener el código" );
+
+        Aerolinea cargada = new Aerolinea( );
+        new PersistenciaAerolineaJson( ).cargarAerolinea( archivo.getPath( ), cargada );
+        assertEquals( 2, cargada.getRutas( ).size( ) );
+        assertEquals( 3, cargada.getVuelos( ).size( ) );
+        assertSame( cargada.getRuta( "4558" ).getOrigen( ), cargada.getRuta( "4559" ).getDestino( ) );
+        for( Aeropuerto aeropuerto : original.getAeropuertos( ) )
+        {
+            Aeropuerto otro = cargada.getAeropuerto( aeropuerto.getCodigo( ) );
+            assertEquals( aeropuerto.getNombre( ), otro.getNombre( ) );
+            assertEquals( aeropuerto.getLatitud( ), otro.getLatitud( ) );
+        }
+    }
+
+    @Test
+    void testAeropuertoInexistente( ) throws Exception
+    {
+        File archivo = new File( carpetaTemporal, "aerolinea.json" );
+        String contenido = "{\"aeropuertos\": [], \"aviones\": [], \"rutas\": [{\"codigo\": \"1\", \"salida\": \"1000\", \"llegada\": \"1100\", \"origen\": \"BOG\", "
+                + "\"destino\": \"MDE\"}], \"vuelos\": []}";
+        Files.write( archivo.toPath( ), contenido.getBytes( StandardCharsets.UTF_8 ) );
+        assertThrows( InformacionInconsistenteException.class, ( ) -> new PersistenciaAerolineaJson( ).cargarAerolinea( archivo.getPath( ), new Aerolinea( ) ) );
+    }
+
+    /**
+     * Un mismo código con información distinta es una inconsistencia, en vez de perder el aeropuerto
+     */
+    @Test
+    void testAeropuertoInconsistente( ) throws Exception
+    {
+        File archivo = new File( carpetaTemporal, "aerolinea.json" );
+        String aeropuerto = "{\"codigo\": \"BOG\", \"nombre\": \"El Dorado\", \"ciudad\": \"Bogotá\", \"latitud\": 4.701, \"longitud\": -74.146}";
+        String otro = "{\"codigo\": \"BOG\", \"nombre\": \"Otro\", \"ciudad\": \"Bogotá\", \"latitud\": 4.701, \"longitud\": -74.146}";
+        String contenido = "{\"aviones\": [], \"rutas\": [{\"codigo\": \"1\", \"salida\": \"1000\", \"llegada\": \"1100\", \"origen\": " + aeropuerto
+                + ", \"destino\": " + otro + "}], \"vuelos\": []}";
+        Files.write( archivo.toPath( ), contenido.getBytes( StandardCharsets.UTF_8 ) );
+        InformacionInconsistenteException e = assertThrows( InformacionInconsistenteException.class,
+                ( ) -> new PersistenciaAerolineaJson( ).cargarAerolinea( archivo.getPath( ), new Aerolinea( ) ) );
+        assertTrue( e.getMessage( ).contains( "BOG" ) );
+    }
+}
@@ -0,0 +1,117 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaAerolineaPlaintext;
+
+class PersistenciaAerolineaPlaintextTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    @Test
+    void testSalvarYCargar( ) throws Exception
+    {
+        PersistenciaTiquetesJsonTest.verificarSalvarYCargar( new PersistenciaAerolineaPlaintext( ), new File( carpetaTemporal, "tiquetes.txt" ) );
+    }
+
+    @Test
+    void testCargarTiqueteExistente( ) throws Exception
+    {
+        PersistenciaTiquetesJsonTest.verificarCargarTiqueteExistente( new PersistenciaAerolineaPlaintext( ), carpetaTemporal, ".txt" );
+    }
+
+    /**
+     * Los tabuladores, saltos de línea y barras invertidas dentro de un campo no deben dañar el formato
+     */
+    @Test
+    void testCaracteresEspeciales( ) throws Exception
+    {
+        String nombre = "Ana\tMaría\\\nde la\r Cruz\\t";
+        Aerolinea original = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        original.agregarCliente( new ClienteNatural( nombre ) );
+        original.venderTiquetes( nombre, "2024-11-05", "4558", 2 );
+
+        File archivo = new File( carpetaTemporal, "tiquetes.txt" );
+        new PersistenciaAerolineaPlaintext( ).salvarTiquetes( archivo.getPath( ), original );
+        List<String> lineas = Files.readAllLines( archivo.toPath( ), StandardCharsets.UTF_8 );
+        assertEquals( 5, lineas.size( ), "Cada registro debe quedar en una sola línea" );
+
+        Aerolinea cargada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        new PersistenciaAerolineaPlaintext( ).cargarTiquetes( archivo.getPath( ), cargada );
+        assertNotNull( cargada.getCliente( nombre ) );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( original, cargada );
+    }
+
+    /**
+     * Una aerolínea escrita a mano se carga, y al salvarla quedan los mismos registros
+     */
+    @Test
+    void testCargarYSalvarAerolinea( ) throws Exception
+    {
+        String[] registros = { "AEROPUERTO\tPTX1\tEl Dorado\tBogotá\t4.701\t-74.146", "AEROPUERTO\tPTX2\tJosé María Córdova\tMedellín\t6.164\t-75.423",
+                "AVION\tBoeing 737\t150", "AVION\tAirbus 320\t180", "RUTA\t7001\t1000\t1130\tPTX1\tPTX2", "RUTA\t7002\t1400\t1530\tPTX2\tPTX1",
+                "VUELO\t2024-11-05\t7001\tBoeing 737", "VUELO\t2024-11-05\t7002\tAirbus 320", "VUELO\t2024-11-07\t7001\tBoeing 737" };
+        File archivo = new File( carpetaTemporal, "aerolinea.txt" );
+        Files.write( archivo.toPath( ), ( "# Aerolínea de prueba\n\n" + String.join( "\r\n", registros ) ).getBytes( StandardCharsets.UTF_8 ) );
+
+        Aerolinea aerolinea = new Aerolinea( );
+        new PersistenciaAerolineaPlaintext( ).cargarAerolinea( archivo.getPath( ), aerolinea );
+        assertEquals( 2, aerolinea.getAviones( ).size( ) );
+        assertEquals( 3, aerolinea.getVuelos( ).size( ) );
+        Ruta ruta = aerolinea.getRuta( "7002" );
+        assertEquals( "Medellín", ruta.getOrigen( ).getNombreCiudad( ) );
+        assertEquals( "PTX1", ruta.getDestino( ).getCodigo( ) );
+
+        File salvado = new File( carpetaTemporal, "salvado.txt" );
+        new PersistenciaAerolineaPlaintext( ).salvarAerolinea( salvado.getPath( ), aerolinea );
+        Set<String> lineas = new HashSet<String>( );
+        for( String linea : Files.readAllLines( salvado.toPath( ), StandardCharsets.UTF_8 ) )
+        {
+            if( !linea.startsWith( "#" ) )
+                lineas.add( linea );
+        }
+        assertEquals( new HashSet<String>( Arrays.asList( registros ) ), lineas );
+    }
+
+    /**
+     * Los errores de formato se reportan con el número de la línea donde está el problema
+     */
+    @Test
+    void testLineaInvalida( ) throws Exception
+    {
+        File archivo = new File( carpetaTemporal, "tiquetes.txt" );
+        Files.write( archivo.toPath( ), "# clientes\nCLIENTE\tNatural\tAna\nTIQUETE\t1\t4558\t2024-11-05\tcien\t0\tAna\n".getBytes( StandardCharsets.UTF_8 ) );
+
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        InformacionInconsistenteException e = assertThrows( InformacionInconsistenteException.class,
+                ( ) -> new PersistenciaAerolineaPlaintext( ).cargarTiquetes( archivo.getPath( ), aerolinea ) );
+        assertTrue( e.getMessage( ).startsWith( "Línea 3" ), e.getMessage( ) );
+    }
+
+    @Test
+    void testCentralPersistencia( ) throws Exception
+    {
+        assertTrue( CentralPersistencia.getPersistenciaAerolinea( CentralPersistencia.PLAIN ) instanceof PersistenciaAerolineaPlaintext );
+        assertTrue( CentralPersistencia.getPersistenciaTiquetes( CentralPersistencia.PLAIN ) instanceof PersistenciaAerolineaPlaintext );
+    }
+}
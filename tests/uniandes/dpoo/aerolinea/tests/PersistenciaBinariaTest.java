@@ -0,0 +1,77 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaBinaria;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+
+class PersistenciaBinariaTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    @Test
+    void testSalvarYCargar( ) throws Exception
+    {
+        PersistenciaTiquetesJsonTest.verificarSalvarYCargar( new PersistenciaBinaria( ), new File( carpetaTemporal, "tiquetes.bin" ) );
+    }
+
+    @Test
+    void testCargarTiqueteExistente( ) throws Exception
+    {
+        PersistenciaTiquetesJsonTest.verificarCargarTiqueteExistente( new PersistenciaBinaria( ), carpetaTemporal, ".bin" );
+    }
+
+    /**
+     * Los tiquetes cargados de un archivo JSON y salvados en formato binario deben quedar iguales, incluyendo los que tienen códigos que no son números
+     */
+    @Test
+    void testEquivalenteJson( ) throws Exception
+    {
+        File archivoJson = new File( carpetaTemporal, "tiquetes.json" );
+        String contenido = "{\"clientes\": [{\"tipoCliente\": \"Natural\", \"nombre\": \"Ana\"}, {\"tipoCliente\": \"Corporativo\", \"nombreEmpresa\": \"Avianca\", \"tamanoEmpresa\": 1}],"
+                + " \"tiquetes\": [{\"codigoRuta\": \"4558\", \"fecha\": \"2024-11-05\", \"codigoTiquete\": \"0077\", \"tarifa\": 100, \"usado\": true, \"cliente\": \"Ana\"},"
+                + " {\"codigoRuta\": \"4558\", \"fecha\": \"2024-12-24\", \"codigoTiquete\": \"X-12\", \"tarifa\": 250, \"usado\": false, \"cliente\": \"Avianca\"},"
+                + " {\"codigoRuta\": \"4558\", \"fecha\": \"2024-12-24\", \"codigoTiquete\": \"12\", \"tarifa\": 300, \"usado\": false, \"cliente\": \"Ana\"}]}";
+        Files.write( archivoJson.toPath( ), contenido.getBytes( StandardCharsets.UTF_8 ) );
+
+        Aerolinea desdeJson = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        new PersistenciaTiquetesJson( ).cargarTiquetes( archivoJson.getPath( ), desdeJson );
+
+        File archivoBinario = new File( carpetaTemporal, "tiquetes.bin" );
+        new PersistenciaBinaria( ).salvarTiquetes( archivoBinario.getPath( ), desdeJson );
+        Aerolinea desdeBinario = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        new PersistenciaBinaria( ).cargarTiquetes( archivoBinario.getPath( ), desdeBinario );
+
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( desdeJson, desdeBinario );
+        assertTrue( archivoBinario.length( ) < archivoJson.length( ), "El archivo binario debería ser más pequeño que el archivo JSON" );
+    }
+
+    @Test
+    void testArchivoInvalido( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        assertThrows( InformacionInconsistenteException.class, ( ) -> new PersistenciaBinaria( ).cargarTiquetes( "./datos/tiquetes.json", aerolinea ),
+                "Un archivo JSON no es un archivo binario válido" );
+        assertEquals( 0, aerolinea.getClientes( ).size( ), "No se debería haber cargado ningún cliente" );
+    }
+
+    @Test
+    void testCentralPersistencia( ) throws Exception
+    {
+        assertTrue( CentralPersistencia.getPersistenciaAerolinea( CentralPersistencia.BINARY ) instanceof PersistenciaBinaria );
+        assertTrue( CentralPersistencia.getPersistenciaTiquetes( CentralPersistencia.BINARY ) instanceof PersistenciaBinaria );
+    }
+}
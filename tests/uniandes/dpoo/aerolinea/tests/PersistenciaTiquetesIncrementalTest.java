@@ -0,0 +1,154 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesIncremental;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+
+class PersistenciaTiquetesIncrementalTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    private File archivo;
+    private PersistenciaTiquetesIncremental persistencia;
+
+    @BeforeEach
+    void setUp( )
+    {
+        archivo = new File( carpetaTemporal, "tiquetes.json" );
+        persistencia = new PersistenciaTiquetesIncremental( );
+    }
+
+    private File delta( int numero )
+    {
+        return new File( archivo.getPath( ) + ".delta." + numero );
+    }
+
+    @Test
+    void testSalvarYCargar( ) throws Exception
+    {
+        PersistenciaTiquetesJsonTest.verificarSalvarYCargar( persistencia, archivo );
+        assertFalse( delta( 1 ).exists( ), "La primera salvada debe ser una salvada base" );
+    }
+
+    /**
+     * Después de la salvada base, cada salvada escribe sólo un delta con lo que cambió, y al cargar se aplican la salvada base y todos sus deltas
+     */
+    @Test
+    void testDeltas( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+        long tamanoBase = archivo.length( );
+
+        aerolinea.agregarCliente( new ClienteNatural( "Carla" ) );
+        aerolinea.venderTiquetes( "Carla", "2024-12-24", "4558", 2 );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+        assertTrue( delta( 1 ).exists( ), "La segunda salvada debe ser un delta" );
+        assertEquals( tamanoBase, archivo.length( ), "La salvada base no debe cambiar" );
+
+        aerolinea.usarTiquetes( "Bob", "2024-11-05", "4558" );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+        assertTrue( delta( 2 ).exists( ), "La tercera salvada debe ser otro delta" );
+        assertTrue( delta( 2 ).length( ) < delta( 1 ).length( ), "El segundo delta sólo tiene el tiquete usado" );
+
+        Aerolinea cargada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        CentralPersistencia.getPersistenciaTiquetes( CentralPersistencia.INCREMENTAL ).cargarTiquetes( archivo.getPath( ), cargada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, cargada );
+        assertEquals( aerolinea.getCliente( "Bob" ).getValorUsado( ), cargada.getCliente( "Bob" ).getValorUsado( ) );
+        assertEquals( aerolinea.getCliente( "Carla" ).getValorPendiente( ), cargada.getCliente( "Carla" ).getValorPendiente( ) );
+
+        // La aerolínea cargada sigue la misma cadena de deltas
+        cargada.venderTiquetes( "Alice", "2024-11-05", "4558", 1 );
+        persistencia.salvarTiquetes( archivo.getPath( ), cargada );
+        assertTrue( delta( 3 ).exists( ), "La aerolínea cargada debe salvar un delta" );
+    }
+
+    /**
+     * Una aerolínea que no se cargó de la salvada base escribe una salvada base nueva, y los deltas de la anterior ya no se usan
+     */
+    @Test
+    void testSalvadaBaseNueva( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+        aerolinea.venderTiquetes( "Alice", "2024-11-05", "4558", 1 );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+        assertTrue( delta( 1 ).exists( ) );
+
+        Aerolinea otra = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        new PersistenciaTiquetesJson( ).cargarTiquetes( "./datos/tiquetes.json", otra );
+        persistencia.salvarTiquetes( archivo.getPath( ), otra );
+        assertFalse( delta( 1 ).exists( ), "Los deltas de la salvada base anterior se deben borrar" );
+
+        Aerolinea cargada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        persistencia.cargarTiquetes( archivo.getPath( ), cargada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( otra, cargada );
+    }
+
+    /**
+     * Si una salvada falla, lo que se iba a salvar no se pierde: la siguiente salvada es una salvada base completa
+     */
+    @Test
+    void testSalvadaFallida( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+
+        // Una carpeta en el lugar del archivo temporal hace que la escritura falle
+        File temporalDelta = new File( delta( 1 ).getPath( ) + ".tmp" );
+        assertTrue( new File( temporalDelta, "bloqueo" ).mkdirs( ) );
+        aerolinea.agregarCliente( new ClienteNatural( "Carla" ) );
+        aerolinea.venderTiquetes( "Carla", "2024-12-24", "4558", 2 );
+        assertThrows( IOException.class, ( ) -> persistencia.salvarTiquetes( archivo.getPath( ), aerolinea ) );
+        assertEquals( 0, aerolinea.getGeneracionTiquetes( ), "La aerolínea ya no corresponde a la salvada base" );
+
+        File temporalBase = new File( archivo.getPath( ) + ".tmp" );
+        assertTrue( new File( temporalBase, "bloqueo" ).mkdirs( ) );
+        aerolinea.usarTiquetes( "Bob", "2024-11-05", "4558" );
+        assertThrows( IOException.class, ( ) -> persistencia.salvarTiquetes( archivo.getPath( ), aerolinea ) );
+        assertEquals( 0, aerolinea.getGeneracionTiquetes( ) );
+
+        new File( temporalBase, "bloqueo" ).delete( );
+        temporalBase.delete( );
+        persistencia.salvarTiquetes( archivo.getPath( ), aerolinea );
+        assertFalse( delta( 1 ).exists( ), "Después de una salvada fallida se escribe una salvada base" );
+
+        Aerolinea cargada = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        persistencia.cargarTiquetes( archivo.getPath( ), cargada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( aerolinea, cargada );
+        assertEquals( aerolinea.getCliente( "Bob" ).getValorUsado( ), cargada.getCliente( "Bob" ).getValorUsado( ) );
+        assertEquals( aerolinea.getCliente( "Carla" ).getValorPendiente( ), cargada.getCliente( "Carla" ).getValorPendiente( ) );
+    }
+
+    /**
+     * Un archivo de tiquetes JSON normal (sin generación) se puede cargar como salvada base
+     */
+    @Test
+    void testCargarJson( ) throws Exception
+    {
+        Aerolinea desdeJson = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        new PersistenciaTiquetesJson( ).cargarTiquetes( "./datos/tiquetes.json", desdeJson );
+        Aerolinea incremental = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        persistencia.cargarTiquetes( "./datos/tiquetes.json", incremental );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( desdeJson, incremental );
+        assertEquals( 0, incremental.getGeneracionTiquetes( ), "El archivo no es una salvada base incremental" );
+    }
+}
@@ -0,0 +1,210 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteException;
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.persistencia.IPersistenciaTiquetes;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesJson;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class PersistenciaTiquetesJsonTest
+{
+    private static final String ARCHIVO_TIQUETES = "./datos/tiquetes.json";
+
+    @TempDir
+    File carpetaTemporal;
+
+    private Aerolinea aerolinea;
+
+    /**
+     * Crea una aerolínea con la ruta, el avión y el vuelo a los que hacen referencia los archivos de tiquetes de la carpeta datos
+     */
+    static Aerolinea crearAerolineaDatos( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        Aeropuerto bog = AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 );
+        Aeropuerto mde = AerolineaTest.crearAeropuerto( "MDE", 6.164, -75.423 );
+        aerolinea.agregarRuta( new Ruta( bog, mde, "1000", "1130", "4558" ) );
+        aerolinea.agregarAvion( new Avion( "Boeing 737", 150 ) );
+        aerolinea.programarVuelo( "2024-11-05", "4558", "Boeing 737" );
+        aerolinea.programarVuelo( "2024-12-24", "4558", "Boeing 737" );
+        return aerolinea;
+    }
+
+    /**
+     * Carga los tiquetes de la carpeta datos, vende otros tiquetes y usa algunos, para tener un poco de todo dentro de la aerolínea
+     */
+    static void prepararTiquetes( Aerolinea aerolinea ) throws Exception
+    {
+        new PersistenciaTiquetesJson( ).cargarTiquetes( ARCHIVO_TIQUETES, aerolinea );
+        aerolinea.venderTiquetes( "Apple", "2024-11-05", "4558", 3 );
+        aerolinea.venderTiquetes( "Alice", "2024-12-24", "4558", 2 );
+        aerolinea.getVuelo( "4558", "2024-12-24" ).getTiquetes( ).iterator( ).next( ).marcarComoUsado( );
+    }
+
+    /**
+     * Salva los tiquetes de una aerolínea con un tipo de persistencia, los carga en otra aerolínea con el mismo tipo de persistencia y verifica que las dos
+     * aerolíneas queden con los mismos clientes y los mismos tiquetes
+     */
+    static void verificarSalvarYCargar( IPersistenciaTiquetes persistencia, File archivo ) throws Exception
+    {
+        Aerolinea original = crearAerolineaDatos( );
+        prepararTiquetes( original );
+        persistencia.salvarTiquetes( archivo.getPath( ), original );
+
+        Aerolinea cargada = crearAerolineaDatos( );
+        persistencia.cargarTiquetes( archivo.getPath( ), cargada );
+        assertMismosTiquetes( original, cargada );
+    }
+
+    /**
+     * Carga dos veces unos tiquetes sobre la misma aerolínea, la segunda vez desde un archivo en el que el tiquete tiene otro cliente (un cliente nuevo, para
+     * que el archivo no falle antes por tener un cliente repetido). Verifica que la segunda carga falle porque el tiquete ya existe, sin agregar tiquetes.
+     */
+    static void verificarCargarTiqueteExistente( IPersistenciaTiquetes persistencia, File carpeta, String extension ) throws Exception
+    {
+        Aerolinea original = crearAerolineaDatos( );
+        prepararTiquetes( original );
+        File archivo = new File( carpeta, "tiquetes" + extension );
+        persistencia.salvarTiquetes( archivo.getPath( ), original );
+
+        Aerolinea otra = crearAerolineaDatos( );
+        Cliente nuevo = new ClienteNatural( "Zoe" );
+        otra.agregarCliente( nuevo );
+        Vuelo vuelo = otra.getVuelo( "4558", "2024-11-05" );
+        Tiquete repetido = new Tiquete( original.getTiquetes( ).iterator( ).next( ).getCodigo( ), vuelo, nuevo, 100 );
+        nuevo.agregarTiquete( repetido );
+        vuelo.agregarTiquete( repetido );
+        File archivoRepetido = new File( carpeta, "repetido" + extension );
+        persistencia.salvarTiquetes( archivoRepetido.getPath( ), otra );
+
+        Aerolinea cargada = crearAerolineaDatos( );
+        persistencia.cargarTiquetes( archivo.getPath( ), cargada );
+        int tiquetes = cargada.getTiquetes( ).size( );
+        assertThrows( InformacionInconsistenteTiqueteException.class, ( ) -> persistencia.cargarTiquetes( archivoRepetido.getPath( ), cargada ),
+                "El archivo tiene un tiquete que ya existe en la aerolínea" );
+        assertEquals( tiquetes, cargada.getTiquetes( ).size( ), "No se debe haber agregado ningún tiquete" );
+    }
+
+    /**
+     * Verifica que dos aerolíneas tengan los mismos clientes y los mismos tiquetes
+     */
+    static void assertMismosTiquetes( Aerolinea esperada, Aerolinea obtenida )
+    {
+        assertEquals( describirClientes( esperada ), describirClientes( obtenida ), "Los clientes no son los mismos" );
+        assertEquals( describirTiquetes( esperada ), describirTiquetes( obtenida ), "Los tiquetes no son los mismos" );
+        for( Cliente cliente : esperada.getClientes( ) )
+        {
+            assertEquals( cliente.getValorPendiente( ), obtenida.getCliente( cliente.getIdentificador( ) ).getValorPendiente( ), "El saldo pendiente no es el mismo" );
+        }
+    }
+
+    private static Map<String, String> describirClientes( Aerolinea aerolinea )
+    {
+        Map<String, String> clientes = new TreeMap<String, String>( );
+        for( Cliente cliente : aerolinea.getClientes( ) )
+        {
+            String descripcion = cliente.getTipoCliente( );
+            if( cliente instanceof ClienteCorporativo )
+                descripcion += " " + ( ( ClienteCorporativo )cliente ).getTamanoEmpresa( );
+            clientes.put( cliente.getIdentificador( ), descripcion );
+        }
+        return clientes;
+    }
+
+    private static Map<String, String> describirTiquetes( Aerolinea aerolinea )
+    {
+        Map<String, String> tiquetes = new TreeMap<String, String>( );
+        for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+        {
+            tiquetes.put( tiquete.getCodigo( ), tiquete.getVuelo( ).getRuta( ).getCodigoRuta( ) + " " + tiquete.getVuelo( ).getFecha( ) + " " + tiquete.getTarifa( ) + " "
+                    + tiquete.esUsado( ) + " " + tiquete.getCliente( ).getIdentificador( ) );
+        }
+        return tiquetes;
+    }
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = crearAerolineaDatos( );
+    }
+
+    @Test
+    void testCargarTiquetes( ) throws Exception
+    {
+        int[] avance = new int[2];
+        new PersistenciaTiquetesJson( ).cargarTiquetes( ARCHIVO_TIQUETES, aerolinea, ( clientes, tiquetes ) -> {
+            avance[ 0 ] = clientes;
+            avance[ 1 ] = tiquetes;
+        } );
+
+        assertEquals( 4, aerolinea.getClientes( ).size( ), "La cantidad de clientes cargados no es correcta" );
+        assertEquals( 1, aerolinea.getTiquetes( ).size( ), "La cantidad de tiquetes cargados no es correcta" );
+        assertEquals( "450000", aerolinea.consultarSaldoPendienteCliente( "Bob" ), "El saldo del cliente no es correcto" );
+        assertEquals( 149, aerolinea.getVuelo( "4558", "2024-11-05" ).getCuposDisponibles( ), "El tiquete cargado debe ocupar un cupo" );
+        assertEquals( 4, avance[ 0 ], "El avance reportado no es correcto" );
+        assertEquals( 1, avance[ 1 ], "El avance reportado no es correcto" );
+    }
+
+    @Test
+    void testCargarTiqueteRepetido( ) throws Exception
+    {
+        File archivo = new File( carpetaTemporal, "repetidos.json" );
+        String tiquete = "{\"codigoRuta\": \"4558\", \"fecha\": \"2024-11-05\", \"codigoTiquete\": \"77\", \"tarifa\": 100, \"usado\": true, \"cliente\": \"Ana\"}";
+        String contenido = "{\"clientes\": [{\"tipoCliente\": \"Natural\", \"nombre\": \"Ana\"}], \"tiquetes\": [" + tiquete + ", " + tiquete + "]}";
+        Files.write( archivo.toPath( ), contenido.getBytes( StandardCharsets.UTF_8 ) );
+
+        assertThrows( InformacionInconsistenteTiqueteException.class, ( ) -> new PersistenciaTiquetesJson( ).cargarTiquetes( archivo.getPath( ), aerolinea ),
+                "Un archivo con códigos de tiquete repetidos es inconsistente" );
+    }
+
+    /**
+     * Si el vuelo de un tiquete ya no tiene cupo, la carga falla sin que el cliente quede con el tiquete
+     */
+    @Test
+    void testCargarTiqueteSinCupo( ) throws Exception
+    {
+        aerolinea.agregarCliente( new ClienteNatural( "Eva" ) );
+        aerolinea.venderTiquetes( "Eva", "2024-11-05", "4558", 150 );
+        File archivo = new File( carpetaTemporal, "sin_cupo.json" );
+        String contenido = "{\"clientes\": [{\"tipoCliente\": \"Natural\", \"nombre\": \"Ana\"}], \"tiquetes\": [{\"codigoRuta\": \"4558\", \"fecha\": \"2024-11-05\","
+                + " \"codigoTiquete\": \"77\", \"tarifa\": 100, \"usado\": false, \"cliente\": \"Ana\"}]}";
+        Files.write( archivo.toPath( ), contenido.getBytes( StandardCharsets.UTF_8 ) );
+
+        assertThrows( InformacionInconsistenteException.class, ( ) -> new PersistenciaTiquetesJson( ).cargarTiquetes( archivo.getPath( ), aerolinea ) );
+        assertEquals( 0, aerolinea.getCliente( "Ana" ).getValorPendiente( ), "El cliente no debe quedar con el tiquete que no se pudo agregar al vuelo" );
+    }
+
+    @Test
+    void testSalvarYCargar( ) throws Exception
+    {
+        verificarSalvarYCargar( new PersistenciaTiquetesJson( ), new File( carpetaTemporal, "tiquetes.json" ) );
+        verificarSalvarYCargar( new PersistenciaTiquetesJson( false ), new File( carpetaTemporal, "tiquetes_compacto.json" ) );
+    }
+
+    @Test
+    void testCargarTiqueteExistente( ) throws Exception
+    {
+        verificarCargarTiqueteExistente( new PersistenciaTiquetesJson( ), carpetaTemporal, ".json" );
+    }
+}
@@ -0,0 +1,118 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.exceptions.InformacionInconsistenteTiqueteException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.persistencia.CentralPersistencia;
+import uniandes.dpoo.aerolinea.persistencia.PersistenciaTiquetesParticionada;
+
+class PersistenciaTiquetesParticionadaTest
+{
+    private static final String[] RUTAS = { "4558", "1001", "1002", "1003", "1004", "1005" };
+
+    @TempDir
+    File carpetaTemporal;
+
+    /**
+     * Crea la aerolínea de los archivos de la carpeta datos con varias rutas más, para que los tiquetes queden repartidos entre varias particiones
+     */
+    private static Aerolinea crearAerolineaVariasRutas( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        Ruta ruta = aerolinea.getRuta( "4558" );
+        for( int i = 1; i < RUTAS.length; i++ )
+        {
+            aerolinea.agregarRuta( new Ruta( ruta.getOrigen( ), ruta.getDestino( ), "0800", "0930", RUTAS[ i ] ) );
+            aerolinea.agregarAvion( new Avion( "Avión " + i, 150 ) );
+            aerolinea.programarVuelo( "2024-11-05", RUTAS[ i ], "Avión " + i );
+        }
+        return aerolinea;
+    }
+
+    @Test
+    void testSalvarYCargar( ) throws Exception
+    {
+        PersistenciaTiquetesJsonTest.verificarSalvarYCargar( new PersistenciaTiquetesParticionada( 3, 2 ), new File( carpetaTemporal, "tiquetes.json" ) );
+    }
+
+    /**
+     * Los tiquetes de varias rutas quedan repartidos entre las particiones, y se cargan igual sin importar cuántos threads se usen
+     */
+    @Test
+    void testVariasParticiones( ) throws Exception
+    {
+        Aerolinea original = crearAerolineaVariasRutas( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( original );
+        for( String ruta : RUTAS )
+            original.venderTiquetes( "Bob", "2024-11-05", ruta, 2 );
+
+        File archivo = new File( carpetaTemporal, "tiquetes.json" );
+        new PersistenciaTiquetesParticionada( 4, 4 ).salvarTiquetes( archivo.getPath( ), original );
+        int conTiquetes = 0;
+        for( int i = 0; i < 4; i++ )
+        {
+            String particion = new String( Files.readAllBytes( new File( archivo.getPath( ) + ".parte." + i ).toPath( ) ), StandardCharsets.UTF_8 );
+            if( particion.contains( "codigoTiquete" ) )
+                conTiquetes++;
+        }
+        assertTrue( conTiquetes > 1, "Los tiquetes deben quedar repartidos en varias particiones" );
+
+        for( int paralelismo : new int[]{ 1, 4 } )
+        {
+            Aerolinea cargada = crearAerolineaVariasRutas( );
+            new PersistenciaTiquetesParticionada( 4, paralelismo ).cargarTiquetes( archivo.getPath( ), cargada );
+            PersistenciaTiquetesJsonTest.assertMismosTiquetes( original, cargada );
+            assertEquals( original.getVuelo( "1003", "2024-11-05" ).getCuposDisponibles( ), cargada.getVuelo( "1003", "2024-11-05" ).getCuposDisponibles( ) );
+        }
+    }
+
+    /**
+     * Si se salva con menos particiones que antes, las particiones que sobran se borran
+     */
+    @Test
+    void testParticionesSobrantes( ) throws Exception
+    {
+        Aerolinea original = crearAerolineaVariasRutas( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( original );
+        File archivo = new File( carpetaTemporal, "tiquetes.json" );
+        new PersistenciaTiquetesParticionada( 6, 2 ).salvarTiquetes( archivo.getPath( ), original );
+        new PersistenciaTiquetesParticionada( 2, 2 ).salvarTiquetes( archivo.getPath( ), original );
+
+        assertTrue( new File( archivo.getPath( ) + ".parte.1" ).exists( ) );
+        assertFalse( new File( archivo.getPath( ) + ".parte.2" ).exists( ), "Las particiones sobrantes se deben borrar" );
+
+        Aerolinea cargada = crearAerolineaVariasRutas( );
+        CentralPersistencia.getPersistenciaTiquetes( CentralPersistencia.PARTITIONED ).cargarTiquetes( archivo.getPath( ), cargada );
+        PersistenciaTiquetesJsonTest.assertMismosTiquetes( original, cargada );
+    }
+
+    /**
+     * Un error en una de las particiones se reporta con la misma excepción que en la carga desde un solo archivo
+     */
+    @Test
+    void testParticionInconsistente( ) throws Exception
+    {
+        File archivo = new File( carpetaTemporal, "tiquetes.json" );
+        Files.write( archivo.toPath( ), "{\"clientes\": [{\"tipoCliente\": \"Natural\", \"nombre\": \"Ana\"}], \"tiquetes\": []}".getBytes( StandardCharsets.UTF_8 ) );
+        Files.write( new File( archivo.getPath( ) + ".parte.0" ).toPath( ),
+                "{\"tiquetes\": [{\"codigoRuta\": \"4558\", \"fecha\": \"2024-11-05\", \"codigoTiquete\": \"1\", \"tarifa\": 100, \"usado\": false, \"cliente\": \"Pedro\"}]}"
+                        .getBytes( StandardCharsets.UTF_8 ) );
+
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        assertThrows( InformacionInconsistenteTiqueteException.class, ( ) -> new PersistenciaTiquetesParticionada( ).cargarTiquetes( archivo.getPath( ), aerolinea ),
+                "El cliente del tiquete no existe" );
+    }
+}
@@ -0,0 +1,150 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.modelo.red.Itinerario;
+import uniandes.dpoo.aerolinea.modelo.red.RedRutas;
+
+class RedRutasTest
+{
+    private static final LocalDateTime INICIO = LocalDateTime.of( 2024, 11, 5, 0, 0 );
+
+    private Aerolinea aerolinea;
+
+    /**
+     * Construye una red en la que el camino con menos escalas de A a C pasa por D, lejos de la línea del ecuador, mientras que el camino más corto sigue la línea
+     * del ecuador pasando por B y E:
+     *
+     * <pre>
+     * A -> D -> C              (AD 0700-1200, DC 1300-1800)
+     * A -> B -> E -> C         (AB 0800-0930, BE 1000-1130, EC 1300-1430)
+     * </pre>
+     *
+     * Todas las rutas tienen vuelos el 2024-11-05 y el 2024-11-06. El avión de la ruta DC sólo tiene dos sillas.
+     */
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = new Aerolinea( );
+        Aeropuerto a = new Aeropuerto( "Aeropuerto A", "A", "Ciudad A", 0, 0 );
+        Aeropuerto b = new Aeropuerto( "Aeropuerto B", "B", "Ciudad B", 0, 7 );
+        Aeropuerto e = new Aeropuerto( "Aeropuerto E", "E", "Ciudad E", 0, 14 );
+        Aeropuerto c = new Aeropuerto( "Aeropuerto C", "C", "Ciudad C", 0, 20 );
+        Aeropuerto d = new Aeropuerto( "Aeropuerto D", "D", "Ciudad D", 40, 10 );
+        agregarRuta( a, d, "0700", "1200", "AD", 150 );
+        agregarRuta( d, c, "13:00", "18:00", "DC", 2 );
+        agregarRuta( a, b, "0800", "0930", "AB", 150 );
+        agregarRuta( b, e, "1000", "1130", "BE", 150 );
+        agregarRuta( e, c, "1300", "1430", "EC", 150 );
+        aerolinea.agregarAeropuerto( new Aeropuerto( "Aeropuerto Z", "Z", "Ciudad Z", 5, 5 ) );
+    }
+
+    private void agregarRuta( Aeropuerto origen, Aeropuerto destino, String salida, String llegada, String codigo, int capacidad ) throws Exception
+    {
+        aerolinea.agregarRuta( new Ruta( origen, destino, salida, llegada, codigo ) );
+        aerolinea.agregarAvion( new Avion( "Avión " + codigo, capacidad ) );
+        aerolinea.programarVuelo( "2024-11-05", codigo, "Avión " + codigo );
+        aerolinea.programarVuelo( "2024-11-06", codigo, "Avión " + codigo );
+    }
+
+    private static List<String> codigos( Itinerario itinerario )
+    {
+        List<String> codigos = new ArrayList<String>( );
+        for( Ruta ruta : itinerario.getRutas( ) )
+            codigos.add( ruta.getCodigoRuta( ) );
+        return codigos;
+    }
+
+    @Test
+    void testConstruccion( )
+    {
+        RedRutas red = new RedRutas( aerolinea );
+        assertEquals( 6, red.getNumAeropuertos( ) );
+        assertEquals( 5, red.getNumRutas( ) );
+        assertEquals( 2, red.getRutasDesde( "A" ).size( ) );
+        assertEquals( 0, red.getRutasDesde( "Z" ).size( ) );
+    }
+
+    @Test
+    void testMenosEscalas( )
+    {
+        Itinerario itinerario = new RedRutas( aerolinea ).buscarMenosEscalas( "A", "C" );
+        assertEquals( "[AD, DC]", codigos( itinerario ).toString( ) );
+        assertEquals( 1, itinerario.getEscalas( ) );
+        assertEquals( "A", itinerario.getOrigen( ).getCodigo( ) );
+        assertEquals( "C", itinerario.getDestino( ).getCodigo( ) );
+    }
+
+    @Test
+    void testMenorDistancia( )
+    {
+        RedRutas red = new RedRutas( aerolinea );
+        Itinerario itinerario = red.buscarMenorDistancia( "A", "C" );
+        assertEquals( "[AB, BE, EC]", codigos( itinerario ).toString( ) );
+        assertEquals( Aeropuerto.calcularDistancia( aerolinea.getAeropuerto( "A" ), aerolinea.getAeropuerto( "B" ) )
+                + Aeropuerto.calcularDistancia( aerolinea.getAeropuerto( "B" ), aerolinea.getAeropuerto( "E" ) )
+                + Aeropuerto.calcularDistancia( aerolinea.getAeropuerto( "E" ), aerolinea.getAeropuerto( "C" ) ), itinerario.getDistanciaTotal( ) );
+        assertEquals( "[BE]", codigos( red.buscarMenorDistancia( "B", "E" ) ).toString( ) );
+    }
+
+    @Test
+    void testSinCamino( )
+    {
+        RedRutas red = new RedRutas( aerolinea );
+        assertNull( red.buscarMenosEscalas( "C", "A" ), "Ninguna ruta sale de C" );
+        assertNull( red.buscarMenorDistancia( "A", "Z" ) );
+        assertNull( red.buscarLlegadaMasTemprana( "A", "Z", INICIO ) );
+        assertNull( red.buscarMenorDistancia( "A", "NO" ), "El aeropuerto no existe" );
+        assertNull( red.buscarMenosEscalas( "A", "A" ) );
+    }
+
+    /**
+     * Con 45 minutos de conexión, el camino por el ecuador obliga a esperar un día en B, así que llega primero el camino por D
+     */
+    @Test
+    void testLlegadaMasTemprana( )
+    {
+        RedRutas red = new RedRutas( aerolinea );
+        Itinerario itinerario = red.buscarLlegadaMasTemprana( "A", "C", INICIO );
+        assertEquals( "[AD, DC]", codigos( itinerario ).toString( ) );
+        assertEquals( LocalDateTime.of( 2024, 11, 5, 18, 0 ), itinerario.getLlegada( ) );
+        assertEquals( "2024-11-05", itinerario.getVuelos( ).get( 1 ).getFecha( ) );
+
+        itinerario = red.buscarLlegadaMasTemprana( "A", "C", INICIO, 30 );
+        assertEquals( "[AB, BE, EC]", codigos( itinerario ).toString( ) );
+        assertEquals( LocalDateTime.of( 2024, 11, 5, 14, 30 ), itinerario.getLlegada( ) );
+
+        itinerario = red.buscarLlegadaMasTemprana( "A", "C", INICIO.plusHours( 7 ).plusMinutes( 1 ) );
+        assertEquals( LocalDateTime.of( 2024, 11, 6, 14, 30 ), itinerario.getLlegada( ), "Ya salió el vuelo de AD del primer día" );
+        assertNull( red.buscarLlegadaMasTemprana( "A", "C", LocalDateTime.of( 2024, 11, 7, 0, 0 ) ), "No hay vuelos después del 6" );
+    }
+
+    /**
+     * Los vuelos que no tienen cupos disponibles no se usan en los itinerarios
+     */
+    @Test
+    void testVueloLleno( ) throws Exception
+    {
+        RedRutas red = new RedRutas( aerolinea );
+        aerolinea.agregarCliente( new ClienteNatural( "Ana" ) );
+        aerolinea.venderTiquetes( "Ana", "2024-11-05", "DC", 2 );
+
+        Itinerario itinerario = red.buscarLlegadaMasTemprana( "A", "C", INICIO );
+        assertEquals( "[AB, BE, EC]", codigos( itinerario ).toString( ) );
+        assertEquals( LocalDateTime.of( 2024, 11, 6, 14, 30 ), itinerario.getLlegada( ) );
+        assertEquals( "2024-11-06", itinerario.getVuelos( ).get( 1 ).getFecha( ), "No hay conexión en B el primer día" );
+    }
+}
@@ -0,0 +1,61 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.exceptions.AeropuertoDuplicadoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.RegistroAeropuertos;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+
+class RegistroAeropuertosTest
+{
+    private RegistroAeropuertos registro;
+
+    @BeforeEach
+    void setUp( )
+    {
+        registro = new RegistroAeropuertos( );
+    }
+
+    @Test
+    void testRegistrarMismoAeropuerto( ) throws Exception
+    {
+        Aeropuerto bog = registro.registrarAeropuerto( "El Dorado", "BOG", "Bogotá", 4.701, -74.146 );
+        assertSame( bog, registro.registrarAeropuerto( "El Dorado", "BOG", "Bogotá", 4.701, -74.146 ), "No se debe crear otro aeropuerto con el mismo código" );
+        assertSame( bog, registro.registrarAeropuerto( new Aeropuerto( "El Dorado", "BOG", "Bogotá", 4.701, -74.146 ) ) );
+        assertSame( bog, registro.getAeropuerto( "BOG" ) );
+        assertEquals( 1, registro.getCantidadAeropuertos( ) );
+    }
+
+    @Test
+    void testCodigoDuplicado( ) throws Exception
+    {
+        registro.registrarAeropuerto( "El Dorado", "BOG", "Bogotá", 4.701, -74.146 );
+        assertThrows( AeropuertoDuplicadoException.class, ( ) -> registro.registrarAeropuerto( "Otro", "BOG", "Bogotá", 4.701, -74.146 ) );
+        assertThrows( AeropuertoDuplicadoException.class, ( ) -> registro.registrarAeropuerto( new Aeropuerto( "El Dorado", "BOG", "Bogotá", 4.7, -74.146 ) ) );
+        assertEquals( "El Dorado", registro.getAeropuerto( "BOG" ).getNombre( ) );
+    }
+
+    /**
+     * Las rutas que se agregan a la aerolínea con objetos distintos para el mismo aeropuerto quedan compartiendo el aeropuerto registrado
+     */
+    @Test
+    void testRutasCompartenAeropuertos( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        aerolinea.agregarRuta( new Ruta( new Aeropuerto( "El Dorado", "BOG", "Bogotá", 4.701, -74.146 ),
+                new Aeropuerto( "José María Córdova", "MDE", "Medellín", 6.164, -75.423 ), "1000", "1130", "4558" ) );
+        aerolinea.agregarRuta( new Ruta( new Aeropuerto( "José María Córdova", "MDE", "Medellín", 6.164, -75.423 ),
+                new Aeropuerto( "El Dorado", "BOG", "Bogotá", 4.701, -74.146 ), "1400", "1530", "4559" ) );
+
+        assertEquals( 2, aerolinea.getAeropuertos( ).size( ) );
+        assertSame( aerolinea.getRuta( "4558" ).getOrigen( ), aerolinea.getRuta( "4559" ).getDestino( ) );
+        assertSame( aerolinea.getAeropuerto( "MDE" ), aerolinea.getRuta( "4559" ).getOrigen( ) );
+    }
+}
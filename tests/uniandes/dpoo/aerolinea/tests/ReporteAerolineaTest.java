@@ -0,0 +1,90 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.reportes.ReporteAerolinea;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class ReporteAerolineaTest
+{
+    private Aerolinea aerolinea;
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        Ruta ruta = aerolinea.getRuta( "4558" );
+        aerolinea.agregarRuta( new Ruta( ruta.getDestino( ), ruta.getOrigen( ), "1400", "1530", "4559" ) );
+        aerolinea.agregarAvion( new Avion( "Airbus \"320\", neo", 4 ) );
+        aerolinea.programarVuelo( "2024-07-01", "4559", "Airbus \"320\", neo" );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        aerolinea.venderTiquetes( "Bob", "2024-07-01", "4559", 3 );
+    }
+
+    /**
+     * Los totales del reporte deben ser los mismos que se obtienen recorriendo los tiquetes de la aerolínea
+     */
+    @Test
+    void testTotales( )
+    {
+        ReporteAerolinea reporte = new ReporteAerolinea( aerolinea );
+        assertEquals( 2, reporte.getNumRutas( ) );
+        assertEquals( 2, reporte.getNumAviones( ) );
+        assertEquals( 3, reporte.getNumVuelos( ) );
+
+        long[] porRuta = new long[2];
+        long[] porAvion = new long[2];
+        long alta = 0;
+        long baja = 0;
+        for( Vuelo vuelo : aerolinea.getVuelos( ) )
+        {
+            long ingresos = 0;
+            for( Tiquete tiquete : vuelo.getTiquetes( ) )
+                ingresos += tiquete.getTarifa( );
+            assertEquals( ingresos, reporte.getIngresosVuelo( vuelo.getId( ) ) );
+            assertEquals( vuelo.getTiquetes( ).size( ), reporte.getTiquetesVuelo( vuelo.getId( ) ) );
+            assertEquals( ( double )vuelo.getTiquetes( ).size( ) / vuelo.getAvion( ).getCapacidad( ), reporte.getFactorOcupacionVuelo( vuelo.getId( ) ) );
+            porRuta[ vuelo.getRuta( ).getId( ) ] += ingresos;
+            porAvion[ vuelo.getAvion( ).getId( ) ] += ingresos;
+            if( aerolinea.getCalendario( ).esTemporadaAlta( vuelo.getFechaLocal( ) ) )
+                alta += ingresos;
+            else
+                baja += ingresos;
+        }
+        for( int i = 0; i < 2; i++ )
+        {
+            assertEquals( porRuta[ i ], reporte.getIngresosRuta( i ), "Los ingresos de la ruta no son correctos" );
+            assertEquals( porAvion[ i ], reporte.getIngresosAvion( i ), "Los ingresos del avión no son correctos" );
+        }
+        assertEquals( alta, reporte.getIngresosTemporada( true ), "Los ingresos de temporada alta no son correctos" );
+        assertEquals( baja, reporte.getIngresosTemporada( false ), "Los ingresos de temporada baja no son correctos" );
+        assertEquals( alta + baja, reporte.getIngresosTotales( ) );
+        assertEquals( 0.75, reporte.getFactorOcupacionAvion( 1 ) );
+    }
+
+    @Test
+    void testCsv( ) throws Exception
+    {
+        ReporteAerolinea reporte = new ReporteAerolinea( aerolinea );
+        StringWriter salida = new StringWriter( );
+        reporte.escribirCsv( salida );
+        String[] lineas = salida.toString( ).split( "\n" );
+
+        assertEquals( 1 + 2 + 2 + 2 + 3, lineas.length );
+        assertEquals( ReporteAerolinea.ENCABEZADO_CSV, lineas[ 0 ] );
+        assertEquals( "avion,\"Airbus \"\"320\"\", neo\",,3,4," + reporte.getIngresosAvion( 1 ) + ",0.75", lineas[ 4 ], "El nombre del avión se debe escapar" );
+        assertEquals( "temporada,alta,,", lineas[ 5 ].substring( 0, 16 ) );
+        Vuelo vuelo = aerolinea.getVuelo( "4558", "2024-12-24" );
+        assertEquals( "vuelo,4558,2024-12-24," + vuelo.getTiquetes( ).size( ) + ",150," + reporte.getIngresosVuelo( vuelo.getId( ) ) + ","
+                + reporte.getFactorOcupacionVuelo( vuelo.getId( ) ), lineas[ 7 + vuelo.getId( ) ] );
+    }
+}
@@ -0,0 +1,80 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifas;
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifasTemporadaAlta;
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifasTemporadaBaja;
+
+class RutaTest
+{
+    private Aeropuerto bog;
+    private Aeropuerto mde;
+    private Ruta ruta;
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        bog = AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 );
+        mde = AerolineaTest.crearAeropuerto( "MDE", 6.164, -75.423 );
+        ruta = new Ruta( bog, mde, "2330", "0115", "4558" );
+    }
+
+    @Test
+    void testGetDistancia( )
+    {
+        assertEquals( Aeropuerto.calcularDistancia( bog, mde ), ruta.getDistancia( ), "La distancia de la ruta no es correcta" );
+        assertEquals( ruta.getDistancia( ), ruta.getDistancia( ), "La distancia no debe cambiar entre llamados" );
+    }
+
+    @Test
+    void testGetDuracion( )
+    {
+        assertEquals( 105, ruta.getDuracion( ), "La duración de un vuelo que llega al día siguiente no es correcta" );
+    }
+
+    /**
+     * Las horas también pueden tener dos puntos, como en los archivos de la carpeta datos
+     */
+    @Test
+    void testHorasConDosPuntos( )
+    {
+        Ruta otra = new Ruta( bog, mde, "10:00", "11:30", "4559" );
+        assertEquals( 90, otra.getDuracion( ) );
+        assertEquals( 600, otra.getMinutoSalida( ) );
+        assertEquals( 23 * 60 + 30, ruta.getMinutoSalida( ) );
+    }
+
+    /**
+     * Las calculadoras guardan las tarifas: una calculadora que ya calculó tarifas debe dar los mismos valores que una calculadora nueva para cada categoría de
+     * cliente
+     */
+    @Test
+    void testTarifasGuardadas( )
+    {
+        Vuelo vuelo = new Vuelo( ruta, "2024-11-05", new Avion( "Boeing 737", 150 ) );
+        CalculadoraTarifas[] guardadas = new CalculadoraTarifas[]{ new CalculadoraTarifasTemporadaAlta( ), new CalculadoraTarifasTemporadaBaja( ) };
+        CalculadoraTarifas[] nuevas = new CalculadoraTarifas[]{ new CalculadoraTarifasTemporadaAlta( ), new CalculadoraTarifasTemporadaBaja( ) };
+
+        for( int i = 0; i < guardadas.length; i++ )
+        {
+            for( int tamano = ClienteCorporativo.GRANDE; tamano <= ClienteCorporativo.PEQUENA; tamano++ )
+            {
+                ClienteCorporativo empresa = new ClienteCorporativo( "Empresa " + tamano, tamano );
+                assertEquals( nuevas[ i ].calcularTarifa( vuelo, empresa ), guardadas[ i ].calcularTarifa( vuelo, empresa ), "La tarifa corporativa no es correcta" );
+                assertEquals( nuevas[ i ].calcularTarifa( vuelo, empresa ), guardadas[ i ].calcularTarifa( vuelo, empresa ), "La tarifa guardada no es correcta" );
+            }
+            ClienteNatural persona = new ClienteNatural( "Alice" );
+            assertEquals( nuevas[ i ].calcularTarifa( vuelo, persona ), guardadas[ i ].calcularTarifa( vuelo, persona ), "La tarifa natural no es correcta" );
+        }
+    }
+}
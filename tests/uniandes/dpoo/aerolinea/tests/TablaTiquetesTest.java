@@ -0,0 +1,178 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.TablaTiquetes;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteCorporativo;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.tiquetes.AlmacenTiquetesMapeado;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class TablaTiquetesTest
+{
+    @TempDir
+    File carpetaTemporal;
+
+    /**
+     * Verifica que los totales de la tabla de tiquetes sean los mismos que se obtienen recorriendo los tiquetes de la aerolínea
+     */
+    static void assertTotalesCorrectos( Aerolinea aerolinea )
+    {
+        long[] porRuta = new long[aerolinea.getRutas( ).size( )];
+        Map<YearMonth, Long> porMes = new TreeMap<YearMonth, Long>( );
+        Map<String, Long> porTipo = new HashMap<String, Long>( );
+        long pendiente = 0;
+        long usado = 0;
+        int cantidad = 0;
+        for( Tiquete tiquete : aerolinea.getTiquetes( ) )
+        {
+            Vuelo vuelo = tiquete.getVuelo( );
+            porRuta[ vuelo.getRuta( ).getId( ) ] += tiquete.getTarifa( );
+            porMes.merge( YearMonth.from( vuelo.getFechaLocal( ) ), ( long )tiquete.getTarifa( ), Long::sum );
+            porTipo.merge( tiquete.getCliente( ).getTipoCliente( ), ( long )tiquete.getTarifa( ), Long::sum );
+            if( tiquete.esUsado( ) )
+                usado += tiquete.getTarifa( );
+            else
+                pendiente += tiquete.getTarifa( );
+            cantidad++;
+        }
+
+        TablaTiquetes tabla = aerolinea.getTablaTiquetes( );
+        assertEquals( cantidad, tabla.getCantidadTiquetes( ), "La cantidad de tiquetes de la tabla no es correcta" );
+        assertArrayEquals( porRuta, tabla.calcularIngresosPorRuta( ), "Los ingresos por ruta no son correctos" );
+        assertEquals( porMes, tabla.calcularIngresosPorMes( ), "Los ingresos por mes no son correctos" );
+        assertEquals( porTipo, tabla.calcularIngresosPorTipoCliente( ), "Los ingresos por tipo de cliente no son correctos" );
+        assertEquals( pendiente, tabla.calcularValorPendiente( ), "El valor pendiente no es correcto" );
+        assertEquals( usado, tabla.calcularValorUsado( ), "El valor usado no es correcto" );
+    }
+
+    /**
+     * La tabla se mantiene al vender, cargar, usar y cancelar tiquetes y al realizar vuelos
+     */
+    @Test
+    void testMantenerTabla( ) throws Exception
+    {
+        Aerolinea aerolinea = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( aerolinea );
+        assertTotalesCorrectos( aerolinea );
+
+        aerolinea.usarTiquetes( "Apple", "2024-11-05", "4558" );
+        assertTotalesCorrectos( aerolinea );
+
+        Tiquete cancelado = aerolinea.getVuelo( "4558", "2024-12-24" ).getTiquetes( ).stream( ).filter( t -> !t.esUsado( ) ).findFirst( ).get( );
+        aerolinea.cancelarTiquete( "2024-12-24", "4558", cancelado.getCodigo( ) );
+        assertEquals( -1, cancelado.getFila( ) );
+        assertTotalesCorrectos( aerolinea );
+
+        aerolinea.registrarVueloRealizado( "2024-12-24", "4558" );
+        assertTotalesCorrectos( aerolinea );
+        long ingresosVuelo = aerolinea.getVuelo( "4558", "2024-12-24" ).getTiquetes( ).stream( ).mapToLong( Tiquete::getTarifa ).sum( );
+        assertEquals( ingresosVuelo, aerolinea.getTablaTiquetes( ).calcularIngresosPorMes( ).get( YearMonth.of( 2024, 12 ) ), "El vuelo es el único de diciembre" );
+    }
+
+    /**
+     * Los tiquetes archivados entran a la tabla cuando se abre el almacén, y se marcan como usados en la tabla cuando se usan en el archivo
+     */
+    @Test
+    void testTiquetesArchivados( ) throws Exception
+    {
+        Aerolinea original = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        PersistenciaTiquetesJsonTest.prepararTiquetes( original );
+        File archivo = new File( carpetaTemporal, "tiquetes.map" );
+        AlmacenTiquetesMapeado.escribir( archivo.getPath( ), original );
+
+        Aerolinea abierta = PersistenciaTiquetesJsonTest.crearAerolineaDatos( );
+        AlmacenTiquetesMapeado.abrir( archivo.getPath( ), abierta );
+        assertTotalesCorrectos( abierta );
+
+        abierta.usarTiquetes( "Bob", "2024-11-05", "4558" );
+        abierta.venderTiquetes( "Bob", "2024-11-05", "4558", 2 );
+        assertTotalesCorrectos( abierta );
+        abierta.registrarVueloRealizado( "2024-11-05", "4558" );
+        assertTotalesCorrectos( abierta );
+    }
+
+    /**
+     * Con suficientes tiquetes los totales se reparten en varias tareas
+     */
+    @Test
+    void testMuchosTiquetes( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        aerolinea.agregarRuta( new Ruta( AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 ), AerolineaTest.crearAeropuerto( "MIA", 25.795, -80.287 ), "0800",
+                "1200", "900" ) );
+        aerolinea.agregarRuta( new Ruta( AerolineaTest.crearAeropuerto( "CLO", 3.543, -76.381 ), AerolineaTest.crearAeropuerto( "CTG", 10.442, -75.513 ), "0700",
+                "0830", "901" ) );
+        aerolinea.agregarAvion( new Avion( "Grande", 40000 ) );
+        aerolinea.agregarAvion( new Avion( "Mediano", 40000 ) );
+        aerolinea.programarVuelo( "2024-03-10", "900", "Grande" );
+        aerolinea.programarVuelo( "2024-08-20", "901", "Mediano" );
+        aerolinea.agregarCliente( new ClienteNatural( "Ana" ) );
+        aerolinea.agregarCliente( new ClienteCorporativo( "Acme", ClienteCorporativo.GRANDE ) );
+
+        for( int venta = 0; venta < 70; venta++ )
+        {
+            aerolinea.venderTiquetes( venta % 3 == 0 ? "Acme" : "Ana", "2024-03-10", "900", 500 );
+            aerolinea.venderTiquetes( venta % 2 == 0 ? "Acme" : "Ana", "2024-08-20", "901", 500 );
+        }
+        aerolinea.usarTiquetes( "Ana", "2024-08-20", "901" );
+        assertEquals( 70000, aerolinea.getTablaTiquetes( ).getCantidadTiquetes( ) );
+        assertTotalesCorrectos( aerolinea );
+    }
+
+    /**
+     * Las ventas desde varios threads reciben filas distintas, aunque caigan en varios bloques de la tabla
+     */
+    @Test
+    void testVentasConcurrentes( ) throws Exception
+    {
+        Aerolinea aerolinea = new Aerolinea( );
+        aerolinea.agregarRuta( new Ruta( AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 ), AerolineaTest.crearAeropuerto( "MIA", 25.795, -80.287 ), "0800",
+                "1200", "900" ) );
+        aerolinea.agregarAvion( new Avion( "Grande", 40000 ) );
+        aerolinea.programarVuelo( "2024-03-10", "900", "Grande" );
+        aerolinea.programarVuelo( "2024-08-20", "900", "Grande" );
+        aerolinea.agregarCliente( new ClienteNatural( "Ana" ) );
+        aerolinea.agregarCliente( new ClienteCorporativo( "Acme", ClienteCorporativo.GRANDE ) );
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<Integer>> ventas = new ArrayList<Future<Integer>>( );
+            for( int venta = 0; venta < 400; venta++ )
+            {
+                String cliente = venta % 2 == 0 ? "Acme" : "Ana";
+                String fecha = venta % 3 == 0 ? "2024-03-10" : "2024-08-20";
+                ventas.add( ejecutor.submit( ( ) -> aerolinea.venderTiquetes( cliente, fecha, "900", 100 ) ) );
+            }
+            for( Future<Integer> venta : ventas )
+                venta.get( );
+        }
+        finally
+        {
+            ejecutor.shutdown( );
+        }
+        aerolinea.usarTiquetes( "Ana", "2024-08-20", "900" );
+        assertEquals( 40000, aerolinea.getTablaTiquetes( ).getCantidadTiquetes( ) );
+        assertTotalesCorrectos( aerolinea );
+    }
+}
@@ -0,0 +1,272 @@
+package uniandes.dpoo.aerolinea.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uniandes.dpoo.aerolinea.exceptions.VueloSobrevendidoException;
+import uniandes.dpoo.aerolinea.modelo.Aerolinea;
+import uniandes.dpoo.aerolinea.modelo.Aeropuerto;
+import uniandes.dpoo.aerolinea.modelo.Avion;
+import uniandes.dpoo.aerolinea.modelo.Ruta;
+import uniandes.dpoo.aerolinea.modelo.Vuelo;
+import uniandes.dpoo.aerolinea.modelo.cliente.Cliente;
+import uniandes.dpoo.aerolinea.modelo.cliente.ClienteNatural;
+import uniandes.dpoo.aerolinea.modelo.tarifas.CalculadoraTarifasTemporadaBaja;
+import uniandes.dpoo.aerolinea.tiquetes.Tiquete;
+
+class VueloTest
+{
+    private static final int CAPACIDAD = 2000;
+    private static final int NUM_THREADS = 64;
+    private static final int NUM_CLIENTES = 8;
+
+    private Aerolinea aerolinea;
+    private Vuelo vuelo;
+
+    @BeforeEach
+    void setUp( ) throws Exception
+    {
+        aerolinea = new Aerolinea( );
+        Aeropuerto bog = AerolineaTest.crearAeropuerto( "BOG", 4.701, -74.146 );
+        Aeropuerto mde = AerolineaTest.crearAeropuerto( "MDE", 6.164, -75.423 );
+        aerolinea.agregarRuta( new Ruta( bog, mde, "1000", "1130", "4558" ) );
+        aerolinea.agregarAvion( new Avion( "Jumbo", CAPACIDAD ) );
+        aerolinea.programarVuelo( "2024-11-05", "4558", "Jumbo" );
+        vuelo = aerolinea.getVuelo( "4558", "2024-11-05" );
+
+        for( int i = 0; i < NUM_CLIENTES; i++ )
+        {
+            aerolinea.agregarCliente( new ClienteNatural( "Cliente " + i ) );
+        }
+    }
+
+    @AfterEach
+    void tearDown( )
+    {
+        aerolinea = null;
+        vuelo = null;
+    }
+
+    @Test
+    void testSobreventa( ) throws Exception
+    {
+        aerolinea.venderTiquetes( "Cliente 0", "2024-11-05", "4558", CAPACIDAD - 1 );
+        assertEquals( 1, vuelo.getCuposDisponibles( ), "La cantidad de cupos disponibles no es correcta" );
+        assertThrows( VueloSobrevendidoException.class, ( ) -> aerolinea.venderTiquetes( "Cliente 1", "2024-11-05", "4558", 2 ), "El vuelo no tiene dos cupos" );
+        assertEquals( 1, vuelo.getCuposDisponibles( ), "Una venta fallida no debe ocupar cupos" );
+        assertEquals( CAPACIDAD - 1, vuelo.getTiquetes( ).size( ), "Una venta fallida no debe emitir tiquetes" );
+    }
+
+    /**
+     * Una venta de cero tiquetes o de una cantidad negativa se rechaza sin cambiar los cupos
+     */
+    @Test
+    void testCantidadInvalida( ) throws Exception
+    {
+        assertThrows( IllegalArgumentException.class, ( ) -> aerolinea.venderTiquetes( "Cliente 0", "2024-11-05", "4558", 0 ) );
+        assertThrows( IllegalArgumentException.class, ( ) -> aerolinea.venderTiquetes( "Cliente 0", "2024-11-05", "4558", -5 ) );
+        assertEquals( CAPACIDAD, vuelo.getCuposDisponibles( ), "Una venta rechazada no debe cambiar los cupos" );
+        assertEquals( 0, vuelo.getTiquetes( ).size( ) );
+        assertEquals( 0, aerolinea.getCliente( "Cliente 0" ).getValorPendiente( ) );
+    }
+
+    /**
+     * Los tiquetes de una venta quedan en sillas contiguas, y al cancelar un tiquete se liberan su silla y su cupo
+     */
+    @Test
+    void testSillasYCancelacion( ) throws Exception
+    {
+        List<Tiquete> primeros = vuelo.emitirTiquetes( aerolinea.getCliente( "Cliente 0" ), new CalculadoraTarifasTemporadaBaja( ), 3 );
+        List<Tiquete> segundos = vuelo.emitirTiquetes( aerolinea.getCliente( "Cliente 1" ), new CalculadoraTarifasTemporadaBaja( ), 2 );
+        for( int i = 0; i < 3; i++ )
+            assertEquals( i, primeros.get( i ).getSilla( ) );
+        assertEquals( 3, segundos.get( 0 ).getSilla( ) );
+        assertEquals( 4, segundos.get( 1 ).getSilla( ) );
+
+        Cliente cliente = aerolinea.getCliente( "Cliente 0" );
+        long pendiente = cliente.getValorPendiente( );
+        Tiquete cancelado = primeros.get( 1 );
+        aerolinea.cancelarTiquete( "2024-11-05", "4558", cancelado.getCodigo( ) );
+        assertEquals( -1, cancelado.getSilla( ) );
+        assertFalse( vuelo.getMapaSillas( ).estaOcupada( 1 ), "La silla del tiquete cancelado debe quedar libre" );
+        assertEquals( CAPACIDAD - 4, vuelo.getCuposDisponibles( ) );
+        assertEquals( 4, vuelo.getTiquetes( ).size( ) );
+        assertEquals( pendiente - cancelado.getTarifa( ), cliente.getValorPendiente( ) );
+        assertThrows( Exception.class, ( ) -> aerolinea.cancelarTiquete( "2024-11-05", "4558", cancelado.getCodigo( ) ), "El tiquete ya no existe" );
+
+        // El hueco de una silla no sirve para dos tiquetes juntos, pero sí para uno
+        assertEquals( 5, vuelo.emitirTiquetes( cliente, new CalculadoraTarifasTemporadaBaja( ), 2 ).get( 0 ).getSilla( ) );
+        assertEquals( 1, vuelo.emitirTiquetes( cliente, new CalculadoraTarifasTemporadaBaja( ), 1 ).get( 0 ).getSilla( ) );
+
+        primeros.get( 0 ).marcarComoUsado( );
+        assertThrows( Exception.class, ( ) -> aerolinea.cancelarTiquete( "2024-11-05", "4558", primeros.get( 0 ).getCodigo( ) ), "El tiquete ya se usó" );
+    }
+
+    /**
+     * Al realizar un vuelo se usan todos sus tiquetes y se actualizan los saldos de sus clientes, sin tocar los tiquetes de otros vuelos
+     */
+    @Test
+    void testRegistrarVueloRealizado( ) throws Exception
+    {
+        aerolinea.programarVuelo( "2024-11-06", "4558", "Jumbo" );
+        Vuelo otroVuelo = aerolinea.getVuelo( "4558", "2024-11-06" );
+        for( int i = 0; i < NUM_CLIENTES; i++ )
+        {
+            aerolinea.venderTiquetes( "Cliente " + i, "2024-11-05", "4558", 50 );
+            aerolinea.venderTiquetes( "Cliente " + i, "2024-11-06", "4558", 1 );
+        }
+        int tarifaOtroVuelo = otroVuelo.getTiquetes( ).iterator( ).next( ).getTarifa( );
+
+        assertEquals( 50 * NUM_CLIENTES, aerolinea.registrarVueloRealizado( "2024-11-05", "4558" ) );
+        assertTrue( vuelo.estaRealizado( ) );
+        assertEquals( 50 * NUM_CLIENTES, vuelo.getTiquetes( ).size( ) );
+        for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            assertTrue( tiquete.esUsado( ) );
+        for( Tiquete tiquete : otroVuelo.getTiquetes( ) )
+            assertFalse( tiquete.esUsado( ), "Los tiquetes de otros vuelos no se deben usar" );
+        for( Cliente cliente : aerolinea.getClientes( ) )
+            assertEquals( tarifaOtroVuelo, cliente.getValorPendiente( ), "Sólo debe quedar pendiente el tiquete del otro vuelo" );
+
+        assertEquals( 0, vuelo.getCuposDisponibles( ) );
+        assertThrows( VueloSobrevendidoException.class, ( ) -> aerolinea.venderTiquetes( "Cliente 0", "2024-11-05", "4558", 1 ), "El vuelo ya se realizó" );
+        assertEquals( 0, aerolinea.registrarVueloRealizado( "2024-11-05", "4558" ), "El vuelo ya se había realizado" );
+        assertFalse( otroVuelo.estaRealizado( ) );
+    }
+
+    @Test
+    void testHashCode( ) throws Exception
+    {
+        Vuelo igual = new Vuelo( vuelo.getRuta( ), vuelo.getFecha( ), vuelo.getAvion( ) );
+        assertEquals( vuelo, igual );
+        assertEquals( vuelo.hashCode( ), igual.hashCode( ) );
+        assertTrue( new HashSet<Vuelo>( Arrays.asList( vuelo, igual ) ).size( ) == 1 );
+    }
+
+    /**
+     * Muchos threads venden tiquetes del mismo vuelo hasta que se llena: nunca se debe vender más de la capacidad del avión y todos los tiquetes deben quedar
+     * registrados en el vuelo y en sus clientes.
+     */
+    @Test
+    void testVentaConcurrente( ) throws Exception
+    {
+        ExecutorService pool = Executors.newFixedThreadPool( NUM_THREADS );
+        CountDownLatch salida = new CountDownLatch( 1 );
+        List<Future<Integer>> resultados = new ArrayList<Future<Integer>>( );
+
+        for( int t = 0; t < NUM_THREADS; t++ )
+        {
+            final String cliente = "Cliente " + ( t % NUM_CLIENTES );
+            final int cantidad = 1 + t % 3;
+            resultados.add( pool.submit( ( ) -> {
+                salida.await( );
+                int vendidos = 0;
+                boolean lleno = false;
+                while( !lleno )
+                {
+                    try
+                    {
+                        aerolinea.venderTiquetes( cliente, "2024-11-05", "4558", cantidad );
+                        vendidos += cantidad;
+                    }
+                    catch( VueloSobrevendidoException e )
+                    {
+                        lleno = vuelo.getCuposDisponibles( ) < cantidad;
+                    }
+                }
+                return vendidos;
+            } ) );
+        }
+
+        salida.countDown( );
+        int totalVendidos = 0;
+        for( Future<Integer> resultado : resultados )
+        {
+            totalVendidos += resultado.get( );
+        }
+        pool.shutdown( );
+        assertTrue( pool.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+        assertEquals( CAPACIDAD, totalVendidos, "Se vendieron más (o menos) tiquetes que la capacidad del avión" );
+        assertEquals( 0, vuelo.getCuposDisponibles( ), "El vuelo debería haber quedado lleno" );
+        assertEquals( CAPACIDAD, vuelo.getTiquetes( ).size( ), "Faltan tiquetes en el vuelo" );
+
+        Set<String> codigos = new HashSet<String>( );
+        Set<Integer> sillas = new HashSet<Integer>( );
+        for( Tiquete tiquete : vuelo.getTiquetes( ) )
+        {
+            assertTrue( codigos.add( tiquete.getCodigo( ) ), "Hay códigos de tiquete repetidos" );
+            assertTrue( sillas.add( tiquete.getSilla( ) ), "Hay dos tiquetes en la misma silla" );
+        }
+        assertEquals( 0, vuelo.getMapaSillas( ).getSillasLibres( ), "Todas las sillas deben estar ocupadas" );
+
+        int tiquetesClientes = 0;
+        long valorPendiente = 0;
+        for( Cliente cliente : aerolinea.getClientes( ) )
+        {
+            tiquetesClientes += cliente.calcularValorTotalTiquetes( ) / vuelo.getTiquetes( ).iterator( ).next( ).getTarifa( );
+            valorPendiente += cliente.getValorPendiente( );
+        }
+        assertEquals( CAPACIDAD, tiquetesClientes, "Faltan tiquetes en los clientes" );
+        assertEquals( ( long )CAPACIDAD * vuelo.getTiquetes( ).iterator( ).next( ).getTarifa( ), valorPendiente, "El saldo pendiente de los clientes no es correcto" );
+    }
+
+    /**
+     * Si el vuelo se realiza mientras otros threads venden tiquetes, los tiquetes de las ventas que ya habían reservado sus cupos también quedan usados
+     */
+    @Test
+    void testRealizarMientrasSeVende( ) throws Exception
+    {
+        ExecutorService pool = Executors.newFixedThreadPool( NUM_THREADS );
+        CountDownLatch salida = new CountDownLatch( 1 );
+        List<Future<?>> resultados = new ArrayList<Future<?>>( );
+        for( int t = 0; t < NUM_THREADS; t++ )
+        {
+            final String cliente = "Cliente " + ( t % NUM_CLIENTES );
+            resultados.add( pool.submit( ( ) -> {
+                salida.await( );
+                try
+                {
+                    while( true )
+                        aerolinea.venderTiquetes( cliente, "2024-11-05", "4558", 1 );
+                }
+                catch( VueloSobrevendidoException e )
+                {
+                    // El vuelo se llenó o ya se realizó
+                }
+                return null;
+            } ) );
+        }
+
+        salida.countDown( );
+        while( vuelo.getTiquetes( ).size( ) < CAPACIDAD / 4 )
+            Thread.yield( );
+        aerolinea.registrarVueloRealizado( "2024-11-05", "4558" );
+        for( Future<?> resultado : resultados )
+            resultado.get( );
+        pool.shutdown( );
+        assertTrue( pool.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+        for( Tiquete tiquete : vuelo.getTiquetes( ) )
+            assertTrue( tiquete.esUsado( ), "Ningún tiquete del vuelo realizado puede quedar sin usar" );
+        for( Cliente cliente : aerolinea.getClientes( ) )
+            assertEquals( 0, cliente.getValorPendiente( ), "Ningún cliente puede quedar con saldo pendiente" );
+        assertEquals( 0, aerolinea.getAgregados( ).getContadoresVuelo( vuelo.getId( ) ).getValorPendiente( ) );
+    }
+}